@@ -0,0 +1,75 @@
+package ru.brynkin.flightbooking.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.brynkin.flightbooking.config.DatabaseConfig;
+import ru.brynkin.flightbooking.dao.AirportDao;
+import ru.brynkin.flightbooking.dao.impl.AirportDaoImpl;
+import ru.brynkin.flightbooking.dao.impl.CachedAirportDaoImpl;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * End-to-end {@link AirportDao} calls against the PostgreSQL configured in
+ * {@code application.properties}, next to the same lookups served by
+ * {@link CachedAirportDaoImpl}.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AirportDaoBenchmark {
+
+  private AirportDao airportDao;
+  private AirportDao cachedAirportDao;
+
+  @Setup(Level.Trial)
+  public void setUp() throws DaoException {
+    airportDao = AirportDaoImpl.getInstance();
+    cachedAirportDao = CachedAirportDaoImpl.getInstance();
+    if (airportDao.findByIataCode("SVO").isEmpty()) {
+      throw new IllegalStateException("AirportDaoBenchmark needs the seed airports");
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    DatabaseConfig.closeDataSource();
+  }
+
+  @Benchmark
+  public Optional<Airport> findByIataCode() throws DaoException {
+    return airportDao.findByIataCode("SVO");
+  }
+
+  @Benchmark
+  public List<Airport> findByCountry() throws DaoException {
+    return airportDao.findByCountry("Russia");
+  }
+
+  @Benchmark
+  public Optional<Airport> cachedFindByIataCode() throws DaoException {
+    return cachedAirportDao.findByIataCode("SVO");
+  }
+
+  @Benchmark
+  public List<Airport> cachedFindByCountry() throws DaoException {
+    return cachedAirportDao.findByCountry("Russia");
+  }
+}
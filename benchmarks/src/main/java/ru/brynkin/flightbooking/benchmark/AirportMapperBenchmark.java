@@ -0,0 +1,52 @@
+package ru.brynkin.flightbooking.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.brynkin.flightbooking.dto.AirportDto;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.mapper.AirportMapper;
+import ru.brynkin.flightbooking.mapper.impl.AirportMapperImpl;
+
+/**
+ * Converts one airport between entity and DTO with {@link AirportMapperImpl}.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AirportMapperBenchmark {
+
+  private AirportMapper mapper;
+  private Airport airport;
+  private AirportDto dto;
+
+  @Setup
+  public void setUp() {
+    mapper = AirportMapperImpl.getInstance();
+    airport = new Airport(1, "Sheremetyevo International", "Moscow", "Russia",
+        "SVO", "UUEE", "Europe/Moscow");
+    dto = mapper.toDto(airport);
+  }
+
+  @Benchmark
+  public AirportDto toDto() {
+    return mapper.toDto(airport);
+  }
+
+  @Benchmark
+  public Airport toEntity() {
+    return mapper.toEntity(dto);
+  }
+}
@@ -0,0 +1,51 @@
+package ru.brynkin.flightbooking.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import ru.brynkin.flightbooking.enums.PassengerType;
+import ru.brynkin.flightbooking.pricing.FareQuoteEngine;
+import ru.brynkin.flightbooking.pricing.FareRules;
+import ru.brynkin.flightbooking.pricing.PassengerMix;
+
+/**
+ * Baseline fare quoting written directly in {@link BigDecimal}, reading {@link FareRules} as
+ * they are for every flight. Computes the same totals as {@link FareQuoteEngine}.
+ */
+
+final class BigDecimalFareQuotes {
+
+  private final FareRules rules;
+
+  BigDecimalFareQuotes(FareRules rules) {
+    this.rules = rules;
+  }
+
+  BigDecimal quote(BigDecimal basePrice, int capacity, int seatsBooked,
+                   PassengerMix passengers) {
+    BigDecimal multiplier = rules.getLoadFactorMultipliers()
+        .floorEntry(loadFactor(capacity, seatsBooked)).getValue();
+    BigDecimal total = BigDecimal.ZERO;
+    for (PassengerType type : PassengerType.values()) {
+      int count = passengers.count(type);
+      if (count == 0) {
+        continue;
+      }
+      BigDecimal fare = basePrice.multiply(rules.getPassengerShares().get(type))
+          .multiply(multiplier)
+          .setScale(2, RoundingMode.HALF_UP);
+      BigDecimal tax = fare.multiply(rules.getTaxRate()).setScale(2, RoundingMode.HALF_UP);
+      Map<PassengerType, BigDecimal> fees = rules.getPassengerFees();
+      total = total.add(fare.add(tax).add(fees.get(type)).multiply(BigDecimal.valueOf(count)));
+    }
+    return total;
+  }
+
+  private static BigDecimal loadFactor(int capacity, int seatsBooked) {
+    if (capacity <= 0 || seatsBooked <= 0) {
+      return BigDecimal.ZERO;
+    }
+    return BigDecimal.valueOf(Math.min(seatsBooked, capacity))
+        .divide(BigDecimal.valueOf(capacity), 4, RoundingMode.DOWN);
+  }
+}
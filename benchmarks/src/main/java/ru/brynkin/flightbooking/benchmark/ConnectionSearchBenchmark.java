@@ -0,0 +1,309 @@
+package ru.brynkin.flightbooking.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.brynkin.flightbooking.dao.FlightDao;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.search.ConnectionSearchOptions;
+import ru.brynkin.flightbooking.search.FlightNetwork;
+import ru.brynkin.flightbooking.search.Itinerary;
+
+/**
+ * Connection search over a {@link SyntheticFlightNetwork} of 100k flights between regional
+ * airports, with a 45 minute minimum connection and a 12 hour maximum layover.
+ *
+ * <ul>
+ *   <li>{@code flightNetwork} - {@link FlightNetwork#findConnections};</li>
+ *   <li>{@code repeatedFindByCriteria} - the same search done leg by leg through
+ *   {@link FlightDao#findByCriteria} (departures from an airport on a day), depth-first, with
+ *   a Pareto filter at the end. The DAO is in memory, so this measures only the enumeration;
+ *   against PostgreSQL every call adds a round trip. The average number of calls per search
+ *   is printed during setup;</li>
+ *   <li>{@code buildNetwork} - building the network from the flights.</li>
+ * </ul>
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ConnectionSearchBenchmark {
+
+  private static final int FLIGHTS = 100_000;
+  private static final int QUERIES = 256;
+  private static final int CALL_COUNT_QUERIES = 32;
+  private static final LocalDate SEARCH_DAY = SyntheticFlightNetwork.FIRST_DAY.plusDays(3);
+
+  @Param({"2", "3"})
+  private int maxLegs;
+
+  private List<Flight> flights;
+  private FlightNetwork network;
+  private FlightDao flightDao;
+  private ConnectionSearchOptions options;
+  private int[][] queries;
+  private int next;
+  private long findByCriteriaCalls;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    flights = SyntheticFlightNetwork.generate(FLIGHTS, 42);
+    network = FlightNetwork.of(flights);
+    flightDao = new InMemoryFlightDao(flights);
+    options = ConnectionSearchOptions.builder().maxLegs(maxLegs).build();
+
+    SplittableRandom random = new SplittableRandom(7);
+    int regional = SyntheticFlightNetwork.AIRPORTS - SyntheticFlightNetwork.HUBS;
+    queries = new int[QUERIES][];
+    for (int i = 0; i < QUERIES; i++) {
+      int from = SyntheticFlightNetwork.HUBS + 1 + random.nextInt(regional);
+      int to = SyntheticFlightNetwork.HUBS + 1 + random.nextInt(regional - 1);
+      queries[i] = new int[] {from, to >= from ? to + 1 : to};
+    }
+
+    try {
+      for (int i = 0; i < CALL_COUNT_QUERIES; i++) {
+        repeatedFindByCriteria();
+      }
+    } catch (DaoException e) {
+      throw new IllegalStateException(e);
+    }
+    System.out.printf("%nfindByCriteria calls per search with %d legs: %.1f%n", maxLegs,
+        (double) findByCriteriaCalls / CALL_COUNT_QUERIES);
+    next = 0;
+  }
+
+  @Benchmark
+  public List<Itinerary> flightNetwork() {
+    int[] query = nextQuery();
+    return network.findConnections(query[0], query[1], SEARCH_DAY.atStartOfDay(),
+        SEARCH_DAY.plusDays(1).atStartOfDay(), options);
+  }
+
+  @Benchmark
+  public List<List<Flight>> repeatedFindByCriteria() throws DaoException {
+    int[] query = nextQuery();
+    List<List<Flight>> found = new ArrayList<>();
+    List<Flight> path = new ArrayList<>();
+    for (Flight first : departures(query[0], SEARCH_DAY)) {
+      path.add(first);
+      extend(path, query[1], found);
+      path.remove(path.size() - 1);
+    }
+    return paretoFront(found);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public FlightNetwork buildNetwork() {
+    return FlightNetwork.of(flights);
+  }
+
+  private int[] nextQuery() {
+    return queries[next++ & (QUERIES - 1)];
+  }
+
+  private void extend(List<Flight> path, int destination, List<List<Flight>> found)
+      throws DaoException {
+    Flight last = path.get(path.size() - 1);
+    if (last.getArrivalAirport().getAirportId() == destination) {
+      found.add(new ArrayList<>(path));
+      return;
+    }
+    if (path.size() == maxLegs) {
+      return;
+    }
+
+    LocalDateTime earliest = last.getArrivalTime().plus(options.getMinConnectionTime());
+    LocalDateTime latest = last.getArrivalTime().plus(options.getMaxLayover());
+    for (LocalDate day = earliest.toLocalDate(); !day.isAfter(latest.toLocalDate());
+         day = day.plusDays(1)) {
+      for (Flight flight : departures(last.getArrivalAirport().getAirportId(), day)) {
+        if (flight.getDepartureTime().isBefore(earliest)
+            || flight.getDepartureTime().isAfter(latest) || visits(path, flight)) {
+          continue;
+        }
+        path.add(flight);
+        extend(path, destination, found);
+        path.remove(path.size() - 1);
+      }
+    }
+  }
+
+  private List<Flight> departures(int airportId, LocalDate day)
+      throws DaoException {
+    findByCriteriaCalls++;
+    List<Flight> departures = flightDao.findByCriteria(airportId, null, day, null);
+    departures.removeIf(flight -> flight.getStatus() == FlightStatus.CANCELLED);
+    return departures;
+  }
+
+  private static boolean visits(List<Flight> path, Flight flight) {
+    Integer airportId = flight.getArrivalAirport().getAirportId();
+    for (Flight leg : path) {
+      if (leg.getDepartureAirport().getAirportId().equals(airportId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<List<Flight>> paretoFront(List<List<Flight>> itineraries) {
+    itineraries.sort(Comparator.comparing((List<Flight> legs) -> arrival(legs))
+        .thenComparing(ConnectionSearchBenchmark::price)
+        .thenComparingInt(List::size));
+    List<List<Flight>> front = new ArrayList<>();
+    BigDecimal cheapest = null;
+    for (List<Flight> legs : itineraries) {
+      BigDecimal price = price(legs);
+      if (cheapest == null || price.compareTo(cheapest) < 0) {
+        front.add(legs);
+        cheapest = price;
+      }
+    }
+    return front;
+  }
+
+  private static LocalDateTime arrival(List<Flight> legs) {
+    return legs.get(legs.size() - 1).getArrivalTime();
+  }
+
+  private static BigDecimal price(List<Flight> legs) {
+    BigDecimal total = BigDecimal.ZERO;
+    for (Flight leg : legs) {
+      total = total.add(leg.getBasePrice());
+    }
+    return total;
+  }
+
+  /**
+   * {@link FlightDao} answering departure searches from memory with fresh entities per call,
+   * like the JDBC implementation. Other methods are not needed by the benchmark.
+   */
+  private static final class InMemoryFlightDao implements FlightDao {
+    private final Map<Integer, List<Flight>> byDepartureAirport = new HashMap<>();
+
+    private InMemoryFlightDao(List<Flight> flights) {
+      for (Flight flight : flights) {
+        byDepartureAirport.computeIfAbsent(flight.getDepartureAirport().getAirportId(),
+            id -> new ArrayList<>()).add(flight);
+      }
+      byDepartureAirport.values()
+          .forEach(list -> list.sort(Comparator.comparing(Flight::getDepartureTime)));
+    }
+
+    @Override
+    public List<Flight> findByCriteria(Integer departureAirportId, Integer arrivalAirportId,
+                                       LocalDate date, FlightStatus status) {
+      List<Flight> found = new ArrayList<>();
+      for (Flight flight : byDepartureAirport.getOrDefault(departureAirportId, List.of())) {
+        if ((arrivalAirportId == null
+             || arrivalAirportId.equals(flight.getArrivalAirport().getAirportId()))
+            && (date == null || date.equals(flight.getDepartureTime().toLocalDate()))
+            && (status == null || status == flight.getStatus())) {
+          found.add(Flight.builder()
+              .flightId(flight.getFlightId())
+              .flightNumber(flight.getFlightNumber())
+              .airline(flight.getAirline())
+              .departureAirport(flight.getDepartureAirport())
+              .arrivalAirport(flight.getArrivalAirport())
+              .departureTime(flight.getDepartureTime())
+              .arrivalTime(flight.getArrivalTime())
+              .basePrice(flight.getBasePrice())
+              .status(flight.getStatus())
+              .build());
+        }
+      }
+      return found;
+    }
+
+    @Override
+    public boolean updateStatus(Integer flightId, FlightStatus newStatus) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Flight> findPage(LocalDateTime afterDepartureTime, Integer afterFlightId,
+                                 int limit) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Flight> action) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void forEachByCriteria(Integer departureAirportId, Integer arrivalAirportId,
+                                  LocalDate date, FlightStatus status,
+                                  Consumer<? super Flight> action) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Optional<Flight> findById(Integer id) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Flight> findAll() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Flight create(Flight entity) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Flight update(Flight entity) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean delete(Integer key) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Flight> createAll(List<Flight> entities) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Flight> updateAll(List<Flight> entities) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int deleteAll(List<Integer> keys) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package ru.brynkin.flightbooking.benchmark;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.brynkin.flightbooking.pricing.FareQuoteEngine;
+import ru.brynkin.flightbooking.pricing.FareRules;
+import ru.brynkin.flightbooking.pricing.PassengerMix;
+
+/**
+ * Prices the candidate flights of one search (two adults, a child and an infant) under the
+ * default {@link FareRules}:
+ *
+ * <ul>
+ *   <li>{@code bigDecimal} - {@link BigDecimalFareQuotes}, one {@code BigDecimal} total per
+ *   flight;</li>
+ *   <li>{@code fixedPoint} - {@link FareQuoteEngine#quoteAllCents} into a reused array;</li>
+ *   <li>{@code fixedPointToBigDecimal} - the same, converting every total to
+ *   {@code BigDecimal} as a caller returning them would.</li>
+ * </ul>
+ *
+ * <p>Setup checks that all of them agree on every flight. Run with {@code -prof gc} to compare
+ * {@code gc.alloc.rate.norm}.</p>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FareQuoteBenchmark {
+
+  @Param({"1000", "10000"})
+  private int flights;
+
+  private final PassengerMix passengers = PassengerMix.of(2, 1, 1);
+
+  private FareQuoteEngine engine;
+  private BigDecimalFareQuotes baseline;
+  private BigDecimal[] basePrices;
+  private long[] baseFareCents;
+  private int[] capacities;
+  private int[] seatsBooked;
+  private long[] totalCents;
+
+  @Setup
+  public void setUp() {
+    FareRules rules = FareRules.builder().build();
+    engine = new FareQuoteEngine(rules);
+    baseline = new BigDecimalFareQuotes(rules);
+
+    SplittableRandom random = new SplittableRandom(42);
+    basePrices = new BigDecimal[flights];
+    baseFareCents = new long[flights];
+    capacities = new int[flights];
+    seatsBooked = new int[flights];
+    totalCents = new long[flights];
+    for (int i = 0; i < flights; i++) {
+      basePrices[i] = BigDecimal.valueOf(random.nextLong(3_000_00, 50_000_00), 2);
+      baseFareCents[i] = FareQuoteEngine.toCents(basePrices[i]);
+      capacities[i] = 50 + random.nextInt(300);
+      seatsBooked[i] = random.nextInt(capacities[i] + 1);
+    }
+
+    engine.quoteAllCents(baseFareCents, capacities, seatsBooked, passengers, totalCents);
+    for (int i = 0; i < flights; i++) {
+      BigDecimal expected = baseline.quote(basePrices[i], capacities[i], seatsBooked[i],
+          passengers);
+      if (expected.compareTo(FareQuoteEngine.fromCents(totalCents[i])) != 0) {
+        throw new IllegalStateException("Quotes differ for flight " + i + ": " + expected
+                                        + " vs " + FareQuoteEngine.fromCents(totalCents[i]));
+      }
+    }
+  }
+
+  @Benchmark
+  public void bigDecimal(Blackhole blackhole) {
+    for (int i = 0; i < flights; i++) {
+      blackhole.consume(baseline.quote(basePrices[i], capacities[i], seatsBooked[i],
+          passengers));
+    }
+  }
+
+  @Benchmark
+  public long[] fixedPoint() {
+    engine.quoteAllCents(baseFareCents, capacities, seatsBooked, passengers, totalCents);
+    return totalCents;
+  }
+
+  @Benchmark
+  public void fixedPointToBigDecimal(Blackhole blackhole) {
+    engine.quoteAllCents(baseFareCents, capacities, seatsBooked, passengers, totalCents);
+    for (int i = 0; i < flights; i++) {
+      blackhole.consume(FareQuoteEngine.fromCents(totalCents[i]));
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package ru.brynkin.flightbooking.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.brynkin.flightbooking.config.DatabaseConfig;
+import ru.brynkin.flightbooking.dao.FlightDao;
+import ru.brynkin.flightbooking.dao.impl.FlightDaoImpl;
+import ru.brynkin.flightbooking.dao.impl.FlightDaoImpl.ReadPath;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * End-to-end {@link FlightDao} calls against the PostgreSQL configured in
+ * {@code application.properties} (the docker-compose database on {@code localhost:5433}),
+ * including pool checkout, the round trip and mapping.
+ *
+ * <p>Needs a migrated database with the seed data; load a larger schedule to make the search
+ * and page benchmarks meaningful. Every call runs on both read paths.</p>
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlightDaoBenchmark {
+
+  private static final int PAGE_SIZE = 50;
+
+  @Param({"VIEW", "TABLE"})
+  private ReadPath readPath;
+
+  private FlightDao flightDao;
+  private Integer flightId;
+  private LocalDate departureDate;
+
+  @Setup(Level.Trial)
+  public void setUp() throws DaoException {
+    flightDao = FlightDaoImpl.getInstance(readPath);
+
+    List<Flight> firstPage = flightDao.findPage(null, null, 1);
+    if (firstPage.isEmpty()) {
+      throw new IllegalStateException("FlightDaoBenchmark needs at least one flight");
+    }
+    flightId = firstPage.get(0).getFlightId();
+    departureDate = firstPage.get(0).getDepartureTime().toLocalDate();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    DatabaseConfig.closeDataSource();
+  }
+
+  @Benchmark
+  public Optional<Flight> flightFindById() throws DaoException {
+    return flightDao.findById(flightId);
+  }
+
+  @Benchmark
+  public List<Flight> flightFindByCriteriaRouteAndDay() throws DaoException {
+    return flightDao.findByCriteria(1, 3, departureDate, null);
+  }
+
+  @Benchmark
+  public List<Flight> flightFindByCriteriaDay() throws DaoException {
+    return flightDao.findByCriteria(null, null, departureDate, null);
+  }
+
+  @Benchmark
+  public List<Flight> flightFindFirstPage() throws DaoException {
+    return flightDao.findPage(null, null, PAGE_SIZE);
+  }
+}
@@ -0,0 +1,73 @@
+package ru.brynkin.flightbooking.benchmark;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.brynkin.flightbooking.dao.impl.FlightRowMapper;
+
+/**
+ * Maps a whole {@code flight_complete_view} result set per invocation, comparing the legacy
+ * name-based builder mapping with {@link FlightRowMapper} on the view and on the table read
+ * path. The table path reads the same stub, but only its {@code flights} columns, and resolves
+ * airlines and airports from prebuilt reference maps.
+ *
+ * <p>Run with {@code -prof gc} to compare {@code gc.alloc.rate.norm} (bytes per result set).</p>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlightRowMappingBenchmark {
+
+  @Param({"1000"})
+  private int rows;
+
+  private FlightViewResultSetStub resultSet;
+  private FlightRowMapper.ReferenceResolver references;
+
+  @Setup
+  public void setUp() {
+    resultSet = FlightViewResultSetStub.generate(rows);
+    references = FlightViewResultSetStub.referenceResolver();
+  }
+
+  @Benchmark
+  public void legacyBuilderMapping(Blackhole blackhole) throws SQLException {
+    resultSet.reset();
+    while (resultSet.next()) {
+      blackhole.consume(LegacyFlightMapping.mapToFlight(resultSet));
+    }
+  }
+
+  @Benchmark
+  public void flightRowMapper(Blackhole blackhole) throws SQLException {
+    resultSet.reset();
+    FlightRowMapper mapper = FlightRowMapper.forView(resultSet);
+    while (resultSet.next()) {
+      blackhole.consume(mapper.map(resultSet));
+    }
+  }
+
+  @Benchmark
+  public void flightRowMapperTablePath(Blackhole blackhole) throws SQLException {
+    resultSet.reset();
+    FlightRowMapper mapper = FlightRowMapper.forTable(resultSet, references);
+    while (resultSet.next()) {
+      blackhole.consume(mapper.map(resultSet));
+    }
+  }
+}
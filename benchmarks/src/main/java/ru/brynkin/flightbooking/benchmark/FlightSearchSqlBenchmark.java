@@ -0,0 +1,111 @@
+package ru.brynkin.flightbooking.benchmark;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.brynkin.flightbooking.dao.impl.FlightCriteriaQuery;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+
+/**
+ * Builds the SQL text and parameter list of a {@code findByCriteria} call, comparing the
+ * original inline {@code StringBuilder} code with {@link FlightCriteriaQuery}.
+ *
+ * <p>{@code criteria} selects how many of the four filters are set, from none to all.</p>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlightSearchSqlBenchmark {
+
+  // Same SELECT list as FlightDaoImpl's view query, so string lengths match production
+  private static final String VIEW_BASE_QUERY = """
+      SELECT
+          flight_id, flight_number,
+          airline_id, airline_name,
+          airline_iata, airline_icao,
+          airline_country, airline_active,
+          arrival_airport_id, arrival_airport_name,
+          arrival_city, arrival_country,
+          arrival_iata, arrival_icao,
+          arrival_timezone,
+          departure_airport_id, departure_airport_name,
+          departure_city, departure_country,
+          departure_iata, departure_icao,
+          departure_timezone,
+          status_id, status_name,
+          departure_time, arrival_time,
+          base_price
+      FROM flight_complete_view""";
+
+  private static final String LEGACY_CRITERIA_SQL = VIEW_BASE_QUERY + " WHERE 1=1";
+
+  @Param({"0", "2", "4"})
+  private int criteria;
+
+  private Integer departureAirportId;
+  private Integer arrivalAirportId;
+  private LocalDate date;
+  private FlightStatus status;
+
+  @Setup
+  public void setUp() {
+    departureAirportId = criteria >= 1 ? 1 : null;
+    arrivalAirportId = criteria >= 2 ? 3 : null;
+    date = criteria >= 3 ? LocalDate.of(2030, 1, 15) : null;
+    status = criteria >= 4 ? FlightStatus.SCHEDULED : null;
+  }
+
+  @Benchmark
+  public void legacyStringBuilder(Blackhole blackhole) {
+    StringBuilder sqlBuilder = new StringBuilder(LEGACY_CRITERIA_SQL);
+    List<Object> parameters = new ArrayList<>();
+
+    if (departureAirportId != null) {
+      sqlBuilder.append(" AND departure_airport_id = ?");
+      parameters.add(departureAirportId);
+    }
+    if (arrivalAirportId != null) {
+      sqlBuilder.append(" AND arrival_airport_id = ?");
+      parameters.add(arrivalAirportId);
+    }
+    if (date != null) {
+      sqlBuilder.append(" AND DATE(departure_time) = ?");
+      parameters.add(Date.valueOf(date));
+    }
+    if (status != null) {
+      sqlBuilder.append(" AND status_id = ?");
+      parameters.add(status.ordinal());
+    }
+    sqlBuilder.append(" ORDER BY departure_time ASC");
+
+    blackhole.consume(sqlBuilder.toString());
+    blackhole.consume(parameters);
+  }
+
+  @Benchmark
+  public void flightCriteriaQuery(Blackhole blackhole) {
+    FlightCriteriaQuery query = FlightCriteriaQuery.of(
+        departureAirportId, arrivalAirportId, date, status);
+
+    blackhole.consume(query.toSql(VIEW_BASE_QUERY));
+    blackhole.consume(query.getParameters());
+  }
+}
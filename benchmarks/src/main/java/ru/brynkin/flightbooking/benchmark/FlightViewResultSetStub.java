@@ -0,0 +1,253 @@
+package ru.brynkin.flightbooking.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import ru.brynkin.flightbooking.dao.impl.FlightRowMapper;
+import ru.brynkin.flightbooking.entity.Airline;
+import ru.brynkin.flightbooking.entity.Airport;
+
+/**
+ * In-memory stand-in for a {@code flight_complete_view} result set.
+ *
+ * <p>Columns are laid out like the SELECT list of {@code FlightDaoImpl}. Strings and temporal
+ * values are handed out as fresh objects on every call, the way the PostgreSQL driver decodes
+ * them from the wire, so mapping code is charged for every column it reads.</p>
+ */
+
+public class FlightViewResultSetStub extends AbstractResultSetStub {
+
+  private static final String[] COLUMNS = {
+      "flight_id", "flight_number",
+      "airline_id", "airline_name",
+      "airline_iata", "airline_icao",
+      "airline_country", "airline_active",
+      "arrival_airport_id", "arrival_airport_name",
+      "arrival_city", "arrival_country",
+      "arrival_iata", "arrival_icao",
+      "arrival_timezone",
+      "departure_airport_id", "departure_airport_name",
+      "departure_city", "departure_country",
+      "departure_iata", "departure_icao",
+      "departure_timezone",
+      "status_id", "status_name",
+      "departure_time", "arrival_time",
+      "base_price"
+  };
+
+  private static final String[][] AIRLINES = {
+      {"1", "Aeroflot", "SU", "AFL", "Russia"},
+      {"2", "S7 Airlines", "S7", "SBI", "Russia"},
+      {"3", "Ural Airlines", "U6", "SVR", "Russia"},
+      {"4", "Pobeda", "DP", "PBD", "Russia"},
+      {"5", "Rossiya Airlines", "FV", "SDM", "Russia"},
+      {"6", "Belavia", "B2", "BRU", "Belarus"},
+      {"7", "Air Astana", "KC", "KZR", "Kazakhstan"},
+      {"8", "Uzbekistan Airways", "HY", "UZB", "Uzbekistan"},
+      {"9", "Azerbaijan Airlines", "J2", "AHY", "Azerbaijan"}
+  };
+
+  private static final String[][] AIRPORTS = {
+      {"1", "Sheremetyevo International", "Moscow", "Russia", "SVO", "UUEE", "Europe/Moscow"},
+      {"2", "Domodedovo International", "Moscow", "Russia", "DME", "UUDD", "Europe/Moscow"},
+      {"3", "Pulkovo Airport", "Saint Petersburg", "Russia", "LED", "ULLI", "Europe/Moscow"},
+      {"4", "Koltsovo Airport", "Yekaterinburg", "Russia", "SVX", "USSS", "Asia/Yekaterinburg"},
+      {"5", "Almaty International", "Almaty", "Kazakhstan", "ALA", "UAAA", "Asia/Almaty"},
+      {"6", "Tashkent International", "Tashkent", "Uzbekistan", "TAS", "UTTT", "Asia/Tashkent"},
+      {"7", "Heydar Aliyev International", "Baku", "Azerbaijan", "GYD", "UBBB", "Asia/Baku"}
+  };
+
+  private static final String[] STATUS_NAMES =
+      {"SCHEDULED", "DELAYED", "CANCELLED", "DEPARTED", "ARRIVED"};
+
+  private final Map<String, Integer> columnIndexes = new HashMap<>();
+  private final Object[][] rows;
+  private int cursor = -1;
+  private boolean wasNull;
+
+  private FlightViewResultSetStub(Object[][] rows) {
+    this.rows = rows;
+    for (int i = 0; i < COLUMNS.length; i++) {
+      columnIndexes.put(COLUMNS[i], i + 1);
+    }
+  }
+
+  /**
+   * Generates {@code rowCount} flights spread over the seed airlines and airports.
+   */
+  public static FlightViewResultSetStub generate(int rowCount) {
+    Object[][] rows = new Object[rowCount][];
+    LocalDateTime firstDeparture = LocalDateTime.of(2030, 1, 1, 6, 0);
+
+    for (int i = 0; i < rowCount; i++) {
+      String[] airline = AIRLINES[i % AIRLINES.length];
+      String[] departure = AIRPORTS[i % AIRPORTS.length];
+      String[] arrival = AIRPORTS[(i + 1 + i / AIRPORTS.length) % AIRPORTS.length];
+      LocalDateTime departureTime = firstDeparture.plusMinutes(15L * i);
+      int statusId = 1 + i % STATUS_NAMES.length;
+
+      rows[i] = new Object[] {
+          i + 1, airline[2] + " " + (100 + i % 900),
+          Integer.parseInt(airline[0]), airline[1],
+          airline[2], airline[3],
+          airline[4], Boolean.TRUE,
+          Integer.parseInt(arrival[0]), arrival[1],
+          arrival[2], arrival[3],
+          arrival[4], arrival[5],
+          arrival[6],
+          Integer.parseInt(departure[0]), departure[1],
+          departure[2], departure[3],
+          departure[4], departure[5],
+          departure[6],
+          statusId, STATUS_NAMES[statusId - 1],
+          departureTime, departureTime.plusMinutes(90 + i % 240),
+          BigDecimal.valueOf(500_000 + (i % 1000) * 100L, 2)
+      };
+    }
+    return new FlightViewResultSetStub(rows);
+  }
+
+  /**
+   * Returns a resolver over the seed airlines and airports, standing in for the reference
+   * caches of the table read path. Like the caches, it hands out a copy per call.
+   */
+  public static FlightRowMapper.ReferenceResolver referenceResolver() {
+    return new FlightRowMapper.ReferenceResolver() {
+      @Override
+      public Airline airline(int airlineId) throws SQLException {
+        for (String[] airline : AIRLINES) {
+          if (Integer.parseInt(airline[0]) == airlineId) {
+            return new Airline(airlineId, airline[1], airline[2], airline[3], airline[4], true);
+          }
+        }
+        throw new SQLException("Unknown airline ID: " + airlineId);
+      }
+
+      @Override
+      public Airport airport(int airportId) throws SQLException {
+        for (String[] airport : AIRPORTS) {
+          if (Integer.parseInt(airport[0]) == airportId) {
+            return new Airport(airportId, airport[1], airport[2], airport[3], airport[4],
+                airport[5], airport[6]);
+          }
+        }
+        throw new SQLException("Unknown airport ID: " + airportId);
+      }
+    };
+  }
+
+  /**
+   * Moves the cursor back before the first row.
+   */
+  public void reset() {
+    cursor = -1;
+  }
+
+  public int getRowCount() {
+    return rows.length;
+  }
+
+  @Override
+  public boolean next() {
+    return ++cursor < rows.length;
+  }
+
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public boolean wasNull() {
+    return wasNull;
+  }
+
+  @Override
+  public int findColumn(String columnLabel) throws SQLException {
+    Integer index = columnIndexes.get(columnLabel);
+    if (index == null) {
+      throw new SQLException("Unknown column: " + columnLabel);
+    }
+    return index;
+  }
+
+  @Override
+  public String getString(int columnIndex) {
+    Object value = value(columnIndex);
+    return value == null ? null : new String(value.toString());
+  }
+
+  @Override
+  public String getString(String columnLabel) throws SQLException {
+    return getString(findColumn(columnLabel));
+  }
+
+  @Override
+  public int getInt(int columnIndex) {
+    Object value = value(columnIndex);
+    return value == null ? 0 : (Integer) value;
+  }
+
+  @Override
+  public int getInt(String columnLabel) throws SQLException {
+    return getInt(findColumn(columnLabel));
+  }
+
+  @Override
+  public boolean getBoolean(int columnIndex) {
+    Object value = value(columnIndex);
+    return value != null && (Boolean) value;
+  }
+
+  @Override
+  public boolean getBoolean(String columnLabel) throws SQLException {
+    return getBoolean(findColumn(columnLabel));
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(int columnIndex) {
+    return (BigDecimal) value(columnIndex);
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+    return getBigDecimal(findColumn(columnLabel));
+  }
+
+  @Override
+  public Timestamp getTimestamp(int columnIndex) {
+    Object value = value(columnIndex);
+    return value == null ? null : Timestamp.valueOf((LocalDateTime) value);
+  }
+
+  @Override
+  public Timestamp getTimestamp(String columnLabel) throws SQLException {
+    return getTimestamp(findColumn(columnLabel));
+  }
+
+  @Override
+  public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+    Object value = value(columnIndex);
+    if (value == null) {
+      return null;
+    }
+    if (type == LocalDateTime.class) {
+      LocalDateTime dateTime = (LocalDateTime) value;
+      return type.cast(LocalDateTime.of(dateTime.toLocalDate(), dateTime.toLocalTime()));
+    }
+    return type.cast(value);
+  }
+
+  @Override
+  public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
+    return getObject(findColumn(columnLabel), type);
+  }
+
+  private Object value(int columnIndex) {
+    Object value = rows[cursor][columnIndex - 1];
+    wasNull = value == null;
+    return value;
+  }
+}
@@ -0,0 +1,69 @@
+package ru.brynkin.flightbooking.benchmark;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import ru.brynkin.flightbooking.entity.Airline;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+
+/**
+ * Baseline copy of the row mapping {@code FlightDaoImpl} used before {@code FlightRowMapper}:
+ * every column is looked up by name and a new airline and two new airports are built through
+ * Lombok builders for every row.
+ */
+
+final class LegacyFlightMapping {
+
+  private LegacyFlightMapping() {
+  }
+
+  static Flight mapToFlight(ResultSet rs) throws SQLException {
+    return Flight.builder()
+        .flightId(rs.getInt("flight_id"))
+        .flightNumber(rs.getString("flight_number"))
+        .airline(mapToAirline(rs))
+        .departureAirport(mapToDepartureAirport(rs))
+        .arrivalAirport(mapToArrivalAirport(rs))
+        .departureTime(rs.getTimestamp("departure_time").toLocalDateTime())
+        .arrivalTime(rs.getTimestamp("arrival_time").toLocalDateTime())
+        .basePrice(rs.getBigDecimal("base_price"))
+        .status(FlightStatus.fromId(rs.getInt("status_id")))
+        .build();
+  }
+
+  private static Airline mapToAirline(ResultSet rs) throws SQLException {
+    return Airline.builder()
+        .airlineId(rs.getInt("airline_id"))
+        .name(rs.getString("airline_name"))
+        .iataCode(rs.getString("airline_iata"))
+        .icaoCode(rs.getString("airline_icao"))
+        .country(rs.getString("airline_country"))
+        .active(rs.getBoolean("airline_active"))
+        .build();
+  }
+
+  private static Airport mapToDepartureAirport(ResultSet rs) throws SQLException {
+    return Airport.builder()
+        .airportId(rs.getInt("departure_airport_id"))
+        .name(rs.getString("departure_airport_name"))
+        .city(rs.getString("departure_city"))
+        .country(rs.getString("departure_country"))
+        .iataCode(rs.getString("departure_iata"))
+        .icaoCode(rs.getString("departure_icao"))
+        .timezone(rs.getString("departure_timezone"))
+        .build();
+  }
+
+  private static Airport mapToArrivalAirport(ResultSet rs) throws SQLException {
+    return Airport.builder()
+        .airportId(rs.getInt("arrival_airport_id"))
+        .name(rs.getString("arrival_airport_name"))
+        .city(rs.getString("arrival_city"))
+        .country(rs.getString("arrival_country"))
+        .iataCode(rs.getString("arrival_iata"))
+        .icaoCode(rs.getString("arrival_icao"))
+        .timezone(rs.getString("arrival_timezone"))
+        .build();
+  }
+}
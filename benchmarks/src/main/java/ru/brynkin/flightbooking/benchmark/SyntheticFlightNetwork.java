@@ -0,0 +1,91 @@
+package ru.brynkin.flightbooking.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import ru.brynkin.flightbooking.entity.Airline;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+
+/**
+ * Deterministic hub-and-spoke schedule for the connection search benchmarks.
+ *
+ * <p>Airports {@code 1..HUBS} are hubs, the rest are regional airports. Half of the flights
+ * link a regional airport with a hub, 30% link two hubs and 20% link any two airports, so most
+ * regional pairs are one or two connections apart. Departures are spread over
+ * {@value #DAYS} days from {@link #FIRST_DAY}; about 2% of the flights are cancelled.</p>
+ */
+
+final class SyntheticFlightNetwork {
+
+  static final int AIRPORTS = 300;
+  static final int HUBS = 20;
+  static final int DAYS = 7;
+  static final LocalDate FIRST_DAY = LocalDate.of(2025, 6, 2);
+
+  private SyntheticFlightNetwork() {
+  }
+
+  static List<Flight> generate(int flightCount, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+
+    List<Airport> airports = new ArrayList<>(AIRPORTS);
+    for (int id = 1; id <= AIRPORTS; id++) {
+      airports.add(Airport.builder().airportId(id).name("Airport " + id).city("City " + id)
+          .country("Country " + (id % 40)).iataCode(code(id)).timezone("UTC").build());
+    }
+    List<Airline> airlines = new ArrayList<>();
+    for (int id = 1; id <= 12; id++) {
+      airlines.add(Airline.builder().airlineId(id).name("Airline " + id).iataCode("A" + id)
+          .active(true).build());
+    }
+
+    List<Flight> flights = new ArrayList<>(flightCount);
+    for (int id = 1; id <= flightCount; id++) {
+      int from;
+      int to;
+      int kind = random.nextInt(10);
+      if (kind < 5) {
+        int hub = 1 + random.nextInt(HUBS);
+        int regional = 1 + HUBS + random.nextInt(AIRPORTS - HUBS);
+        boolean outbound = random.nextBoolean();
+        from = outbound ? hub : regional;
+        to = outbound ? regional : hub;
+      } else if (kind < 8) {
+        from = 1 + random.nextInt(HUBS);
+        to = 1 + random.nextInt(HUBS);
+      } else {
+        from = 1 + random.nextInt(AIRPORTS);
+        to = 1 + random.nextInt(AIRPORTS);
+      }
+      if (from == to) {
+        to = to % AIRPORTS + 1;
+      }
+
+      LocalDateTime departure = FIRST_DAY.plusDays(random.nextInt(DAYS))
+          .atTime(LocalTime.of(5, 0).plusMinutes(5L * random.nextInt(222)));
+      int minutes = 60 + 5 * random.nextInt(61);
+      flights.add(Flight.builder()
+          .flightId(id)
+          .flightNumber("SY" + id)
+          .airline(airlines.get(random.nextInt(airlines.size())))
+          .departureAirport(airports.get(from - 1))
+          .arrivalAirport(airports.get(to - 1))
+          .departureTime(departure)
+          .arrivalTime(departure.plusMinutes(minutes))
+          .basePrice(BigDecimal.valueOf(4_000 + random.nextInt(56_000), 2))
+          .status(random.nextInt(50) == 0 ? FlightStatus.CANCELLED : FlightStatus.SCHEDULED)
+          .build());
+    }
+    return flights;
+  }
+
+  private static String code(int id) {
+    return "" + (char) ('A' + id / 676 % 26) + (char) ('A' + id / 26 % 26) + (char) ('A' + id % 26);
+  }
+}
@@ -0,0 +1,104 @@
+package ru.brynkin.flightbooking.changefeed;
+
+import ru.brynkin.flightbooking.dao.impl.CachedAirlineDaoImpl;
+import ru.brynkin.flightbooking.dao.impl.CachedAirportDaoImpl;
+import ru.brynkin.flightbooking.dao.impl.CachedFlightDaoImpl;
+import ru.brynkin.flightbooking.dao.impl.TimetableFlightDaoImpl;
+import ru.brynkin.flightbooking.enums.ChangedTable;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Keeps this node's in-memory copies of {@code flights}, {@code airports} and {@code airlines}
+ * in step with the {@link ChangeFeed}, i.e. with writes made on any node.
+ *
+ * <p>Changed flights are re-read one by one and patched into the flight timetable and evicted
+ * from the flight search cache; a change without row keys, or a failed re-read, drops both.
+ * An airline change reloads the airline cache; changed airports are re-read and patched into
+ * the airport cache, keeping its typeahead index warm, and reloaded whole for a change without
+ * row keys. Either also drops the flight search cache, whose results embed airlines and
+ * airports.</p>
+ *
+ * <p>Re-reads and reloads go to the primary. A notification is sent when the change commits
+ * there, and a replica may not have replayed it yet; the timetable and the airline and airport
+ * caches have no TTL, so a stale row read from the replica would stay until the row changes
+ * again.</p>
+ */
+
+public final class CacheInvalidator implements ChangeListener {
+
+  private final CachedAirlineDaoImpl airlines;
+  private final CachedAirportDaoImpl airports;
+  private final CachedFlightDaoImpl flightSearch;
+  private final TimetableFlightDaoImpl timetable;
+
+  public CacheInvalidator(CachedAirlineDaoImpl airlines, CachedAirportDaoImpl airports,
+                          CachedFlightDaoImpl flightSearch, TimetableFlightDaoImpl timetable) {
+    this.airlines = airlines;
+    this.airports = airports;
+    this.flightSearch = flightSearch;
+    this.timetable = timetable;
+  }
+
+  /**
+   * Subscribes the shared cache instances to every table of the feed.
+   */
+  public static CacheInvalidator subscribe(ChangeFeed feed) {
+    CacheInvalidator invalidator = new CacheInvalidator(CachedAirlineDaoImpl.getInstance(),
+        CachedAirportDaoImpl.getInstance(), CachedFlightDaoImpl.getInstance(),
+        TimetableFlightDaoImpl.getInstance());
+    for (ChangedTable table : ChangedTable.values()) {
+      feed.subscribe(table, invalidator);
+    }
+    return invalidator;
+  }
+
+  @Override
+  public void onChange(TableChange change) throws DaoException {
+    switch (change.getTable()) {
+      case AIRLINES -> {
+        flightSearch.invalidateAll();
+        // Reloaded now rather than on the next read, which would go to a possibly lagging replica
+        try {
+          airlines.refresh();
+        } catch (DaoException | RuntimeException e) {
+          airlines.invalidate();
+          throw e;
+        }
+      }
+      case AIRPORTS -> onAirportsChange(change);
+      case FLIGHTS -> onFlightsChange(change);
+    }
+  }
+
+  private void onAirportsChange(TableChange change) throws DaoException {
+    flightSearch.invalidateAll();
+    if (change.isAllRows()) {
+      // Reloaded now rather than on the next read, which would go to a possibly lagging replica
+      try {
+        airports.refresh();
+      } catch (DaoException | RuntimeException e) {
+        airports.invalidate();
+        throw e;
+      }
+      return;
+    }
+    // A failed re-read has invalidated the airport cache already
+    airports.refresh(change.getIds());
+  }
+
+  private void onFlightsChange(TableChange change) throws DaoException {
+    if (change.isAllRows()) {
+      flightSearch.invalidateAll();
+      timetable.invalidate();
+      return;
+    }
+    try {
+      flightSearch.refresh(change.getIds());
+      timetable.refresh(change.getIds());
+    } catch (DaoException | RuntimeException e) {
+      flightSearch.invalidateAll();
+      timetable.invalidate();
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,270 @@
+package ru.brynkin.flightbooking.changefeed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import ru.brynkin.flightbooking.config.DatabaseConfig;
+import ru.brynkin.flightbooking.enums.ChangeType;
+import ru.brynkin.flightbooking.enums.ChangedTable;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Push-based feed of committed changes to {@code flights}, {@code airports} and
+ * {@code airlines}, fed by the {@code NOTIFY} triggers of migration V1_6_0.
+ *
+ * <p>The feed holds one dedicated connection outside the Hikari pools, so a session that waits
+ * on {@code LISTEN} forever never occupies a pool slot or gets retired by {@code maxLifetime}.
+ * Its thread blocks on the socket until notifications arrive; nothing is polled from the
+ * database. Each notification becomes a {@link TableChange} handed to the listeners of its
+ * table, in commit order.</p>
+ *
+ * <p>When the connection is lost the feed reconnects with exponential backoff from
+ * {@value #MIN_BACKOFF_MILLIS} ms to {@value #MAX_BACKOFF_MILLIS} ms. Notifications sent while
+ * no session was listening are lost, so after every {@code LISTEN} (including the first one,
+ * which may come after a cache was loaded) listeners get a {@link ChangeType#RESYNC} for every
+ * table. An idle connection is checked every {@value #KEEPALIVE_MILLIS} ms so a silently dead
+ * one is noticed.</p>
+ *
+ * <p>Writes of this node are published too. Listeners must therefore be idempotent, which
+ * invalidation and re-reading are.</p>
+ *
+ * @see CacheInvalidator
+ */
+
+public final class ChangeFeed implements AutoCloseable {
+
+  public static final String CHANNEL = "flight_booking_changes";
+
+  // Longest single wait for notifications; also how quickly close() is noticed
+  private static final int RECEIVE_TIMEOUT_MILLIS = 500;
+  private static final long KEEPALIVE_MILLIS = 30_000;
+  private static final long MIN_BACKOFF_MILLIS = 500;
+  private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+  // Singleton pattern
+  private static volatile ChangeFeed instance;
+
+  private final ConnectionSource connectionSource;
+  private final Map<ChangedTable, List<ChangeListener>> listeners =
+      new EnumMap<>(ChangedTable.class);
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final LongAdder notifications = new LongAdder();
+  private final LongAdder reconnects = new LongAdder();
+  private final LongAdder listenerFailures = new LongAdder();
+
+  // Guards thread; also waited on between reconnect attempts
+  private final Object lifecycle = new Object();
+  private Thread thread;
+  private volatile boolean closed;
+  private volatile boolean connected;
+
+  public ChangeFeed(ConnectionSource connectionSource) {
+    this.connectionSource = connectionSource;
+    for (ChangedTable table : ChangedTable.values()) {
+      listeners.put(table, new CopyOnWriteArrayList<>());
+    }
+  }
+
+  /**
+   * Returns the feed listening on an unpooled primary connection from
+   * {@link DatabaseConfig#openUnpooledConnection()}. It is not started yet.
+   */
+  public static ChangeFeed getInstance() {
+    if (instance == null) {
+      synchronized (ChangeFeed.class) {
+        if (instance == null) {
+          instance = new ChangeFeed(DatabaseConfig::openUnpooledConnection);
+        }
+      }
+    }
+    return instance;
+  }
+
+  public void subscribe(ChangedTable table, ChangeListener listener) {
+    listeners.get(table).add(listener);
+  }
+
+  public void unsubscribe(ChangedTable table, ChangeListener listener) {
+    listeners.get(table).remove(listener);
+  }
+
+  /**
+   * Starts listening on a background thread. Does nothing if already started or closed.
+   */
+  public void start() {
+    synchronized (lifecycle) {
+      if (thread == null && !closed) {
+        thread = Thread.ofPlatform().name("change-feed").daemon().start(this::run);
+      }
+    }
+  }
+
+  /**
+   * Whether a session is currently listening.
+   */
+  public boolean isConnected() {
+    return connected;
+  }
+
+  public long getNotificationCount() {
+    return notifications.sum();
+  }
+
+  public long getReconnectCount() {
+    return reconnects.sum();
+  }
+
+  public long getListenerFailureCount() {
+    return listenerFailures.sum();
+  }
+
+  /**
+   * Stops listening and closes the connection.
+   */
+  @Override
+  public void close() {
+    Thread running;
+    synchronized (lifecycle) {
+      closed = true;
+      lifecycle.notifyAll();
+      running = thread;
+    }
+    if (running != null) {
+      try {
+        running.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void run() {
+    long backoffMillis = MIN_BACKOFF_MILLIS;
+    while (!closed) {
+      try (Connection connection = connectionSource.open()) {
+        try (Statement stmt = connection.createStatement()) {
+          stmt.execute("LISTEN " + CHANNEL);
+        }
+        connected = true;
+        backoffMillis = MIN_BACKOFF_MILLIS;
+
+        // Whatever was committed before LISTEN took effect was not seen
+        for (ChangedTable table : ChangedTable.values()) {
+          dispatch(TableChange.resync(table));
+        }
+        receive(connection);
+      } catch (SQLException | RuntimeException e) {
+        if (!closed) {
+          System.err.println("Change feed connection lost, reconnecting in " + backoffMillis
+                             + " ms: " + e.getMessage());
+        }
+      } finally {
+        connected = false;
+      }
+
+      synchronized (lifecycle) {
+        if (closed) {
+          break;
+        }
+        try {
+          lifecycle.wait(backoffMillis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+      backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+      reconnects.increment();
+    }
+  }
+
+  private void receive(Connection connection) throws SQLException {
+    PGConnection pgConnection = connection.unwrap(PGConnection.class);
+    long lastTraffic = System.nanoTime();
+
+    while (!closed) {
+      PGNotification[] received = pgConnection.getNotifications(RECEIVE_TIMEOUT_MILLIS);
+      if (received != null && received.length > 0) {
+        lastTraffic = System.nanoTime();
+        for (PGNotification notification : received) {
+          if (CHANNEL.equals(notification.getName())) {
+            notifications.increment();
+            TableChange change = parse(notification.getParameter());
+            if (change != null) {
+              dispatch(change);
+            }
+          }
+        }
+      } else if (System.nanoTime() - lastTraffic
+                 > TimeUnit.MILLISECONDS.toNanos(KEEPALIVE_MILLIS)) {
+        try (Statement stmt = connection.createStatement()) {
+          stmt.execute("SELECT 1");
+        }
+        lastTraffic = System.nanoTime();
+      }
+    }
+  }
+
+  /**
+   * Parses a trigger payload, or returns {@code null} (and reports it) if it is not one.
+   */
+  private TableChange parse(String payload) {
+    try {
+      JsonNode node = mapper.readTree(payload);
+      ChangedTable table = ChangedTable.fromTableName(node.path("table").asText());
+      if (table == null) {
+        return null;
+      }
+
+      String operation = node.path("op").asText();
+      if ("TRUNCATE".equals(operation)) {
+        return TableChange.ofAllRows(table, ChangeType.DELETE);
+      }
+      ChangeType type = ChangeType.valueOf(operation);
+
+      JsonNode ids = node.get("ids");
+      if (ids == null || !ids.isArray()) {
+        return TableChange.ofAllRows(table, type);
+      }
+      List<Integer> keys = new ArrayList<>(ids.size());
+      for (JsonNode id : ids) {
+        keys.add(id.asInt());
+      }
+      return TableChange.of(table, type, keys);
+    } catch (JsonProcessingException | IllegalArgumentException e) {
+      System.err.println("Ignoring malformed change notification: " + payload);
+      return null;
+    }
+  }
+
+  private void dispatch(TableChange change) {
+    for (ChangeListener listener : listeners.get(change.getTable())) {
+      try {
+        listener.onChange(change);
+      } catch (DaoException | RuntimeException e) {
+        listenerFailures.increment();
+        System.err.println("Change listener failed on " + change + ": " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Opens the connection the feed listens on.
+   */
+  @FunctionalInterface
+  public interface ConnectionSource {
+    Connection open() throws SQLException;
+  }
+}
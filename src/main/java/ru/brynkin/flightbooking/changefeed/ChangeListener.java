@@ -0,0 +1,15 @@
+package ru.brynkin.flightbooking.changefeed;
+
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Subscriber of a {@link ChangeFeed}.
+ *
+ * <p>Called on the feed's thread, one change at a time and in commit order. A slow listener
+ * delays every other one.</p>
+ */
+@FunctionalInterface
+public interface ChangeListener {
+
+  void onChange(TableChange change) throws DaoException;
+}
@@ -0,0 +1,52 @@
+package ru.brynkin.flightbooking.changefeed;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.ToString;
+import ru.brynkin.flightbooking.enums.ChangeType;
+import ru.brynkin.flightbooking.enums.ChangedTable;
+
+/**
+ * A committed change to a table, as published by the {@link ChangeFeed}.
+ *
+ * <p>Either the keys of the changed rows are known, or {@link #isAllRows()} is {@code true}
+ * and anything derived from the table must be reloaded.</p>
+ */
+@Getter
+@ToString
+public class TableChange {
+
+  private final ChangedTable table;
+  private final ChangeType type;
+  // Keys of the changed rows; empty when allRows is set
+  private final List<Integer> ids;
+  private final boolean allRows;
+
+  private TableChange(ChangedTable table, ChangeType type, List<Integer> ids, boolean allRows) {
+    this.table = table;
+    this.type = type;
+    this.ids = List.copyOf(ids);
+    this.allRows = allRows;
+  }
+
+  /**
+   * A change to the rows with the given keys.
+   */
+  public static TableChange of(ChangedTable table, ChangeType type, List<Integer> ids) {
+    return new TableChange(table, type, ids, false);
+  }
+
+  /**
+   * A change to rows that are not listed, or to all of them.
+   */
+  public static TableChange ofAllRows(ChangedTable table, ChangeType type) {
+    return new TableChange(table, type, List.of(), true);
+  }
+
+  /**
+   * Changes to the table may have been missed; everything derived from it must be reloaded.
+   */
+  public static TableChange resync(ChangedTable table) {
+    return ofAllRows(table, ChangeType.RESYNC);
+  }
+}
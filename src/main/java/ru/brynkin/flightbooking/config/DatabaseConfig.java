@@ -2,47 +2,85 @@ package ru.brynkin.flightbooking.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
 import javax.sql.DataSource;
+import ru.brynkin.flightbooking.metrics.PoolMetrics;
 import ru.brynkin.flightbooking.util.PropertiesUtil;
 
 /**
  * Hikari Connection pool configuration class
+ *
+ * <p>Builds the primary pool from the {@code db.*} properties and, when {@code db.replica.url}
+ * is set, a separate read-only pool for a replica. Every {@code db.replica.*} setting that is
+ * not given falls back to the matching {@code db.*} setting. Without a replica URL reads use
+ * the primary pool.</p>
  */
 
 public class DatabaseConfig {
 
-  private static final String DB_URL = "db.url";
-  private static final String DB_USER = "db.user";
-  private static final String DB_PASSWORD = "db.password";
-  private static final String DB_DRIVER = "db.driver";
-  private static final String DB_MAX_POOL_SIZE = "db.maximum-pool-size";
-  private static final String DB_CONNECTION_TIMEOUT = "db.connection-timeout";
-  private static final String DB_MIN_IDLE = "db.minimum-idle";
-  private static final String DB_IDLE_TIMEOUT = "db.idle-timeout";
-  private static final String DB_MAX_LIFETIME = "db.max-lifetime";
+  private static final String PRIMARY_PREFIX = "db.";
+  private static final String REPLICA_PREFIX = "db.replica.";
+
+  private static final String DB_URL = "url";
+  private static final String DB_USER = "user";
+  private static final String DB_PASSWORD = "password";
+  private static final String DB_DRIVER = "driver";
+  private static final String DB_MAX_POOL_SIZE = "maximum-pool-size";
+  private static final String DB_CONNECTION_TIMEOUT = "connection-timeout";
+  private static final String DB_MIN_IDLE = "minimum-idle";
+  private static final String DB_IDLE_TIMEOUT = "idle-timeout";
+  private static final String DB_MAX_LIFETIME = "max-lifetime";
 
   private static final HikariDataSource dataSource;
+  private static final HikariDataSource replicaDataSource;
 
   static {
+    dataSource = createDataSource(PRIMARY_PREFIX, "FlightBookingCP", false);
+    System.out.println("HikariCP pool initialized successfully for database" +
+                       PropertiesUtil.get(PRIMARY_PREFIX + DB_URL));
+
+    if (PropertiesUtil.get(REPLICA_PREFIX + DB_URL) != null) {
+      replicaDataSource = createDataSource(REPLICA_PREFIX, "FlightBookingReplicaCP", true);
+      System.out.println("HikariCP replica pool initialized successfully for database" +
+                         PropertiesUtil.get(REPLICA_PREFIX + DB_URL));
+    } else {
+      replicaDataSource = null;
+    }
+  }
+
+  private DatabaseConfig() {
+
+  }
+
+  private static HikariDataSource createDataSource(String prefix, String poolName,
+                                                   boolean readOnly) {
     // Basic configuration
     HikariConfig config = new HikariConfig();
-    config.setJdbcUrl(PropertiesUtil.get(DB_URL));
-    config.setUsername(PropertiesUtil.get(DB_USER));
-    config.setPassword(PropertiesUtil.get(DB_PASSWORD));
-    config.setDriverClassName(PropertiesUtil.get(DB_DRIVER));
+    config.setJdbcUrl(get(prefix, DB_URL));
+    config.setUsername(get(prefix, DB_USER));
+    config.setPassword(get(prefix, DB_PASSWORD));
+    config.setDriverClassName(get(prefix, DB_DRIVER));
 
     // Connection pool settings
     config.setMaximumPoolSize(Integer.parseInt(
-        PropertiesUtil.get(DB_MAX_POOL_SIZE)));          // Maximum connections in pool
+        get(prefix, DB_MAX_POOL_SIZE)));                 // Maximum connections in pool
     config.setMinimumIdle(Integer.parseInt(
-        PropertiesUtil.get(DB_MIN_IDLE)));               // Minimum idle connections
+        get(prefix, DB_MIN_IDLE)));                      // Minimum idle connections
     config.setConnectionTimeout(Long.parseLong(
-        PropertiesUtil.get(DB_CONNECTION_TIMEOUT)));     // 10 seconds to acquire connection
+        get(prefix, DB_CONNECTION_TIMEOUT)));            // 10 seconds to acquire connection
     config.setIdleTimeout(
-        Long.parseLong(PropertiesUtil.get(DB_IDLE_TIMEOUT)));          // 10 minutes idle timeout
+        Long.parseLong(get(prefix, DB_IDLE_TIMEOUT)));   // 10 minutes idle timeout
     config.setMaxLifetime(Long.parseLong(
-        PropertiesUtil.get(DB_MAX_LIFETIME)));         // 30 minutes max connection lifetime
-    config.setPoolName("FlightBookingCP");
+        get(prefix, DB_MAX_LIFETIME)));                  // 30 minutes max connection lifetime
+    config.setPoolName(poolName);
+    config.setReadOnly(readOnly);
+
+    // Metrics: acquire/usage times and pool state via PoolMetrics, Hikari's own MBeans via JMX
+    config.setMetricsTrackerFactory(PoolMetrics::create);
+    config.setRegisterMbeans(true);
 
     // PostgreSQL-specific optimizations
     config.addDataSourceProperty("preparedStatementCacheQueries", 256);
@@ -50,13 +88,12 @@ public class DatabaseConfig {
     config.addDataSourceProperty("cachePrepStmts", "true");
     config.addDataSourceProperty("useServerPrepStmts", "true");
 
-    dataSource = new HikariDataSource(config);
-    System.out.println("HikariCP pool initialized successfully for database" +
-                       PropertiesUtil.get(DB_URL));
+    return new HikariDataSource(config);
   }
 
-  private DatabaseConfig() {
-
+  private static String get(String prefix, String key) {
+    String value = PropertiesUtil.get(prefix + key);
+    return value != null ? value : PropertiesUtil.get(PRIMARY_PREFIX + key);
   }
 
   public static DataSource getDataSource() {
@@ -64,7 +101,54 @@ public class DatabaseConfig {
     return dataSource;
   }
 
+  /**
+   * Returns the pool for read-only queries: the replica pool when one is configured, the
+   * primary pool otherwise.
+   */
+  public static DataSource getReplicaDataSource() {
+    return replicaDataSource != null ? replicaDataSource : dataSource;
+  }
+
+  public static boolean hasReplica() {
+    return replicaDataSource != null;
+  }
+
+  /**
+   * Opens a connection to the primary outside the pools, for a long-lived session such as the
+   * change feed's {@code LISTEN}. The caller owns the connection and must close it.
+   */
+  public static Connection openUnpooledConnection() throws SQLException {
+    try {
+      Class.forName(get(PRIMARY_PREFIX, DB_DRIVER));
+    } catch (ClassNotFoundException e) {
+      throw new SQLException("JDBC driver not found: " + get(PRIMARY_PREFIX, DB_DRIVER), e);
+    }
+    Properties properties = new Properties();
+    properties.setProperty("user", get(PRIMARY_PREFIX, DB_USER));
+    properties.setProperty("password", get(PRIMARY_PREFIX, DB_PASSWORD));
+    // Lets the OS notice a dead peer on an otherwise idle session
+    properties.setProperty("tcpKeepAlive", "true");
+    return DriverManager.getConnection(get(PRIMARY_PREFIX, DB_URL), properties);
+  }
+
+  public static int getMaximumPoolSize() {
+    return dataSource.getMaximumPoolSize();
+  }
+
+  /**
+   * Returns the size of the pool for read-only queries; see {@link #getReplicaDataSource()}.
+   */
+  public static int getReplicaMaximumPoolSize() {
+    return replicaDataSource != null
+        ? replicaDataSource.getMaximumPoolSize()
+        : dataSource.getMaximumPoolSize();
+  }
+
   public static void closeDataSource() {
+    if (replicaDataSource != null && !replicaDataSource.isClosed()) {
+      replicaDataSource.close();
+      System.out.println("Replica connection pool closed");
+    }
     if (dataSource != null && !dataSource.isClosed()) {
       dataSource.close();
       System.out.println("Database connection pool closed");
@@ -1,11 +1,13 @@
 package ru.brynkin.flightbooking.dao;
 
+import java.util.List;
+import java.util.Optional;
 import ru.brynkin.flightbooking.entity.Airline;
 import ru.brynkin.flightbooking.exception.DaoException;
 
 /**
  * Data Access Object interface for {@link Airline} entities.
- * Provides CRUD operations and additional methods for querying airports by various criteria.
+ * Provides CRUD operations and additional methods for querying airlines by various criteria.
  *
  * <p>Extends {@link BaseDao} with {@code Integer} as the key type and {@code Airline} as the entity type.</p>
  *
@@ -16,5 +18,9 @@ import ru.brynkin.flightbooking.exception.DaoException;
 
 public interface AirlineDao extends BaseDao<Integer, Airline> {
 
+  List<Airline> findByCountry(String country) throws DaoException;
 
+  Optional<Airline> findByIataCode(String iataCode) throws DaoException;
+
+  Optional<Airline> findByIcaoCode(String icaoCode) throws DaoException;
 }
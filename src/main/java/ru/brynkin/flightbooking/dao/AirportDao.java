@@ -2,6 +2,7 @@ package ru.brynkin.flightbooking.dao;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import ru.brynkin.flightbooking.entity.Airport;
 import ru.brynkin.flightbooking.exception.DaoException;
 
@@ -25,4 +26,18 @@ public interface AirportDao extends BaseDao<Integer, Airport> {
   Optional<Airport> findByIataCode(String iataCode) throws DaoException;
 
   Optional<Airport> findByIcaoCode(String icaoCode) throws DaoException;
+
+  /**
+   * Returns the next page of airports ordered by {@code airport_id}.
+   *
+   * @param afterAirportId ID of the last airport already seen, or {@code null} for the first page
+   * @param limit          maximum number of airports to return
+   */
+  List<Airport> findPage(Integer afterAirportId, int limit) throws DaoException;
+
+  /**
+   * Streams every airport ordered by {@code airport_id} to the given action without
+   * materialising the whole table in memory.
+   */
+  void forEach(Consumer<? super Airport> action) throws DaoException;
 }
@@ -0,0 +1,33 @@
+package ru.brynkin.flightbooking.dao;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import ru.brynkin.flightbooking.entity.Airport;
+
+/**
+ * Asynchronous counterpart of {@link AirportDao}.
+ *
+ * @see AirportDao
+ * @see AsyncBaseDao
+ */
+
+public interface AsyncAirportDao extends AsyncBaseDao<Integer, Airport> {
+
+  CompletableFuture<List<Airport>> findByCountry(String country);
+
+  CompletableFuture<List<Airport>> findByCity(String city);
+
+  CompletableFuture<Optional<Airport>> findByIataCode(String iataCode);
+
+  CompletableFuture<Optional<Airport>> findByIcaoCode(String icaoCode);
+
+  CompletableFuture<List<Airport>> findPage(Integer afterAirportId, int limit);
+
+  /**
+   * Streams every airport to the given action. The action runs on the DAO thread, not on the
+   * caller's thread.
+   */
+  CompletableFuture<Void> forEach(Consumer<? super Airport> action);
+}
@@ -0,0 +1,34 @@
+package ru.brynkin.flightbooking.dao;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of {@link BaseDao}.
+ *
+ * <p>Every method returns immediately. The returned future completes with the result of the
+ * corresponding {@link BaseDao} method, or exceptionally with its
+ * {@link ru.brynkin.flightbooking.exception.DaoException} or runtime exception.</p>
+ *
+ * @param <T> Entity type
+ * @param <K> Primary key type
+ */
+public interface AsyncBaseDao<K, T> {
+
+  CompletableFuture<Optional<T>> findById(K key);
+
+  CompletableFuture<List<T>> findAll();
+
+  CompletableFuture<T> create(T entity);
+
+  CompletableFuture<T> update(T entity);
+
+  CompletableFuture<Boolean> delete(K key);
+
+  CompletableFuture<List<T>> createAll(List<T> entities);
+
+  CompletableFuture<List<T>> updateAll(List<T> entities);
+
+  CompletableFuture<Integer> deleteAll(List<K> keys);
+}
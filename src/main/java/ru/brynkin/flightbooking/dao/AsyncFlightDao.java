@@ -0,0 +1,34 @@
+package ru.brynkin.flightbooking.dao;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+
+/**
+ * Asynchronous counterpart of {@link FlightDao}.
+ *
+ * @see FlightDao
+ * @see AsyncBaseDao
+ */
+
+public interface AsyncFlightDao extends AsyncBaseDao<Integer, Flight> {
+
+  CompletableFuture<List<Flight>> findByCriteria(Integer departureAirportId,
+                                                 Integer arrivalAirportId,
+                                                 LocalDate date, FlightStatus status);
+
+  CompletableFuture<Boolean> updateStatus(Integer flightId, FlightStatus newStatus);
+
+  CompletableFuture<List<Flight>> findPage(LocalDateTime afterDepartureTime,
+                                           Integer afterFlightId, int limit);
+
+  /**
+   * Streams every flight to the given action. The action runs on the DAO thread, not on the
+   * caller's thread.
+   */
+  CompletableFuture<Void> forEach(Consumer<? super Flight> action);
+}
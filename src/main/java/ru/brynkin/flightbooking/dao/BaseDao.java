@@ -21,4 +21,27 @@ public interface BaseDao<K, T> {
   T update(T entity) throws DaoException;
 
   boolean delete(K key) throws DaoException;
+
+  /**
+   * Inserts all entities using JDBC batching, one transaction per chunk.
+   * Generated keys are set on the entities in the order they were given.
+   *
+   * @return the same entities with their keys populated
+   */
+  List<T> createAll(List<T> entities) throws DaoException;
+
+  /**
+   * Updates all entities using JDBC batching, one transaction per chunk.
+   * A chunk containing an entity that no longer exists is rolled back.
+   *
+   * @return the updated entities
+   */
+  List<T> updateAll(List<T> entities) throws DaoException;
+
+  /**
+   * Deletes all entities with the given keys using JDBC batching, one transaction per chunk.
+   *
+   * @return number of entities actually deleted
+   */
+  int deleteAll(List<K> keys) throws DaoException;
 }
@@ -0,0 +1,67 @@
+package ru.brynkin.flightbooking.dao;
+
+import java.util.List;
+import java.util.Optional;
+import ru.brynkin.flightbooking.dto.SeatInventory;
+import ru.brynkin.flightbooking.entity.Booking;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Data Access Object interface for {@link Booking} entities and the seat inventory of flights.
+ *
+ * <p>Seats are taken and given back only together with the booking that holds them:
+ * {@link #reserve(Booking)}, {@link #cancel(Integer)} and {@link #delete(Object)} each change the
+ * booking and the seat count of its flight atomically. {@link #create(Object)} reserves as well,
+ * and {@link #update(Object)} changes only the payment status and price.</p>
+ *
+ * <p>Extends {@link BaseDao} with {@code Integer} as the key type and {@code Booking} as the entity type.</p>
+ *
+ * @see Booking
+ * @see SeatInventory
+ * @see BaseDao
+ */
+
+public interface BookingDao extends BaseDao<Integer, Booking> {
+
+  /**
+   * Takes {@code booking.getSeats()} seats (one if unset) on the booking's flight and inserts
+   * the booking as {@code CONFIRMED}, as one atomic operation. The booking ID, reference and
+   * creation time are set on the given booking.
+   *
+   * @return the booking, or empty if the flight has fewer seats left than requested or has no
+   *     seat inventory
+   */
+  Optional<Booking> reserve(Booking booking) throws DaoException;
+
+  /**
+   * Reserves each booking as {@link #reserve(Booking)} does, all in one transaction: the
+   * bookings whose seats are available are committed together, the others are skipped. If any
+   * booking fails for another reason, none is reserved.
+   *
+   * @return for each booking, in the order given, whether it was reserved
+   */
+  List<Boolean> reserveAll(List<Booking> bookings) throws DaoException;
+
+  /**
+   * Marks a {@code CONFIRMED} booking as {@code CANCELLED} and gives its seats back.
+   *
+   * @return the cancelled booking, or empty if there is no confirmed booking with that ID
+   */
+  Optional<Booking> cancel(Integer bookingId) throws DaoException;
+
+  Optional<Booking> findByReference(String bookingReference) throws DaoException;
+
+  List<Booking> findByFlight(Integer flightId) throws DaoException;
+
+  /**
+   * Returns the current seat inventory of a flight, read from the primary.
+   */
+  Optional<SeatInventory> findSeatInventory(Integer flightId) throws DaoException;
+
+  /**
+   * Sets the capacity of a flight, unless more seats than that are already booked.
+   *
+   * @return whether the capacity was changed
+   */
+  boolean updateCapacity(Integer flightId, int capacity) throws DaoException;
+}
@@ -0,0 +1,27 @@
+package ru.brynkin.flightbooking.dao;
+
+import java.time.YearMonth;
+import java.util.List;
+import ru.brynkin.flightbooking.dto.FareCalendarDay;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Read-only Data Access Object for the lowest fare per route and day of departure.
+ *
+ * <p>The fares are the lowest {@code base_price} of the flights of the day that are not
+ * cancelled, kept up to date by the database on every change to flights, whichever
+ * {@link FlightDao} or import made it.</p>
+ *
+ * @see FlightDao
+ * @see DaoException
+ */
+
+public interface FareCalendarDao {
+
+  /**
+   * Returns the days of the month with flights on the route, in date order; days without
+   * flights are left out.
+   */
+  List<FareCalendarDay> findMonth(Integer departureAirportId, Integer arrivalAirportId,
+                                  YearMonth month) throws DaoException;
+}
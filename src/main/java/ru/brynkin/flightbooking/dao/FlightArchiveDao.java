@@ -0,0 +1,40 @@
+package ru.brynkin.flightbooking.dao;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import ru.brynkin.flightbooking.entity.Booking;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Read-only Data Access Object for archived {@link Flight} and {@link Booking} entities, those
+ * moved out of the live tables by the flight archiver.
+ *
+ * <p>Archived rows keep their IDs and booking references, and a flight or booking is either
+ * live or archived, never both: callers that get nothing from {@link FlightDao} or
+ * {@link BookingDao} can look here next.</p>
+ *
+ * @see FlightDao
+ * @see BookingDao
+ * @see DaoException
+ */
+
+public interface FlightArchiveDao {
+
+  Optional<Flight> findFlightById(Integer flightId) throws DaoException;
+
+  /**
+   * Returns the archived flights matching the criteria, as {@link FlightDao#findByCriteria}
+   * does for live ones. Any criterion may be {@code null}.
+   */
+  List<Flight> findFlightsByCriteria(Integer departureAirportId, Integer arrivalAirportId,
+                                     LocalDate date, FlightStatus status) throws DaoException;
+
+  List<Booking> findBookingsByFlight(Integer flightId) throws DaoException;
+
+  List<Booking> findBookingsByUser(Integer userId) throws DaoException;
+
+  Optional<Booking> findBookingByReference(String bookingReference) throws DaoException;
+}
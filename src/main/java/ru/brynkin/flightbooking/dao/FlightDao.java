@@ -1,7 +1,9 @@
 package ru.brynkin.flightbooking.dao;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 import ru.brynkin.flightbooking.entity.Flight;
 import ru.brynkin.flightbooking.enums.FlightStatus;
 import ru.brynkin.flightbooking.exception.DaoException;
@@ -24,4 +26,31 @@ public interface FlightDao extends BaseDao<Integer, Flight> {
 
   boolean updateStatus(Integer flightId, FlightStatus newStatus) throws DaoException;
 
+  /**
+   * Returns the next page of flights ordered by {@code (departure_time, flight_id)}.
+   *
+   * <p>Keyset pagination: pass the departure time and ID of the last flight of the previous
+   * page, or two {@code null}s for the first page. Cost does not grow with the page number.</p>
+   *
+   * @param afterDepartureTime departure time of the last flight already seen, or {@code null}
+   * @param afterFlightId      ID of the last flight already seen, or {@code null}
+   * @param limit              maximum number of flights to return
+   */
+  List<Flight> findPage(LocalDateTime afterDepartureTime, Integer afterFlightId, int limit)
+      throws DaoException;
+
+  /**
+   * Streams every flight ordered by {@code (departure_time, flight_id)} to the given action
+   * without materialising the whole table in memory.
+   */
+  void forEach(Consumer<? super Flight> action) throws DaoException;
+
+  /**
+   * Streams the flights matching the criteria, as {@link #findByCriteria} would return them, to
+   * the given action while they are read, without collecting them in a list.
+   */
+  void forEachByCriteria(Integer departureAirportId, Integer arrivalAirportId, LocalDate date,
+                         FlightStatus status, Consumer<? super Flight> action)
+      throws DaoException;
+
 }
@@ -0,0 +1,25 @@
+package ru.brynkin.flightbooking.dao;
+
+import java.nio.file.Path;
+import ru.brynkin.flightbooking.dto.ScheduleImportResult;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Data Access Object interface for bulk import of airline timetables into {@code flights}.
+ *
+ * <p>The expected input is a CSV file with a header line and the columns
+ * {@code flight_number, airline_iata, departure_iata, arrival_iata, departure_time,
+ * arrival_time, base_price, status}. Times use the {@code yyyy-MM-dd HH:mm[:ss]} format, an
+ * empty status means {@code SCHEDULED}.</p>
+ *
+ * <p>Rows are matched to existing flights by airline, flight number and departure time: a
+ * match is updated, anything else is inserted.</p>
+ *
+ * @see ScheduleImportListener
+ */
+
+public interface ScheduleImportDao {
+
+  ScheduleImportResult importSchedule(Path csvFile, ScheduleImportListener listener)
+      throws DaoException;
+}
@@ -0,0 +1,27 @@
+package ru.brynkin.flightbooking.dao;
+
+/**
+ * Callback interface for following a schedule import.
+ *
+ * @see ScheduleImportDao
+ */
+
+public interface ScheduleImportListener {
+
+  /**
+   * Called periodically while the file is streamed into the staging table.
+   *
+   * @param bytesCopied bytes of the file sent to the database so far
+   * @param totalBytes  size of the file
+   */
+  void onProgress(long bytesCopied, long totalBytes);
+
+  /**
+   * Called once for every row that was not merged into {@code flights}, in file order.
+   *
+   * @param lineNumber   line number in the file, the header being line 1
+   * @param flightNumber flight number as it appears in the file
+   * @param reason       why the row was rejected
+   */
+  void onRejected(long lineNumber, String flightNumber, String reason);
+}
@@ -0,0 +1,301 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import ru.brynkin.flightbooking.dao.AirlineDao;
+import ru.brynkin.flightbooking.entity.Airline;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+
+/**
+ * JDBC implementation of the {@link AirlineDao} interface that provides CRUD operations
+ * for {@link Airline} entities in a PostgreSQL database.
+ *
+ * <p>This implementation uses prepared statements to prevent SQL injection,
+ * manages database connections through {@link ConnectionManager}, and follows
+ * the singleton pattern to ensure a single instance throughout the application.</p>
+ *
+ * @see AirlineDao
+ * @see Airline
+ * @see DaoException
+ */
+
+public class AirlineDaoImpl implements AirlineDao {
+
+  // SQL Query templates
+  private static final String BASE_SELECT = """
+      SELECT %s, %s, %s, %s, %s, %s
+      FROM airlines""".formatted(
+      Columns.AIRLINE_ID, Columns.NAME, Columns.IATA_CODE,
+      Columns.ICAO_CODE, Columns.COUNTRY, Columns.IS_ACTIVE);
+
+  private static final String SELECT_ALL_SQL = BASE_SELECT;
+
+  private static final String SELECT_BY_ID_SQL =
+      BASE_SELECT + " WHERE " + Columns.AIRLINE_ID + " = ?";
+
+  private static final String SELECT_BY_COUNTRY_SQL =
+      BASE_SELECT + " WHERE " + Columns.COUNTRY + " = ?";
+
+  private static final String SELECT_BY_IATA_CODE_SQL =
+      BASE_SELECT + " WHERE " + Columns.IATA_CODE + " = ?";
+
+  private static final String SELECT_BY_ICAO_CODE_SQL =
+      BASE_SELECT + " WHERE " + Columns.ICAO_CODE + " = ?";
+
+  private static final String INSERT_SQL = """
+      INSERT INTO airlines (%s, %s, %s, %s, %s)
+      VALUES (?, ?, ?, ?, ?)""".formatted(
+      Columns.NAME, Columns.IATA_CODE, Columns.ICAO_CODE,
+      Columns.COUNTRY, Columns.IS_ACTIVE);
+
+  private static final String UPDATE_SQL = """
+      UPDATE airlines
+      SET %s = ?, %s = ?, %s = ?, %s = ?, %s = ?
+      WHERE %s = ?""".formatted(
+      Columns.NAME, Columns.IATA_CODE, Columns.ICAO_CODE,
+      Columns.COUNTRY, Columns.IS_ACTIVE,
+      Columns.AIRLINE_ID);
+
+  private static final String DELETE_SQL =
+      "DELETE FROM airlines WHERE " + Columns.AIRLINE_ID + " = ?";
+
+  // Singleton pattern
+  private static volatile AirlineDaoImpl instance;
+
+  private AirlineDaoImpl() {
+    // Private constructor to prevent instantiation
+  }
+
+  public static AirlineDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (AirlineDaoImpl.class) {
+        if (instance == null) {
+          instance = new AirlineDaoImpl();
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public Optional<Airline> findById(Integer id) throws DaoException {
+    try (Connection connection = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = connection.prepareStatement(SELECT_BY_ID_SQL)) {
+
+      stmt.setInt(1, id);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? Optional.of(mapRowToAirline(rs)) : Optional.empty();
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find airline by ID: " + id, e);
+    }
+  }
+
+  @Override
+  public List<Airline> findAll() throws DaoException {
+    try (Connection connection = ConnectionManager.getReadConnection();
+         Statement stmt = connection.createStatement();
+         ResultSet rs = stmt.executeQuery(SELECT_ALL_SQL)) {
+
+      List<Airline> airlines = new ArrayList<>();
+      while (rs.next()) {
+        airlines.add(mapRowToAirline(rs));
+      }
+      return airlines;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to retrieve all airlines", e);
+    }
+  }
+
+  @Override
+  public Airline create(Airline airline) throws DaoException {
+    try (Connection connection = ConnectionManager.getConnection();
+         PreparedStatement stmt = connection.prepareStatement(
+             INSERT_SQL,
+             Statement.RETURN_GENERATED_KEYS)) {
+
+      setAirlineParameters(stmt, airline);
+      stmt.executeUpdate();
+
+      try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+        if (generatedKeys.next()) {
+          airline.setAirlineId(generatedKeys.getInt(Columns.AIRLINE_ID));
+        }
+        return airline;
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to create airline", e);
+    }
+  }
+
+  @Override
+  public Airline update(Airline airline) throws DaoException {
+    try (Connection connection = ConnectionManager.getConnection();
+         PreparedStatement stmt = connection.prepareStatement(UPDATE_SQL)) {
+
+      setAirlineParameters(stmt, airline);
+      stmt.setInt(6, airline.getAirlineId());
+
+      int affectedRows = stmt.executeUpdate();
+      if (affectedRows == 0) {
+        throw new DaoException("No airline found with ID: " + airline.getAirlineId());
+      }
+      return airline;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to update airline with ID: " + airline.getAirlineId(), e);
+    }
+  }
+
+  @Override
+  public boolean delete(Integer id) throws DaoException {
+    try (Connection connection = ConnectionManager.getConnection();
+         PreparedStatement stmt = connection.prepareStatement(DELETE_SQL)) {
+
+      stmt.setInt(1, id);
+      int affectedRows = stmt.executeUpdate();
+      return affectedRows > 0;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to delete airline with ID: " + id, e);
+    }
+  }
+
+  @Override
+  public List<Airline> createAll(List<Airline> airlines) throws DaoException {
+    try {
+      BatchSupport.executeInChunks(INSERT_SQL, new String[] {Columns.AIRLINE_ID}, airlines,
+          this::setAirlineParameters,
+          (chunk, updateCounts, stmt) -> {
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+              for (Airline airline : chunk) {
+                if (generatedKeys.next()) {
+                  airline.setAirlineId(generatedKeys.getInt(Columns.AIRLINE_ID));
+                }
+              }
+            }
+          });
+      return airlines;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to create airlines in batch", e);
+    }
+  }
+
+  @Override
+  public List<Airline> updateAll(List<Airline> airlines) throws DaoException {
+    try {
+      BatchSupport.executeInChunks(UPDATE_SQL, null, airlines,
+          (stmt, airline) -> {
+            setAirlineParameters(stmt, airline);
+            stmt.setInt(6, airline.getAirlineId());
+          },
+          (chunk, updateCounts, stmt) -> {
+            for (int i = 0; i < updateCounts.length; i++) {
+              if (updateCounts[i] == 0) {
+                throw new DaoException("No airline found with ID: " + chunk.get(i).getAirlineId());
+              }
+            }
+          });
+      return airlines;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to update airlines in batch", e);
+    }
+  }
+
+  @Override
+  public int deleteAll(List<Integer> ids) throws DaoException {
+    int[] deleted = {0};
+    try {
+      BatchSupport.executeInChunks(DELETE_SQL, null, ids,
+          (stmt, id) -> stmt.setInt(1, id),
+          (chunk, updateCounts, stmt) -> {
+            for (int count : updateCounts) {
+              deleted[0] += Math.max(count, 0);
+            }
+          });
+      return deleted[0];
+    } catch (SQLException e) {
+      throw new DaoException("Failed to delete airlines in batch", e);
+    }
+  }
+
+  @Override
+  public List<Airline> findByCountry(String country) throws DaoException {
+    try (Connection connection = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = connection.prepareStatement(SELECT_BY_COUNTRY_SQL)) {
+
+      stmt.setString(1, country);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        List<Airline> airlines = new ArrayList<>();
+        while (rs.next()) {
+          airlines.add(mapRowToAirline(rs));
+        }
+        return airlines;
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find airlines by country: " + country, e);
+    }
+  }
+
+  @Override
+  public Optional<Airline> findByIataCode(String iataCode) throws DaoException {
+    return findSingleByCode(SELECT_BY_IATA_CODE_SQL, iataCode, "IATA");
+  }
+
+  @Override
+  public Optional<Airline> findByIcaoCode(String icaoCode) throws DaoException {
+    return findSingleByCode(SELECT_BY_ICAO_CODE_SQL, icaoCode, "ICAO");
+  }
+
+  private Optional<Airline> findSingleByCode(String sql, String code, String codeType)
+      throws DaoException {
+    try (Connection connection = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+      stmt.setString(1, code);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? Optional.of(mapRowToAirline(rs)) : Optional.empty();
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find airline by " + codeType + " code: " + code, e);
+    }
+  }
+
+  private Airline mapRowToAirline(ResultSet rs) throws SQLException {
+    return Airline.builder()
+        .airlineId(rs.getInt(Columns.AIRLINE_ID))
+        .name(rs.getString(Columns.NAME))
+        .iataCode(rs.getString(Columns.IATA_CODE))
+        .icaoCode(rs.getString(Columns.ICAO_CODE))
+        .country(rs.getString(Columns.COUNTRY))
+        .active(rs.getBoolean(Columns.IS_ACTIVE))
+        .build();
+  }
+
+  private void setAirlineParameters(PreparedStatement stmt, Airline airline) throws SQLException {
+    stmt.setString(1, airline.getName());
+    stmt.setString(2, airline.getIataCode());
+    stmt.setString(3, airline.getIcaoCode());
+    stmt.setString(4, airline.getCountry());
+    stmt.setBoolean(5, airline.getActive() == null || airline.getActive());
+  }
+
+  // Column name constants
+  private static final class Columns {
+    static final String AIRLINE_ID = "airline_id";
+    static final String NAME = "name";
+    static final String IATA_CODE = "iata_code";
+    static final String ICAO_CODE = "icao_code";
+    static final String COUNTRY = "country";
+    static final String IS_ACTIVE = "is_active";
+  }
+
+}
@@ -8,6 +8,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import ru.brynkin.flightbooking.dao.AirportDao;
 import ru.brynkin.flightbooking.entity.Airport;
 import ru.brynkin.flightbooking.exception.DaoException;
@@ -51,6 +52,15 @@ public class AirportDaoImpl implements AirportDao {
   private static final String SELECT_BY_ICAO_CODE_SQL =
       BASE_SELECT + " WHERE " + Columns.ICAO_CODE + " = ?";
 
+  private static final String SELECT_ORDERED_SQL =
+      BASE_SELECT + " ORDER BY " + Columns.AIRPORT_ID + " ASC";
+
+  private static final String SELECT_FIRST_PAGE_SQL = SELECT_ORDERED_SQL + " LIMIT ?";
+
+  private static final String SELECT_NEXT_PAGE_SQL = BASE_SELECT
+      + " WHERE " + Columns.AIRPORT_ID + " > ?"
+      + " ORDER BY " + Columns.AIRPORT_ID + " ASC LIMIT ?";
+
   private static final String INSERT_SQL = """
       INSERT INTO airports (%s, %s, %s, %s, %s, %s) 
       VALUES (?, ?, ?, ?, ?, ?)""".formatted(
@@ -68,6 +78,9 @@ public class AirportDaoImpl implements AirportDao {
   private static final String DELETE_SQL =
       "DELETE FROM airports WHERE " + Columns.AIRPORT_ID + " = ?";
 
+  // Rows fetched per round trip while streaming
+  private static final int STREAM_FETCH_SIZE = 500;
+
   // Singleton pattern
   private static AirportDaoImpl instance;
 
@@ -86,7 +99,7 @@ public class AirportDaoImpl implements AirportDao {
 
   @Override
   public Optional<Airport> findById(Integer id) throws DaoException {
-    try (Connection connection = ConnectionManager.getConnection();
+    try (Connection connection = ConnectionManager.getReadConnection();
          PreparedStatement stmt = connection.prepareStatement(SELECT_BY_ID_SQL)) {
 
       stmt.setInt(1, id);
@@ -101,7 +114,7 @@ public class AirportDaoImpl implements AirportDao {
 
   @Override
   public List<Airport> findAll() throws DaoException {
-    try (Connection connection = ConnectionManager.getConnection();
+    try (Connection connection = ConnectionManager.getReadConnection();
          Statement stmt = connection.createStatement();
          ResultSet rs = stmt.executeQuery(SELECT_ALL_SQL)) {
 
@@ -167,6 +180,64 @@ public class AirportDaoImpl implements AirportDao {
     }
   }
 
+  @Override
+  public List<Airport> createAll(List<Airport> airports) throws DaoException {
+    try {
+      BatchSupport.executeInChunks(INSERT_SQL, new String[] {Columns.AIRPORT_ID}, airports,
+          this::setAirportParameters,
+          (chunk, updateCounts, stmt) -> {
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+              for (Airport airport : chunk) {
+                if (generatedKeys.next()) {
+                  airport.setAirportId(generatedKeys.getInt(Columns.AIRPORT_ID));
+                }
+              }
+            }
+          });
+      return airports;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to create airports in batch", e);
+    }
+  }
+
+  @Override
+  public List<Airport> updateAll(List<Airport> airports) throws DaoException {
+    try {
+      BatchSupport.executeInChunks(UPDATE_SQL, null, airports,
+          (stmt, airport) -> {
+            setAirportParameters(stmt, airport);
+            stmt.setInt(7, airport.getAirportId());
+          },
+          (chunk, updateCounts, stmt) -> {
+            for (int i = 0; i < updateCounts.length; i++) {
+              if (updateCounts[i] == 0) {
+                throw new DaoException("No airport found with ID: " + chunk.get(i).getAirportId());
+              }
+            }
+          });
+      return airports;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to update airports in batch", e);
+    }
+  }
+
+  @Override
+  public int deleteAll(List<Integer> ids) throws DaoException {
+    int[] deleted = {0};
+    try {
+      BatchSupport.executeInChunks(DELETE_SQL, null, ids,
+          (stmt, id) -> stmt.setInt(1, id),
+          (chunk, updateCounts, stmt) -> {
+            for (int count : updateCounts) {
+              deleted[0] += Math.max(count, 0);
+            }
+          });
+      return deleted[0];
+    } catch (SQLException e) {
+      throw new DaoException("Failed to delete airports in batch", e);
+    }
+  }
+
   @Override
   public List<Airport> findByCountry(String country) throws DaoException {
     return executeQueryWithParameter(SELECT_BY_COUNTRY_SQL, country);
@@ -179,7 +250,7 @@ public class AirportDaoImpl implements AirportDao {
 
   @Override
   public Optional<Airport> findByIataCode(String iataCode) throws DaoException {
-    try (Connection connection = ConnectionManager.getConnection();
+    try (Connection connection = ConnectionManager.getReadConnection();
          PreparedStatement stmt = connection.prepareStatement(SELECT_BY_IATA_CODE_SQL)) {
 
       stmt.setString(1, iataCode);
@@ -194,7 +265,7 @@ public class AirportDaoImpl implements AirportDao {
 
   @Override
   public Optional<Airport> findByIcaoCode(String icaoCode) throws DaoException {
-    try (Connection connection = ConnectionManager.getConnection();
+    try (Connection connection = ConnectionManager.getReadConnection();
          PreparedStatement stmt = connection.prepareStatement(SELECT_BY_ICAO_CODE_SQL)) {
 
       stmt.setString(1, icaoCode);
@@ -207,9 +278,66 @@ public class AirportDaoImpl implements AirportDao {
     }
   }
 
+  @Override
+  public List<Airport> findPage(Integer afterAirportId, int limit) throws DaoException {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Page limit must be positive");
+    }
+
+    boolean firstPage = afterAirportId == null;
+    try (Connection connection = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = connection.prepareStatement(
+             firstPage ? SELECT_FIRST_PAGE_SQL : SELECT_NEXT_PAGE_SQL)) {
+
+      int index = 1;
+      if (!firstPage) {
+        stmt.setInt(index++, afterAirportId);
+      }
+      stmt.setInt(index, limit);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        List<Airport> airports = new ArrayList<>();
+        while (rs.next()) {
+          airports.add(mapRowToAirport(rs));
+        }
+        return airports;
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find airports page after ID: " + afterAirportId, e);
+    }
+  }
+
+  @Override
+  public void forEach(Consumer<? super Airport> action) throws DaoException {
+    try (Connection connection = ConnectionManager.getReadConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      // PostgreSQL only honours the fetch size with a server-side cursor inside a transaction
+      connection.setAutoCommit(false);
+
+      try (PreparedStatement stmt = connection.prepareStatement(SELECT_ORDERED_SQL,
+          ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+        stmt.setFetchSize(STREAM_FETCH_SIZE);
+
+        try (ResultSet rs = stmt.executeQuery()) {
+          while (rs.next()) {
+            action.accept(mapRowToAirport(rs));
+          }
+        }
+        connection.commit();
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to stream airports", e);
+    }
+  }
+
   private List<Airport> executeQueryWithParameter(String sql, String parameter)
       throws DaoException {
-    try (Connection connection = ConnectionManager.getConnection();
+    try (Connection connection = ConnectionManager.getReadConnection();
          PreparedStatement stmt = connection.prepareStatement(sql)) {
 
       stmt.setString(1, parameter);
@@ -0,0 +1,120 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import ru.brynkin.flightbooking.dao.AirportDao;
+import ru.brynkin.flightbooking.dao.AsyncAirportDao;
+import ru.brynkin.flightbooking.entity.Airport;
+
+/**
+ * {@link AsyncAirportDao} that runs the calls of a blocking {@link AirportDao} on an
+ * {@link AsyncDaoExecutor}.
+ *
+ * @see AsyncAirportDao
+ * @see AsyncDaoExecutor
+ */
+
+public class AsyncAirportDaoImpl implements AsyncAirportDao {
+
+  // Singleton pattern
+  private static volatile AsyncAirportDaoImpl instance;
+
+  private final AirportDao delegate;
+  private final AsyncDaoExecutor executor;
+
+  public AsyncAirportDaoImpl(AirportDao delegate, AsyncDaoExecutor executor) {
+    this.delegate = delegate;
+    this.executor = executor;
+  }
+
+  /**
+   * Returns the facade over {@link MeteredAirportDaoImpl#getInstance()} running on virtual
+   * threads.
+   */
+  public static AsyncAirportDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (AsyncAirportDaoImpl.class) {
+        if (instance == null) {
+          instance = new AsyncAirportDaoImpl(MeteredAirportDaoImpl.getInstance(),
+              AsyncDaoExecutor.getInstance());
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public CompletableFuture<Optional<Airport>> findById(Integer id) {
+    return executor.submitRead(() -> delegate.findById(id));
+  }
+
+  @Override
+  public CompletableFuture<List<Airport>> findAll() {
+    return executor.submitRead(delegate::findAll);
+  }
+
+  @Override
+  public CompletableFuture<List<Airport>> findByCountry(String country) {
+    return executor.submitRead(() -> delegate.findByCountry(country));
+  }
+
+  @Override
+  public CompletableFuture<List<Airport>> findByCity(String city) {
+    return executor.submitRead(() -> delegate.findByCity(city));
+  }
+
+  @Override
+  public CompletableFuture<Optional<Airport>> findByIataCode(String iataCode) {
+    return executor.submitRead(() -> delegate.findByIataCode(iataCode));
+  }
+
+  @Override
+  public CompletableFuture<Optional<Airport>> findByIcaoCode(String icaoCode) {
+    return executor.submitRead(() -> delegate.findByIcaoCode(icaoCode));
+  }
+
+  @Override
+  public CompletableFuture<List<Airport>> findPage(Integer afterAirportId, int limit) {
+    return executor.submitRead(() -> delegate.findPage(afterAirportId, limit));
+  }
+
+  @Override
+  public CompletableFuture<Void> forEach(Consumer<? super Airport> action) {
+    return executor.submitRead(() -> {
+      delegate.forEach(action);
+      return null;
+    });
+  }
+
+  @Override
+  public CompletableFuture<Airport> create(Airport airport) {
+    return executor.submit(() -> delegate.create(airport));
+  }
+
+  @Override
+  public CompletableFuture<Airport> update(Airport airport) {
+    return executor.submit(() -> delegate.update(airport));
+  }
+
+  @Override
+  public CompletableFuture<Boolean> delete(Integer id) {
+    return executor.submit(() -> delegate.delete(id));
+  }
+
+  @Override
+  public CompletableFuture<List<Airport>> createAll(List<Airport> airports) {
+    return executor.submit(() -> delegate.createAll(airports));
+  }
+
+  @Override
+  public CompletableFuture<List<Airport>> updateAll(List<Airport> airports) {
+    return executor.submit(() -> delegate.updateAll(airports));
+  }
+
+  @Override
+  public CompletableFuture<Integer> deleteAll(List<Integer> ids) {
+    return executor.submit(() -> delegate.deleteAll(ids));
+  }
+}
@@ -0,0 +1,183 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import ru.brynkin.flightbooking.config.DatabaseConfig;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Runs blocking DAO calls on an executor and hands back {@link CompletableFuture}s.
+ *
+ * <p>Calls are admitted through fair {@link Semaphore}s sized from the connection pools: reads
+ * submitted with {@link #submitRead} against the replica pool, other calls with
+ * {@link #submit} against the primary pool, and all calls against the one pool when no replica
+ * is configured. Callers beyond that wait in the semaphore's FIFO queue, which for virtual
+ * threads costs a parked thread of a few hundred bytes, instead of every caller taking a pool
+ * slot and timing out in Hikari's {@code connectionTimeout} under load. Virtual threads make
+ * waiting cheap, not calls faster: with the pool as the limit, a platform thread pool admitted
+ * the same way reaches the same throughput.</p>
+ *
+ * <p>Admission assumes a call holds one pooled connection at a time. The exception is the
+ * table read path of {@link FlightDaoImpl}: a row naming an airline or airport missing from
+ * the reference caches reloads that cache while the flight query's connection is still open.
+ * Reloads are serialised per cache, so the shared executor leaves
+ * {@value #RESERVED_CONNECTIONS} connections of each pool unadmitted for them. A read that
+ * ends up on the primary, e.g. inside a read-your-writes window, is still counted as a read;
+ * at worst it waits on the primary pool.</p>
+ */
+
+public final class AsyncDaoExecutor implements AutoCloseable {
+
+  // One reload of the airline cache and one of the airport cache, see the class comment
+  private static final int RESERVED_CONNECTIONS = 2;
+
+  // Singleton pattern
+  private static volatile AsyncDaoExecutor instance;
+
+  private final ExecutorService executor;
+  private final Semaphore readPermits;
+  private final Semaphore writePermits;
+
+  private AsyncDaoExecutor(ExecutorService executor, Semaphore readPermits,
+                           Semaphore writePermits) {
+    this.executor = executor;
+    this.readPermits = readPermits;
+    this.writePermits = writePermits;
+  }
+
+  /**
+   * Returns the shared executor: one virtual thread per call, reads admitted up to the replica
+   * pool size ({@code db.replica.maximum-pool-size}) and other calls up to the primary pool
+   * size ({@code db.maximum-pool-size}), less the connections reserved for reference cache
+   * reloads.
+   */
+  public static AsyncDaoExecutor getInstance() {
+    if (instance == null) {
+      synchronized (AsyncDaoExecutor.class) {
+        if (instance == null) {
+          ExecutorService executor = virtualThreadExecutor();
+          int writeCalls = admitted(DatabaseConfig.getMaximumPoolSize());
+          if (DatabaseConfig.hasReplica()) {
+            instance = new AsyncDaoExecutor(executor,
+                permits(admitted(DatabaseConfig.getReplicaMaximumPoolSize())),
+                permits(writeCalls));
+          } else {
+            Semaphore permits = permits(writeCalls);
+            instance = new AsyncDaoExecutor(executor, permits, permits);
+          }
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Creates an executor that starts one virtual thread per call and admits at most the given
+   * number of calls, reads and writes together.
+   */
+  public static AsyncDaoExecutor virtualThreads(int maxConcurrentCalls) {
+    return of(virtualThreadExecutor(), maxConcurrentCalls);
+  }
+
+  /**
+   * Creates an executor that runs calls on the given executor service, e.g. a platform thread
+   * pool for comparison, and admits at most the given number of calls, reads and writes
+   * together. The service is shut down by {@link #close()}.
+   */
+  public static AsyncDaoExecutor of(ExecutorService executor, int maxConcurrentCalls) {
+    Semaphore permits = permits(maxConcurrentCalls);
+    return new AsyncDaoExecutor(executor, permits, permits);
+  }
+
+  /**
+   * Submits a blocking DAO call that may write, admitted against the primary pool.
+   *
+   * @return future completed with the call's result, or exceptionally with its exception
+   */
+  public <R> CompletableFuture<R> submit(DaoCall<R> call) {
+    return submit(call, writePermits);
+  }
+
+  /**
+   * Submits a blocking DAO call that only reads, admitted against the replica pool.
+   *
+   * @return future completed with the call's result, or exceptionally with its exception
+   */
+  public <R> CompletableFuture<R> submitRead(DaoCall<R> call) {
+    return submit(call, readPermits);
+  }
+
+  /**
+   * Number of calls currently waiting for admission.
+   */
+  public int getQueueLength() {
+    return readPermits == writePermits
+        ? writePermits.getQueueLength()
+        : readPermits.getQueueLength() + writePermits.getQueueLength();
+  }
+
+  @Override
+  public void close() {
+    executor.close();
+  }
+
+  private static ExecutorService virtualThreadExecutor() {
+    return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dao-async-", 0).factory());
+  }
+
+  private static int admitted(int poolSize) {
+    return Math.max(1, poolSize - RESERVED_CONNECTIONS);
+  }
+
+  private static Semaphore permits(int maxConcurrentCalls) {
+    if (maxConcurrentCalls <= 0) {
+      throw new IllegalArgumentException("Maximum concurrent calls must be positive");
+    }
+    return new Semaphore(maxConcurrentCalls, true);
+  }
+
+  private <R> CompletableFuture<R> submit(DaoCall<R> call, Semaphore permits) {
+    CompletableFuture<R> future = new CompletableFuture<>();
+    try {
+      executor.execute(() -> run(call, permits, future));
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  private <R> void run(DaoCall<R> call, Semaphore permits, CompletableFuture<R> future) {
+    if (future.isCancelled()) {
+      return;
+    }
+
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      future.completeExceptionally(e);
+      return;
+    }
+
+    try {
+      if (!future.isCancelled()) {
+        future.complete(call.execute());
+      }
+    } catch (DaoException | RuntimeException e) {
+      future.completeExceptionally(e);
+    } finally {
+      permits.release();
+    }
+  }
+
+  /**
+   * Blocking DAO call.
+   */
+  @FunctionalInterface
+  public interface DaoCall<R> {
+    R execute() throws DaoException;
+  }
+}
@@ -0,0 +1,117 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import ru.brynkin.flightbooking.dao.AsyncFlightDao;
+import ru.brynkin.flightbooking.dao.FlightDao;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+
+/**
+ * {@link AsyncFlightDao} that runs the calls of a blocking {@link FlightDao} on an
+ * {@link AsyncDaoExecutor}.
+ *
+ * @see AsyncFlightDao
+ * @see AsyncDaoExecutor
+ */
+
+public class AsyncFlightDaoImpl implements AsyncFlightDao {
+
+  // Singleton pattern
+  private static volatile AsyncFlightDaoImpl instance;
+
+  private final FlightDao delegate;
+  private final AsyncDaoExecutor executor;
+
+  public AsyncFlightDaoImpl(FlightDao delegate, AsyncDaoExecutor executor) {
+    this.delegate = delegate;
+    this.executor = executor;
+  }
+
+  /**
+   * Returns the facade over {@link TimetableFlightDaoImpl#getInstance()} running on virtual
+   * threads.
+   */
+  public static AsyncFlightDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (AsyncFlightDaoImpl.class) {
+        if (instance == null) {
+          instance = new AsyncFlightDaoImpl(TimetableFlightDaoImpl.getInstance(),
+              AsyncDaoExecutor.getInstance());
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public CompletableFuture<Optional<Flight>> findById(Integer id) {
+    return executor.submitRead(() -> delegate.findById(id));
+  }
+
+  @Override
+  public CompletableFuture<List<Flight>> findAll() {
+    return executor.submitRead(delegate::findAll);
+  }
+
+  @Override
+  public CompletableFuture<List<Flight>> findByCriteria(Integer departureAirportId,
+                                                        Integer arrivalAirportId,
+                                                        LocalDate date, FlightStatus status) {
+    return executor.submitRead(() -> delegate.findByCriteria(
+        departureAirportId, arrivalAirportId, date, status));
+  }
+
+  @Override
+  public CompletableFuture<Boolean> updateStatus(Integer flightId, FlightStatus newStatus) {
+    return executor.submit(() -> delegate.updateStatus(flightId, newStatus));
+  }
+
+  @Override
+  public CompletableFuture<List<Flight>> findPage(LocalDateTime afterDepartureTime,
+                                                  Integer afterFlightId, int limit) {
+    return executor.submitRead(() -> delegate.findPage(afterDepartureTime, afterFlightId, limit));
+  }
+
+  @Override
+  public CompletableFuture<Void> forEach(Consumer<? super Flight> action) {
+    return executor.submitRead(() -> {
+      delegate.forEach(action);
+      return null;
+    });
+  }
+
+  @Override
+  public CompletableFuture<Flight> create(Flight flight) {
+    return executor.submit(() -> delegate.create(flight));
+  }
+
+  @Override
+  public CompletableFuture<Flight> update(Flight flight) {
+    return executor.submit(() -> delegate.update(flight));
+  }
+
+  @Override
+  public CompletableFuture<Boolean> delete(Integer id) {
+    return executor.submit(() -> delegate.delete(id));
+  }
+
+  @Override
+  public CompletableFuture<List<Flight>> createAll(List<Flight> flights) {
+    return executor.submit(() -> delegate.createAll(flights));
+  }
+
+  @Override
+  public CompletableFuture<List<Flight>> updateAll(List<Flight> flights) {
+    return executor.submit(() -> delegate.updateAll(flights));
+  }
+
+  @Override
+  public CompletableFuture<Integer> deleteAll(List<Integer> ids) {
+    return executor.submit(() -> delegate.deleteAll(ids));
+  }
+}
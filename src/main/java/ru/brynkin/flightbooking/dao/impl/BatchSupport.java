@@ -0,0 +1,83 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+
+/**
+ * Shared JDBC batching routine for the bulk {@code createAll}/{@code updateAll}/{@code deleteAll}
+ * DAO methods.
+ *
+ * <p>Items are split into chunks of {@link #CHUNK_SIZE}. Each chunk is sent as one JDBC batch on
+ * one connection inside its own transaction, so a chunk is either fully written or fully rolled
+ * back. Chunks committed before a failing chunk stay committed.</p>
+ */
+
+final class BatchSupport {
+
+  static final int CHUNK_SIZE = 1000;
+
+  private BatchSupport() {
+  }
+
+  /**
+   * Binds one item to the statement parameters.
+   */
+  @FunctionalInterface
+  interface ParameterBinder<T> {
+    void bind(PreparedStatement stmt, T item) throws SQLException, DaoException;
+  }
+
+  /**
+   * Inspects the outcome of a chunk before it is committed. Throwing aborts and rolls back the
+   * chunk.
+   */
+  @FunctionalInterface
+  interface ChunkHandler<T> {
+    void handle(List<T> chunk, int[] updateCounts, PreparedStatement stmt)
+        throws SQLException, DaoException;
+  }
+
+  /**
+   * Executes {@code sql} once per item as JDBC batches, one transaction per chunk.
+   *
+   * @param sql        statement to execute for each item
+   * @param keyColumns generated key columns to return, or {@code null} if none are needed
+   * @param items      items to write, in order
+   * @param binder     binds an item to the statement
+   * @param handler    called with each executed chunk before commit
+   */
+  static <T> void executeInChunks(String sql, String[] keyColumns, List<T> items,
+                                  ParameterBinder<T> binder, ChunkHandler<T> handler)
+      throws SQLException, DaoException {
+    for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+      List<T> chunk = items.subList(from, Math.min(from + CHUNK_SIZE, items.size()));
+
+      try (Connection conn = ConnectionManager.getConnection()) {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+
+        try (PreparedStatement stmt = keyColumns == null
+            ? conn.prepareStatement(sql)
+            : conn.prepareStatement(sql, keyColumns)) {
+
+          for (T item : chunk) {
+            binder.bind(stmt, item);
+            stmt.addBatch();
+          }
+          int[] updateCounts = stmt.executeBatch();
+          handler.handle(chunk, updateCounts, stmt);
+          conn.commit();
+        } catch (SQLException | DaoException | RuntimeException e) {
+          conn.rollback();
+          throw e;
+        } finally {
+          conn.setAutoCommit(autoCommit);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,654 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import ru.brynkin.flightbooking.dao.BookingDao;
+import ru.brynkin.flightbooking.dto.SeatInventory;
+import ru.brynkin.flightbooking.entity.Booking;
+import ru.brynkin.flightbooking.enums.BookingStatus;
+import ru.brynkin.flightbooking.enums.PaymentStatus;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+
+/**
+ * JDBC implementation of the {@link BookingDao} interface that provides CRUD operations
+ * for {@link Booking} entities in a PostgreSQL database.
+ *
+ * <p>Seat counts live in {@code flight_seats}. Every method that takes or gives back seats is a
+ * single statement: a data-modifying CTE changes the seat count and the booking together, so
+ * they commit or fail as one. A reservation is the conditional update
+ * {@code seats_booked = seats_booked + n WHERE seats_booked + n <= capacity}; PostgreSQL
+ * re-evaluates that condition against the latest row version after waiting for a concurrent
+ * reservation, so the seats are never read first and then written, no table is locked, and
+ * concurrent buyers serialise only on the row of their own flight.</p>
+ *
+ * <p>Follows the singleton pattern to ensure a single instance throughout the application.</p>
+ *
+ * @see BookingDao
+ * @see Booking
+ * @see DaoException
+ */
+
+public class BookingDaoImpl implements BookingDao {
+
+  private static final String REFERENCE_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+  private static final int REFERENCE_LENGTH = 8;
+
+  // SQL Query templates
+  private static final String BOOKING_COLUMNS = "%s, %s, %s, %s, %s, %s, %s, %s, %s".formatted(
+      Columns.BOOKING_ID, Columns.USER_ID, Columns.FLIGHT_ID, Columns.BOOKING_STATUS_ID,
+      Columns.PAYMENT_STATUS_ID, Columns.BOOKING_REFERENCE, Columns.SEATS,
+      Columns.TOTAL_PRICE, Columns.CREATED_AT);
+
+  private static final String BASE_SELECT = "SELECT " + BOOKING_COLUMNS + " FROM bookings";
+
+  private static final String SELECT_ALL_SQL = BASE_SELECT;
+
+  private static final String SELECT_BY_ID_SQL =
+      BASE_SELECT + " WHERE " + Columns.BOOKING_ID + " = ?";
+
+  private static final String SELECT_BY_REFERENCE_SQL =
+      BASE_SELECT + " WHERE " + Columns.BOOKING_REFERENCE + " = ?";
+
+  private static final String SELECT_BY_FLIGHT_SQL =
+      BASE_SELECT + " WHERE " + Columns.FLIGHT_ID + " = ? ORDER BY " + Columns.BOOKING_ID;
+
+  private static final String SELECT_SEATS_SQL = """
+      SELECT %s, %s, %s
+      FROM flight_seats
+      WHERE %s = ?""".formatted(
+      Columns.FLIGHT_ID, Columns.CAPACITY, Columns.SEATS_BOOKED,
+      Columns.FLIGHT_ID);
+
+  // Takes the seats only if they are left, and inserts the booking only if they were taken
+  private static final String RESERVE_SQL = """
+      WITH reserved AS (
+          UPDATE flight_seats
+          SET %2$s = %2$s + ?
+          WHERE %1$s = ? AND %2$s + ? <= %3$s
+          RETURNING %1$s)
+      INSERT INTO bookings (%4$s, %1$s, %5$s, %6$s, %7$s, %8$s, %9$s)
+      SELECT ?, %1$s, ?, ?, ?, ?, ?
+      FROM reserved
+      RETURNING %10$s, %11$s""".formatted(
+      Columns.FLIGHT_ID, Columns.SEATS_BOOKED, Columns.CAPACITY,
+      Columns.USER_ID, Columns.BOOKING_STATUS_ID, Columns.PAYMENT_STATUS_ID,
+      Columns.BOOKING_REFERENCE, Columns.SEATS, Columns.TOTAL_PRICE,
+      Columns.BOOKING_ID, Columns.CREATED_AT);
+
+  // As RESERVE_SQL, with the booking ID given; for JDBC batches, which cannot return rows
+  private static final String RESERVE_WITH_ID_SQL = """
+      WITH reserved AS (
+          UPDATE flight_seats
+          SET %2$s = %2$s + ?
+          WHERE %1$s = ? AND %2$s + ? <= %3$s
+          RETURNING %1$s)
+      INSERT INTO bookings (%10$s, %4$s, %1$s, %5$s, %6$s, %7$s, %8$s, %9$s)
+      SELECT ?, ?, %1$s, ?, ?, ?, ?, ?
+      FROM reserved""".formatted(
+      Columns.FLIGHT_ID, Columns.SEATS_BOOKED, Columns.CAPACITY,
+      Columns.USER_ID, Columns.BOOKING_STATUS_ID, Columns.PAYMENT_STATUS_ID,
+      Columns.BOOKING_REFERENCE, Columns.SEATS, Columns.TOTAL_PRICE,
+      Columns.BOOKING_ID);
+
+  // CURRENT_TIMESTAMP is the transaction start, the same value the created_at default takes
+  private static final String NEXT_BOOKING_IDS_SQL = """
+      SELECT nextval(pg_get_serial_sequence('bookings', '%s')), CURRENT_TIMESTAMP
+      FROM generate_series(1, ?)""".formatted(Columns.BOOKING_ID);
+
+  // Gives the seats back only if this statement is the one that cancelled the booking
+  private static final String CANCEL_SQL = """
+      WITH cancelled AS (
+          UPDATE bookings
+          SET %1$s = ?
+          WHERE %2$s = ? AND %1$s = ?
+          RETURNING %3$s),
+      released AS (
+          UPDATE flight_seats s
+          SET %4$s = s.%4$s - c.%5$s
+          FROM cancelled c
+          WHERE s.%6$s = c.%6$s)
+      SELECT %3$s
+      FROM cancelled""".formatted(
+      Columns.BOOKING_STATUS_ID, Columns.BOOKING_ID, BOOKING_COLUMNS,
+      Columns.SEATS_BOOKED, Columns.SEATS, Columns.FLIGHT_ID);
+
+  // Gives the seats back if the deleted booking still held them
+  private static final String DELETE_SQL = """
+      WITH deleted AS (
+          DELETE FROM bookings
+          WHERE %1$s = ?
+          RETURNING %2$s, %3$s, %4$s),
+      released AS (
+          UPDATE flight_seats s
+          SET %5$s = s.%5$s - d.%3$s
+          FROM deleted d
+          WHERE s.%2$s = d.%2$s AND d.%4$s = ?)
+      SELECT count(*)
+      FROM deleted""".formatted(
+      Columns.BOOKING_ID, Columns.FLIGHT_ID, Columns.SEATS, Columns.BOOKING_STATUS_ID,
+      Columns.SEATS_BOOKED);
+
+  private static final String UPDATE_SQL = """
+      UPDATE bookings
+      SET %s = ?, %s = ?
+      WHERE %s = ?""".formatted(
+      Columns.PAYMENT_STATUS_ID, Columns.TOTAL_PRICE,
+      Columns.BOOKING_ID);
+
+  private static final String UPDATE_CAPACITY_SQL = """
+      UPDATE flight_seats
+      SET %1$s = ?
+      WHERE %2$s = ? AND %3$s <= ?""".formatted(
+      Columns.CAPACITY, Columns.FLIGHT_ID, Columns.SEATS_BOOKED);
+
+  private static final SecureRandom random = new SecureRandom();
+
+  // Singleton pattern
+  private static volatile BookingDaoImpl instance;
+
+  private BookingDaoImpl() {
+    // Private constructor to prevent instantiation
+  }
+
+  public static BookingDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (BookingDaoImpl.class) {
+        if (instance == null) {
+          instance = new BookingDaoImpl();
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public Optional<Booking> findById(Integer id) throws DaoException {
+    try (Connection connection = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = connection.prepareStatement(SELECT_BY_ID_SQL)) {
+
+      stmt.setInt(1, id);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? Optional.of(mapRowToBooking(rs)) : Optional.empty();
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find booking by ID: " + id, e);
+    }
+  }
+
+  @Override
+  public List<Booking> findAll() throws DaoException {
+    try (Connection connection = ConnectionManager.getReadConnection();
+         Statement stmt = connection.createStatement();
+         ResultSet rs = stmt.executeQuery(SELECT_ALL_SQL)) {
+
+      List<Booking> bookings = new ArrayList<>();
+      while (rs.next()) {
+        bookings.add(mapRowToBooking(rs));
+      }
+      return bookings;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to retrieve all bookings", e);
+    }
+  }
+
+  @Override
+  public Optional<Booking> findByReference(String bookingReference) throws DaoException {
+    try (Connection connection = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = connection.prepareStatement(SELECT_BY_REFERENCE_SQL)) {
+
+      stmt.setString(1, bookingReference);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? Optional.of(mapRowToBooking(rs)) : Optional.empty();
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find booking by reference: " + bookingReference, e);
+    }
+  }
+
+  @Override
+  public List<Booking> findByFlight(Integer flightId) throws DaoException {
+    try (Connection connection = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = connection.prepareStatement(SELECT_BY_FLIGHT_SQL)) {
+
+      stmt.setInt(1, flightId);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        List<Booking> bookings = new ArrayList<>();
+        while (rs.next()) {
+          bookings.add(mapRowToBooking(rs));
+        }
+        return bookings;
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find bookings of flight: " + flightId, e);
+    }
+  }
+
+  @Override
+  public Optional<SeatInventory> findSeatInventory(Integer flightId) throws DaoException {
+    // Primary: the inventory is used to decide on reservations, replica lag would skew it
+    try (Connection connection = ConnectionManager.getConnection();
+         PreparedStatement stmt = connection.prepareStatement(SELECT_SEATS_SQL)) {
+
+      stmt.setInt(1, flightId);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        if (!rs.next()) {
+          return Optional.empty();
+        }
+        return Optional.of(SeatInventory.builder()
+            .flightId(rs.getInt(Columns.FLIGHT_ID))
+            .capacity(rs.getInt(Columns.CAPACITY))
+            .seatsBooked(rs.getInt(Columns.SEATS_BOOKED))
+            .build());
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find seat inventory of flight: " + flightId, e);
+    }
+  }
+
+  @Override
+  public boolean updateCapacity(Integer flightId, int capacity) throws DaoException {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity must not be negative");
+    }
+    try (Connection connection = ConnectionManager.getConnection();
+         PreparedStatement stmt = connection.prepareStatement(UPDATE_CAPACITY_SQL)) {
+
+      stmt.setInt(1, capacity);
+      stmt.setInt(2, flightId);
+      stmt.setInt(3, capacity);
+      return stmt.executeUpdate() > 0;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to update capacity of flight: " + flightId, e);
+    }
+  }
+
+  @Override
+  public Optional<Booking> reserve(Booking booking) throws DaoException {
+    try (Connection connection = ConnectionManager.getConnection()) {
+      return reserve(connection, booking);
+    } catch (SQLException e) {
+      throw new DaoException("Failed to reserve seats on flight: " + booking.getFlightId(), e);
+    }
+  }
+
+  @Override
+  public Optional<Booking> cancel(Integer bookingId) throws DaoException {
+    try (Connection connection = ConnectionManager.getConnection();
+         PreparedStatement stmt = connection.prepareStatement(CANCEL_SQL)) {
+
+      stmt.setInt(1, BookingStatus.CANCELLED.getId());
+      stmt.setInt(2, bookingId);
+      stmt.setInt(3, BookingStatus.CONFIRMED.getId());
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? Optional.of(mapRowToBooking(rs)) : Optional.empty();
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to cancel booking with ID: " + bookingId, e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Booking IDs are taken from the {@code bookings} sequence up front, so the reservations
+   * need not return rows and go to the server as one JDBC batch; with the commit that is three
+   * round trips for the whole list. They are executed in order of flight ID, so two batches
+   * touching the same flights lock their seat rows in the same order and cannot deadlock.
+   * IDs taken for bookings that are not reserved are left unused.</p>
+   */
+  @Override
+  public List<Boolean> reserveAll(List<Booking> bookings) throws DaoException {
+    if (bookings.isEmpty()) {
+      return List.of();
+    }
+    List<Reservation> reservations = new ArrayList<>(bookings.size());
+    for (Booking booking : bookings) {
+      reservations.add(Reservation.of(booking));
+    }
+    Integer[] order = new Integer[bookings.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparing(i -> bookings.get(i).getFlightId()));
+
+    try (Connection conn = ConnectionManager.getConnection()) {
+      boolean autoCommit = conn.getAutoCommit();
+      conn.setAutoCommit(false);
+      try {
+        int[] ids = new int[bookings.size()];
+        Timestamp createdAt = null;
+        try (PreparedStatement stmt = conn.prepareStatement(NEXT_BOOKING_IDS_SQL)) {
+          stmt.setInt(1, bookings.size());
+          try (ResultSet rs = stmt.executeQuery()) {
+            for (int i = 0; i < ids.length && rs.next(); i++) {
+              ids[i] = rs.getInt(1);
+              createdAt = rs.getTimestamp(2);
+            }
+          }
+        }
+
+        int[] updateCounts;
+        try (PreparedStatement stmt = conn.prepareStatement(RESERVE_WITH_ID_SQL)) {
+          for (int i : order) {
+            Booking booking = bookings.get(i);
+            Reservation reservation = reservations.get(i);
+            reservation.bindSeats(stmt, booking);
+            stmt.setInt(4, ids[i]);
+            reservation.bindBooking(stmt, 5, booking);
+            stmt.addBatch();
+          }
+          updateCounts = stmt.executeBatch();
+        }
+        conn.commit();
+
+        List<Boolean> reserved = new ArrayList<>(Collections.nCopies(bookings.size(), false));
+        for (int k = 0; k < order.length; k++) {
+          if (updateCounts[k] > 0) {
+            int i = order[k];
+            reservations.get(i).applyTo(bookings.get(i), ids[i], createdAt);
+            reserved.set(i, true);
+          }
+        }
+        return reserved;
+      } catch (SQLException | RuntimeException e) {
+        conn.rollback();
+        throw e;
+      } finally {
+        conn.setAutoCommit(autoCommit);
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to reserve " + bookings.size() + " bookings", e);
+    }
+  }
+
+  /**
+   * Reserves the booking's seats, failing if they are not available.
+   *
+   * @see #reserve(Booking)
+   */
+  @Override
+  public Booking create(Booking booking) throws DaoException {
+    return reserve(booking).orElseThrow(() -> new DaoException(
+        "Not enough seats left on flight: " + booking.getFlightId()));
+  }
+
+  /**
+   * Updates the payment status and total price of a booking. Its flight, seats and booking
+   * status change only through {@link #reserve(Booking)} and {@link #cancel(Integer)}.
+   */
+  @Override
+  public Booking update(Booking booking) throws DaoException {
+    try (Connection connection = ConnectionManager.getConnection();
+         PreparedStatement stmt = connection.prepareStatement(UPDATE_SQL)) {
+
+      setUpdateParameters(stmt, booking);
+
+      int affectedRows = stmt.executeUpdate();
+      if (affectedRows == 0) {
+        throw new DaoException("No booking found with ID: " + booking.getBookingId());
+      }
+      return booking;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to update booking with ID: " + booking.getBookingId(), e);
+    }
+  }
+
+  /**
+   * Deletes a booking, giving its seats back if it was still confirmed.
+   */
+  @Override
+  public boolean delete(Integer id) throws DaoException {
+    try (Connection connection = ConnectionManager.getConnection()) {
+      return delete(connection, id);
+    } catch (SQLException e) {
+      throw new DaoException("Failed to delete booking with ID: " + id, e);
+    }
+  }
+
+  /**
+   * Reserves the seats of all bookings, one transaction per chunk; a chunk with a booking whose
+   * seats are not available is rolled back.
+   *
+   * <p>Each reservation returns its own row, so they are executed one by one rather than as a
+   * JDBC batch.</p>
+   */
+  @Override
+  public List<Booking> createAll(List<Booking> bookings) throws DaoException {
+    try {
+      inChunks(bookings, (connection, booking) -> {
+        if (reserve(connection, booking).isEmpty()) {
+          throw new DaoException("Not enough seats left on flight: " + booking.getFlightId());
+        }
+      });
+      return bookings;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to create bookings", e);
+    }
+  }
+
+  @Override
+  public List<Booking> updateAll(List<Booking> bookings) throws DaoException {
+    try {
+      BatchSupport.executeInChunks(UPDATE_SQL, null, bookings,
+          this::setUpdateParameters,
+          (chunk, updateCounts, stmt) -> {
+            for (int i = 0; i < updateCounts.length; i++) {
+              if (updateCounts[i] == 0) {
+                throw new DaoException("No booking found with ID: " + chunk.get(i).getBookingId());
+              }
+            }
+          });
+      return bookings;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to update bookings in batch", e);
+    }
+  }
+
+  /**
+   * Deletes all bookings with the given IDs, one transaction per chunk, giving back the seats of
+   * the confirmed ones.
+   */
+  @Override
+  public int deleteAll(List<Integer> ids) throws DaoException {
+    int[] deleted = {0};
+    try {
+      inChunks(ids, (connection, id) -> {
+        if (delete(connection, id)) {
+          deleted[0]++;
+        }
+      });
+      return deleted[0];
+    } catch (SQLException e) {
+      throw new DaoException("Failed to delete bookings", e);
+    }
+  }
+
+  private Optional<Booking> reserve(Connection connection, Booking booking)
+      throws SQLException {
+    Reservation reservation = Reservation.of(booking);
+
+    try (PreparedStatement stmt = connection.prepareStatement(RESERVE_SQL)) {
+      reservation.bindSeats(stmt, booking);
+      reservation.bindBooking(stmt, 4, booking);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        if (!rs.next()) {
+          return Optional.empty();
+        }
+        reservation.applyTo(booking, rs.getInt(Columns.BOOKING_ID),
+            rs.getTimestamp(Columns.CREATED_AT));
+        return Optional.of(booking);
+      }
+    }
+  }
+
+  private boolean delete(Connection connection, Integer id) throws SQLException {
+    try (PreparedStatement stmt = connection.prepareStatement(DELETE_SQL)) {
+      stmt.setInt(1, id);
+      stmt.setInt(2, BookingStatus.CONFIRMED.getId());
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() && rs.getInt(1) > 0;
+      }
+    }
+  }
+
+  /**
+   * Applies {@code action} to every item on one connection per chunk of
+   * {@link BatchSupport#CHUNK_SIZE}, each chunk in its own transaction.
+   */
+  private static <T> void inChunks(List<T> items, ChunkAction<T> action)
+      throws SQLException, DaoException {
+    for (int from = 0; from < items.size(); from += BatchSupport.CHUNK_SIZE) {
+      List<T> chunk = items.subList(from, Math.min(from + BatchSupport.CHUNK_SIZE, items.size()));
+
+      try (Connection conn = ConnectionManager.getConnection()) {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+          for (T item : chunk) {
+            action.apply(conn, item);
+          }
+          conn.commit();
+        } catch (SQLException | DaoException | RuntimeException e) {
+          conn.rollback();
+          throw e;
+        } finally {
+          conn.setAutoCommit(autoCommit);
+        }
+      }
+    }
+  }
+
+  private static String newReference() {
+    char[] reference = new char[REFERENCE_LENGTH];
+    for (int i = 0; i < reference.length; i++) {
+      reference[i] = REFERENCE_ALPHABET.charAt(random.nextInt(REFERENCE_ALPHABET.length()));
+    }
+    return new String(reference);
+  }
+
+  private Booking mapRowToBooking(ResultSet rs) throws SQLException {
+    Timestamp createdAt = rs.getTimestamp(Columns.CREATED_AT);
+    return Booking.builder()
+        .bookingId(rs.getInt(Columns.BOOKING_ID))
+        .userId(rs.getObject(Columns.USER_ID, Integer.class))
+        .flightId(rs.getObject(Columns.FLIGHT_ID, Integer.class))
+        .status(BookingStatus.fromId(rs.getInt(Columns.BOOKING_STATUS_ID)))
+        .paymentStatus(PaymentStatus.fromId(rs.getInt(Columns.PAYMENT_STATUS_ID)))
+        .bookingReference(rs.getString(Columns.BOOKING_REFERENCE))
+        .seats(rs.getInt(Columns.SEATS))
+        .totalPrice(rs.getBigDecimal(Columns.TOTAL_PRICE))
+        .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+        .build();
+  }
+
+  private void setUpdateParameters(PreparedStatement stmt, Booking booking) throws SQLException {
+    stmt.setInt(1, booking.getPaymentStatus().getId());
+    stmt.setBigDecimal(2, booking.getTotalPrice());
+    stmt.setInt(3, booking.getBookingId());
+  }
+
+  /**
+   * Validated reservation parameters of a booking, with defaults filled in.
+   */
+  private static final class Reservation {
+    private final int seats;
+    private final PaymentStatus paymentStatus;
+    private final String reference;
+
+    private Reservation(int seats, PaymentStatus paymentStatus, String reference) {
+      this.seats = seats;
+      this.paymentStatus = paymentStatus;
+      this.reference = reference;
+    }
+
+    static Reservation of(Booking booking) {
+      if (booking.getFlightId() == null) {
+        throw new IllegalArgumentException("Booking has no flight");
+      }
+      if (booking.getTotalPrice() == null || booking.getTotalPrice().signum() < 0) {
+        throw new IllegalArgumentException("Booking total price must not be negative");
+      }
+      int seats = booking.getSeats() != null ? booking.getSeats() : 1;
+      if (seats < 1) {
+        throw new IllegalArgumentException("Booking must hold at least one seat");
+      }
+      return new Reservation(seats,
+          booking.getPaymentStatus() != null ? booking.getPaymentStatus() : PaymentStatus.PENDING,
+          booking.getBookingReference() != null ? booking.getBookingReference() : newReference());
+    }
+
+    /**
+     * Binds the seat update, parameters 1 to 3.
+     */
+    void bindSeats(PreparedStatement stmt, Booking booking) throws SQLException {
+      stmt.setInt(1, seats);
+      stmt.setInt(2, booking.getFlightId());
+      stmt.setInt(3, seats);
+    }
+
+    /**
+     * Binds the inserted booking columns, six parameters from {@code first}.
+     */
+    void bindBooking(PreparedStatement stmt, int first, Booking booking) throws SQLException {
+      stmt.setObject(first, booking.getUserId(), Types.INTEGER);
+      stmt.setInt(first + 1, BookingStatus.CONFIRMED.getId());
+      stmt.setInt(first + 2, paymentStatus.getId());
+      stmt.setString(first + 3, reference);
+      stmt.setInt(first + 4, seats);
+      stmt.setBigDecimal(first + 5, booking.getTotalPrice());
+    }
+
+    void applyTo(Booking booking, int bookingId, Timestamp createdAt) {
+      booking.setBookingId(bookingId);
+      booking.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+      booking.setStatus(BookingStatus.CONFIRMED);
+      booking.setPaymentStatus(paymentStatus);
+      booking.setBookingReference(reference);
+      booking.setSeats(seats);
+    }
+  }
+
+  /**
+   * Work done for one item inside a chunk transaction.
+   */
+  @FunctionalInterface
+  private interface ChunkAction<T> {
+    void apply(Connection connection, T item) throws SQLException, DaoException;
+  }
+
+  // Column name constants
+  private static final class Columns {
+    static final String BOOKING_ID = "booking_id";
+    static final String USER_ID = "user_id";
+    static final String FLIGHT_ID = "flight_id";
+    static final String BOOKING_STATUS_ID = "booking_status_id";
+    static final String PAYMENT_STATUS_ID = "payment_status_id";
+    static final String BOOKING_REFERENCE = "booking_reference";
+    static final String SEATS = "seats";
+    static final String TOTAL_PRICE = "total_price";
+    static final String CREATED_AT = "created_at";
+    static final String CAPACITY = "capacity";
+    static final String SEATS_BOOKED = "seats_booked";
+  }
+
+}
@@ -0,0 +1,310 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import ru.brynkin.flightbooking.dao.AirlineDao;
+import ru.brynkin.flightbooking.entity.Airline;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+
+/**
+ * Caching implementation of the {@link AirlineDao} interface that keeps the whole
+ * {@code airlines} table in memory.
+ *
+ * <p>Works the same way as {@link CachedAirportDaoImpl}: the table is loaded once through the
+ * delegate DAO into an immutable snapshot indexed by IATA code, ICAO code and country, and every
+ * successful write replaces the snapshot with a patched copy.</p>
+ *
+ * @see AirlineDaoImpl
+ * @see AirlineDao
+ */
+
+public class CachedAirlineDaoImpl implements AirlineDao {
+
+  // Singleton pattern
+  private static volatile CachedAirlineDaoImpl instance;
+
+  private final AirlineDao delegate;
+  private final Object lock = new Object();
+  private volatile Snapshot snapshot;
+  // Incremented under the lock whenever the cached table may have changed
+  private volatile long version;
+
+  CachedAirlineDaoImpl(AirlineDao delegate) {
+    this.delegate = delegate;
+  }
+
+  public static CachedAirlineDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (CachedAirlineDaoImpl.class) {
+        if (instance == null) {
+          instance = new CachedAirlineDaoImpl(AirlineDaoImpl.getInstance());
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public Optional<Airline> findById(Integer id) throws DaoException {
+    return Optional.ofNullable(snapshot().byId.get(id)).map(CachedAirlineDaoImpl::copyOf);
+  }
+
+  @Override
+  public List<Airline> findAll() throws DaoException {
+    return copyAll(snapshot().byId.values());
+  }
+
+  @Override
+  public List<Airline> findByCountry(String country) throws DaoException {
+    return copyAll(snapshot().byCountry.getOrDefault(country, List.of()));
+  }
+
+  @Override
+  public Optional<Airline> findByIataCode(String iataCode) throws DaoException {
+    return Optional.ofNullable(snapshot().byIata.get(iataCode))
+        .map(CachedAirlineDaoImpl::copyOf);
+  }
+
+  @Override
+  public Optional<Airline> findByIcaoCode(String icaoCode) throws DaoException {
+    return Optional.ofNullable(snapshot().byIcao.get(icaoCode))
+        .map(CachedAirlineDaoImpl::copyOf);
+  }
+
+  @Override
+  public Airline create(Airline airline) throws DaoException {
+    Airline created = writeThrough(() -> delegate.create(airline));
+    applyUpsert(created);
+    return created;
+  }
+
+  @Override
+  public Airline update(Airline airline) throws DaoException {
+    Airline updated = writeThrough(() -> delegate.update(airline));
+    applyUpsert(updated);
+    return updated;
+  }
+
+  @Override
+  public boolean delete(Integer id) throws DaoException {
+    boolean deleted = writeThrough(() -> delegate.delete(id));
+    if (deleted) {
+      synchronized (lock) {
+        version++;
+        if (snapshot != null) {
+          snapshot = snapshot.without(id);
+        }
+      }
+    }
+    return deleted;
+  }
+
+  @Override
+  public List<Airline> createAll(List<Airline> airlines) throws DaoException {
+    List<Airline> created = writeThrough(() -> delegate.createAll(airlines));
+    applyUpsertAll(created);
+    return created;
+  }
+
+  @Override
+  public List<Airline> updateAll(List<Airline> airlines) throws DaoException {
+    List<Airline> updated = writeThrough(() -> delegate.updateAll(airlines));
+    applyUpsertAll(updated);
+    return updated;
+  }
+
+  @Override
+  public int deleteAll(List<Integer> ids) throws DaoException {
+    int deleted = writeThrough(() -> delegate.deleteAll(ids));
+    if (deleted > 0) {
+      synchronized (lock) {
+        version++;
+        if (snapshot != null) {
+          snapshot = snapshot.withoutAll(ids);
+        }
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Drops the in-memory snapshot. The next read reloads the table through the delegate.
+   */
+  public void invalidate() {
+    synchronized (lock) {
+      version++;
+      snapshot = null;
+    }
+  }
+
+  /**
+   * Eagerly reloads the snapshot from the primary database.
+   *
+   * @throws DaoException if the reload query fails
+   */
+  public void refresh() throws DaoException {
+    synchronized (lock) {
+      version++;
+      snapshot = Snapshot.of(ConnectionManager.readFromPrimary(delegate::findAll));
+    }
+  }
+
+  /**
+   * Returns a number that changes whenever this cache applies a write or is invalidated or
+   * refreshed, so derived data built after reading it can tell when to rebuild.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  private Snapshot snapshot() throws DaoException {
+    Snapshot current = snapshot;
+    if (current != null) {
+      return current;
+    }
+    synchronized (lock) {
+      if (snapshot == null) {
+        // From the primary: the cache has no TTL, so a lagging replica's rows would stay
+        snapshot = Snapshot.of(ConnectionManager.readFromPrimary(delegate::findAll));
+      }
+      return snapshot;
+    }
+  }
+
+  private void applyUpsert(Airline airline) {
+    if (airline == null || airline.getAirlineId() == null) {
+      invalidate();
+      return;
+    }
+    synchronized (lock) {
+      version++;
+      if (snapshot != null) {
+        snapshot = snapshot.with(copyOf(airline));
+      }
+    }
+  }
+
+  private void applyUpsertAll(List<Airline> airlines) {
+    List<Airline> copies = new ArrayList<>(airlines.size());
+    for (Airline airline : airlines) {
+      if (airline.getAirlineId() == null) {
+        invalidate();
+        return;
+      }
+      copies.add(copyOf(airline));
+    }
+    synchronized (lock) {
+      version++;
+      if (snapshot != null) {
+        snapshot = snapshot.withAll(copies);
+      }
+    }
+  }
+
+  private <R> R writeThrough(Write<R> write) throws DaoException {
+    try {
+      return write.execute();
+    } catch (DaoException | RuntimeException e) {
+      invalidate();
+      throw e;
+    }
+  }
+
+  private static List<Airline> copyAll(Collection<Airline> airlines) {
+    List<Airline> copies = new ArrayList<>(airlines.size());
+    for (Airline airline : airlines) {
+      copies.add(copyOf(airline));
+    }
+    return copies;
+  }
+
+  private static Airline copyOf(Airline airline) {
+    return Airline.builder()
+        .airlineId(airline.getAirlineId())
+        .name(airline.getName())
+        .iataCode(airline.getIataCode())
+        .icaoCode(airline.getIcaoCode())
+        .country(airline.getCountry())
+        .active(airline.getActive())
+        .build();
+  }
+
+  @FunctionalInterface
+  private interface Write<R> {
+    R execute() throws DaoException;
+  }
+
+  /**
+   * Immutable view of the airlines table together with its secondary indexes.
+   */
+  private static final class Snapshot {
+    private final Map<Integer, Airline> byId;
+    private final Map<String, Airline> byIata;
+    private final Map<String, Airline> byIcao;
+    private final Map<String, List<Airline>> byCountry;
+
+    private Snapshot(Map<Integer, Airline> byId) {
+      Map<String, Airline> iata = new HashMap<>();
+      Map<String, Airline> icao = new HashMap<>();
+      Map<String, List<Airline>> country = new HashMap<>();
+
+      for (Airline airline : byId.values()) {
+        if (airline.getIataCode() != null) {
+          iata.put(airline.getIataCode(), airline);
+        }
+        if (airline.getIcaoCode() != null) {
+          icao.put(airline.getIcaoCode(), airline);
+        }
+        if (airline.getCountry() != null) {
+          country.computeIfAbsent(airline.getCountry(), k -> new ArrayList<>()).add(airline);
+        }
+      }
+
+      this.byId = Collections.unmodifiableMap(byId);
+      this.byIata = iata;
+      this.byIcao = icao;
+      this.byCountry = country;
+    }
+
+    static Snapshot of(Collection<Airline> airlines) {
+      Map<Integer, Airline> byId = new TreeMap<>();
+      for (Airline airline : airlines) {
+        byId.put(airline.getAirlineId(), copyOf(airline));
+      }
+      return new Snapshot(byId);
+    }
+
+    Snapshot with(Airline airline) {
+      Map<Integer, Airline> copy = new TreeMap<>(byId);
+      copy.put(airline.getAirlineId(), airline);
+      return new Snapshot(copy);
+    }
+
+    Snapshot without(Integer id) {
+      Map<Integer, Airline> copy = new TreeMap<>(byId);
+      copy.remove(id);
+      return new Snapshot(copy);
+    }
+
+    Snapshot withAll(Collection<Airline> airlines) {
+      Map<Integer, Airline> copy = new TreeMap<>(byId);
+      for (Airline airline : airlines) {
+        copy.put(airline.getAirlineId(), airline);
+      }
+      return new Snapshot(copy);
+    }
+
+    Snapshot withoutAll(Collection<Integer> ids) {
+      Map<Integer, Airline> copy = new TreeMap<>(byId);
+      copy.keySet().removeAll(ids);
+      return new Snapshot(copy);
+    }
+  }
+}
@@ -0,0 +1,428 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import ru.brynkin.flightbooking.dao.AirportDao;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.search.AirportSuggestIndex;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+
+/**
+ * Caching implementation of the {@link AirportDao} interface that keeps the whole
+ * {@code airports} table in memory.
+ *
+ * <p>The first read loads every airport through the delegate DAO and builds an immutable
+ * snapshot with secondary indexes by IATA code, ICAO code, city and country. Subsequent reads
+ * never touch the database. Writes go straight to the delegate and, once committed, replace the
+ * snapshot with a patched copy (write-through), so readers never block and never observe a
+ * half-updated index.</p>
+ *
+ * <p>Entities are copied on the way in and on the way out, so callers are free to mutate what
+ * they receive without corrupting the cache.</p>
+ *
+ * <p>{@link #suggest(String, int)} answers typeahead queries from an
+ * {@link AirportSuggestIndex} built from the snapshot on first use. Writes through this cache
+ * and {@link #refresh(Collection)} patch the index for the airports they touch; only an
+ * invalidation or full refresh makes it rebuild.</p>
+ *
+ * @see AirportDaoImpl
+ * @see AirportDao
+ */
+
+public class CachedAirportDaoImpl implements AirportDao {
+
+  // Singleton pattern
+  private static volatile CachedAirportDaoImpl instance;
+
+  private final AirportDao delegate;
+  private final Object lock = new Object();
+  private volatile Snapshot snapshot;
+  private volatile AirportSuggestIndex suggestIndex;
+  // Incremented under the lock whenever the cached table may have changed
+  private volatile long version;
+
+  CachedAirportDaoImpl(AirportDao delegate) {
+    this.delegate = delegate;
+  }
+
+  public static CachedAirportDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (CachedAirportDaoImpl.class) {
+        if (instance == null) {
+          instance = new CachedAirportDaoImpl(AirportDaoImpl.getInstance());
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public Optional<Airport> findById(Integer id) throws DaoException {
+    return Optional.ofNullable(snapshot().byId.get(id)).map(CachedAirportDaoImpl::copyOf);
+  }
+
+  @Override
+  public List<Airport> findAll() throws DaoException {
+    return copyAll(snapshot().byId.values());
+  }
+
+  @Override
+  public List<Airport> findByCountry(String country) throws DaoException {
+    return copyAll(snapshot().byCountry.getOrDefault(country, List.of()));
+  }
+
+  @Override
+  public List<Airport> findByCity(String city) throws DaoException {
+    return copyAll(snapshot().byCity.getOrDefault(city, List.of()));
+  }
+
+  @Override
+  public Optional<Airport> findByIataCode(String iataCode) throws DaoException {
+    return Optional.ofNullable(snapshot().byIata.get(iataCode))
+        .map(CachedAirportDaoImpl::copyOf);
+  }
+
+  @Override
+  public Optional<Airport> findByIcaoCode(String icaoCode) throws DaoException {
+    return Optional.ofNullable(snapshot().byIcao.get(icaoCode))
+        .map(CachedAirportDaoImpl::copyOf);
+  }
+
+  @Override
+  public List<Airport> findPage(Integer afterAirportId, int limit) throws DaoException {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Page limit must be positive");
+    }
+    NavigableMap<Integer, Airport> byId = snapshot().byId;
+    Collection<Airport> tail = afterAirportId == null
+        ? byId.values()
+        : byId.tailMap(afterAirportId, false).values();
+
+    List<Airport> page = new ArrayList<>(Math.min(limit, tail.size()));
+    for (Airport airport : tail) {
+      if (page.size() == limit) {
+        break;
+      }
+      page.add(copyOf(airport));
+    }
+    return page;
+  }
+
+  @Override
+  public void forEach(Consumer<? super Airport> action) throws DaoException {
+    for (Airport airport : snapshot().byId.values()) {
+      action.accept(copyOf(airport));
+    }
+  }
+
+  /**
+   * Returns up to {@code limit} airports whose name, city or codes match what was typed so
+   * far, best match first.
+   *
+   * @see AirportSuggestIndex#suggest(String, int)
+   */
+  public List<Airport> suggest(String query, int limit) throws DaoException {
+    return copyAll(suggestIndex().suggest(query, limit));
+  }
+
+  @Override
+  public Airport create(Airport airport) throws DaoException {
+    Airport created = writeThrough(() -> delegate.create(airport));
+    applyUpsert(created);
+    return created;
+  }
+
+  @Override
+  public Airport update(Airport airport) throws DaoException {
+    Airport updated = writeThrough(() -> delegate.update(airport));
+    applyUpsert(updated);
+    return updated;
+  }
+
+  @Override
+  public boolean delete(Integer id) throws DaoException {
+    boolean deleted = writeThrough(() -> delegate.delete(id));
+    if (deleted) {
+      synchronized (lock) {
+        version++;
+        if (snapshot != null) {
+          snapshot = snapshot.without(id);
+        }
+        if (suggestIndex != null) {
+          suggestIndex.remove(id);
+        }
+      }
+    }
+    return deleted;
+  }
+
+  @Override
+  public List<Airport> createAll(List<Airport> airports) throws DaoException {
+    List<Airport> created = writeThrough(() -> delegate.createAll(airports));
+    applyUpsertAll(created);
+    return created;
+  }
+
+  @Override
+  public List<Airport> updateAll(List<Airport> airports) throws DaoException {
+    List<Airport> updated = writeThrough(() -> delegate.updateAll(airports));
+    applyUpsertAll(updated);
+    return updated;
+  }
+
+  @Override
+  public int deleteAll(List<Integer> ids) throws DaoException {
+    int deleted = writeThrough(() -> delegate.deleteAll(ids));
+    if (deleted > 0) {
+      synchronized (lock) {
+        version++;
+        if (snapshot != null) {
+          snapshot = snapshot.withoutAll(ids);
+        }
+        if (suggestIndex != null) {
+          ids.forEach(suggestIndex::remove);
+        }
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Drops the in-memory snapshot. The next read reloads the table through the delegate.
+   */
+  public void invalidate() {
+    synchronized (lock) {
+      version++;
+      snapshot = null;
+      suggestIndex = null;
+    }
+  }
+
+  /**
+   * Eagerly reloads the snapshot from the primary database.
+   *
+   * @throws DaoException if the reload query fails
+   */
+  public void refresh() throws DaoException {
+    synchronized (lock) {
+      version++;
+      snapshot = Snapshot.of(ConnectionManager.readFromPrimary(delegate::findAll));
+      suggestIndex = null;
+    }
+  }
+
+  /**
+   * Re-reads the given airports through the delegate after they were changed elsewhere, e.g.
+   * on another node, and patches the snapshot and the suggest index with what was found. The
+   * re-reads go to the primary, since a replica may not have replayed the change yet and
+   * neither the snapshot nor the index would ever drop a stale row read from it.
+   *
+   * @throws DaoException if a re-read fails; the cache is then invalidated
+   */
+  public void refresh(Collection<Integer> airportIds) throws DaoException {
+    for (Integer airportId : airportIds) {
+      Optional<Airport> airport = writeThrough(
+          () -> ConnectionManager.readFromPrimary(() -> delegate.findById(airportId)));
+      if (airport.isPresent()) {
+        applyUpsert(airport.get());
+      } else {
+        synchronized (lock) {
+          version++;
+          if (snapshot != null) {
+            snapshot = snapshot.without(airportId);
+          }
+          if (suggestIndex != null) {
+            suggestIndex.remove(airportId);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns a number that changes whenever this cache applies a write or is invalidated or
+   * refreshed, so derived data built after reading it can tell when to rebuild.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  private Snapshot snapshot() throws DaoException {
+    Snapshot current = snapshot;
+    if (current != null) {
+      return current;
+    }
+    synchronized (lock) {
+      if (snapshot == null) {
+        snapshot = Snapshot.of(delegate.findAll());
+      }
+      return snapshot;
+    }
+  }
+
+  private AirportSuggestIndex suggestIndex() throws DaoException {
+    AirportSuggestIndex current = suggestIndex;
+    if (current != null) {
+      return current;
+    }
+    synchronized (lock) {
+      if (suggestIndex == null) {
+        suggestIndex = AirportSuggestIndex.of(snapshot().byId.values());
+      }
+      return suggestIndex;
+    }
+  }
+
+  private void applyUpsert(Airport airport) {
+    if (airport == null || airport.getAirportId() == null) {
+      invalidate();
+      return;
+    }
+    Airport copy = copyOf(airport);
+    synchronized (lock) {
+      version++;
+      if (snapshot != null) {
+        snapshot = snapshot.with(copy);
+      }
+      if (suggestIndex != null) {
+        suggestIndex.put(copy);
+      }
+    }
+  }
+
+  private void applyUpsertAll(List<Airport> airports) {
+    List<Airport> copies = new ArrayList<>(airports.size());
+    for (Airport airport : airports) {
+      if (airport.getAirportId() == null) {
+        invalidate();
+        return;
+      }
+      copies.add(copyOf(airport));
+    }
+    synchronized (lock) {
+      version++;
+      if (snapshot != null) {
+        snapshot = snapshot.withAll(copies);
+      }
+      if (suggestIndex != null) {
+        copies.forEach(suggestIndex::put);
+      }
+    }
+  }
+
+  /**
+   * Runs a delegate write and drops the snapshot if the write fails, since the table state is
+   * then unknown (for example the row may have been removed by someone else).
+   */
+  private <R> R writeThrough(Write<R> write) throws DaoException {
+    try {
+      return write.execute();
+    } catch (DaoException | RuntimeException e) {
+      invalidate();
+      throw e;
+    }
+  }
+
+  private static List<Airport> copyAll(Collection<Airport> airports) {
+    List<Airport> copies = new ArrayList<>(airports.size());
+    for (Airport airport : airports) {
+      copies.add(copyOf(airport));
+    }
+    return copies;
+  }
+
+  private static Airport copyOf(Airport airport) {
+    return Airport.builder()
+        .airportId(airport.getAirportId())
+        .name(airport.getName())
+        .city(airport.getCity())
+        .country(airport.getCountry())
+        .iataCode(airport.getIataCode())
+        .icaoCode(airport.getIcaoCode())
+        .timezone(airport.getTimezone())
+        .build();
+  }
+
+  @FunctionalInterface
+  private interface Write<R> {
+    R execute() throws DaoException;
+  }
+
+  /**
+   * Immutable view of the airports table together with its secondary indexes.
+   */
+  private static final class Snapshot {
+    private final NavigableMap<Integer, Airport> byId;
+    private final Map<String, Airport> byIata;
+    private final Map<String, Airport> byIcao;
+    private final Map<String, List<Airport>> byCity;
+    private final Map<String, List<Airport>> byCountry;
+
+    private Snapshot(TreeMap<Integer, Airport> byId) {
+      Map<String, Airport> iata = new HashMap<>();
+      Map<String, Airport> icao = new HashMap<>();
+      Map<String, List<Airport>> city = new HashMap<>();
+      Map<String, List<Airport>> country = new HashMap<>();
+
+      for (Airport airport : byId.values()) {
+        if (airport.getIataCode() != null) {
+          iata.put(airport.getIataCode(), airport);
+        }
+        if (airport.getIcaoCode() != null) {
+          icao.put(airport.getIcaoCode(), airport);
+        }
+        city.computeIfAbsent(airport.getCity(), k -> new ArrayList<>()).add(airport);
+        country.computeIfAbsent(airport.getCountry(), k -> new ArrayList<>()).add(airport);
+      }
+
+      this.byId = Collections.unmodifiableNavigableMap(byId);
+      this.byIata = iata;
+      this.byIcao = icao;
+      this.byCity = city;
+      this.byCountry = country;
+    }
+
+    static Snapshot of(Collection<Airport> airports) {
+      TreeMap<Integer, Airport> byId = new TreeMap<>();
+      for (Airport airport : airports) {
+        byId.put(airport.getAirportId(), copyOf(airport));
+      }
+      return new Snapshot(byId);
+    }
+
+    Snapshot with(Airport airport) {
+      TreeMap<Integer, Airport> copy = new TreeMap<>(byId);
+      copy.put(airport.getAirportId(), airport);
+      return new Snapshot(copy);
+    }
+
+    Snapshot without(Integer id) {
+      TreeMap<Integer, Airport> copy = new TreeMap<>(byId);
+      copy.remove(id);
+      return new Snapshot(copy);
+    }
+
+    Snapshot withAll(Collection<Airport> airports) {
+      TreeMap<Integer, Airport> copy = new TreeMap<>(byId);
+      for (Airport airport : airports) {
+        copy.put(airport.getAirportId(), airport);
+      }
+      return new Snapshot(copy);
+    }
+
+    Snapshot withoutAll(Collection<Integer> ids) {
+      TreeMap<Integer, Airport> copy = new TreeMap<>(byId);
+      copy.keySet().removeAll(ids);
+      return new Snapshot(copy);
+    }
+  }
+}
@@ -0,0 +1,515 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import ru.brynkin.flightbooking.dao.FlightDao;
+import ru.brynkin.flightbooking.entity.Airline;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.metrics.CacheMetrics;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+import ru.brynkin.flightbooking.util.PropertiesUtil;
+
+/**
+ * {@link FlightDao} decorator that caches the results of
+ * {@link #findByCriteria(Integer, Integer, LocalDate, FlightStatus)} keyed by the criteria
+ * tuple. All other reads go straight to the delegate.
+ *
+ * <p>The cache is bounded: an entry expires {@code flight.search-cache.ttl-seconds} after it was
+ * loaded, and once {@code flight.search-cache.max-entries} is exceeded the least recently used
+ * entry is dropped.</p>
+ *
+ * <p>Writes evict only the entries whose criteria match the written flight's route, departure
+ * day and status, before and after the write; every {@code null} criterion matches anything.
+ * The "before" state is known from the cached results themselves: a result that matched the
+ * old state of a flight contains that flight. A search that was running while a write was
+ * evicting is returned to its caller but not cached, so a result read before a commit never
+ * outlives it. For {@code flight.search-cache.primary-reads-ms} after any eviction, misses are
+ * loaded from the primary: a replica may not have replayed the write yet, and the result read
+ * from it would be cached for the full TTL.</p>
+ *
+ * <p>Hit, miss and eviction counts are exported as the {@code flightSearch}
+ * {@link CacheMetrics}. Entities are copied on the way out, so callers are free to mutate what
+ * they receive without corrupting the cache.</p>
+ *
+ * @see FlightDaoImpl
+ * @see FlightDao
+ */
+
+public class CachedFlightDaoImpl implements FlightDao {
+
+  private static final String MAX_ENTRIES_KEY = "flight.search-cache.max-entries";
+  private static final String TTL_SECONDS_KEY = "flight.search-cache.ttl-seconds";
+  private static final String PRIMARY_READS_MS_KEY = "flight.search-cache.primary-reads-ms";
+  private static final int DEFAULT_MAX_ENTRIES = 10_000;
+  private static final long DEFAULT_TTL_SECONDS = 60;
+  private static final long DEFAULT_PRIMARY_READS_MS = 1000;
+
+  // Singleton pattern
+  private static volatile CachedFlightDaoImpl instance;
+
+  private final FlightDao delegate;
+  private final int maxEntries;
+  private final long ttlNanos;
+  private final long primaryReadsNanos;
+  private final CacheMetrics metrics;
+  private final Object lock = new Object();
+
+  // Access order: the eldest entry is the least recently used one
+  private final LinkedHashMap<SearchKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  // Flights contained in cached results, with the slot they were cached under
+  private final Map<Integer, Placement> placements = new HashMap<>();
+  // Incremented by every eviction caused by a write
+  private long generation;
+  // nanoTime until which misses are loaded from the primary
+  private long primaryReadsUntil;
+
+  CachedFlightDaoImpl(FlightDao delegate, int maxEntries, Duration ttl,
+                      Duration primaryReads) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("Maximum number of entries must be positive");
+    }
+    if (ttl.isNegative() || ttl.isZero()) {
+      throw new IllegalArgumentException("Time to live must be positive");
+    }
+    if (primaryReads.isNegative()) {
+      throw new IllegalArgumentException("Primary reads window must not be negative");
+    }
+    this.delegate = delegate;
+    this.maxEntries = maxEntries;
+    this.ttlNanos = ttl.toNanos();
+    this.primaryReadsNanos = primaryReads.toNanos();
+    this.primaryReadsUntil = System.nanoTime();
+    this.metrics = CacheMetrics.create("flightSearch", this::size);
+  }
+
+  /**
+   * Returns the cache over {@link MeteredFlightDaoImpl#getInstance()}, configured by
+   * {@code flight.search-cache.max-entries}, {@code flight.search-cache.ttl-seconds} and
+   * {@code flight.search-cache.primary-reads-ms}.
+   */
+  public static CachedFlightDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (CachedFlightDaoImpl.class) {
+        if (instance == null) {
+          String maxEntries = PropertiesUtil.get(MAX_ENTRIES_KEY);
+          String ttlSeconds = PropertiesUtil.get(TTL_SECONDS_KEY);
+          String primaryReadsMs = PropertiesUtil.get(PRIMARY_READS_MS_KEY);
+          instance = new CachedFlightDaoImpl(MeteredFlightDaoImpl.getInstance(),
+              maxEntries != null ? Integer.parseInt(maxEntries) : DEFAULT_MAX_ENTRIES,
+              Duration.ofSeconds(ttlSeconds != null
+                  ? Long.parseLong(ttlSeconds) : DEFAULT_TTL_SECONDS),
+              Duration.ofMillis(primaryReadsMs != null
+                  ? Long.parseLong(primaryReadsMs) : DEFAULT_PRIMARY_READS_MS));
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public List<Flight> findByCriteria(Integer departureAirportId, Integer arrivalAirportId,
+                                     LocalDate date, FlightStatus status) throws DaoException {
+    SearchKey key = new SearchKey(departureAirportId, arrivalAirportId, date, status);
+    List<Flight> cached = null;
+    long loadGeneration;
+    boolean fromPrimary;
+
+    synchronized (lock) {
+      Entry entry = entries.get(key);
+      if (entry != null) {
+        if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+          cached = entry.flights;
+        } else {
+          release(entries.remove(key));
+          metrics.recordExpiration();
+        }
+      }
+      loadGeneration = generation;
+      fromPrimary = System.nanoTime() - primaryReadsUntil < 0;
+    }
+
+    // Cached lists are immutable and their flights never handed out, so copy outside the lock
+    if (cached != null) {
+      metrics.recordHit();
+      return copyAll(cached);
+    }
+
+    metrics.recordMiss();
+    List<Flight> flights = fromPrimary
+        ? ConnectionManager.readFromPrimary(() -> delegate.findByCriteria(departureAirportId,
+            arrivalAirportId, date, status))
+        : delegate.findByCriteria(departureAirportId, arrivalAirportId, date, status);
+
+    synchronized (lock) {
+      if (generation == loadGeneration) {
+        put(key, new Entry(List.copyOf(flights), System.nanoTime()));
+      }
+    }
+    return copyAll(flights);
+  }
+
+  @Override
+  public Optional<Flight> findById(Integer id) throws DaoException {
+    return delegate.findById(id);
+  }
+
+  @Override
+  public List<Flight> findAll() throws DaoException {
+    return delegate.findAll();
+  }
+
+  @Override
+  public List<Flight> findPage(LocalDateTime afterDepartureTime, Integer afterFlightId,
+                               int limit) throws DaoException {
+    return delegate.findPage(afterDepartureTime, afterFlightId, limit);
+  }
+
+  @Override
+  public void forEach(Consumer<? super Flight> action) throws DaoException {
+    delegate.forEach(action);
+  }
+
+  @Override
+  public void forEachByCriteria(Integer departureAirportId, Integer arrivalAirportId,
+                                LocalDate date, FlightStatus status,
+                                Consumer<? super Flight> action) throws DaoException {
+    delegate.forEachByCriteria(departureAirportId, arrivalAirportId, date, status, action);
+  }
+
+  @Override
+  public Flight create(Flight flight) throws DaoException {
+    Flight created = delegate.create(flight);
+    evict(List.of(), List.of(created));
+    return created;
+  }
+
+  @Override
+  public Flight update(Flight flight) throws DaoException {
+    Flight updated = delegate.update(flight);
+    evict(List.of(updated.getFlightId()), List.of(updated));
+    return updated;
+  }
+
+  /**
+   * Evicts the slots of the flight under its old and new status. When the flight is not in
+   * any cached result, its route and day are read back through the delegate.
+   */
+  @Override
+  public boolean updateStatus(Integer flightId, FlightStatus newStatus) throws DaoException {
+    boolean updated = delegate.updateStatus(flightId, newStatus);
+    if (updated && !evictStatusChange(flightId, newStatus)) {
+      Optional<Flight> flight = delegate.findById(flightId);
+      if (flight.isPresent()) {
+        // The route and day are unaffected by the status change, even on a lagging replica
+        flight.get().setStatus(newStatus);
+        evict(List.of(), List.of(flight.get()));
+      }
+    }
+    return updated;
+  }
+
+  @Override
+  public boolean delete(Integer id) throws DaoException {
+    boolean deleted = delegate.delete(id);
+    if (deleted) {
+      evict(List.of(id), List.of());
+    }
+    return deleted;
+  }
+
+  @Override
+  public List<Flight> createAll(List<Flight> flights) throws DaoException {
+    List<Flight> created = delegate.createAll(flights);
+    evict(List.of(), created);
+    return created;
+  }
+
+  @Override
+  public List<Flight> updateAll(List<Flight> flights) throws DaoException {
+    List<Flight> updated = delegate.updateAll(flights);
+    List<Integer> ids = new ArrayList<>(updated.size());
+    for (Flight flight : updated) {
+      ids.add(flight.getFlightId());
+    }
+    evict(ids, updated);
+    return updated;
+  }
+
+  @Override
+  public int deleteAll(List<Integer> ids) throws DaoException {
+    int deleted = delegate.deleteAll(ids);
+    if (deleted > 0) {
+      evict(ids, List.of());
+    }
+    return deleted;
+  }
+
+  /**
+   * Drops every cached search result.
+   */
+  public void invalidateAll() {
+    synchronized (lock) {
+      advanceGeneration();
+      metrics.recordInvalidations(entries.size());
+      entries.clear();
+      placements.clear();
+    }
+  }
+
+  /**
+   * Evicts the results affected by changes to the given flights made elsewhere, e.g. on another
+   * node: the slots the flights are cached under and their current slots, read back through the
+   * delegate from the primary, which a lagging replica may not have caught up with yet.
+   */
+  public void refresh(Collection<Integer> flightIds) throws DaoException {
+    List<Flight> current = new ArrayList<>(flightIds.size());
+    ConnectionManager.readFromPrimary(() -> {
+      for (Integer flightId : flightIds) {
+        delegate.findById(flightId).ifPresent(current::add);
+      }
+      return null;
+    });
+    evict(flightIds, current);
+  }
+
+  public CacheMetrics getMetrics() {
+    return metrics;
+  }
+
+  private int size() {
+    synchronized (lock) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * Evicts the cached slots of the given flight IDs and the current slots of the written
+   * flights. A written flight without a complete route, day and status clears the whole cache.
+   */
+  private void evict(Collection<Integer> flightIds, Collection<Flight> written) {
+    synchronized (lock) {
+      List<Slot> slots = new ArrayList<>(flightIds.size() + written.size());
+      for (Integer flightId : flightIds) {
+        Placement placement = placements.get(flightId);
+        if (placement != null) {
+          slots.add(placement.slot);
+        }
+      }
+      for (Flight flight : written) {
+        Slot slot = Slot.of(flight);
+        if (slot == null) {
+          invalidateAll();
+          return;
+        }
+        slots.add(slot);
+      }
+      evictSlots(slots);
+    }
+  }
+
+  /**
+   * Evicts the cached slot of the flight under its old and new status.
+   *
+   * @return {@code false} if the flight is not in any cached result
+   */
+  private boolean evictStatusChange(Integer flightId, FlightStatus newStatus) {
+    synchronized (lock) {
+      Placement placement = placements.get(flightId);
+      if (placement == null) {
+        advanceGeneration();
+        return false;
+      }
+      evictSlots(List.of(placement.slot, placement.slot.withStatus(newStatus)));
+      return true;
+    }
+  }
+
+  // Caller holds the lock
+  private void advanceGeneration() {
+    generation++;
+    primaryReadsUntil = System.nanoTime() + primaryReadsNanos;
+  }
+
+  // Caller holds the lock
+  private void evictSlots(Collection<Slot> slots) {
+    advanceGeneration();
+    int evicted = 0;
+    for (Slot slot : slots) {
+      for (SearchKey key : slot.matchingKeys()) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+          release(entry);
+          evicted++;
+        }
+      }
+    }
+    metrics.recordInvalidations(evicted);
+  }
+
+  // Caller holds the lock
+  private void put(SearchKey key, Entry entry) {
+    Entry previous = entries.put(key, entry);
+    if (previous != null) {
+      release(previous);
+    }
+    for (Flight flight : entry.flights) {
+      Slot slot = Slot.of(flight);
+      if (slot != null) {
+        placements.computeIfAbsent(flight.getFlightId(), id -> new Placement()).retain(slot);
+      }
+    }
+
+    Iterator<Entry> eldest = entries.values().iterator();
+    while (entries.size() > maxEntries) {
+      Entry evicted = eldest.next();
+      eldest.remove();
+      release(evicted);
+      metrics.recordSizeEviction();
+    }
+  }
+
+  // Caller holds the lock
+  private void release(Entry entry) {
+    for (Flight flight : entry.flights) {
+      Placement placement = placements.get(flight.getFlightId());
+      if (placement != null && --placement.references == 0) {
+        placements.remove(flight.getFlightId());
+      }
+    }
+  }
+
+  private static List<Flight> copyAll(List<Flight> flights) {
+    // Flights of one result share their airline and airport instances; so do the copies
+    Map<Object, Object> references = new IdentityHashMap<>();
+    List<Flight> copies = new ArrayList<>(flights.size());
+    for (Flight flight : flights) {
+      copies.add(Flight.builder()
+          .flightId(flight.getFlightId())
+          .flightNumber(flight.getFlightNumber())
+          .airline((Airline) references.computeIfAbsent(flight.getAirline(),
+              airline -> copyOf((Airline) airline)))
+          .departureAirport((Airport) references.computeIfAbsent(flight.getDepartureAirport(),
+              airport -> copyOf((Airport) airport)))
+          .arrivalAirport((Airport) references.computeIfAbsent(flight.getArrivalAirport(),
+              airport -> copyOf((Airport) airport)))
+          .departureTime(flight.getDepartureTime())
+          .arrivalTime(flight.getArrivalTime())
+          .basePrice(flight.getBasePrice())
+          .status(flight.getStatus())
+          .build());
+    }
+    return copies;
+  }
+
+  private static Airline copyOf(Airline airline) {
+    if (airline == null) {
+      return null;
+    }
+    return Airline.builder()
+        .airlineId(airline.getAirlineId())
+        .name(airline.getName())
+        .iataCode(airline.getIataCode())
+        .icaoCode(airline.getIcaoCode())
+        .country(airline.getCountry())
+        .active(airline.getActive())
+        .build();
+  }
+
+  private static Airport copyOf(Airport airport) {
+    if (airport == null) {
+      return null;
+    }
+    return Airport.builder()
+        .airportId(airport.getAirportId())
+        .name(airport.getName())
+        .city(airport.getCity())
+        .country(airport.getCountry())
+        .iataCode(airport.getIataCode())
+        .icaoCode(airport.getIcaoCode())
+        .timezone(airport.getTimezone())
+        .build();
+  }
+
+  /**
+   * Criteria of one search; {@code null} components match anything.
+   */
+  private record SearchKey(Integer departureAirportId, Integer arrivalAirportId,
+                           LocalDate date, FlightStatus status) {
+  }
+
+  /**
+   * Route, departure day and status of one flight: the only fields the search criteria test.
+   */
+  private record Slot(int departureAirportId, int arrivalAirportId, LocalDate date,
+                      FlightStatus status) {
+
+    static Slot of(Flight flight) {
+      if (flight.getDepartureAirport() == null || flight.getArrivalAirport() == null
+          || flight.getDepartureAirport().getAirportId() == null
+          || flight.getArrivalAirport().getAirportId() == null
+          || flight.getDepartureTime() == null || flight.getStatus() == null) {
+        return null;
+      }
+      return new Slot(flight.getDepartureAirport().getAirportId(),
+          flight.getArrivalAirport().getAirportId(),
+          flight.getDepartureTime().toLocalDate(), flight.getStatus());
+    }
+
+    Slot withStatus(FlightStatus newStatus) {
+      return new Slot(departureAirportId, arrivalAirportId, date, newStatus);
+    }
+
+    /**
+     * Returns the 16 criteria tuples whose results may contain a flight in this slot: each
+     * component either equals the slot's value or is {@code null}.
+     */
+    List<SearchKey> matchingKeys() {
+      List<SearchKey> keys = new ArrayList<>(16);
+      for (int mask = 0; mask < 16; mask++) {
+        keys.add(new SearchKey(
+            (mask & 1) != 0 ? departureAirportId : null,
+            (mask & 2) != 0 ? arrivalAirportId : null,
+            (mask & 4) != 0 ? date : null,
+            (mask & 8) != 0 ? status : null));
+      }
+      return keys;
+    }
+  }
+
+  private static final class Entry {
+    private final List<Flight> flights;
+    private final long loadedAt;
+
+    private Entry(List<Flight> flights, long loadedAt) {
+      this.flights = flights;
+      this.loadedAt = loadedAt;
+    }
+  }
+
+  /**
+   * Number of cached results containing a flight, and the slot it was last cached under.
+   */
+  private static final class Placement {
+    private Slot slot;
+    private int references;
+
+    private void retain(Slot cachedSlot) {
+      slot = cachedSlot;
+      references++;
+    }
+  }
+}
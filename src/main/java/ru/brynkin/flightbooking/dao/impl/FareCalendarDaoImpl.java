@@ -0,0 +1,92 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import ru.brynkin.flightbooking.dao.FareCalendarDao;
+import ru.brynkin.flightbooking.dto.FareCalendarDay;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+
+/**
+ * JDBC implementation of the {@link FareCalendarDao} interface over
+ * {@code route_fare_calendar} (migration V1_9_0).
+ *
+ * <p>The table holds one row per route and day with flights that are not cancelled, and is
+ * maintained by statement triggers on {@code flights}, so a month is one range scan of its
+ * primary key. Reads go to the read connection.</p>
+ *
+ * <p>Follows the singleton pattern to ensure a single instance throughout the application.</p>
+ *
+ * @see FareCalendarDao
+ * @see DaoException
+ */
+
+public class FareCalendarDaoImpl implements FareCalendarDao {
+
+  // Half-open date range, a prefix of the primary key
+  private static final String SELECT_MONTH_SQL = """
+      SELECT departure_date, min_base_price, flights
+      FROM route_fare_calendar
+      WHERE departure_airport_id = ?
+        AND arrival_airport_id = ?
+        AND departure_date >= ?
+        AND departure_date < ?
+      ORDER BY departure_date
+      """;
+
+  // Singleton pattern
+  private static volatile FareCalendarDaoImpl instance;
+
+  private FareCalendarDaoImpl() {
+    // Private constructor to prevent instantiation
+  }
+
+  public static FareCalendarDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (FareCalendarDaoImpl.class) {
+        if (instance == null) {
+          instance = new FareCalendarDaoImpl();
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public List<FareCalendarDay> findMonth(Integer departureAirportId, Integer arrivalAirportId,
+                                         YearMonth month) throws DaoException {
+    if (departureAirportId == null || arrivalAirportId == null || month == null) {
+      throw new IllegalArgumentException("Route and month are required");
+    }
+
+    try (Connection conn = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = conn.prepareStatement(SELECT_MONTH_SQL)) {
+
+      stmt.setInt(1, departureAirportId);
+      stmt.setInt(2, arrivalAirportId);
+      stmt.setDate(3, Date.valueOf(month.atDay(1)));
+      stmt.setDate(4, Date.valueOf(month.plusMonths(1).atDay(1)));
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        List<FareCalendarDay> days = new ArrayList<>(month.lengthOfMonth());
+        while (rs.next()) {
+          days.add(FareCalendarDay.builder()
+              .date(rs.getDate(1).toLocalDate())
+              .minBasePrice(rs.getBigDecimal(2))
+              .flights(rs.getInt(3))
+              .build());
+        }
+        return days;
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find fare calendar of route " + departureAirportId
+                             + "-" + arrivalAirportId + " for " + month, e);
+    }
+  }
+}
@@ -0,0 +1,209 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import ru.brynkin.flightbooking.dao.FlightArchiveDao;
+import ru.brynkin.flightbooking.dao.impl.FlightDaoImpl.FlightViewColumns;
+import ru.brynkin.flightbooking.entity.Booking;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.BookingStatus;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+import ru.brynkin.flightbooking.enums.PaymentStatus;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+
+/**
+ * JDBC implementation of the {@link FlightArchiveDao} interface over {@code flights_history}
+ * and {@code bookings_history} (migration V1_8_0), filled by {@link FlightArchiver}.
+ *
+ * <p>Flights are read from {@code flight_history_view}, which has the columns of
+ * {@code flight_complete_view}, so they are mapped by {@link FlightRowMapper} like live ones.
+ * All reads go to the read connection.</p>
+ *
+ * <p>Follows the singleton pattern to ensure a single instance throughout the application.</p>
+ *
+ * @see FlightArchiveDao
+ * @see DaoException
+ */
+
+public class FlightArchiveDaoImpl implements FlightArchiveDao {
+
+  private static final String FLIGHT_BASE_QUERY = String.join(", ",
+      "SELECT " + FlightViewColumns.FLIGHT_ID, FlightViewColumns.FLIGHT_NUMBER,
+      FlightViewColumns.AIRLINE_ID, FlightViewColumns.AIRLINE_NAME,
+      FlightViewColumns.AIRLINE_IATA, FlightViewColumns.AIRLINE_ICAO,
+      FlightViewColumns.AIRLINE_COUNTRY, FlightViewColumns.AIRLINE_ACTIVE,
+      FlightViewColumns.ARRIVAL_AIRPORT_ID, FlightViewColumns.ARRIVAL_AIRPORT_NAME,
+      FlightViewColumns.ARRIVAL_CITY, FlightViewColumns.ARRIVAL_COUNTRY,
+      FlightViewColumns.ARRIVAL_IATA, FlightViewColumns.ARRIVAL_ICAO,
+      FlightViewColumns.ARRIVAL_TIMEZONE,
+      FlightViewColumns.DEPARTURE_AIRPORT_ID, FlightViewColumns.DEPARTURE_AIRPORT_NAME,
+      FlightViewColumns.DEPARTURE_CITY, FlightViewColumns.DEPARTURE_COUNTRY,
+      FlightViewColumns.DEPARTURE_IATA, FlightViewColumns.DEPARTURE_ICAO,
+      FlightViewColumns.DEPARTURE_TIMEZONE,
+      FlightViewColumns.STATUS_ID, FlightViewColumns.STATUS_NAME,
+      FlightViewColumns.DEPARTURE_TIME, FlightViewColumns.ARRIVAL_TIME,
+      FlightViewColumns.BASE_PRICE) + " FROM flight_history_view";
+
+  private static final String SELECT_FLIGHT_BY_ID_SQL =
+      FLIGHT_BASE_QUERY + " WHERE " + FlightViewColumns.FLIGHT_ID + " = ?";
+
+  private static final String BOOKING_BASE_QUERY = "SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s"
+      .formatted(Columns.BOOKING_ID, Columns.USER_ID, Columns.FLIGHT_ID,
+          Columns.BOOKING_STATUS_ID, Columns.PAYMENT_STATUS_ID, Columns.BOOKING_REFERENCE,
+          Columns.SEATS, Columns.TOTAL_PRICE, Columns.CREATED_AT) + " FROM bookings_history";
+
+  private static final String SELECT_BOOKINGS_BY_FLIGHT_SQL = BOOKING_BASE_QUERY
+      + " WHERE " + Columns.FLIGHT_ID + " = ? ORDER BY " + Columns.BOOKING_ID;
+
+  private static final String SELECT_BOOKINGS_BY_USER_SQL = BOOKING_BASE_QUERY
+      + " WHERE " + Columns.USER_ID + " = ? ORDER BY " + Columns.BOOKING_ID;
+
+  private static final String SELECT_BOOKING_BY_REFERENCE_SQL = BOOKING_BASE_QUERY
+      + " WHERE " + Columns.BOOKING_REFERENCE + " = ?";
+
+  // Singleton pattern
+  private static volatile FlightArchiveDaoImpl instance;
+
+  private FlightArchiveDaoImpl() {
+    // Private constructor to prevent instantiation
+  }
+
+  public static FlightArchiveDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (FlightArchiveDaoImpl.class) {
+        if (instance == null) {
+          instance = new FlightArchiveDaoImpl();
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public Optional<Flight> findFlightById(Integer flightId) throws DaoException {
+    if (flightId == null || flightId <= 0) {
+      throw new IllegalArgumentException("Flight ID must be positive");
+    }
+
+    try (Connection conn = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = conn.prepareStatement(SELECT_FLIGHT_BY_ID_SQL)) {
+
+      stmt.setInt(1, flightId);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? Optional.of(FlightRowMapper.forView(rs).map(rs)) : Optional.empty();
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find archived flight by ID: " + flightId, e);
+    }
+  }
+
+  @Override
+  public List<Flight> findFlightsByCriteria(Integer departureAirportId,
+                                            Integer arrivalAirportId, LocalDate date,
+                                            FlightStatus status) throws DaoException {
+    FlightCriteriaQuery query = FlightCriteriaQuery.of(
+        departureAirportId, arrivalAirportId, date, status);
+
+    try (Connection conn = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = conn.prepareStatement(query.toSql(FLIGHT_BASE_QUERY))) {
+
+      query.bind(stmt);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        List<Flight> flights = new ArrayList<>();
+        FlightRowMapper mapper = FlightRowMapper.forView(rs);
+        while (rs.next()) {
+          flights.add(mapper.map(rs));
+        }
+        return flights;
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find archived flights by criteria", e);
+    }
+  }
+
+  @Override
+  public List<Booking> findBookingsByFlight(Integer flightId) throws DaoException {
+    try (Connection conn = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = conn.prepareStatement(SELECT_BOOKINGS_BY_FLIGHT_SQL)) {
+
+      stmt.setInt(1, flightId);
+      return mapBookings(stmt);
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find archived bookings of flight: " + flightId, e);
+    }
+  }
+
+  @Override
+  public List<Booking> findBookingsByUser(Integer userId) throws DaoException {
+    try (Connection conn = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = conn.prepareStatement(SELECT_BOOKINGS_BY_USER_SQL)) {
+
+      stmt.setInt(1, userId);
+      return mapBookings(stmt);
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find archived bookings of user: " + userId, e);
+    }
+  }
+
+  @Override
+  public Optional<Booking> findBookingByReference(String bookingReference)
+      throws DaoException {
+    try (Connection conn = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = conn.prepareStatement(SELECT_BOOKING_BY_REFERENCE_SQL)) {
+
+      stmt.setString(1, bookingReference);
+      List<Booking> bookings = mapBookings(stmt);
+      return bookings.isEmpty() ? Optional.empty() : Optional.of(bookings.get(0));
+    } catch (SQLException e) {
+      throw new DaoException(
+          "Failed to find archived booking by reference: " + bookingReference, e);
+    }
+  }
+
+  private List<Booking> mapBookings(PreparedStatement stmt) throws SQLException {
+    try (ResultSet rs = stmt.executeQuery()) {
+      List<Booking> bookings = new ArrayList<>();
+      while (rs.next()) {
+        bookings.add(mapRowToBooking(rs));
+      }
+      return bookings;
+    }
+  }
+
+  private Booking mapRowToBooking(ResultSet rs) throws SQLException {
+    Timestamp createdAt = rs.getTimestamp(Columns.CREATED_AT);
+    return Booking.builder()
+        .bookingId(rs.getInt(Columns.BOOKING_ID))
+        .userId(rs.getObject(Columns.USER_ID, Integer.class))
+        .flightId(rs.getObject(Columns.FLIGHT_ID, Integer.class))
+        .status(BookingStatus.fromId(rs.getInt(Columns.BOOKING_STATUS_ID)))
+        .paymentStatus(PaymentStatus.fromId(rs.getInt(Columns.PAYMENT_STATUS_ID)))
+        .bookingReference(rs.getString(Columns.BOOKING_REFERENCE))
+        .seats(rs.getInt(Columns.SEATS))
+        .totalPrice(rs.getBigDecimal(Columns.TOTAL_PRICE))
+        .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+        .build();
+  }
+
+  private static final class Columns {
+    static final String BOOKING_ID = "booking_id";
+    static final String USER_ID = "user_id";
+    static final String FLIGHT_ID = "flight_id";
+    static final String BOOKING_STATUS_ID = "booking_status_id";
+    static final String PAYMENT_STATUS_ID = "payment_status_id";
+    static final String BOOKING_REFERENCE = "booking_reference";
+    static final String SEATS = "seats";
+    static final String TOTAL_PRICE = "total_price";
+    static final String CREATED_AT = "created_at";
+  }
+}
@@ -0,0 +1,52 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings of a {@link FlightArchiver}: which flights are archived, in what batch size, and how
+ * it backs off when the database is busy.
+ */
+@Getter
+@Builder
+public class FlightArchiveOptions {
+
+  /**
+   * Flights that departed at least this long ago are archived, if they arrived or were
+   * cancelled.
+   */
+  @Builder.Default
+  private final Duration minAge = Duration.ofDays(90);
+
+  /**
+   * Flights moved per transaction. Up to 100 keeps the delete's change notification listing
+   * the flight IDs, so caches drop just those flights instead of reloading.
+   */
+  @Builder.Default
+  private final int batchSize = 100;
+
+  /**
+   * Pause between batches, and the first back-off when the database is busy.
+   */
+  @Builder.Default
+  private final Duration pause = Duration.ofMillis(200);
+
+  /**
+   * Longest back-off while throttled; it doubles from {@link #pause} up to this.
+   */
+  @Builder.Default
+  private final Duration maxBackoff = Duration.ofSeconds(30);
+
+  /**
+   * Batches wait while any replica replays further behind than this.
+   */
+  @Builder.Default
+  private final Duration maxReplicationLag = Duration.ofSeconds(5);
+
+  /**
+   * Longest a batch waits for a row lock before it gives up and is retried later.
+   */
+  @Builder.Default
+  private final Duration lockTimeout = Duration.ofSeconds(1);
+}
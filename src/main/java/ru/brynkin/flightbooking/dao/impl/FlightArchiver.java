@@ -0,0 +1,433 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import ru.brynkin.flightbooking.dto.ArchiveResult;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+import ru.brynkin.flightbooking.util.PropertiesUtil;
+
+/**
+ * Moves flights that arrived or were cancelled long enough ago, together with their bookings,
+ * from {@code flights} and {@code bookings} into {@code flights_history} and
+ * {@code bookings_history} (migration V1_8_0). Archived flights are read back through
+ * {@link FlightArchiveDaoImpl}.
+ *
+ * <p>A run walks the candidates oldest first, in {@code (departure_time, flight_id)} order, a
+ * batch at a time. Each batch is its own short transaction on the primary: it locks its
+ * flights and their seat rows, copies them to the history, moves their bookings and deletes
+ * the flights, which takes their {@code flight_keys} and {@code flight_seats} rows with them.
+ * Flights locked by someone else are skipped and left to the next run, and a reservation
+ * racing with the batch either commits first and is archived with it or finds no seats left
+ * afterwards.</p>
+ *
+ * <p>The run yields to the application. Before every batch it waits, with a back-off
+ * doubling from {@link FlightArchiveOptions#getPause()}, while a replica replays further
+ * behind than {@link FlightArchiveOptions#getMaxReplicationLag()} or a session has waited
+ * for a lock longer than {@link FlightArchiveOptions#getLockTimeout()}. A batch that cannot
+ * get its own locks within that timeout is rolled back and retried the same way. Replica lag
+ * is read from {@code pg_stat_replication}, which shows it only to roles with
+ * {@code pg_monitor}; without that role the lag reads as zero.</p>
+ *
+ * <p>{@link #start()} runs it at once and then every
+ * {@code flight.archive.check-interval-hours}.</p>
+ */
+
+public final class FlightArchiver implements AutoCloseable {
+
+  private static final String CANDIDATES_SQL = """
+      SELECT flight_id, departure_time
+      FROM flights
+      WHERE departure_time < ? AND status_id IN (?, ?)""";
+
+  // SKIP LOCKED: a flight being changed right now is left for the next run
+  private static final String BATCH_ORDER_SQL = """
+       ORDER BY departure_time, flight_id
+      LIMIT ?
+      FOR UPDATE SKIP LOCKED""";
+
+  private static final String FIRST_BATCH_SQL = CANDIDATES_SQL + BATCH_ORDER_SQL;
+
+  // The plain lower bound on departure_time prunes the partitions already done
+  private static final String NEXT_BATCH_SQL = CANDIDATES_SQL
+      + " AND departure_time >= ? AND (departure_time, flight_id) > (?, ?)" + BATCH_ORDER_SQL;
+
+  // Holds off reservations on these flights until the batch commits; ordered against deadlocks
+  private static final String LOCK_SEATS_SQL = """
+      SELECT flight_id
+      FROM flight_seats
+      WHERE flight_id = ANY (?)
+      ORDER BY flight_id
+      FOR UPDATE""";
+
+  private static final String COPY_FLIGHTS_SQL = """
+      INSERT INTO flights_history (flight_id, flight_number, airline_id, departure_airport_id,
+                                   arrival_airport_id, departure_time, arrival_time, base_price,
+                                   status_id, capacity, seats_booked)
+      SELECT f.flight_id, f.flight_number, f.airline_id, f.departure_airport_id,
+             f.arrival_airport_id, f.departure_time, f.arrival_time, f.base_price,
+             f.status_id, s.capacity, s.seats_booked
+      FROM flights f
+               LEFT JOIN flight_seats s ON s.flight_id = f.flight_id
+      WHERE f.departure_time BETWEEN ? AND ? AND f.flight_id = ANY (?)""";
+
+  private static final String MOVE_BOOKINGS_SQL = """
+      WITH moved AS (
+          DELETE FROM bookings
+          WHERE flight_id = ANY (?)
+          RETURNING booking_id, user_id, flight_id, booking_status_id, payment_status_id,
+                    booking_reference, total_price, created_at, seats)
+      INSERT INTO bookings_history (booking_id, user_id, flight_id, booking_status_id,
+                                    payment_status_id, booking_reference, total_price,
+                                    created_at, seats)
+      SELECT booking_id, user_id, flight_id, booking_status_id, payment_status_id,
+             booking_reference, total_price, created_at, seats
+      FROM moved""";
+
+  private static final String DELETE_FLIGHTS_SQL = """
+      DELETE FROM flights
+      WHERE departure_time BETWEEN ? AND ? AND flight_id = ANY (?)""";
+
+  private static final String LOCK_TIMEOUT_SQL = "SELECT set_config('lock_timeout', ?, true)";
+
+  private static final String LOAD_SQL = """
+      SELECT (SELECT COALESCE(EXTRACT(EPOCH FROM MAX(replay_lag)) * 1000, 0)
+              FROM pg_stat_replication)::BIGINT,
+             (SELECT count(*)
+              FROM pg_stat_activity
+              WHERE datname = current_database()
+                AND wait_event_type = 'Lock'
+                AND clock_timestamp() - query_start > ? * INTERVAL '1 millisecond')""";
+
+  // lock_not_available (lock_timeout) and deadlock_detected
+  private static final String LOCK_NOT_AVAILABLE = "55P03";
+  private static final String DEADLOCK_DETECTED = "40P01";
+  // Consecutive failed attempts at one batch before the run ends and leaves it for the next
+  private static final int MAX_ATTEMPTS = 5;
+
+  private static final String MIN_AGE_DAYS_KEY = "flight.archive.min-age-days";
+  private static final String BATCH_SIZE_KEY = "flight.archive.batch-size";
+  private static final String PAUSE_MS_KEY = "flight.archive.pause-ms";
+  private static final String MAX_LAG_MS_KEY = "flight.archive.max-replication-lag-ms";
+  private static final String LOCK_TIMEOUT_MS_KEY = "flight.archive.lock-timeout-ms";
+  private static final String INTERVAL_HOURS_KEY = "flight.archive.check-interval-hours";
+  private static final long DEFAULT_INTERVAL_HOURS = 24;
+
+  // Singleton pattern
+  private static volatile FlightArchiver instance;
+
+  private final FlightArchiveOptions options;
+  private final Duration interval;
+  private final Object lifecycle = new Object();
+  private ScheduledExecutorService scheduler;
+  private boolean closed;
+
+  public FlightArchiver(FlightArchiveOptions options, Duration interval) {
+    if (options.getBatchSize() <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    if (options.getMinAge().isNegative() || options.getPause().isNegative()
+        || options.getLockTimeout().isNegative() || options.getMaxReplicationLag().isNegative()) {
+      throw new IllegalArgumentException("Archive durations must not be negative");
+    }
+    if (interval.isNegative() || interval.isZero()) {
+      throw new IllegalArgumentException("Check interval must be positive");
+    }
+    this.options = options;
+    this.interval = interval;
+  }
+
+  /**
+   * Returns the archiver configured by the {@code flight.archive.*} properties. It is not
+   * started yet.
+   */
+  public static FlightArchiver getInstance() {
+    if (instance == null) {
+      synchronized (FlightArchiver.class) {
+        if (instance == null) {
+          FlightArchiveOptions.FlightArchiveOptionsBuilder options =
+              FlightArchiveOptions.builder();
+          String minAgeDays = PropertiesUtil.get(MIN_AGE_DAYS_KEY);
+          if (minAgeDays != null) {
+            options.minAge(Duration.ofDays(Long.parseLong(minAgeDays)));
+          }
+          String batchSize = PropertiesUtil.get(BATCH_SIZE_KEY);
+          if (batchSize != null) {
+            options.batchSize(Integer.parseInt(batchSize));
+          }
+          String pauseMs = PropertiesUtil.get(PAUSE_MS_KEY);
+          if (pauseMs != null) {
+            options.pause(Duration.ofMillis(Long.parseLong(pauseMs)));
+          }
+          String maxLagMs = PropertiesUtil.get(MAX_LAG_MS_KEY);
+          if (maxLagMs != null) {
+            options.maxReplicationLag(Duration.ofMillis(Long.parseLong(maxLagMs)));
+          }
+          String lockTimeoutMs = PropertiesUtil.get(LOCK_TIMEOUT_MS_KEY);
+          if (lockTimeoutMs != null) {
+            options.lockTimeout(Duration.ofMillis(Long.parseLong(lockTimeoutMs)));
+          }
+          String intervalHours = PropertiesUtil.get(INTERVAL_HOURS_KEY);
+          instance = new FlightArchiver(options.build(), Duration.ofHours(
+              intervalHours != null ? Long.parseLong(intervalHours) : DEFAULT_INTERVAL_HOURS));
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Archives every flight that is due now, batch by batch. Returns early, with what was
+   * archived so far, if the thread is interrupted or one batch keeps failing on locks.
+   */
+  public ArchiveResult archive() throws DaoException {
+    long start = System.nanoTime();
+    LocalDateTime cutoff = LocalDateTime.now().minus(options.getMinAge());
+    ArchiveResult result = new ArchiveResult();
+    Batch last = null;
+    int attempts = 0;
+
+    try {
+      while (true) {
+        result.setThrottledMillis(result.getThrottledMillis() + awaitQuietDatabase());
+
+        Batch batch;
+        try {
+          batch = archiveBatch(cutoff, last);
+        } catch (SQLException e) {
+          if (!isLockConflict(e)) {
+            throw e;
+          }
+          if (++attempts >= MAX_ATTEMPTS) {
+            System.err.println("Flight archival stopped, batch still blocked after "
+                               + attempts + " attempts: " + e.getMessage());
+            break;
+          }
+          result.setBatchesRetried(result.getBatchesRetried() + 1);
+          result.setThrottledMillis(result.getThrottledMillis() + sleep(backoff(attempts)));
+          continue;
+        }
+
+        if (batch.flights == 0) {
+          break;
+        }
+        attempts = 0;
+        last = batch;
+        result.setBatches(result.getBatches() + 1);
+        result.setFlightsArchived(result.getFlightsArchived() + batch.flights);
+        result.setBookingsArchived(result.getBookingsArchived() + batch.bookings);
+        sleep(options.getPause().toMillis());
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to archive flights", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+    return result;
+  }
+
+  /**
+   * Runs {@link #archive()} now and then at the configured interval on a background thread.
+   * Does nothing if already started or closed.
+   */
+  public void start() {
+    synchronized (lifecycle) {
+      if (scheduler != null || closed) {
+        return;
+      }
+      scheduler = Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("flight-archiver").daemon().factory());
+      scheduler.scheduleWithFixedDelay(this::runScheduled, 0, interval.toMinutes(),
+          TimeUnit.MINUTES);
+    }
+  }
+
+  /**
+   * Stops the background runs; a batch in progress is rolled back or committed as a whole.
+   */
+  @Override
+  public void close() {
+    synchronized (lifecycle) {
+      closed = true;
+      if (scheduler != null) {
+        scheduler.shutdownNow();
+      }
+    }
+  }
+
+  private void runScheduled() {
+    try {
+      ArchiveResult result = archive();
+      if (result.getFlightsArchived() > 0) {
+        System.out.println("Archived " + result.getFlightsArchived() + " flights and "
+                           + result.getBookingsArchived() + " bookings in "
+                           + result.getBatches() + " batches");
+      }
+    } catch (DaoException | RuntimeException e) {
+      // Thrown out of the task, it would cancel every later run
+      System.err.println("Flight archival failed: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Moves one batch of flights after {@code last}, or the first batch if it is null, in one
+   * transaction.
+   */
+  private Batch archiveBatch(LocalDateTime cutoff, Batch last) throws SQLException {
+    try (Connection conn = ConnectionManager.getConnection()) {
+      boolean autoCommit = conn.getAutoCommit();
+      conn.setAutoCommit(false);
+
+      try {
+        try (PreparedStatement stmt = conn.prepareStatement(LOCK_TIMEOUT_SQL)) {
+          stmt.setString(1, options.getLockTimeout().toMillis() + "ms");
+          stmt.execute();
+        }
+
+        List<Integer> flightIds = new ArrayList<>(options.getBatchSize());
+        Timestamp firstDeparture = null;
+        Timestamp lastDeparture = null;
+        try (PreparedStatement stmt = conn.prepareStatement(
+            last == null ? FIRST_BATCH_SQL : NEXT_BATCH_SQL)) {
+          int index = 1;
+          stmt.setTimestamp(index++, Timestamp.valueOf(cutoff));
+          stmt.setInt(index++, FlightStatus.ARRIVED.getId());
+          stmt.setInt(index++, FlightStatus.CANCELLED.getId());
+          if (last != null) {
+            stmt.setTimestamp(index++, last.lastDeparture);
+            stmt.setTimestamp(index++, last.lastDeparture);
+            stmt.setInt(index++, last.lastFlightId);
+          }
+          stmt.setInt(index, options.getBatchSize());
+
+          try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+              flightIds.add(rs.getInt(1));
+              lastDeparture = rs.getTimestamp(2);
+              if (firstDeparture == null) {
+                firstDeparture = lastDeparture;
+              }
+            }
+          }
+        }
+
+        if (flightIds.isEmpty()) {
+          conn.commit();
+          return new Batch(0, 0, null, 0);
+        }
+
+        Array ids = conn.createArrayOf("integer", flightIds.toArray());
+        try (PreparedStatement stmt = conn.prepareStatement(LOCK_SEATS_SQL)) {
+          stmt.setArray(1, ids);
+          stmt.executeQuery().close();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(COPY_FLIGHTS_SQL)) {
+          bindBatch(stmt, firstDeparture, lastDeparture, ids);
+          stmt.executeUpdate();
+        }
+        int bookings;
+        try (PreparedStatement stmt = conn.prepareStatement(MOVE_BOOKINGS_SQL)) {
+          stmt.setArray(1, ids);
+          bookings = stmt.executeUpdate();
+        }
+        int flights;
+        try (PreparedStatement stmt = conn.prepareStatement(DELETE_FLIGHTS_SQL)) {
+          bindBatch(stmt, firstDeparture, lastDeparture, ids);
+          flights = stmt.executeUpdate();
+        }
+
+        conn.commit();
+        return new Batch(flights, bookings, lastDeparture, flightIds.get(flightIds.size() - 1));
+      } catch (SQLException | RuntimeException e) {
+        conn.rollback();
+        throw e;
+      } finally {
+        conn.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  private static void bindBatch(PreparedStatement stmt, Timestamp firstDeparture,
+                                Timestamp lastDeparture, Array ids) throws SQLException {
+    stmt.setTimestamp(1, firstDeparture);
+    stmt.setTimestamp(2, lastDeparture);
+    stmt.setArray(3, ids);
+  }
+
+  /**
+   * Waits until no replica lags too far behind and no session has been waiting for a lock
+   * for longer than the lock timeout.
+   *
+   * @return the milliseconds waited
+   */
+  private long awaitQuietDatabase() throws SQLException, InterruptedException {
+    long waited = 0;
+    for (int attempt = 1; ; attempt++) {
+      long lagMillis;
+      long lockWaits;
+      try (Connection conn = ConnectionManager.getConnection();
+           PreparedStatement stmt = conn.prepareStatement(LOAD_SQL)) {
+        stmt.setLong(1, options.getLockTimeout().toMillis());
+        try (ResultSet rs = stmt.executeQuery()) {
+          rs.next();
+          lagMillis = rs.getLong(1);
+          lockWaits = rs.getLong(2);
+        }
+      }
+
+      if (lagMillis <= options.getMaxReplicationLag().toMillis() && lockWaits == 0) {
+        return waited;
+      }
+      waited += sleep(backoff(attempt));
+    }
+  }
+
+  private long backoff(int attempt) {
+    long pause = Math.max(1, options.getPause().toMillis());
+    long max = options.getMaxBackoff().toMillis();
+    return attempt > 30 ? max : Math.min(max, pause << (attempt - 1));
+  }
+
+  private static long sleep(long millis) throws InterruptedException {
+    if (millis > 0) {
+      Thread.sleep(millis);
+    }
+    return millis;
+  }
+
+  private static boolean isLockConflict(SQLException e) {
+    return LOCK_NOT_AVAILABLE.equals(e.getSQLState())
+           || DEADLOCK_DETECTED.equals(e.getSQLState());
+  }
+
+  /**
+   * Outcome of one batch, and where the next one starts.
+   */
+  private static final class Batch {
+    private final int flights;
+    private final int bookings;
+    private final Timestamp lastDeparture;
+    private final int lastFlightId;
+
+    Batch(int flights, int bookings, Timestamp lastDeparture, int lastFlightId) {
+      this.flights = flights;
+      this.bookings = bookings;
+      this.lastDeparture = lastDeparture;
+      this.lastFlightId = lastFlightId;
+    }
+  }
+}
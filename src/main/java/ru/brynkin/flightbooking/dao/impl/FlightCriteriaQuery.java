@@ -0,0 +1,108 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+
+/**
+ * Builds the WHERE clause and bind parameters for flight searches by criteria.
+ *
+ * <p>All predicates are sargable: the departure day is expressed as the half-open timestamp range
+ * {@code departure_time >= day AND departure_time < day + 1} instead of
+ * {@code DATE(departure_time) = day}, so PostgreSQL can use the composite search indexes created
+ * by {@code V1_2_0__Create_Flight_Search_Indexes.sql}.</p>
+ *
+ * <p>Any criterion may be {@code null}, in which case it is not applied.</p>
+ */
+
+public final class FlightCriteriaQuery {
+
+  private static final String ORDER_BY = " ORDER BY departure_time ASC";
+  private static final String WHERE = " WHERE 1=1";
+
+  // The criteria as " AND ..." conditions, empty if there are none
+  private final String conditions;
+  private final String whereClause;
+  private final List<Object> parameters;
+
+  private FlightCriteriaQuery(String conditions, List<Object> parameters) {
+    this.conditions = conditions;
+    this.whereClause = WHERE + conditions;
+    this.parameters = Collections.unmodifiableList(parameters);
+  }
+
+  public static FlightCriteriaQuery of(Integer departureAirportId, Integer arrivalAirportId,
+                                       LocalDate date, FlightStatus status) {
+    StringBuilder where = new StringBuilder();
+    List<Object> parameters = new ArrayList<>();
+
+    if (departureAirportId != null) {
+      where.append(" AND departure_airport_id = ?");
+      parameters.add(departureAirportId);
+    }
+
+    if (arrivalAirportId != null) {
+      where.append(" AND arrival_airport_id = ?");
+      parameters.add(arrivalAirportId);
+    }
+
+    if (date != null) {
+      where.append(" AND departure_time >= ? AND departure_time < ?");
+      parameters.add(Timestamp.valueOf(date.atStartOfDay()));
+      parameters.add(Timestamp.valueOf(date.plusDays(1).atStartOfDay()));
+    }
+
+    if (status != null) {
+      where.append(" AND status_id = ?");
+      parameters.add(status.getId());
+    }
+
+    return new FlightCriteriaQuery(where.toString(), parameters);
+  }
+
+  /**
+   * Appends the criteria and the departure time ordering to the given SELECT statement.
+   *
+   * @param baseQuery SELECT ... FROM ... without a WHERE clause
+   * @return complete SQL statement
+   */
+  public String toSql(String baseQuery) {
+    return baseQuery + whereClause + ORDER_BY;
+  }
+
+  /**
+   * Adds the criteria to the WHERE clause of the given SELECT statement and appends the
+   * departure time ordering.
+   *
+   * @param filteredQuery SELECT ... FROM ... WHERE ..., without an ORDER BY clause
+   * @return complete SQL statement
+   */
+  public String toFilteredSql(String filteredQuery) {
+    return filteredQuery + conditions + ORDER_BY;
+  }
+
+  public String getWhereClause() {
+    return whereClause;
+  }
+
+  public List<Object> getParameters() {
+    return parameters;
+  }
+
+  /**
+   * Binds the criteria parameters starting at the first parameter index.
+   *
+   * @return index of the next unbound parameter
+   */
+  public int bind(PreparedStatement stmt) throws SQLException {
+    for (int i = 0; i < parameters.size(); i++) {
+      stmt.setObject(i + 1, parameters.get(i));
+    }
+    return parameters.size() + 1;
+  }
+}
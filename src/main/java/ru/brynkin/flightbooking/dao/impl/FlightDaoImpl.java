@@ -1,16 +1,20 @@
 package ru.brynkin.flightbooking.dao.impl;
 
 import java.sql.Connection;
-import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import ru.brynkin.flightbooking.dao.FlightDao;
 import ru.brynkin.flightbooking.entity.Airline;
 import ru.brynkin.flightbooking.entity.Airport;
@@ -18,6 +22,7 @@ import ru.brynkin.flightbooking.entity.Flight;
 import ru.brynkin.flightbooking.enums.FlightStatus;
 import ru.brynkin.flightbooking.exception.DaoException;
 import ru.brynkin.flightbooking.util.ConnectionManager;
+import ru.brynkin.flightbooking.util.PropertiesUtil;
 
 /**
  * JDBC implementation of the {@link FlightDao} interface that provides CRUD operations
@@ -30,6 +35,17 @@ import ru.brynkin.flightbooking.util.ConnectionManager;
  * <p>It is also worth pointing out that in the implementation of the class for performing select
  * queries, it was decided to use the view for simplified mapping of the Flight entity.</p>
  *
+ * <p>Alternatively, with {@code flight.read-path=table} reads select the {@code flights} columns
+ * only and take airlines and airports from the in-memory reference caches; see
+ * {@link ReadPath}.</p>
+ *
+ * <p>{@code flights} is range-partitioned by month of {@code departure_time} (migration
+ * V1_7_0), and every statement bounds {@code departure_time} where it can, so the planner only
+ * visits the partitions that can hold matching rows. Statements that address a flight by ID
+ * take its departure time from {@code flight_keys}; searches by day use the day's range; keyset
+ * pages start at the cursor's departure time. Only reads of every flight, and searches without
+ * a date, visit every partition.</p>
+ *
  * @see FlightDao
  * @see Flight
  * @see DaoException
@@ -61,7 +77,8 @@ public class FlightDaoImpl implements FlightDao {
               %s, %s,
               %s, %s, 
               %s
-          FROM flight_complete_view""",
+          FROM flight_complete_view
+          WHERE 1=1""",
       FlightViewColumns.FLIGHT_ID, FlightViewColumns.FLIGHT_NUMBER,
       FlightViewColumns.AIRLINE_ID, FlightViewColumns.AIRLINE_NAME,
       FlightViewColumns.AIRLINE_IATA, FlightViewColumns.AIRLINE_ICAO,
@@ -78,10 +95,32 @@ public class FlightDaoImpl implements FlightDao {
       FlightViewColumns.DEPARTURE_TIME, FlightViewColumns.ARRIVAL_TIME,
       FlightViewColumns.BASE_PRICE);
 
-  private static final String SELECT_ALL_SQL =
-      FLIGHT_VIEW_BASE_QUERY + " ORDER BY departure_time ASC";
-  private static final String SELECT_BY_ID_SQL = FLIGHT_VIEW_BASE_QUERY + " WHERE flight_id = ?";
-  private static final String SELECT_BY_CRITERIA_SQL = FLIGHT_VIEW_BASE_QUERY + " WHERE 1=1";
+  // Table-only read path: airlines and airports are filled in from the reference caches. Rows
+  // without an airline or airport are skipped, as the view's inner joins skip them; the
+  // resolver could not fill them in.
+  private static final String FLIGHT_TABLE_BASE_QUERY = String.format("""
+          SELECT
+              %s, %s, %s, %s, %s,
+              %s, %s, %s, %s
+          FROM flights
+          WHERE %s IS NOT NULL AND %s IS NOT NULL AND %s IS NOT NULL""",
+      FlightColumns.FLIGHT_ID, FlightColumns.FLIGHT_NUMBER, FlightColumns.AIRLINE_ID,
+      FlightColumns.DEPARTURE_AIRPORT_ID, FlightColumns.ARRIVAL_AIRPORT_ID,
+      FlightColumns.DEPARTURE_TIME, FlightColumns.ARRIVAL_TIME,
+      FlightColumns.BASE_PRICE, FlightColumns.STATUS_ID,
+      FlightColumns.AIRLINE_ID, FlightColumns.DEPARTURE_AIRPORT_ID,
+      FlightColumns.ARRIVAL_AIRPORT_ID);
+
+  // Keyset pagination and streaming: (departure_time, flight_id) is unique and indexed
+  private static final String KEYSET_ORDER_BY = " ORDER BY departure_time ASC, flight_id ASC";
+
+  // Rows fetched per round trip while streaming; bounds client memory regardless of table size
+  private static final int STREAM_FETCH_SIZE = 500;
+
+  // Appended to "flight_id = ?" and bound to the same ID: the flight's departure time from
+  // flight_keys, so only the partition holding the row is visited
+  private static final String PARTITION_OF_ID =
+      " AND departure_time = (SELECT departure_time FROM flight_keys WHERE flight_id = ?)";
 
   // Table-based queries for writes
   private static final String INSERT_SQL = String.format("""
@@ -96,7 +135,7 @@ public class FlightDaoImpl implements FlightDao {
   private static final String UPDATE_SQL = String.format("""
           UPDATE flights SET
               %s = ?, %s = ?, %s = ?, %s = ?, %s = ?, %s = ?, %s = ?, %s = ?
-          WHERE %s = ?""",
+          WHERE %s = ?""" + PARTITION_OF_ID,
       FlightColumns.FLIGHT_NUMBER, FlightColumns.AIRLINE_ID,
       FlightColumns.DEPARTURE_AIRPORT_ID, FlightColumns.ARRIVAL_AIRPORT_ID,
       FlightColumns.DEPARTURE_TIME, FlightColumns.ARRIVAL_TIME,
@@ -104,41 +143,82 @@ public class FlightDaoImpl implements FlightDao {
       FlightColumns.FLIGHT_ID);
 
   private static final String DELETE_SQL =
-      String.format("DELETE FROM flights WHERE %s = ?", FlightColumns.FLIGHT_ID);
+      String.format("DELETE FROM flights WHERE %s = ?", FlightColumns.FLIGHT_ID)
+          + PARTITION_OF_ID;
 
   private static final String UPDATE_STATUS_SQL = String.format("""
           UPDATE flights SET 
           %S = ? 
-          WHERE %S = ?"""
+          WHERE %S = ?""" + PARTITION_OF_ID
       , FlightColumns.STATUS_ID, FlightColumns.FLIGHT_ID);
 
-  // Singleton pattern
-  private static volatile FlightDaoImpl instance;
+  private static final String READ_PATH_KEY = "flight.read-path";
 
-  private FlightDaoImpl() {
-    // Private constructor to prevent instantiation
+  // Singleton pattern: one instance per read path, the configured one by default
+  private static volatile FlightDaoImpl instance;
+  private static final Map<ReadPath, FlightDaoImpl> instances = new EnumMap<>(ReadPath.class);
+
+  private final ReadPath readPath;
+  // SELECT ... FROM ... WHERE ...; further conditions are appended with AND
+  private final String baseQuery;
+  private final String selectAllSql;
+  private final String selectByIdSql;
+  private final String selectFirstPageSql;
+  private final String selectNextPageSql;
+  private final String selectAllKeysetSql;
+
+  private FlightDaoImpl(ReadPath readPath) {
+    this.readPath = readPath;
+    this.baseQuery = readPath == ReadPath.TABLE ? FLIGHT_TABLE_BASE_QUERY : FLIGHT_VIEW_BASE_QUERY;
+    this.selectAllSql = baseQuery + " ORDER BY departure_time ASC";
+    this.selectByIdSql = baseQuery + " AND flight_id = ?" + PARTITION_OF_ID;
+    this.selectFirstPageSql = baseQuery + KEYSET_ORDER_BY + " LIMIT ?";
+    // The row comparison alone does not prune; the plain lower bound on departure_time does
+    this.selectNextPageSql = baseQuery
+        + " AND departure_time >= ? AND (departure_time, flight_id) > (?, ?)"
+        + KEYSET_ORDER_BY + " LIMIT ?";
+    this.selectAllKeysetSql = baseQuery + KEYSET_ORDER_BY;
   }
 
+  /**
+   * Returns the instance for the read path configured by {@code flight.read-path}
+   * ({@code view} when not set).
+   */
   public static FlightDaoImpl getInstance() {
     if (instance == null) {
       synchronized (FlightDaoImpl.class) {
         if (instance == null) {
-          instance = new FlightDaoImpl();
+          instance = getInstance(ReadPath.fromProperty(PropertiesUtil.get(READ_PATH_KEY)));
         }
       }
     }
     return instance;
   }
 
+  /**
+   * Returns the instance for the given read path regardless of configuration, e.g. to compare
+   * both paths side by side.
+   */
+  public static FlightDaoImpl getInstance(ReadPath readPath) {
+    synchronized (instances) {
+      return instances.computeIfAbsent(readPath, FlightDaoImpl::new);
+    }
+  }
+
+  public ReadPath getReadPath() {
+    return readPath;
+  }
+
   @Override
   public List<Flight> findAll() throws DaoException {
-    try (Connection conn = ConnectionManager.getConnection();
-         PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_SQL);
+    try (Connection conn = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = conn.prepareStatement(selectAllSql);
          ResultSet rs = stmt.executeQuery()) {
 
+      FlightRowMapper mapper = rowMapper(rs);
       List<Flight> flights = new ArrayList<>();
       while (rs.next()) {
-        flights.add(mapToFlight(rs));
+        flights.add(mapper.map(rs));
       }
       return flights;
     } catch (SQLException e) {
@@ -147,63 +227,135 @@ public class FlightDaoImpl implements FlightDao {
   }
 
   @Override
-  public Optional<Flight> findById(Integer id) throws DaoException {
-    if (id == null || id <= 0) {
-      throw new IllegalArgumentException("Flight ID must be positive");
+  public List<Flight> findPage(LocalDateTime afterDepartureTime, Integer afterFlightId,
+                               int limit) throws DaoException {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Page limit must be positive");
+    }
+    if ((afterDepartureTime == null) != (afterFlightId == null)) {
+      throw new IllegalArgumentException(
+          "Departure time and flight ID of the cursor must be given together");
     }
 
-    try (Connection conn = ConnectionManager.getConnection();
-         PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
-
-      stmt.setInt(1, id);
+    boolean firstPage = afterFlightId == null;
+    try (Connection conn = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = conn.prepareStatement(
+             firstPage ? selectFirstPageSql : selectNextPageSql)) {
+
+      int index = 1;
+      if (!firstPage) {
+        Timestamp after = Timestamp.valueOf(afterDepartureTime);
+        stmt.setTimestamp(index++, after);
+        stmt.setTimestamp(index++, after);
+        stmt.setInt(index++, afterFlightId);
+      }
+      stmt.setInt(index, limit);
 
       try (ResultSet rs = stmt.executeQuery()) {
-        return rs.next() ? Optional.of(mapToFlight(rs)) : Optional.empty();
+        FlightRowMapper mapper = rowMapper(rs);
+        List<Flight> flights = new ArrayList<>(limit);
+        while (rs.next()) {
+          flights.add(mapper.map(rs));
+        }
+        return flights;
       }
     } catch (SQLException e) {
-      throw new DaoException("Failed to find flight by ID: " + id, e);
+      throw new DaoException("Failed to find flights page after ID: " + afterFlightId, e);
     }
   }
 
   @Override
-  public List<Flight> findByCriteria(Integer departureAirportId, Integer arrivalAirportId,
-                                     LocalDate date, FlightStatus status) throws DaoException {
-    StringBuilder sqlBuilder = new StringBuilder(SELECT_BY_CRITERIA_SQL);
-    List<Object> parameters = new ArrayList<>();
-
-    if (departureAirportId != null) {
-      sqlBuilder.append(" AND departure_airport_id = ?");
-      parameters.add(departureAirportId);
+  public void forEach(Consumer<? super Flight> action) throws DaoException {
+    try {
+      stream(selectAllKeysetSql, null, action);
+    } catch (SQLException e) {
+      throw new DaoException("Failed to stream flights", e);
     }
+  }
 
-    if (arrivalAirportId != null) {
-      sqlBuilder.append(" AND arrival_airport_id = ?");
-      parameters.add(arrivalAirportId);
+  @Override
+  public void forEachByCriteria(Integer departureAirportId, Integer arrivalAirportId,
+                                LocalDate date, FlightStatus status,
+                                Consumer<? super Flight> action) throws DaoException {
+    FlightCriteriaQuery query = FlightCriteriaQuery.of(
+        departureAirportId, arrivalAirportId, date, status);
+    try {
+      stream(query.toFilteredSql(baseQuery), query, action);
+    } catch (SQLException e) {
+      throw new DaoException("Failed to stream flights by criteria", e);
     }
+  }
+
+  /**
+   * Runs the query through a server-side cursor and hands every mapped row to the action as it
+   * is fetched.
+   */
+  private void stream(String sql, FlightCriteriaQuery query, Consumer<? super Flight> action)
+      throws SQLException {
+    try (Connection conn = ConnectionManager.getReadConnection()) {
+      boolean autoCommit = conn.getAutoCommit();
+      // PostgreSQL only honours the fetch size with a server-side cursor inside a transaction
+      conn.setAutoCommit(false);
+
+      try (PreparedStatement stmt = conn.prepareStatement(sql,
+          ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+        stmt.setFetchSize(STREAM_FETCH_SIZE);
+        if (query != null) {
+          query.bind(stmt);
+        }
 
-    if (date != null) {
-      sqlBuilder.append(" AND DATE(departure_time) = ?");
-      parameters.add(Date.valueOf(date));
+        try (ResultSet rs = stmt.executeQuery()) {
+          FlightRowMapper mapper = rowMapper(rs);
+          while (rs.next()) {
+            action.accept(mapper.map(rs));
+          }
+        }
+        conn.commit();
+      } catch (SQLException | RuntimeException e) {
+        conn.rollback();
+        throw e;
+      } finally {
+        conn.setAutoCommit(autoCommit);
+      }
     }
+  }
 
-    if (status != null) {
-      sqlBuilder.append(" AND status_id = ?");
-      parameters.add(status.ordinal());
+  @Override
+  public Optional<Flight> findById(Integer id) throws DaoException {
+    if (id == null || id <= 0) {
+      throw new IllegalArgumentException("Flight ID must be positive");
     }
 
-    sqlBuilder.append(" ORDER BY departure_time ASC");
+    try (Connection conn = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = conn.prepareStatement(selectByIdSql)) {
 
-    try (Connection conn = ConnectionManager.getConnection();
-         PreparedStatement stmt = conn.prepareStatement(sqlBuilder.toString())) {
+      stmt.setInt(1, id);
+      stmt.setInt(2, id);
 
-      for (int i = 0; i < parameters.size(); i++) {
-        stmt.setObject(i + 1, parameters.get(i));
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? Optional.of(rowMapper(rs).map(rs)) : Optional.empty();
       }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to find flight by ID: " + id, e);
+    }
+  }
+
+  @Override
+  public List<Flight> findByCriteria(Integer departureAirportId, Integer arrivalAirportId,
+                                     LocalDate date, FlightStatus status) throws DaoException {
+    FlightCriteriaQuery query = FlightCriteriaQuery.of(
+        departureAirportId, arrivalAirportId, date, status);
+
+    try (Connection conn = ConnectionManager.getReadConnection();
+         PreparedStatement stmt = conn.prepareStatement(query.toFilteredSql(baseQuery))) {
+
+      query.bind(stmt);
 
       try (ResultSet rs = stmt.executeQuery()) {
+        FlightRowMapper mapper = rowMapper(rs);
         List<Flight> flights = new ArrayList<>();
         while (rs.next()) {
-          flights.add(mapToFlight(rs));
+          flights.add(mapper.map(rs));
         }
         return flights;
       }
@@ -247,6 +399,7 @@ public class FlightDaoImpl implements FlightDao {
 
       setFlightParameters(stmt, flight);
       stmt.setLong(9, flight.getFlightId());
+      stmt.setLong(10, flight.getFlightId());
 
       int affectedRows = stmt.executeUpdate();
       if (affectedRows == 0) {
@@ -270,8 +423,9 @@ public class FlightDaoImpl implements FlightDao {
     try (Connection conn = ConnectionManager.getConnection();
          PreparedStatement stmt = conn.prepareStatement(UPDATE_STATUS_SQL)) {
 
-      stmt.setInt(1, newStatus.ordinal());
+      stmt.setInt(1, newStatus.getId());
       stmt.setInt(2, flightId);
+      stmt.setInt(3, flightId);
 
       return stmt.executeUpdate() > 0;
     } catch (SQLException e) {
@@ -289,60 +443,95 @@ public class FlightDaoImpl implements FlightDao {
          PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
 
       stmt.setInt(1, id);
+      stmt.setInt(2, id);
       return stmt.executeUpdate() > 0;
     } catch (SQLException e) {
       throw new DaoException("Failed to delete flight with ID: " + id, e);
     }
   }
 
-  private Flight mapToFlight(ResultSet rs) throws SQLException {
-    return Flight.builder()
-        .flightId(rs.getInt(FlightColumns.FLIGHT_ID))
-        .flightNumber(rs.getString(FlightColumns.FLIGHT_NUMBER))
-        .airline(mapToAirline(rs))
-        .departureAirport(mapToDepartureAirport(rs))
-        .arrivalAirport(mapToArrivalAirport(rs))
-        .departureTime(rs.getTimestamp(FlightColumns.DEPARTURE_TIME).toLocalDateTime())
-        .arrivalTime(rs.getTimestamp(FlightColumns.ARRIVAL_TIME).toLocalDateTime())
-        .basePrice(rs.getBigDecimal(FlightColumns.BASE_PRICE))
-        .status(FlightStatus.values()[rs.getInt(FlightColumns.STATUS_ID)])
-        .build();
+  @Override
+  public List<Flight> createAll(List<Flight> flights) throws DaoException {
+    flights.forEach(this::validateFlight);
+
+    try {
+      BatchSupport.executeInChunks(INSERT_SQL, new String[] {FlightColumns.FLIGHT_ID}, flights,
+          this::setFlightParameters,
+          (chunk, updateCounts, stmt) -> {
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+              for (Flight flight : chunk) {
+                if (!generatedKeys.next()) {
+                  throw new DaoException("Failed to retrieve generated flight ID");
+                }
+                flight.setFlightId(generatedKeys.getInt(1));
+              }
+            }
+          });
+      return flights;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to save flights in batch", e);
+    }
   }
 
-  private Airline mapToAirline(ResultSet rs) throws SQLException {
-    return Airline.builder()
-        .airlineId(rs.getInt(FlightViewColumns.AIRLINE_ID))
-        .name(rs.getString(FlightViewColumns.AIRLINE_NAME))
-        .iataCode(rs.getString(FlightViewColumns.AIRLINE_IATA))
-        .icaoCode(rs.getString(FlightViewColumns.AIRLINE_ICAO))
-        .country(rs.getString(FlightViewColumns.AIRLINE_COUNTRY))
-        .active(rs.getBoolean(FlightViewColumns.AIRLINE_ACTIVE))
-        .build();
+  @Override
+  public List<Flight> updateAll(List<Flight> flights) throws DaoException {
+    for (Flight flight : flights) {
+      validateFlight(flight);
+      if (flight.getFlightId() == null) {
+        throw new IllegalArgumentException("Flight ID is required for update");
+      }
+    }
+
+    try {
+      BatchSupport.executeInChunks(UPDATE_SQL, null, flights,
+          (stmt, flight) -> {
+            setFlightParameters(stmt, flight);
+            stmt.setLong(9, flight.getFlightId());
+            stmt.setLong(10, flight.getFlightId());
+          },
+          (chunk, updateCounts, stmt) -> {
+            for (int i = 0; i < updateCounts.length; i++) {
+              if (updateCounts[i] == 0) {
+                throw new DaoException("No flight found with ID: " + chunk.get(i).getFlightId());
+              }
+            }
+          });
+      return flights;
+    } catch (SQLException e) {
+      throw new DaoException("Failed to update flights in batch", e);
+    }
   }
 
+  @Override
+  public int deleteAll(List<Integer> ids) throws DaoException {
+    for (Integer id : ids) {
+      if (id == null || id <= 0) {
+        throw new IllegalArgumentException("Flight ID must be positive");
+      }
+    }
 
-  private Airport mapToDepartureAirport(ResultSet rs) throws SQLException {
-    return Airport.builder()
-        .airportId(rs.getInt(FlightViewColumns.DEPARTURE_AIRPORT_ID))
-        .name(rs.getString(FlightViewColumns.DEPARTURE_AIRPORT_NAME))
-        .city(rs.getString(FlightViewColumns.DEPARTURE_CITY))
-        .country(rs.getString(FlightViewColumns.DEPARTURE_COUNTRY))
-        .iataCode(rs.getString(FlightViewColumns.DEPARTURE_IATA))
-        .icaoCode(rs.getString(FlightViewColumns.DEPARTURE_ICAO))
-        .timezone(rs.getString(FlightViewColumns.DEPARTURE_TIMEZONE))
-        .build();
+    int[] deleted = {0};
+    try {
+      BatchSupport.executeInChunks(DELETE_SQL, null, ids,
+          (stmt, id) -> {
+            stmt.setInt(1, id);
+            stmt.setInt(2, id);
+          },
+          (chunk, updateCounts, stmt) -> {
+            for (int count : updateCounts) {
+              deleted[0] += Math.max(count, 0);
+            }
+          });
+      return deleted[0];
+    } catch (SQLException e) {
+      throw new DaoException("Failed to delete flights in batch", e);
+    }
   }
 
-  private Airport mapToArrivalAirport(ResultSet rs) throws SQLException {
-    return Airport.builder()
-        .airportId(rs.getInt(FlightViewColumns.ARRIVAL_AIRPORT_ID))
-        .name(rs.getString(FlightViewColumns.ARRIVAL_AIRPORT_NAME))
-        .city(rs.getString(FlightViewColumns.ARRIVAL_CITY))
-        .country(rs.getString(FlightViewColumns.ARRIVAL_COUNTRY))
-        .iataCode(rs.getString(FlightViewColumns.ARRIVAL_IATA))
-        .icaoCode(rs.getString(FlightViewColumns.ARRIVAL_ICAO))
-        .timezone(rs.getString(FlightViewColumns.ARRIVAL_TIMEZONE))
-        .build();
+  private FlightRowMapper rowMapper(ResultSet rs) throws SQLException {
+    return readPath == ReadPath.TABLE
+        ? FlightRowMapper.forTable(rs, ReferenceCacheResolver.INSTANCE)
+        : FlightRowMapper.forView(rs);
   }
 
   private void setFlightParameters(PreparedStatement stmt, Flight flight) throws SQLException {
@@ -353,7 +542,7 @@ public class FlightDaoImpl implements FlightDao {
     stmt.setTimestamp(5, Timestamp.valueOf(flight.getDepartureTime()));
     stmt.setTimestamp(6, Timestamp.valueOf(flight.getArrivalTime()));
     stmt.setBigDecimal(7, flight.getBasePrice());
-    stmt.setInt(8, flight.getStatus().ordinal());
+    stmt.setInt(8, flight.getStatus().getId());
   }
 
   private void validateFlight(Flight flight) {
@@ -375,6 +564,74 @@ public class FlightDaoImpl implements FlightDao {
     }
   }
 
+  /**
+   * Source of the columns returned by flight reads.
+   */
+  public enum ReadPath {
+    /**
+     * {@code flight_complete_view}: airline and airport details are joined in and sent with
+     * every row.
+     */
+    VIEW,
+    /**
+     * {@code flights} only: airline and airport details come from {@link CachedAirlineDaoImpl}
+     * and {@link CachedAirportDaoImpl}, so each row carries just the nine table columns.
+     */
+    TABLE;
+
+    static ReadPath fromProperty(String value) {
+      if (value == null || value.isBlank()) {
+        return VIEW;
+      }
+      try {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalStateException("Unsupported flight.read-path: " + value, e);
+      }
+    }
+  }
+
+  /**
+   * Resolves airline and airport IDs of table rows from the reference caches. An ID missing
+   * from a cache (for example a row inserted by another node) triggers one cache refresh before
+   * it is reported as an error.
+   */
+  private static final class ReferenceCacheResolver implements FlightRowMapper.ReferenceResolver {
+    private static final ReferenceCacheResolver INSTANCE = new ReferenceCacheResolver();
+
+    @Override
+    public Airline airline(int airlineId) throws SQLException {
+      CachedAirlineDaoImpl airlines = CachedAirlineDaoImpl.getInstance();
+      try {
+        Optional<Airline> airline = airlines.findById(airlineId);
+        if (airline.isEmpty()) {
+          airlines.refresh();
+          airline = airlines.findById(airlineId);
+        }
+        return airline.orElseThrow(
+            () -> new SQLException("Unknown airline ID in flights: " + airlineId));
+      } catch (DaoException e) {
+        throw new SQLException("Failed to resolve airline ID: " + airlineId, e);
+      }
+    }
+
+    @Override
+    public Airport airport(int airportId) throws SQLException {
+      CachedAirportDaoImpl airports = CachedAirportDaoImpl.getInstance();
+      try {
+        Optional<Airport> airport = airports.findById(airportId);
+        if (airport.isEmpty()) {
+          airports.refresh();
+          airport = airports.findById(airportId);
+        }
+        return airport.orElseThrow(
+            () -> new SQLException("Unknown airport ID in flights: " + airportId));
+      } catch (DaoException e) {
+        throw new SQLException("Failed to resolve airport ID: " + airportId, e);
+      }
+    }
+  }
+
   private static final class FlightColumns {
     // Flight table columns
     public static final String FLIGHT_ID = "flight_id";
@@ -388,7 +645,7 @@ public class FlightDaoImpl implements FlightDao {
     public static final String STATUS_ID = "status_id";
   }
 
-  private static final class FlightViewColumns {
+  static final class FlightViewColumns {
     // Flight table columns
     public static final String FLIGHT_ID = "flight_id";
     public static final String FLIGHT_NUMBER = "flight_number";
@@ -0,0 +1,132 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+import ru.brynkin.flightbooking.util.PropertiesUtil;
+
+/**
+ * Creates the monthly partitions of {@code flights} ahead of time with
+ * {@code ensure_flight_partitions} (migration V1_7_0): the current month and the next
+ * {@code flight.partitions.months-ahead}, plus any month whose flights fell into the default
+ * partition meanwhile.
+ *
+ * <p>{@link #start()} runs it at once and then every
+ * {@code flight.partitions.check-interval-hours}. The function takes an advisory lock, so any
+ * number of nodes may run it. A failed run is logged and retried at the next interval; until
+ * then new months are still accepted by the default partition.</p>
+ */
+
+public final class FlightPartitionMaintenance implements AutoCloseable {
+
+  private static final String ENSURE_SQL = "SELECT ensure_flight_partitions(?)";
+
+  private static final String MONTHS_AHEAD_KEY = "flight.partitions.months-ahead";
+  private static final String INTERVAL_HOURS_KEY = "flight.partitions.check-interval-hours";
+  private static final int DEFAULT_MONTHS_AHEAD = 12;
+  private static final long DEFAULT_INTERVAL_HOURS = 24;
+
+  // Singleton pattern
+  private static volatile FlightPartitionMaintenance instance;
+
+  private final int monthsAhead;
+  private final Duration interval;
+  private final Object lifecycle = new Object();
+  private ScheduledExecutorService scheduler;
+  private boolean closed;
+
+  public FlightPartitionMaintenance(int monthsAhead, Duration interval) {
+    if (monthsAhead < 0) {
+      throw new IllegalArgumentException("Months ahead must not be negative");
+    }
+    if (interval.isNegative() || interval.isZero()) {
+      throw new IllegalArgumentException("Check interval must be positive");
+    }
+    this.monthsAhead = monthsAhead;
+    this.interval = interval;
+  }
+
+  /**
+   * Returns the maintenance configured by the {@code flight.partitions.*} properties. It is not
+   * started yet.
+   */
+  public static FlightPartitionMaintenance getInstance() {
+    if (instance == null) {
+      synchronized (FlightPartitionMaintenance.class) {
+        if (instance == null) {
+          String monthsAhead = PropertiesUtil.get(MONTHS_AHEAD_KEY);
+          String intervalHours = PropertiesUtil.get(INTERVAL_HOURS_KEY);
+          instance = new FlightPartitionMaintenance(
+              monthsAhead != null ? Integer.parseInt(monthsAhead) : DEFAULT_MONTHS_AHEAD,
+              Duration.ofHours(intervalHours != null
+                  ? Long.parseLong(intervalHours) : DEFAULT_INTERVAL_HOURS));
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Creates the missing partitions now.
+   *
+   * @return the number of partitions created
+   */
+  public int ensurePartitions() throws DaoException {
+    try (Connection conn = ConnectionManager.getConnection();
+         PreparedStatement stmt = conn.prepareStatement(ENSURE_SQL)) {
+
+      stmt.setInt(1, monthsAhead);
+      try (ResultSet rs = stmt.executeQuery()) {
+        rs.next();
+        return rs.getInt(1);
+      }
+    } catch (SQLException e) {
+      throw new DaoException("Failed to create flight partitions", e);
+    }
+  }
+
+  /**
+   * Runs {@link #ensurePartitions()} now and then at the configured interval on a background
+   * thread. Does nothing if already started or closed.
+   */
+  public void start() {
+    synchronized (lifecycle) {
+      if (scheduler != null || closed) {
+        return;
+      }
+      scheduler = Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("flight-partition-maintenance").daemon().factory());
+      scheduler.scheduleWithFixedDelay(this::runScheduled, 0, interval.toMinutes(),
+          TimeUnit.MINUTES);
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (lifecycle) {
+      closed = true;
+      if (scheduler != null) {
+        scheduler.shutdownNow();
+      }
+    }
+  }
+
+  private void runScheduled() {
+    try {
+      int created = ensurePartitions();
+      if (created > 0) {
+        System.out.println("Created " + created + " flight partitions");
+      }
+    } catch (DaoException | RuntimeException e) {
+      // Thrown out of the task, it would cancel every later run
+      System.err.println("Flight partition maintenance failed: " + e.getMessage());
+    }
+  }
+}
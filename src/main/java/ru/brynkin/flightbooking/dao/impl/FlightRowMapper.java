@@ -0,0 +1,269 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import ru.brynkin.flightbooking.dao.impl.FlightDaoImpl.FlightViewColumns;
+import ru.brynkin.flightbooking.entity.Airline;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+
+/**
+ * Maps flight rows to {@link Flight} entities.
+ *
+ * <p>Two row shapes are supported:</p>
+ * <ul>
+ *   <li>{@link #forView(ResultSet)} - rows of {@code flight_complete_view}, where airline and
+ *   airport details come with every row;</li>
+ *   <li>{@link #forTable(ResultSet, ReferenceResolver)} - rows of the {@code flights} table
+ *   only, where airlines and airports are resolved by ID from in-memory reference data.</li>
+ * </ul>
+ *
+ * <p>A mapper is created for one {@link ResultSet} and must not outlive it:</p>
+ * <ul>
+ *   <li>column indexes are resolved once on creation instead of by name on every row;</li>
+ *   <li>one {@link Airline} and one {@link Airport} instance is kept per ID (identity map),
+ *   so rows sharing an airline or airport share the same object instead of each building
+ *   its own;</li>
+ *   <li>entities are created through their all-args constructors rather than Lombok
+ *   builders.</li>
+ * </ul>
+ *
+ * <p>Because of the identity map, flights returned from one query share their
+ * {@code Airline}/{@code Airport} instances: mutating one affects every flight of that
+ * result.</p>
+ */
+
+public final class FlightRowMapper {
+
+  // Dense SERIAL IDs up to this value are looked up by array index, larger ones via a map
+  private static final int MAX_DENSE_ID = 1 << 16;
+  private static final int INITIAL_DENSE_CAPACITY = 64;
+
+  private final int flightId;
+  private final int flightNumber;
+  private final int departureTime;
+  private final int arrivalTime;
+  private final int basePrice;
+  private final int statusId;
+  private final int airlineId;
+  private final int departureAirportId;
+  private final int arrivalAirportId;
+
+  // View rows only: detail columns of the joined airline and airports
+  private final AirlineColumns airlineColumns;
+  private final AirportColumns departureColumns;
+  private final AirportColumns arrivalColumns;
+
+  // Table rows only: source of airline and airport details
+  private final ReferenceResolver resolver;
+
+  private Airline[] airlinesById = new Airline[INITIAL_DENSE_CAPACITY];
+  private Airport[] airportsById = new Airport[INITIAL_DENSE_CAPACITY];
+  private Map<Integer, Airline> sparseAirlines;
+  private Map<Integer, Airport> sparseAirports;
+
+  private FlightRowMapper(ResultSet rs, ReferenceResolver resolver) throws SQLException {
+    flightId = rs.findColumn(FlightViewColumns.FLIGHT_ID);
+    flightNumber = rs.findColumn(FlightViewColumns.FLIGHT_NUMBER);
+    departureTime = rs.findColumn(FlightViewColumns.DEPARTURE_TIME);
+    arrivalTime = rs.findColumn(FlightViewColumns.ARRIVAL_TIME);
+    basePrice = rs.findColumn(FlightViewColumns.BASE_PRICE);
+    statusId = rs.findColumn(FlightViewColumns.STATUS_ID);
+    airlineId = rs.findColumn(FlightViewColumns.AIRLINE_ID);
+    departureAirportId = rs.findColumn(FlightViewColumns.DEPARTURE_AIRPORT_ID);
+    arrivalAirportId = rs.findColumn(FlightViewColumns.ARRIVAL_AIRPORT_ID);
+
+    this.resolver = resolver;
+    if (resolver == null) {
+      airlineColumns = new AirlineColumns(rs);
+      departureColumns = new AirportColumns(rs,
+          FlightViewColumns.DEPARTURE_AIRPORT_NAME, FlightViewColumns.DEPARTURE_CITY,
+          FlightViewColumns.DEPARTURE_COUNTRY, FlightViewColumns.DEPARTURE_IATA,
+          FlightViewColumns.DEPARTURE_ICAO, FlightViewColumns.DEPARTURE_TIMEZONE);
+      arrivalColumns = new AirportColumns(rs,
+          FlightViewColumns.ARRIVAL_AIRPORT_NAME, FlightViewColumns.ARRIVAL_CITY,
+          FlightViewColumns.ARRIVAL_COUNTRY, FlightViewColumns.ARRIVAL_IATA,
+          FlightViewColumns.ARRIVAL_ICAO, FlightViewColumns.ARRIVAL_TIMEZONE);
+    } else {
+      airlineColumns = null;
+      departureColumns = null;
+      arrivalColumns = null;
+    }
+  }
+
+  /**
+   * Creates a mapper for a {@code flight_complete_view} result set.
+   */
+  public static FlightRowMapper forView(ResultSet rs) throws SQLException {
+    return new FlightRowMapper(rs, null);
+  }
+
+  /**
+   * Creates a mapper for a result set of {@code flights} table columns only.
+   *
+   * @param resolver supplies airline and airport details by ID; called at most once per ID
+   */
+  public static FlightRowMapper forTable(ResultSet rs, ReferenceResolver resolver)
+      throws SQLException {
+    if (resolver == null) {
+      throw new IllegalArgumentException("Reference resolver is required for table rows");
+    }
+    return new FlightRowMapper(rs, resolver);
+  }
+
+  /**
+   * Maps the current row of the result set this mapper was created for.
+   */
+  public Flight map(ResultSet rs) throws SQLException {
+    return new Flight(
+        rs.getInt(flightId),
+        rs.getString(flightNumber),
+        airline(rs),
+        airport(rs, departureAirportId, departureColumns),
+        airport(rs, arrivalAirportId, arrivalColumns),
+        rs.getObject(departureTime, LocalDateTime.class),
+        rs.getObject(arrivalTime, LocalDateTime.class),
+        rs.getBigDecimal(basePrice),
+        FlightStatus.fromId(rs.getInt(statusId)));
+  }
+
+  private Airline airline(ResultSet rs) throws SQLException {
+    int id = rs.getInt(airlineId);
+    if (id >= 0 && id < MAX_DENSE_ID) {
+      if (id >= airlinesById.length) {
+        airlinesById = Arrays.copyOf(airlinesById, grow(airlinesById.length, id));
+      }
+      Airline airline = airlinesById[id];
+      if (airline == null) {
+        airline = loadAirline(rs, id);
+        airlinesById[id] = airline;
+      }
+      return airline;
+    }
+
+    if (sparseAirlines == null) {
+      sparseAirlines = new HashMap<>();
+    }
+    Airline airline = sparseAirlines.get(id);
+    if (airline == null) {
+      airline = loadAirline(rs, id);
+      sparseAirlines.put(id, airline);
+    }
+    return airline;
+  }
+
+  private Airport airport(ResultSet rs, int idColumn, AirportColumns columns)
+      throws SQLException {
+    int id = rs.getInt(idColumn);
+    if (id >= 0 && id < MAX_DENSE_ID) {
+      if (id >= airportsById.length) {
+        airportsById = Arrays.copyOf(airportsById, grow(airportsById.length, id));
+      }
+      Airport airport = airportsById[id];
+      if (airport == null) {
+        airport = loadAirport(rs, columns, id);
+        airportsById[id] = airport;
+      }
+      return airport;
+    }
+
+    if (sparseAirports == null) {
+      sparseAirports = new HashMap<>();
+    }
+    Airport airport = sparseAirports.get(id);
+    if (airport == null) {
+      airport = loadAirport(rs, columns, id);
+      sparseAirports.put(id, airport);
+    }
+    return airport;
+  }
+
+  private Airline loadAirline(ResultSet rs, int id) throws SQLException {
+    if (resolver != null) {
+      return resolver.airline(id);
+    }
+    return new Airline(
+        id,
+        rs.getString(airlineColumns.name),
+        rs.getString(airlineColumns.iata),
+        rs.getString(airlineColumns.icao),
+        rs.getString(airlineColumns.country),
+        rs.getBoolean(airlineColumns.active));
+  }
+
+  private Airport loadAirport(ResultSet rs, AirportColumns columns, int id)
+      throws SQLException {
+    if (resolver != null) {
+      return resolver.airport(id);
+    }
+    return new Airport(
+        id,
+        rs.getString(columns.name),
+        rs.getString(columns.city),
+        rs.getString(columns.country),
+        rs.getString(columns.iata),
+        rs.getString(columns.icao),
+        rs.getString(columns.timezone));
+  }
+
+  private static int grow(int length, int id) {
+    return Math.min(MAX_DENSE_ID, Math.max(length * 2, id + 1));
+  }
+
+  /**
+   * Source of airline and airport details for rows that only carry their IDs.
+   * Each call must return an instance the caller may own.
+   */
+  public interface ReferenceResolver {
+
+    Airline airline(int airlineId) throws SQLException;
+
+    Airport airport(int airportId) throws SQLException;
+  }
+
+  /**
+   * Resolved column indexes of the airline details of a view row.
+   */
+  private static final class AirlineColumns {
+    private final int name;
+    private final int iata;
+    private final int icao;
+    private final int country;
+    private final int active;
+
+    AirlineColumns(ResultSet rs) throws SQLException {
+      this.name = rs.findColumn(FlightViewColumns.AIRLINE_NAME);
+      this.iata = rs.findColumn(FlightViewColumns.AIRLINE_IATA);
+      this.icao = rs.findColumn(FlightViewColumns.AIRLINE_ICAO);
+      this.country = rs.findColumn(FlightViewColumns.AIRLINE_COUNTRY);
+      this.active = rs.findColumn(FlightViewColumns.AIRLINE_ACTIVE);
+    }
+  }
+
+  /**
+   * Resolved column indexes of the details of one of the two airports of a view row.
+   */
+  private static final class AirportColumns {
+    private final int name;
+    private final int city;
+    private final int country;
+    private final int iata;
+    private final int icao;
+    private final int timezone;
+
+    AirportColumns(ResultSet rs, String name, String city, String country,
+                   String iata, String icao, String timezone) throws SQLException {
+      this.name = rs.findColumn(name);
+      this.city = rs.findColumn(city);
+      this.country = rs.findColumn(country);
+      this.iata = rs.findColumn(iata);
+      this.icao = rs.findColumn(icao);
+      this.timezone = rs.findColumn(timezone);
+    }
+  }
+}
@@ -0,0 +1,282 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+
+/**
+ * In-memory timetable of the flights departing in a window {@code [from, until)}: the rows by
+ * flight ID and, per route {@code (departure airport, arrival airport)}, the flight IDs sorted
+ * by departure time. Flights put with a departure outside the window are dropped.
+ *
+ * <p>Reads are lock-free. Writes must be serialised by the caller; each write replaces the
+ * departure arrays of the affected routes with patched copies, so a reader always works on a
+ * consistent array. A reader running concurrently with a write may still see a row and a route
+ * array from different sides of that write; {@link #find} therefore re-checks every row it
+ * returns against the requested route and time range.</p>
+ */
+
+final class FlightTimetable {
+
+  private final Map<Integer, Row> rows = new ConcurrentHashMap<>();
+  private final Map<Long, Departures> routes = new ConcurrentHashMap<>();
+  // Departure window, as epochSecond values
+  private final long windowFrom;
+  private final long windowUntil;
+
+  private FlightTimetable(LocalDateTime from, LocalDateTime until) {
+    this.windowFrom = epochSecond(from);
+    this.windowUntil = epochSecond(until);
+  }
+
+  /**
+   * Builds a timetable of the window {@code [from, until)} from the given rows.
+   */
+  static FlightTimetable of(Collection<Row> rows, LocalDateTime from, LocalDateTime until) {
+    FlightTimetable timetable = new FlightTimetable(from, until);
+    Map<Long, List<Row>> byRoute = new HashMap<>();
+    for (Row row : rows) {
+      if (!timetable.inWindow(row)) {
+        continue;
+      }
+      timetable.rows.put(row.flightId(), row);
+      byRoute.computeIfAbsent(row.routeKey(), key -> new ArrayList<>()).add(row);
+    }
+    for (Map.Entry<Long, List<Row>> route : byRoute.entrySet()) {
+      timetable.routes.put(route.getKey(), Departures.of(route.getValue()));
+    }
+    return timetable;
+  }
+
+  /**
+   * Returns the flights of the route departing in {@code [from, to)}, ordered by departure
+   * time and flight ID.
+   */
+  List<Row> find(int departureAirportId, int arrivalAirportId, LocalDateTime from,
+                 LocalDateTime to) {
+    Departures departures = routes.get(routeKey(departureAirportId, arrivalAirportId));
+    if (departures == null) {
+      return List.of();
+    }
+
+    long fromSecond = epochSecond(from);
+    long toSecond = epochSecond(to);
+    int start = departures.lowerBound(fromSecond, Integer.MIN_VALUE);
+    int end = departures.lowerBound(toSecond, Integer.MIN_VALUE);
+
+    List<Row> found = new ArrayList<>(end - start);
+    for (int i = start; i < end; i++) {
+      Row row = rows.get(departures.flightIds[i]);
+      if (row != null && row.departureAirportId() == departureAirportId
+          && row.arrivalAirportId() == arrivalAirportId
+          && row.departureSecond() >= fromSecond && row.departureSecond() < toSecond) {
+        found.add(row);
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Tells whether all departures in {@code [from, to)} are within the window, i.e. whether
+   * {@link #find} returns every flight of the range.
+   */
+  boolean covers(LocalDateTime from, LocalDateTime to) {
+    return epochSecond(from) >= windowFrom && epochSecond(to) <= windowUntil;
+  }
+
+  /**
+   * Tells whether the window starts before the given time, i.e. was set on an earlier day.
+   */
+  boolean startsBefore(LocalDateTime time) {
+    return windowFrom < epochSecond(time);
+  }
+
+  Row get(int flightId) {
+    return rows.get(flightId);
+  }
+
+  int size() {
+    return rows.size();
+  }
+
+  /**
+   * Inserts or replaces a flight, moving it to its new route and departure time if needed, or
+   * removes it if it now departs outside the window.
+   */
+  void put(Row row) {
+    if (!inWindow(row)) {
+      remove(row.flightId());
+      return;
+    }
+    Row previous = rows.put(row.flightId(), row);
+    if (previous != null && previous.routeKey() == row.routeKey()
+        && previous.departureSecond() == row.departureSecond()) {
+      return;
+    }
+    if (previous != null) {
+      removeDeparture(previous);
+    }
+    routes.compute(row.routeKey(), (key, departures) -> departures == null
+        ? Departures.of(List.of(row)) : departures.with(row));
+  }
+
+  void remove(int flightId) {
+    Row previous = rows.remove(flightId);
+    if (previous != null) {
+      removeDeparture(previous);
+    }
+  }
+
+  void setStatus(int flightId, FlightStatus status) {
+    rows.computeIfPresent(flightId, (id, row) -> row.withStatus(status));
+  }
+
+  private boolean inWindow(Row row) {
+    return row.departureSecond() >= windowFrom && row.departureSecond() < windowUntil;
+  }
+
+  private void removeDeparture(Row row) {
+    routes.computeIfPresent(row.routeKey(), (key, departures) -> departures.without(row));
+  }
+
+  private static long routeKey(int departureAirportId, int arrivalAirportId) {
+    return ((long) departureAirportId << 32) | (arrivalAirportId & 0xFFFFFFFFL);
+  }
+
+  private static long epochSecond(LocalDateTime time) {
+    // Local wall-clock time as a sortable number; no time zone is implied
+    return time.toEpochSecond(ZoneOffset.UTC);
+  }
+
+  /**
+   * Columns of one {@code flights} row, with airline and airports by ID.
+   */
+  record Row(int flightId, String flightNumber, int airlineId, int departureAirportId,
+             int arrivalAirportId, LocalDateTime departureTime, LocalDateTime arrivalTime,
+             BigDecimal basePrice, FlightStatus status) {
+
+    /**
+     * Returns the row of the given flight, or {@code null} if it lacks a column the timetable
+     * needs.
+     */
+    static Row of(Flight flight) {
+      if (flight.getFlightId() == null || flight.getAirline() == null
+          || flight.getAirline().getAirlineId() == null
+          || flight.getDepartureAirport() == null
+          || flight.getDepartureAirport().getAirportId() == null
+          || flight.getArrivalAirport() == null
+          || flight.getArrivalAirport().getAirportId() == null
+          || flight.getDepartureTime() == null || flight.getStatus() == null) {
+        return null;
+      }
+      return new Row(flight.getFlightId(), flight.getFlightNumber(),
+          flight.getAirline().getAirlineId(), flight.getDepartureAirport().getAirportId(),
+          flight.getArrivalAirport().getAirportId(), flight.getDepartureTime(),
+          flight.getArrivalTime(), flight.getBasePrice(), flight.getStatus());
+    }
+
+    Row withStatus(FlightStatus newStatus) {
+      return new Row(flightId, flightNumber, airlineId, departureAirportId, arrivalAirportId,
+          departureTime, arrivalTime, basePrice, newStatus);
+    }
+
+    long routeKey() {
+      return FlightTimetable.routeKey(departureAirportId, arrivalAirportId);
+    }
+
+    long departureSecond() {
+      return epochSecond(departureTime);
+    }
+  }
+
+  /**
+   * Immutable departures of one route: flight IDs sorted by {@code (departure time, flight ID)}.
+   */
+  private static final class Departures {
+    private final long[] departureSeconds;
+    private final int[] flightIds;
+
+    private Departures(long[] departureSeconds, int[] flightIds) {
+      this.departureSeconds = departureSeconds;
+      this.flightIds = flightIds;
+    }
+
+    static Departures of(List<Row> rows) {
+      Row[] sorted = rows.toArray(new Row[0]);
+      Arrays.sort(sorted, (a, b) -> {
+        int byTime = Long.compare(a.departureSecond(), b.departureSecond());
+        return byTime != 0 ? byTime : Integer.compare(a.flightId(), b.flightId());
+      });
+
+      long[] seconds = new long[sorted.length];
+      int[] ids = new int[sorted.length];
+      for (int i = 0; i < sorted.length; i++) {
+        seconds[i] = sorted[i].departureSecond();
+        ids[i] = sorted[i].flightId();
+      }
+      return new Departures(seconds, ids);
+    }
+
+    /**
+     * Index of the first departure not before {@code (second, flightId)}.
+     */
+    int lowerBound(long second, int flightId) {
+      int low = 0;
+      int high = flightIds.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (departureSeconds[mid] < second
+            || departureSeconds[mid] == second && flightIds[mid] < flightId) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    Departures with(Row row) {
+      int at = lowerBound(row.departureSecond(), row.flightId());
+      long[] seconds = new long[flightIds.length + 1];
+      int[] ids = new int[flightIds.length + 1];
+      System.arraycopy(departureSeconds, 0, seconds, 0, at);
+      System.arraycopy(flightIds, 0, ids, 0, at);
+      seconds[at] = row.departureSecond();
+      ids[at] = row.flightId();
+      System.arraycopy(departureSeconds, at, seconds, at + 1, flightIds.length - at);
+      System.arraycopy(flightIds, at, ids, at + 1, flightIds.length - at);
+      return new Departures(seconds, ids);
+    }
+
+    /**
+     * Returns the departures without the given row, or {@code null} (dropping the route) when
+     * it was the last one.
+     */
+    Departures without(Row row) {
+      int at = lowerBound(row.departureSecond(), row.flightId());
+      if (at == flightIds.length || flightIds[at] != row.flightId()
+          || departureSeconds[at] != row.departureSecond()) {
+        return this;
+      }
+      if (flightIds.length == 1) {
+        return null;
+      }
+      long[] seconds = new long[flightIds.length - 1];
+      int[] ids = new int[flightIds.length - 1];
+      System.arraycopy(departureSeconds, 0, seconds, 0, at);
+      System.arraycopy(flightIds, 0, ids, 0, at);
+      System.arraycopy(departureSeconds, at + 1, seconds, at, seconds.length - at);
+      System.arraycopy(flightIds, at + 1, ids, at, ids.length - at);
+      return new Departures(seconds, ids);
+    }
+  }
+}
@@ -0,0 +1,299 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import ru.brynkin.flightbooking.dao.BookingDao;
+import ru.brynkin.flightbooking.entity.Booking;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.util.PropertiesUtil;
+
+/**
+ * Group commit for seat reservations: collects the reservations of concurrent callers and
+ * writes them with {@link BookingDao#reserveAll(List)}, many bookings per transaction, so the
+ * cost of a commit is shared instead of paid by every booking.
+ *
+ * <p>A single writer thread takes the first waiting reservation and then waits at most
+ * {@code booking.group-commit.linger-ms} for more, up to
+ * {@code booking.group-commit.max-batch-size} in all. While a batch is being written, new
+ * reservations queue up for the next one, so batches grow with load and a lone caller pays at
+ * most the linger time extra. At most
+ * {@code booking.group-commit.queue-capacity} reservations wait; beyond that they are rejected
+ * instead of queueing without bound.</p>
+ *
+ * <p>Every caller's future completes with its own outcome: the booking with its ID and
+ * reference, empty if its seats are not available, or exceptionally with its own error. If the
+ * batch fails in a way known to have written nothing, a rejected argument or an error the
+ * database reports together with rolling the transaction back, its reservations are retried
+ * one by one with {@link BookingDao#reserve(Booking)}, so a bad booking fails only its own
+ * caller. Any other failure, a connection lost around the commit above all, may have come after
+ * the batch was committed; retrying could then book the same seats twice, so every caller of
+ * the batch gets the error instead.</p>
+ *
+ * <p>A caller that cancels its future before its batch is written is left out of the batch. If
+ * it does so while the batch is being written and its reservation goes through, the writer
+ * cancels the booking again with {@link BookingDao#cancel(Integer)}, so its seats are not held
+ * by a booking nobody knows of; reservations that could not be cancelled are counted by
+ * {@link #getOrphanedCount()}.</p>
+ *
+ * @see BookingDao#reserveAll(List)
+ */
+
+public final class GroupCommitBookingWriter implements AutoCloseable {
+
+  private static final String MAX_BATCH_SIZE_KEY = "booking.group-commit.max-batch-size";
+  private static final String LINGER_MILLIS_KEY = "booking.group-commit.linger-ms";
+  private static final String QUEUE_CAPACITY_KEY = "booking.group-commit.queue-capacity";
+  private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+  private static final long DEFAULT_LINGER_MILLIS = 2;
+  private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+  // How often an idle writer checks whether it was closed
+  private static final long IDLE_POLL_MILLIS = 100;
+  // SQLState classes of errors after which PostgreSQL has rolled the transaction back, whether
+  // raised by a statement or at commit: data exception, integrity constraint violation,
+  // transaction rollback, syntax error or access rule violation
+  private static final List<String> ROLLED_BACK_STATE_CLASSES = List.of("22", "23", "40", "42");
+
+  // Singleton pattern
+  private static volatile GroupCommitBookingWriter instance;
+
+  private final BookingDao delegate;
+  private final int maxBatchSize;
+  private final long lingerNanos;
+  private final BlockingQueue<Request> queue;
+  private final Thread writer;
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder reservations = new LongAdder();
+  private final LongAdder orphaned = new LongAdder();
+  private volatile boolean closed;
+
+  public GroupCommitBookingWriter(BookingDao delegate, int maxBatchSize, Duration linger,
+                                  int queueCapacity) {
+    if (maxBatchSize <= 0) {
+      throw new IllegalArgumentException("Maximum batch size must be positive");
+    }
+    if (linger.isNegative()) {
+      throw new IllegalArgumentException("Linger time must not be negative");
+    }
+    if (queueCapacity <= 0) {
+      throw new IllegalArgumentException("Queue capacity must be positive");
+    }
+    this.delegate = delegate;
+    this.maxBatchSize = maxBatchSize;
+    this.lingerNanos = linger.toNanos();
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.writer = Thread.ofPlatform().name("booking-group-commit").daemon()
+        .start(this::run);
+  }
+
+  /**
+   * Returns the writer over {@link SeatHoldBookingDaoImpl#getInstance()}, configured by the
+   * {@code booking.group-commit.*} properties.
+   */
+  public static GroupCommitBookingWriter getInstance() {
+    if (instance == null) {
+      synchronized (GroupCommitBookingWriter.class) {
+        if (instance == null) {
+          String maxBatchSize = PropertiesUtil.get(MAX_BATCH_SIZE_KEY);
+          String lingerMillis = PropertiesUtil.get(LINGER_MILLIS_KEY);
+          String queueCapacity = PropertiesUtil.get(QUEUE_CAPACITY_KEY);
+          instance = new GroupCommitBookingWriter(SeatHoldBookingDaoImpl.getInstance(),
+              maxBatchSize != null ? Integer.parseInt(maxBatchSize) : DEFAULT_MAX_BATCH_SIZE,
+              Duration.ofMillis(lingerMillis != null
+                  ? Long.parseLong(lingerMillis) : DEFAULT_LINGER_MILLIS),
+              queueCapacity != null ? Integer.parseInt(queueCapacity) : DEFAULT_QUEUE_CAPACITY);
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Queues a reservation for the next batch.
+   *
+   * @return future completed with the reserved booking, empty if its seats are not available,
+   *     or exceptionally with its {@link DaoException}, runtime exception or a
+   *     {@link RejectedExecutionException} if the writer is closed or its queue is full
+   * @see BookingDao#reserve(Booking)
+   */
+  public CompletableFuture<Optional<Booking>> reserve(Booking booking) {
+    CompletableFuture<Optional<Booking>> future = new CompletableFuture<>();
+    Request request = new Request(booking, future);
+    if (closed) {
+      future.completeExceptionally(new RejectedExecutionException("Booking writer is closed"));
+    } else if (!queue.offer(request)) {
+      future.completeExceptionally(new RejectedExecutionException("Booking writer queue is full"));
+    } else if (closed && queue.remove(request)) {
+      // Closed while queueing, possibly after the writer's last look at the queue
+      future.completeExceptionally(new RejectedExecutionException("Booking writer is closed"));
+    }
+    return future;
+  }
+
+  /**
+   * Returns the number of batches written.
+   */
+  public long getBatchCount() {
+    return batches.sum();
+  }
+
+  /**
+   * Returns the number of reservations written in batches, successful or not.
+   */
+  public long getReservationCount() {
+    return reservations.sum();
+  }
+
+  /**
+   * Returns the number of reservations made for callers that had given up and that could not be
+   * cancelled again.
+   */
+  public long getOrphanedCount() {
+    return orphaned.sum();
+  }
+
+  /**
+   * Returns the number of reservations waiting for a batch.
+   */
+  public int getQueueLength() {
+    return queue.size();
+  }
+
+  /**
+   * Writes the reservations already queued and stops the writer thread.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    Request request;
+    while ((request = queue.poll()) != null) {
+      request.future().completeExceptionally(
+          new RejectedExecutionException("Booking writer is closed"));
+    }
+  }
+
+  private void run() {
+    List<Request> batch = new ArrayList<>(maxBatchSize);
+    try {
+      while (!closed || !queue.isEmpty()) {
+        Request first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatchSize) {
+          long remaining = deadline - System.nanoTime();
+          Request next = remaining > 0
+              ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+
+        write(batch);
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      closed = true;
+      for (Request request : batch) {
+        request.future().completeExceptionally(e);
+      }
+    }
+  }
+
+  private void write(List<Request> batch) {
+    // Callers that gave up need no seats
+    batch.removeIf(request -> request.future().isDone());
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    List<Booking> bookings = new ArrayList<>(batch.size());
+    for (Request request : batch) {
+      bookings.add(request.booking());
+    }
+    batches.increment();
+    reservations.add(batch.size());
+
+    List<Boolean> reserved;
+    try {
+      reserved = delegate.reserveAll(bookings);
+    } catch (DaoException | RuntimeException e) {
+      if (batch.size() > 1 && isRolledBack(e)) {
+        writeOneByOne(batch);
+      } else {
+        for (Request request : batch) {
+          request.future().completeExceptionally(e);
+        }
+      }
+      return;
+    }
+    for (int i = 0; i < batch.size(); i++) {
+      Request request = batch.get(i);
+      complete(request, reserved.get(i) ? Optional.of(request.booking()) : Optional.empty());
+    }
+  }
+
+  private void writeOneByOne(List<Request> batch) {
+    for (Request request : batch) {
+      try {
+        complete(request, delegate.reserve(request.booking()));
+      } catch (DaoException | RuntimeException e) {
+        request.future().completeExceptionally(e);
+      }
+    }
+  }
+
+  private void complete(Request request, Optional<Booking> booking) {
+    if (request.future().complete(booking) || booking.isEmpty()) {
+      return;
+    }
+    // The caller gave up while the reservation was being written
+    try {
+      delegate.cancel(booking.get().getBookingId());
+    } catch (DaoException | RuntimeException e) {
+      orphaned.increment();
+    }
+  }
+
+  /**
+   * Returns whether a failed batch is known to have written nothing: a booking was rejected
+   * before anything was sent, or the database reported an error that rolled the transaction
+   * back. Errors without such a state may have come after the commit went through.
+   */
+  private static boolean isRolledBack(Exception e) {
+    if (e instanceof IllegalArgumentException) {
+      return true;
+    }
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException sqlException) {
+        String state = sqlException.getSQLState();
+        return state != null && state.length() >= 2
+               && ROLLED_BACK_STATE_CLASSES.contains(state.substring(0, 2));
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A queued reservation and the future of its caller.
+   */
+  private record Request(Booking booking, CompletableFuture<Optional<Booking>> future) {
+  }
+}
@@ -0,0 +1,121 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import ru.brynkin.flightbooking.dao.AirportDao;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.metrics.DaoMetrics;
+
+/**
+ * {@link AirportDao} decorator that records latency, row count and errors of every call in the
+ * {@code AirportDao} {@link DaoMetrics}.
+ *
+ * @see AirportDaoImpl
+ * @see DaoMetrics
+ */
+
+public class MeteredAirportDaoImpl implements AirportDao {
+
+  // Singleton pattern
+  private static volatile MeteredAirportDaoImpl instance;
+
+  private final AirportDao delegate;
+  private final DaoMetrics metrics = DaoMetrics.forDao("AirportDao");
+
+  MeteredAirportDaoImpl(AirportDao delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Returns the decorator over {@link AirportDaoImpl#getInstance()}.
+   */
+  public static MeteredAirportDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (MeteredAirportDaoImpl.class) {
+        if (instance == null) {
+          instance = new MeteredAirportDaoImpl(AirportDaoImpl.getInstance());
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public Optional<Airport> findById(Integer id) throws DaoException {
+    return metrics.record("findById", () -> delegate.findById(id));
+  }
+
+  @Override
+  public List<Airport> findAll() throws DaoException {
+    return metrics.record("findAll", delegate::findAll);
+  }
+
+  @Override
+  public List<Airport> findByCountry(String country) throws DaoException {
+    return metrics.record("findByCountry", () -> delegate.findByCountry(country));
+  }
+
+  @Override
+  public List<Airport> findByCity(String city) throws DaoException {
+    return metrics.record("findByCity", () -> delegate.findByCity(city));
+  }
+
+  @Override
+  public Optional<Airport> findByIataCode(String iataCode) throws DaoException {
+    return metrics.record("findByIataCode", () -> delegate.findByIataCode(iataCode));
+  }
+
+  @Override
+  public Optional<Airport> findByIcaoCode(String icaoCode) throws DaoException {
+    return metrics.record("findByIcaoCode", () -> delegate.findByIcaoCode(icaoCode));
+  }
+
+  @Override
+  public List<Airport> findPage(Integer afterAirportId, int limit) throws DaoException {
+    return metrics.record("findPage", () -> delegate.findPage(afterAirportId, limit));
+  }
+
+  @Override
+  public void forEach(Consumer<? super Airport> action) throws DaoException {
+    metrics.record("forEach", () -> {
+      long[] rows = {0};
+      delegate.forEach(airport -> {
+        rows[0]++;
+        action.accept(airport);
+      });
+      return rows[0];
+    });
+  }
+
+  @Override
+  public Airport create(Airport airport) throws DaoException {
+    return metrics.record("create", () -> delegate.create(airport));
+  }
+
+  @Override
+  public Airport update(Airport airport) throws DaoException {
+    return metrics.record("update", () -> delegate.update(airport));
+  }
+
+  @Override
+  public boolean delete(Integer id) throws DaoException {
+    return metrics.record("delete", () -> delegate.delete(id));
+  }
+
+  @Override
+  public List<Airport> createAll(List<Airport> airports) throws DaoException {
+    return metrics.record("createAll", () -> delegate.createAll(airports));
+  }
+
+  @Override
+  public List<Airport> updateAll(List<Airport> airports) throws DaoException {
+    return metrics.record("updateAll", () -> delegate.updateAll(airports));
+  }
+
+  @Override
+  public int deleteAll(List<Integer> ids) throws DaoException {
+    return metrics.record("deleteAll", () -> delegate.deleteAll(ids));
+  }
+}
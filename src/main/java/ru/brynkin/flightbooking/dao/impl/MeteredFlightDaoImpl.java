@@ -0,0 +1,132 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import ru.brynkin.flightbooking.dao.FlightDao;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.metrics.DaoMetrics;
+
+/**
+ * {@link FlightDao} decorator that records latency, row count and errors of every call in the
+ * {@code FlightDao} {@link DaoMetrics}.
+ *
+ * @see FlightDaoImpl
+ * @see DaoMetrics
+ */
+
+public class MeteredFlightDaoImpl implements FlightDao {
+
+  // Singleton pattern
+  private static volatile MeteredFlightDaoImpl instance;
+
+  private final FlightDao delegate;
+  private final DaoMetrics metrics = DaoMetrics.forDao("FlightDao");
+
+  MeteredFlightDaoImpl(FlightDao delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Returns the decorator over {@link FlightDaoImpl#getInstance()}.
+   */
+  public static MeteredFlightDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (MeteredFlightDaoImpl.class) {
+        if (instance == null) {
+          instance = new MeteredFlightDaoImpl(FlightDaoImpl.getInstance());
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public Optional<Flight> findById(Integer id) throws DaoException {
+    return metrics.record("findById", () -> delegate.findById(id));
+  }
+
+  @Override
+  public List<Flight> findAll() throws DaoException {
+    return metrics.record("findAll", delegate::findAll);
+  }
+
+  @Override
+  public List<Flight> findByCriteria(Integer departureAirportId, Integer arrivalAirportId,
+                                     LocalDate date, FlightStatus status) throws DaoException {
+    return metrics.record("findByCriteria", () -> delegate.findByCriteria(
+        departureAirportId, arrivalAirportId, date, status));
+  }
+
+  @Override
+  public boolean updateStatus(Integer flightId, FlightStatus newStatus) throws DaoException {
+    return metrics.record("updateStatus", () -> delegate.updateStatus(flightId, newStatus));
+  }
+
+  @Override
+  public List<Flight> findPage(LocalDateTime afterDepartureTime, Integer afterFlightId,
+                               int limit) throws DaoException {
+    return metrics.record("findPage",
+        () -> delegate.findPage(afterDepartureTime, afterFlightId, limit));
+  }
+
+  @Override
+  public void forEach(Consumer<? super Flight> action) throws DaoException {
+    metrics.record("forEach", () -> {
+      long[] rows = {0};
+      delegate.forEach(flight -> {
+        rows[0]++;
+        action.accept(flight);
+      });
+      return rows[0];
+    });
+  }
+
+  @Override
+  public void forEachByCriteria(Integer departureAirportId, Integer arrivalAirportId,
+                                LocalDate date, FlightStatus status,
+                                Consumer<? super Flight> action) throws DaoException {
+    metrics.record("forEachByCriteria", () -> {
+      long[] rows = {0};
+      delegate.forEachByCriteria(departureAirportId, arrivalAirportId, date, status, flight -> {
+        rows[0]++;
+        action.accept(flight);
+      });
+      return rows[0];
+    });
+  }
+
+  @Override
+  public Flight create(Flight flight) throws DaoException {
+    return metrics.record("create", () -> delegate.create(flight));
+  }
+
+  @Override
+  public Flight update(Flight flight) throws DaoException {
+    return metrics.record("update", () -> delegate.update(flight));
+  }
+
+  @Override
+  public boolean delete(Integer id) throws DaoException {
+    return metrics.record("delete", () -> delegate.delete(id));
+  }
+
+  @Override
+  public List<Flight> createAll(List<Flight> flights) throws DaoException {
+    return metrics.record("createAll", () -> delegate.createAll(flights));
+  }
+
+  @Override
+  public List<Flight> updateAll(List<Flight> flights) throws DaoException {
+    return metrics.record("updateAll", () -> delegate.updateAll(flights));
+  }
+
+  @Override
+  public int deleteAll(List<Integer> ids) throws DaoException {
+    return metrics.record("deleteAll", () -> delegate.deleteAll(ids));
+  }
+}
@@ -0,0 +1,306 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import ru.brynkin.flightbooking.dao.ScheduleImportDao;
+import ru.brynkin.flightbooking.dao.ScheduleImportListener;
+import ru.brynkin.flightbooking.dto.ScheduleImportResult;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+
+/**
+ * PostgreSQL implementation of the {@link ScheduleImportDao} interface built on
+ * {@link CopyManager}.
+ *
+ * <p>The whole import runs in one transaction on one connection:</p>
+ * <ol>
+ *   <li>the file is streamed with {@code COPY ... FROM STDIN} into a temporary staging table
+ *   of text columns, so it is never held in memory and malformed values do not abort the
+ *   copy;</li>
+ *   <li>airline, airport and status codes are resolved to IDs and values are parsed with one
+ *   set-based {@code UPDATE ... FROM};</li>
+ *   <li>invalid rows, and rows superseded by a later row for the same flight, are marked with a
+ *   reject reason;</li>
+ *   <li>the remaining rows are merged into {@code flights} with a single {@code MERGE}.</li>
+ * </ol>
+ *
+ * <p>A row with the wrong number of columns is a CSV syntax error and fails the whole import,
+ * leaving {@code flights} untouched.</p>
+ *
+ * @see ScheduleImportDao
+ */
+
+public class ScheduleImportDaoImpl implements ScheduleImportDao {
+
+  private static final String CREATE_STAGING_SQL = """
+      CREATE TEMP TABLE flight_schedule_staging (
+          line_no              BIGINT GENERATED ALWAYS AS IDENTITY,
+          flight_number        TEXT,
+          airline_code         TEXT,
+          departure_code       TEXT,
+          arrival_code         TEXT,
+          departure_time       TEXT,
+          arrival_time         TEXT,
+          base_price           TEXT,
+          status               TEXT,
+          airline_id           INTEGER,
+          departure_airport_id INTEGER,
+          arrival_airport_id   INTEGER,
+          status_id            INTEGER,
+          departure_ts         TIMESTAMP,
+          arrival_ts           TIMESTAMP,
+          price                NUMERIC,
+          reject_reason        TEXT
+      ) ON COMMIT DROP""";
+
+  private static final String COPY_SQL = """
+      COPY flight_schedule_staging (
+          flight_number, airline_code, departure_code, arrival_code,
+          departure_time, arrival_time, base_price, status
+      ) FROM STDIN WITH (FORMAT csv, HEADER true)""";
+
+  private static final String RESOLVE_SQL = """
+      UPDATE flight_schedule_staging s
+      SET airline_id           = r.airline_id,
+          departure_airport_id = r.departure_airport_id,
+          arrival_airport_id   = r.arrival_airport_id,
+          status_id            = r.status_id,
+          flight_number        = TRIM(s.flight_number),
+          departure_ts         = try_cast_timestamp(s.departure_time),
+          arrival_ts           = try_cast_timestamp(s.arrival_time),
+          price                = try_cast_numeric(s.base_price)
+      FROM (SELECT st.line_no,
+                   al.airline_id,
+                   dep.airport_id AS departure_airport_id,
+                   arr.airport_id AS arrival_airport_id,
+                   fs.status_id
+            FROM flight_schedule_staging st
+                     LEFT JOIN airlines al ON al.iata_code = UPPER(TRIM(st.airline_code))
+                     LEFT JOIN airports dep ON dep.iata_code = UPPER(TRIM(st.departure_code))
+                     LEFT JOIN airports arr ON arr.iata_code = UPPER(TRIM(st.arrival_code))
+                     LEFT JOIN flight_statuses fs
+                               ON fs.status_name = UPPER(COALESCE(NULLIF(TRIM(st.status), ''),
+                                                                  'SCHEDULED'))) r
+      WHERE r.line_no = s.line_no""";
+
+  private static final String VALIDATE_SQL = """
+      UPDATE flight_schedule_staging
+      SET reject_reason = CASE
+          WHEN flight_number IS NULL OR flight_number = '' THEN 'missing flight number'
+          WHEN LENGTH(flight_number) > 10 THEN 'flight number longer than 10 characters'
+          WHEN airline_id IS NULL THEN 'unknown airline code'
+          WHEN departure_airport_id IS NULL THEN 'unknown departure airport code'
+          WHEN arrival_airport_id IS NULL THEN 'unknown arrival airport code'
+          WHEN departure_airport_id = arrival_airport_id
+              THEN 'departure and arrival airports are the same'
+          WHEN status_id IS NULL THEN 'unknown status'
+          WHEN departure_ts IS NULL THEN 'malformed departure time'
+          WHEN arrival_ts IS NULL THEN 'malformed arrival time'
+          WHEN arrival_ts <= departure_ts THEN 'arrival time not after departure time'
+          WHEN price IS NULL THEN 'malformed base price'
+          WHEN price < 0 OR price >= 100000000 THEN 'base price out of range'
+          END""";
+
+  private static final String REJECT_DUPLICATES_SQL = """
+      UPDATE flight_schedule_staging s
+      SET reject_reason = 'superseded by a later row for the same flight'
+      FROM (SELECT line_no,
+                   ROW_NUMBER() OVER (
+                       PARTITION BY airline_id, flight_number, departure_ts
+                       ORDER BY line_no DESC) AS rn
+            FROM flight_schedule_staging
+            WHERE reject_reason IS NULL) d
+      WHERE d.line_no = s.line_no
+        AND d.rn > 1""";
+
+  private static final String MERGE_SQL = """
+      MERGE INTO flights f
+      USING (SELECT flight_number, airline_id, departure_airport_id, arrival_airport_id,
+                    departure_ts, arrival_ts, ROUND(price, 2) AS price, status_id
+             FROM flight_schedule_staging
+             WHERE reject_reason IS NULL) s
+      ON f.airline_id = s.airline_id
+          AND f.flight_number = s.flight_number
+          AND f.departure_time = s.departure_ts
+      WHEN MATCHED THEN
+          UPDATE SET departure_airport_id = s.departure_airport_id,
+                     arrival_airport_id   = s.arrival_airport_id,
+                     arrival_time         = s.arrival_ts,
+                     base_price           = s.price,
+                     status_id            = s.status_id
+      WHEN NOT MATCHED THEN
+          INSERT (flight_number, airline_id, departure_airport_id, arrival_airport_id,
+                  departure_time, arrival_time, base_price, status_id)
+          VALUES (s.flight_number, s.airline_id, s.departure_airport_id, s.arrival_airport_id,
+                  s.departure_ts, s.arrival_ts, s.price, s.status_id)""";
+
+  private static final String COUNT_SQL = """
+      SELECT COUNT(*), COUNT(reject_reason)
+      FROM flight_schedule_staging""";
+
+  private static final String SELECT_REJECTED_SQL = """
+      SELECT line_no, flight_number, reject_reason
+      FROM flight_schedule_staging
+      WHERE reject_reason IS NOT NULL
+      ORDER BY line_no""";
+
+  // The header occupies line 1, so staged row n comes from line n + 1
+  private static final int HEADER_LINES = 1;
+
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+  private static final long PROGRESS_INTERVAL_BYTES = 1024 * 1024;
+  private static final int REJECTED_FETCH_SIZE = 500;
+
+  // Singleton pattern
+  private static volatile ScheduleImportDaoImpl instance;
+
+  private ScheduleImportDaoImpl() {
+    // Private constructor to prevent instantiation
+  }
+
+  public static ScheduleImportDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (ScheduleImportDaoImpl.class) {
+        if (instance == null) {
+          instance = new ScheduleImportDaoImpl();
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public ScheduleImportResult importSchedule(Path csvFile, ScheduleImportListener listener)
+      throws DaoException {
+    long start = System.nanoTime();
+
+    try (Connection conn = ConnectionManager.getConnection()) {
+      boolean autoCommit = conn.getAutoCommit();
+      conn.setAutoCommit(false);
+
+      try {
+        ScheduleImportResult result = runImport(conn, csvFile, listener);
+        conn.commit();
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return result;
+      } catch (SQLException | IOException | RuntimeException e) {
+        conn.rollback();
+        throw e;
+      } finally {
+        conn.setAutoCommit(autoCommit);
+      }
+    } catch (SQLException | IOException e) {
+      throw new DaoException("Failed to import schedule from " + csvFile, e);
+    }
+  }
+
+  private ScheduleImportResult runImport(Connection conn, Path csvFile,
+                                         ScheduleImportListener listener)
+      throws SQLException, IOException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute(CREATE_STAGING_SQL);
+    }
+
+    long totalBytes = Files.size(csvFile);
+    CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+    long bytesCopied;
+    try (ProgressInputStream in = new ProgressInputStream(
+        Files.newInputStream(csvFile), totalBytes, listener)) {
+      copyManager.copyIn(COPY_SQL, in, COPY_BUFFER_SIZE);
+      bytesCopied = in.getBytesRead();
+      listener.onProgress(bytesCopied, totalBytes);
+    }
+
+    long rowsMerged;
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("ANALYZE flight_schedule_staging");
+      stmt.executeUpdate(RESOLVE_SQL);
+      stmt.executeUpdate(VALIDATE_SQL);
+      stmt.executeUpdate(REJECT_DUPLICATES_SQL);
+      rowsMerged = stmt.executeUpdate(MERGE_SQL);
+    }
+
+    reportRejected(conn, listener);
+
+    try (Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(COUNT_SQL)) {
+      rs.next();
+      return ScheduleImportResult.builder()
+          .bytesCopied(bytesCopied)
+          .rowsStaged(rs.getLong(1))
+          .rowsRejected(rs.getLong(2))
+          .rowsMerged(rowsMerged)
+          .build();
+    }
+  }
+
+  private void reportRejected(Connection conn, ScheduleImportListener listener)
+      throws SQLException {
+    try (PreparedStatement stmt = conn.prepareStatement(SELECT_REJECTED_SQL)) {
+      stmt.setFetchSize(REJECTED_FETCH_SIZE);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          listener.onRejected(rs.getLong(1) + HEADER_LINES, rs.getString(2), rs.getString(3));
+        }
+      }
+    }
+  }
+
+  /**
+   * Counts the bytes handed to {@code COPY} and reports progress every
+   * {@link #PROGRESS_INTERVAL_BYTES}.
+   */
+  private static final class ProgressInputStream extends FilterInputStream {
+    private final long totalBytes;
+    private final ScheduleImportListener listener;
+    private long bytesRead;
+    private long nextReport = PROGRESS_INTERVAL_BYTES;
+
+    ProgressInputStream(InputStream in, long totalBytes, ScheduleImportListener listener) {
+      super(in);
+      this.totalBytes = totalBytes;
+      this.listener = listener;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        advance(1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int n = super.read(buffer, offset, length);
+      if (n > 0) {
+        advance(n);
+      }
+      return n;
+    }
+
+    long getBytesRead() {
+      return bytesRead;
+    }
+
+    private void advance(int n) {
+      bytesRead += n;
+      if (bytesRead >= nextReport) {
+        listener.onProgress(bytesRead, totalBytes);
+        nextReport = bytesRead + PROGRESS_INTERVAL_BYTES;
+      }
+    }
+  }
+}
@@ -0,0 +1,431 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import ru.brynkin.flightbooking.dao.BookingDao;
+import ru.brynkin.flightbooking.dto.SeatInventory;
+import ru.brynkin.flightbooking.entity.Booking;
+import ru.brynkin.flightbooking.enums.BookingStatus;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.util.PropertiesUtil;
+
+/**
+ * {@link BookingDao} decorator that turns away reservations for sold-out flights without
+ * touching the database.
+ *
+ * <p>Per flight it keeps an estimate of the seats left, loaded from the delegate on the first
+ * reservation. A reservation first takes its seats off that estimate with a compare-and-set;
+ * only if that succeeds is it sent to the delegate, and the seats are put back if the delegate
+ * does not reserve them. When hundreds of buyers race for the last seats of a flight, only as
+ * many reach the database as there are seats left, and the rest are rejected in memory.</p>
+ *
+ * <p>The estimate only filters; the delegate's conditional update still decides every
+ * reservation, so the gate can never cause overselling. An estimate that is too high (seats
+ * sold through another instance) costs a rejected database round trip and triggers a resync;
+ * one that is too low (seats given back elsewhere) is corrected by a resync when the gate finds
+ * the flight sold out and the last resync is older than {@code booking.seat-hold.resync-ms}.
+ * Writes made through this DAO keep the estimate current.</p>
+ *
+ * <p>A resync cannot tell which of the reservations in flight have committed by the time it
+ * reads the database. It subtracts all of them from what it read and, when one that was in
+ * flight then succeeds, puts its seats back. The estimate is then too high by at most the
+ * seats of those that committed after the read, which only costs round trips; it is never too
+ * low because of them, so the gate does not turn buyers away from seats that exist.</p>
+ *
+ * @see BookingDaoImpl
+ * @see BookingDao
+ */
+
+public class SeatHoldBookingDaoImpl implements BookingDao {
+
+  private static final String RESYNC_MILLIS_KEY = "booking.seat-hold.resync-ms";
+  private static final long DEFAULT_RESYNC_MILLIS = 1000;
+  private static final int NOT_HELD = -1;
+
+  // Singleton pattern
+  private static volatile SeatHoldBookingDaoImpl instance;
+
+  private final BookingDao delegate;
+  private final long resyncNanos;
+  private final Map<Integer, SeatCounter> counters = new ConcurrentHashMap<>();
+  private final LongAdder rejectedInMemory = new LongAdder();
+  private final LongAdder rejectedByDatabase = new LongAdder();
+
+  SeatHoldBookingDaoImpl(BookingDao delegate, Duration resyncInterval) {
+    if (resyncInterval.isNegative()) {
+      throw new IllegalArgumentException("Resync interval must not be negative");
+    }
+    this.delegate = delegate;
+    this.resyncNanos = resyncInterval.toNanos();
+  }
+
+  /**
+   * Returns the gate over {@link BookingDaoImpl#getInstance()}, resyncing sold-out flights at
+   * most every {@code booking.seat-hold.resync-ms}.
+   */
+  public static SeatHoldBookingDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (SeatHoldBookingDaoImpl.class) {
+        if (instance == null) {
+          String resyncMillis = PropertiesUtil.get(RESYNC_MILLIS_KEY);
+          instance = new SeatHoldBookingDaoImpl(BookingDaoImpl.getInstance(),
+              Duration.ofMillis(resyncMillis != null
+                  ? Long.parseLong(resyncMillis) : DEFAULT_RESYNC_MILLIS));
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public Optional<Booking> reserve(Booking booking) throws DaoException {
+    int seats = seatsOf(booking);
+    SeatCounter counter = counter(booking, seats);
+    if (counter == null) {
+      // Unknown flight or invalid booking; let the delegate decide
+      return delegate.reserve(booking);
+    }
+    int epoch = hold(counter, seats);
+    if (epoch == NOT_HELD) {
+      rejectedInMemory.increment();
+      return Optional.empty();
+    }
+
+    Optional<Booking> result;
+    try {
+      result = delegate.reserve(booking);
+    } catch (DaoException | RuntimeException e) {
+      counter.complete(seats, false, epoch);
+      throw e;
+    }
+    counter.complete(seats, result.isPresent(), epoch);
+    if (result.isEmpty()) {
+      rejectedByDatabase.increment();
+      // The estimate was too high; bring it in line before the next buyer trusts it
+      resync(counter, true);
+    }
+    return result;
+  }
+
+  /**
+   * Holds the seats of each booking as {@link #reserve(Booking)} does and sends only the
+   * bookings that got them to the delegate, as one batch.
+   */
+  @Override
+  public List<Boolean> reserveAll(List<Booking> bookings) throws DaoException {
+    List<Boolean> reserved = new ArrayList<>(Collections.nCopies(bookings.size(), false));
+    List<Booking> held = new ArrayList<>();
+    List<Integer> heldIndexes = new ArrayList<>();
+    List<SeatCounter> heldCounters = new ArrayList<>();
+    List<Integer> heldEpochs = new ArrayList<>();
+    for (int i = 0; i < bookings.size(); i++) {
+      Booking booking = bookings.get(i);
+      int seats = seatsOf(booking);
+      SeatCounter counter = counter(booking, seats);
+      int epoch = counter != null ? hold(counter, seats) : NOT_HELD;
+      if (counter != null && epoch == NOT_HELD) {
+        rejectedInMemory.increment();
+        continue;
+      }
+      held.add(booking);
+      heldIndexes.add(i);
+      heldCounters.add(counter);
+      heldEpochs.add(epoch);
+    }
+    if (held.isEmpty()) {
+      return reserved;
+    }
+
+    List<Boolean> results;
+    try {
+      results = delegate.reserveAll(held);
+    } catch (DaoException | RuntimeException e) {
+      for (int k = 0; k < held.size(); k++) {
+        if (heldCounters.get(k) != null) {
+          heldCounters.get(k).complete(seatsOf(held.get(k)), false, heldEpochs.get(k));
+        }
+      }
+      throw e;
+    }
+
+    Set<SeatCounter> stale = new HashSet<>();
+    for (int k = 0; k < held.size(); k++) {
+      boolean ok = results.get(k);
+      reserved.set(heldIndexes.get(k), ok);
+      SeatCounter counter = heldCounters.get(k);
+      if (counter != null) {
+        counter.complete(seatsOf(held.get(k)), ok, heldEpochs.get(k));
+        if (!ok) {
+          rejectedByDatabase.increment();
+          stale.add(counter);
+        }
+      }
+    }
+    for (SeatCounter counter : stale) {
+      resync(counter, true);
+    }
+    return reserved;
+  }
+
+  /**
+   * Reserves the booking's seats, failing if they are not available.
+   *
+   * @see #reserve(Booking)
+   */
+  @Override
+  public Booking create(Booking booking) throws DaoException {
+    return reserve(booking).orElseThrow(() -> new DaoException(
+        "Not enough seats left on flight: " + booking.getFlightId()));
+  }
+
+  @Override
+  public Optional<Booking> cancel(Integer bookingId) throws DaoException {
+    Optional<Booking> cancelled = delegate.cancel(bookingId);
+    cancelled.ifPresent(this::giveBack);
+    return cancelled;
+  }
+
+  @Override
+  public boolean delete(Integer id) throws DaoException {
+    Optional<Booking> booking = delegate.findById(id);
+    boolean deleted = delegate.delete(id);
+    if (deleted) {
+      if (booking.isPresent()) {
+        if (booking.get().getStatus() == BookingStatus.CONFIRMED) {
+          giveBack(booking.get());
+        }
+      } else {
+        // Not visible to the read yet; its flight is unknown
+        counters.clear();
+      }
+    }
+    return deleted;
+  }
+
+  @Override
+  public List<Booking> createAll(List<Booking> bookings) throws DaoException {
+    List<Booking> created = delegate.createAll(bookings);
+    for (Booking booking : created) {
+      SeatCounter counter = counters.get(booking.getFlightId());
+      if (counter != null) {
+        counter.available.addAndGet(-booking.getSeats());
+      }
+    }
+    return created;
+  }
+
+  @Override
+  public int deleteAll(List<Integer> ids) throws DaoException {
+    int deleted = delegate.deleteAll(ids);
+    if (deleted > 0) {
+      counters.clear();
+    }
+    return deleted;
+  }
+
+  @Override
+  public boolean updateCapacity(Integer flightId, int capacity) throws DaoException {
+    boolean updated = delegate.updateCapacity(flightId, capacity);
+    if (updated) {
+      counters.remove(flightId);
+    }
+    return updated;
+  }
+
+  @Override
+  public Optional<Booking> findById(Integer id) throws DaoException {
+    return delegate.findById(id);
+  }
+
+  @Override
+  public List<Booking> findAll() throws DaoException {
+    return delegate.findAll();
+  }
+
+  @Override
+  public Optional<Booking> findByReference(String bookingReference) throws DaoException {
+    return delegate.findByReference(bookingReference);
+  }
+
+  @Override
+  public List<Booking> findByFlight(Integer flightId) throws DaoException {
+    return delegate.findByFlight(flightId);
+  }
+
+  @Override
+  public Optional<SeatInventory> findSeatInventory(Integer flightId) throws DaoException {
+    return delegate.findSeatInventory(flightId);
+  }
+
+  @Override
+  public Booking update(Booking booking) throws DaoException {
+    return delegate.update(booking);
+  }
+
+  @Override
+  public List<Booking> updateAll(List<Booking> bookings) throws DaoException {
+    return delegate.updateAll(bookings);
+  }
+
+  /**
+   * Returns the number of reservations rejected by the gate without a database round trip.
+   */
+  public long getRejectedInMemory() {
+    return rejectedInMemory.sum();
+  }
+
+  /**
+   * Returns the number of reservations that passed the gate but were rejected by the database.
+   */
+  public long getRejectedByDatabase() {
+    return rejectedByDatabase.sum();
+  }
+
+  /**
+   * Forgets all seat estimates; they are reloaded on the next reservation of each flight.
+   */
+  public void invalidateAll() {
+    counters.clear();
+  }
+
+  private static int seatsOf(Booking booking) {
+    return booking.getSeats() != null ? booking.getSeats() : 1;
+  }
+
+  /**
+   * Returns the counter for a booking's flight, or {@code null} if the gate cannot judge the
+   * booking (no flight, no seats or no seat inventory).
+   */
+  private SeatCounter counter(Booking booking, int seats) throws DaoException {
+    return booking.getFlightId() != null && seats > 0 ? counter(booking.getFlightId()) : null;
+  }
+
+  /**
+   * Takes seats off the estimate, resyncing once if it looks too low.
+   *
+   * @return the counter's epoch when the seats were held, or {@link #NOT_HELD}
+   */
+  private int hold(SeatCounter counter, int seats) throws DaoException {
+    int epoch = counter.tryHold(seats);
+    if (epoch == NOT_HELD && resync(counter, false)) {
+      epoch = counter.tryHold(seats);
+    }
+    return epoch;
+  }
+
+  private void giveBack(Booking booking) {
+    SeatCounter counter = counters.get(booking.getFlightId());
+    if (counter != null) {
+      counter.available.addAndGet(booking.getSeats());
+    }
+  }
+
+  /**
+   * Returns the counter of a flight, loading it on first use, or {@code null} if the flight has
+   * no seat inventory.
+   */
+  private SeatCounter counter(Integer flightId) throws DaoException {
+    SeatCounter counter = counters.get(flightId);
+    if (counter != null) {
+      return counter;
+    }
+    // Loaded outside the map, so a slow query does not block other flights; a racing load wins
+    Optional<SeatInventory> inventory = delegate.findSeatInventory(flightId);
+    if (inventory.isEmpty()) {
+      return null;
+    }
+    SeatCounter loaded = new SeatCounter(flightId, inventory.get().getSeatsAvailable());
+    SeatCounter previous = counters.putIfAbsent(flightId, loaded);
+    return previous != null ? previous : loaded;
+  }
+
+  /**
+   * Reloads a flight's estimate from the delegate, unless another thread is already doing so or
+   * (when not forced) the last reload is recent.
+   *
+   * @return whether the estimate was reloaded
+   */
+  private boolean resync(SeatCounter counter, boolean force) throws DaoException {
+    if (!force && System.nanoTime() - counter.syncedAt < resyncNanos
+        || !counter.syncing.compareAndSet(false, true)) {
+      return false;
+    }
+    try {
+      Optional<SeatInventory> inventory = delegate.findSeatInventory(counter.flightId);
+      if (inventory.isEmpty()) {
+        counters.remove(counter.flightId, counter);
+        return false;
+      }
+      // Reservations in flight may or may not be booked in the database yet; subtract them
+      // all, and put back the seats of those that succeed (see SeatCounter.complete)
+      counter.epoch = counter.epoch + 1 & Integer.MAX_VALUE;
+      counter.available.set(inventory.get().getSeatsAvailable() - counter.pending.get());
+      counter.syncedAt = System.nanoTime();
+      return true;
+    } finally {
+      counter.syncing.set(false);
+    }
+  }
+
+  /**
+   * Seat estimate of one flight.
+   */
+  private static final class SeatCounter {
+    private final int flightId;
+    // Seats left, minus those held by reservations in flight; may dip below zero after a resync
+    private final AtomicInteger available;
+    // Seats held by reservations sent to the delegate and not completed yet
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean syncing = new AtomicBoolean();
+    private volatile long syncedAt = System.nanoTime();
+    // Number of resyncs, wrapping within non-negative ints; only changed while syncing
+    private volatile int epoch;
+
+    private SeatCounter(int flightId, int available) {
+      this.flightId = flightId;
+      this.available = new AtomicInteger(available);
+    }
+
+    /**
+     * Takes seats off the estimate.
+     *
+     * @return the epoch the seats were held in, or {@link #NOT_HELD}
+     */
+    int tryHold(int seats) {
+      // Read first: a hold racing a resync then counts as held before it, which can only make
+      // the estimate too high
+      int heldEpoch = epoch;
+      int current;
+      do {
+        current = available.get();
+        if (current < seats) {
+          return NOT_HELD;
+        }
+      } while (!available.compareAndSet(current, current - seats));
+      pending.addAndGet(seats);
+      return heldEpoch;
+    }
+
+    /**
+     * Ends a reservation held in the given epoch. Failed ones give their seats back; so do
+     * successful ones held before the last resync, which subtracted them as in flight although
+     * the database may already have counted them.
+     */
+    void complete(int seats, boolean reserved, int heldEpoch) {
+      pending.addAndGet(-seats);
+      if (!reserved || heldEpoch != epoch) {
+        available.addAndGet(seats);
+      }
+    }
+  }
+}
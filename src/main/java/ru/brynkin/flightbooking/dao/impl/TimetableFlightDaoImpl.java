@@ -0,0 +1,424 @@
+package ru.brynkin.flightbooking.dao.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import ru.brynkin.flightbooking.dao.AirlineDao;
+import ru.brynkin.flightbooking.dao.AirportDao;
+import ru.brynkin.flightbooking.dao.FlightDao;
+import ru.brynkin.flightbooking.entity.Airline;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.metrics.CacheMetrics;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+import ru.brynkin.flightbooking.util.PropertiesUtil;
+
+/**
+ * {@link FlightDao} decorator answering "route X to Y on day D" searches from an in-memory
+ * {@link FlightTimetable} instead of PostgreSQL.
+ *
+ * <p>{@link #findByCriteria(Integer, Integer, LocalDate, FlightStatus)} and
+ * {@link #forEachByCriteria} are served from memory when the departure airport, arrival
+ * airport and date are all given and the date is in the timetable's window; the status, if
+ * any, is filtered in memory. Every other search, and every other read, goes to the delegate.
+ * Airlines and airports are taken from the reference caches; a search touching one they do not
+ * know falls back to SQL as well.</p>
+ *
+ * <p>The timetable holds the flights departing from the day it is loaded on for
+ * {@code flight.timetable.days-ahead} days, so past flights are not kept in memory. It is
+ * loaded through the delegate page by page on the first covered search, reloaded by the first
+ * covered search of a later day so the window moves along with the date, and kept current by
+ * this DAO's write methods. Writes that happen while it is being loaded are remembered and
+ * replayed after the load, so a load from a lagging replica does not lose them; if more than
+ * {@value #PENDING_WRITES_LIMIT} pile up, the load is not kept and the next covered search
+ * loads again. Writes that bypass this DAO are not seen until {@link #refresh(Collection)} or
+ * {@link #invalidate()}.</p>
+ *
+ * <p>Searches answered from memory and searches sent to SQL are exported as hits and misses of
+ * the {@code flightTimetable} {@link CacheMetrics}.</p>
+ *
+ * @see FlightTimetable
+ * @see FlightDaoImpl
+ */
+
+public class TimetableFlightDaoImpl implements FlightDao {
+
+  private static final String DAYS_AHEAD_KEY = "flight.timetable.days-ahead";
+  private static final int DEFAULT_DAYS_AHEAD = 365;
+  private static final int PENDING_WRITES_LIMIT = 10_000;
+  private static final int LOAD_PAGE_SIZE = 1000;
+
+  // Singleton pattern
+  private static volatile TimetableFlightDaoImpl instance;
+
+  private final FlightDao delegate;
+  private final AirlineDao airlineDao;
+  private final AirportDao airportDao;
+  private final int daysAhead;
+  private final CacheMetrics metrics;
+
+  // Guards timetable patches and pending writes; loadLock serialises loads
+  private final Object lock = new Object();
+  private final Object loadLock = new Object();
+  private final Deque<Consumer<FlightTimetable>> pendingWrites = new ArrayDeque<>();
+  private volatile FlightTimetable timetable;
+  // Incremented by invalidate() and when pending writes overflow; a load that overlaps an
+  // invalidation is neither kept nor used
+  private long invalidations;
+
+  TimetableFlightDaoImpl(FlightDao delegate, AirlineDao airlineDao, AirportDao airportDao,
+                         int daysAhead) {
+    if (daysAhead <= 0) {
+      throw new IllegalArgumentException("Timetable window must be at least one day");
+    }
+    this.delegate = delegate;
+    this.airlineDao = airlineDao;
+    this.airportDao = airportDao;
+    this.daysAhead = daysAhead;
+    this.metrics = CacheMetrics.create("flightTimetable", this::size);
+  }
+
+  /**
+   * Returns the timetable over {@link CachedFlightDaoImpl#getInstance()}, itself over
+   * {@link MeteredFlightDaoImpl#getInstance()}, with airlines and airports from
+   * {@link CachedAirlineDaoImpl} and {@link CachedAirportDaoImpl} and a window of
+   * {@code flight.timetable.days-ahead} days. This is the flight DAO chain the application
+   * uses, so writes through it keep both caches current.
+   */
+  public static TimetableFlightDaoImpl getInstance() {
+    if (instance == null) {
+      synchronized (TimetableFlightDaoImpl.class) {
+        if (instance == null) {
+          String daysAhead = PropertiesUtil.get(DAYS_AHEAD_KEY);
+          instance = new TimetableFlightDaoImpl(CachedFlightDaoImpl.getInstance(),
+              CachedAirlineDaoImpl.getInstance(), CachedAirportDaoImpl.getInstance(),
+              daysAhead != null ? Integer.parseInt(daysAhead) : DEFAULT_DAYS_AHEAD);
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public List<Flight> findByCriteria(Integer departureAirportId, Integer arrivalAirportId,
+                                     LocalDate date, FlightStatus status) throws DaoException {
+    List<Flight> flights = findInTimetable(departureAirportId, arrivalAirportId, date, status);
+    if (flights != null) {
+      return flights;
+    }
+    return delegate.findByCriteria(departureAirportId, arrivalAirportId, date, status);
+  }
+
+  @Override
+  public Optional<Flight> findById(Integer id) throws DaoException {
+    return delegate.findById(id);
+  }
+
+  @Override
+  public List<Flight> findAll() throws DaoException {
+    return delegate.findAll();
+  }
+
+  @Override
+  public List<Flight> findPage(LocalDateTime afterDepartureTime, Integer afterFlightId,
+                               int limit) throws DaoException {
+    return delegate.findPage(afterDepartureTime, afterFlightId, limit);
+  }
+
+  @Override
+  public void forEach(Consumer<? super Flight> action) throws DaoException {
+    delegate.forEach(action);
+  }
+
+  @Override
+  public void forEachByCriteria(Integer departureAirportId, Integer arrivalAirportId,
+                                LocalDate date, FlightStatus status,
+                                Consumer<? super Flight> action) throws DaoException {
+    List<Flight> flights = findInTimetable(departureAirportId, arrivalAirportId, date, status);
+    if (flights != null) {
+      flights.forEach(action);
+      return;
+    }
+    delegate.forEachByCriteria(departureAirportId, arrivalAirportId, date, status, action);
+  }
+
+  @Override
+  public Flight create(Flight flight) throws DaoException {
+    Flight created = delegate.create(flight);
+    put(created);
+    return created;
+  }
+
+  @Override
+  public Flight update(Flight flight) throws DaoException {
+    Flight updated = delegate.update(flight);
+    put(updated);
+    return updated;
+  }
+
+  @Override
+  public boolean updateStatus(Integer flightId, FlightStatus newStatus) throws DaoException {
+    boolean updated = delegate.updateStatus(flightId, newStatus);
+    if (updated) {
+      patch(timetable -> timetable.setStatus(flightId, newStatus));
+    }
+    return updated;
+  }
+
+  @Override
+  public boolean delete(Integer id) throws DaoException {
+    boolean deleted = delegate.delete(id);
+    if (deleted) {
+      patch(timetable -> timetable.remove(id));
+    }
+    return deleted;
+  }
+
+  @Override
+  public List<Flight> createAll(List<Flight> flights) throws DaoException {
+    List<Flight> created = delegate.createAll(flights);
+    for (Flight flight : created) {
+      put(flight);
+    }
+    return created;
+  }
+
+  @Override
+  public List<Flight> updateAll(List<Flight> flights) throws DaoException {
+    List<Flight> updated = delegate.updateAll(flights);
+    for (Flight flight : updated) {
+      put(flight);
+    }
+    return updated;
+  }
+
+  @Override
+  public int deleteAll(List<Integer> ids) throws DaoException {
+    int deleted = delegate.deleteAll(ids);
+    if (deleted > 0) {
+      List<Integer> removed = List.copyOf(ids);
+      patch(timetable -> removed.forEach(timetable::remove));
+    }
+    return deleted;
+  }
+
+  /**
+   * Drops the timetable. The next covered search reloads it through the delegate.
+   */
+  public void invalidate() {
+    synchronized (lock) {
+      invalidations++;
+      timetable = null;
+      pendingWrites.clear();
+    }
+  }
+
+  /**
+   * Re-reads the given flights through the delegate after they were changed elsewhere, e.g. on
+   * another node, and patches the timetable with what was found. The re-reads go to the
+   * primary: the change is committed there, but a replica may not have replayed it yet, and the
+   * timetable would keep a stale row until the flight changes again.
+   */
+  public void refresh(Collection<Integer> flightIds) throws DaoException {
+    for (Integer flightId : flightIds) {
+      Optional<Flight> flight = ConnectionManager.readFromPrimary(
+          () -> delegate.findById(flightId));
+      if (flight.isPresent()) {
+        put(flight.get());
+      } else {
+        patch(timetable -> timetable.remove(flightId));
+      }
+    }
+  }
+
+  public CacheMetrics getMetrics() {
+    return metrics;
+  }
+
+  private int size() {
+    FlightTimetable current = timetable;
+    return current != null ? current.size() : 0;
+  }
+
+  private FlightTimetable timetable() throws DaoException {
+    LocalDateTime from = LocalDate.now().atStartOfDay();
+    LocalDateTime until = from.plusDays(daysAhead);
+    FlightTimetable current = timetable;
+    if (current != null && !current.startsBefore(from)) {
+      return current;
+    }
+
+    synchronized (loadLock) {
+      current = timetable;
+      if (current == null || current.startsBefore(from)) {
+        long loadInvalidations;
+        synchronized (lock) {
+          // Loaded on an earlier day: drop it, so writes queue up for the new window
+          timetable = null;
+          loadInvalidations = invalidations;
+        }
+
+        // Load without holding the lock, so writes are not blocked; they queue up meanwhile
+        FlightTimetable loaded = FlightTimetable.of(load(from, until), from, until);
+
+        synchronized (lock) {
+          if (invalidations == loadInvalidations) {
+            for (Consumer<FlightTimetable> write : pendingWrites) {
+              write.accept(loaded);
+            }
+            pendingWrites.clear();
+            timetable = loaded;
+            current = loaded;
+          } else {
+            current = null;
+          }
+        }
+      }
+      return current;
+    }
+  }
+
+  /**
+   * Reads the flights departing in {@code [from, until)} in keyset pages, so the scan starts at
+   * the window instead of the oldest flight.
+   */
+  private List<FlightTimetable.Row> load(LocalDateTime from, LocalDateTime until)
+      throws DaoException {
+    List<FlightTimetable.Row> rows = new ArrayList<>();
+    // Flight IDs are positive, so this cursor includes flights departing exactly at from
+    LocalDateTime afterDepartureTime = from;
+    Integer afterFlightId = 0;
+    while (true) {
+      List<Flight> page = delegate.findPage(afterDepartureTime, afterFlightId, LOAD_PAGE_SIZE);
+      for (Flight flight : page) {
+        if (!flight.getDepartureTime().isBefore(until)) {
+          return rows;
+        }
+        FlightTimetable.Row row = FlightTimetable.Row.of(flight);
+        if (row != null) {
+          rows.add(row);
+        }
+      }
+      if (page.size() < LOAD_PAGE_SIZE) {
+        return rows;
+      }
+      Flight last = page.get(page.size() - 1);
+      afterDepartureTime = last.getDepartureTime();
+      afterFlightId = last.getFlightId();
+    }
+  }
+
+  /**
+   * Returns the flights of a covered search from the timetable, or {@code null} if the search
+   * has to go to the delegate; records the hit or miss.
+   */
+  private List<Flight> findInTimetable(Integer departureAirportId, Integer arrivalAirportId,
+                                       LocalDate date, FlightStatus status)
+      throws DaoException {
+    if (departureAirportId != null && arrivalAirportId != null && date != null) {
+      LocalDateTime from = date.atStartOfDay();
+      LocalDateTime to = date.plusDays(1).atStartOfDay();
+      FlightTimetable current = timetable();
+      if (current != null && current.covers(from, to)) {
+        List<Flight> flights = toFlights(
+            current.find(departureAirportId, arrivalAirportId, from, to), status);
+        if (flights != null) {
+          metrics.recordHit();
+          return flights;
+        }
+      }
+    }
+
+    metrics.recordMiss();
+    return null;
+  }
+
+  private void put(Flight flight) {
+    FlightTimetable.Row row = FlightTimetable.Row.of(flight);
+    if (row == null) {
+      // Cannot index what was written; start over on the next search
+      invalidate();
+      return;
+    }
+    patch(timetable -> timetable.put(row));
+  }
+
+  private void patch(Consumer<FlightTimetable> write) {
+    synchronized (lock) {
+      if (timetable != null) {
+        write.accept(timetable);
+        return;
+      }
+      pendingWrites.addLast(write);
+      if (pendingWrites.size() > PENDING_WRITES_LIMIT) {
+        // Too many to replay: discard the running load instead of forgetting writes
+        invalidations++;
+        pendingWrites.clear();
+      }
+    }
+  }
+
+  /**
+   * Builds the flights of the given rows with the given status, or returns {@code null} if an
+   * airline or airport is missing from the reference caches.
+   */
+  private List<Flight> toFlights(List<FlightTimetable.Row> rows, FlightStatus status)
+      throws DaoException {
+    // Flights of one result share their airline and airport instances, as with SQL reads
+    Map<Integer, Airline> airlines = new HashMap<>();
+    Map<Integer, Airport> airports = new HashMap<>();
+    List<Flight> flights = new ArrayList<>(rows.size());
+
+    for (FlightTimetable.Row row : rows) {
+      if (status != null && row.status() != status) {
+        continue;
+      }
+      Airline airline = airline(airlines, row.airlineId());
+      Airport departure = airport(airports, row.departureAirportId());
+      Airport arrival = airport(airports, row.arrivalAirportId());
+      if (airline == null || departure == null || arrival == null) {
+        return null;
+      }
+      flights.add(Flight.builder()
+          .flightId(row.flightId())
+          .flightNumber(row.flightNumber())
+          .airline(airline)
+          .departureAirport(departure)
+          .arrivalAirport(arrival)
+          .departureTime(row.departureTime())
+          .arrivalTime(row.arrivalTime())
+          .basePrice(row.basePrice())
+          .status(row.status())
+          .build());
+    }
+    return flights;
+  }
+
+  private Airline airline(Map<Integer, Airline> resolved, int airlineId) throws DaoException {
+    Airline airline = resolved.get(airlineId);
+    if (airline == null) {
+      airline = airlineDao.findById(airlineId).orElse(null);
+      resolved.put(airlineId, airline);
+    }
+    return airline;
+  }
+
+  private Airport airport(Map<Integer, Airport> resolved, int airportId) throws DaoException {
+    Airport airport = resolved.get(airportId);
+    if (airport == null) {
+      airport = airportDao.findById(airportId).orElse(null);
+      resolved.put(airportId, airport);
+    }
+    return airport;
+  }
+}
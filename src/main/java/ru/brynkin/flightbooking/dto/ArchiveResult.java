@@ -0,0 +1,24 @@
+package ru.brynkin.flightbooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO class for the outcome of one archival run
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveResult {
+
+  private int batches;
+  private long flightsArchived;
+  private long bookingsArchived;
+  private int batchesRetried;
+  private long throttledMillis;
+  private long elapsedMillis;
+
+}
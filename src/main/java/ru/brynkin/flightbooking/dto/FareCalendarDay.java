@@ -0,0 +1,23 @@
+package ru.brynkin.flightbooking.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO class for the lowest fare of a route on one day of departure
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FareCalendarDay {
+
+  private LocalDate date;
+  private BigDecimal minBasePrice;
+  private int flights;
+
+}
@@ -0,0 +1,25 @@
+package ru.brynkin.flightbooking.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO class for the price of a flight for a group of passengers
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FareQuote {
+
+  private Integer flightId;
+  private int passengers;
+  private BigDecimal fare;
+  private BigDecimal taxes;
+  private BigDecimal fees;
+  private BigDecimal total;
+
+}
@@ -0,0 +1,23 @@
+package ru.brynkin.flightbooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO class for the outcome of a schedule import
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleImportResult {
+
+  private long bytesCopied;
+  private long rowsStaged;
+  private long rowsRejected;
+  private long rowsMerged;
+  private long elapsedMillis;
+
+}
@@ -0,0 +1,25 @@
+package ru.brynkin.flightbooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO class for the seat inventory of a flight
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatInventory {
+
+  private int flightId;
+  private int capacity;
+  private int seatsBooked;
+
+  public int getSeatsAvailable() {
+    return capacity - seatsBooked;
+  }
+
+}
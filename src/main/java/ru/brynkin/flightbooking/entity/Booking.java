@@ -0,0 +1,31 @@
+package ru.brynkin.flightbooking.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.brynkin.flightbooking.enums.BookingStatus;
+import ru.brynkin.flightbooking.enums.PaymentStatus;
+
+/**
+ * Entity class for bookings table
+ */
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Booking {
+  private Integer bookingId;
+  private Integer userId;
+  private Integer flightId;
+  private BookingStatus status;
+  private PaymentStatus paymentStatus;
+  private String bookingReference;
+  private Integer seats;
+  private BigDecimal totalPrice;
+  private LocalDateTime createdAt;
+}
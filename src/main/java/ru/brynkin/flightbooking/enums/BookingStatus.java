@@ -0,0 +1,33 @@
+package ru.brynkin.flightbooking.enums;
+
+/**
+ * Enum for booking statuses table
+ *
+ * <p>Constants are declared in the same order as the rows seeded into {@code booking_statuses},
+ * whose {@code status_id} is a SERIAL starting at 1.</p>
+ */
+
+public enum BookingStatus {
+  CONFIRMED,
+  CANCELLED,
+  REFUNDED;
+
+  private static final BookingStatus[] VALUES = values();
+
+  /**
+   * Returns the {@code booking_statuses.status_id} of this status.
+   */
+  public int getId() {
+    return ordinal() + 1;
+  }
+
+  /**
+   * Returns the status stored under the given {@code booking_statuses.status_id}.
+   */
+  public static BookingStatus fromId(int statusId) {
+    if (statusId < 1 || statusId > VALUES.length) {
+      throw new IllegalArgumentException("Unknown booking status ID: " + statusId);
+    }
+    return VALUES[statusId - 1];
+  }
+}
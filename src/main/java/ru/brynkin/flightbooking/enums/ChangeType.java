@@ -0,0 +1,15 @@
+package ru.brynkin.flightbooking.enums;
+
+/**
+ * Enum for the kinds of change published by the change feed
+ *
+ * <p>{@link #RESYNC} is not a database operation: the feed sends it after (re)connecting,
+ * when changes may have been missed, and for statements too large to list their rows.</p>
+ */
+
+public enum ChangeType {
+  INSERT,
+  UPDATE,
+  DELETE,
+  RESYNC
+}
@@ -0,0 +1,33 @@
+package ru.brynkin.flightbooking.enums;
+
+/**
+ * Enum for the tables whose changes are published by the change feed
+ */
+
+public enum ChangedTable {
+  FLIGHTS("flights"),
+  AIRPORTS("airports"),
+  AIRLINES("airlines");
+
+  private final String tableName;
+
+  ChangedTable(String tableName) {
+    this.tableName = tableName;
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  /**
+   * Returns the constant of the given table, or {@code null} if its changes are not published.
+   */
+  public static ChangedTable fromTableName(String tableName) {
+    for (ChangedTable table : values()) {
+      if (table.tableName.equals(tableName)) {
+        return table;
+      }
+    }
+    return null;
+  }
+}
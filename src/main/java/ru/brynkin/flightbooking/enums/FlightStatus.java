@@ -2,6 +2,9 @@ package ru.brynkin.flightbooking.enums;
 
 /**
  * Enum for flight statuses table
+ *
+ * <p>Constants are declared in the same order as the rows seeded into {@code flight_statuses},
+ * whose {@code status_id} is a SERIAL starting at 1.</p>
  */
 
 public enum FlightStatus {
@@ -9,5 +12,24 @@ public enum FlightStatus {
   DELAYED,
   CANCELLED,
   DEPARTED,
-  ARRIVED
+  ARRIVED;
+
+  private static final FlightStatus[] VALUES = values();
+
+  /**
+   * Returns the {@code flight_statuses.status_id} of this status.
+   */
+  public int getId() {
+    return ordinal() + 1;
+  }
+
+  /**
+   * Returns the status stored under the given {@code flight_statuses.status_id}.
+   */
+  public static FlightStatus fromId(int statusId) {
+    if (statusId < 1 || statusId > VALUES.length) {
+      throw new IllegalArgumentException("Unknown flight status ID: " + statusId);
+    }
+    return VALUES[statusId - 1];
+  }
 }
@@ -0,0 +1,11 @@
+package ru.brynkin.flightbooking.enums;
+
+/**
+ * Enum for passenger types priced differently by {@code FareQuoteEngine}
+ */
+
+public enum PassengerType {
+  ADULT,
+  CHILD,
+  INFANT
+}
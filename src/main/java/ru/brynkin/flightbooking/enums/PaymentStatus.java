@@ -2,11 +2,33 @@ package ru.brynkin.flightbooking.enums;
 
 /**
  * Enum for payment's statuses
+ *
+ * <p>Constants are declared in the same order as the rows seeded into {@code payment_statuses},
+ * whose {@code status_id} is a SERIAL starting at 1.</p>
  */
 
 public enum PaymentStatus {
   PENDING,
   PAID,
   FAILED,
-  REFUNDED
+  REFUNDED;
+
+  private static final PaymentStatus[] VALUES = values();
+
+  /**
+   * Returns the {@code payment_statuses.status_id} of this status.
+   */
+  public int getId() {
+    return ordinal() + 1;
+  }
+
+  /**
+   * Returns the status stored under the given {@code payment_statuses.status_id}.
+   */
+  public static PaymentStatus fromId(int statusId) {
+    if (statusId < 1 || statusId > VALUES.length) {
+      throw new IllegalArgumentException("Unknown payment status ID: " + statusId);
+    }
+    return VALUES[statusId - 1];
+  }
 }
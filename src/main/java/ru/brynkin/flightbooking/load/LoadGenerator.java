@@ -0,0 +1,132 @@
+package ru.brynkin.flightbooking.load;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.locks.LockSupport;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Open-loop load generator: drives a {@link Workload} at a fixed target rate with a number of
+ * concurrent workers and collects per-operation {@link OperationStats}.
+ *
+ * <p>Each worker owns an evenly spaced share of the global schedule. It waits for the
+ * intended start of its next call, picks an operation according to the mix and runs it. When a
+ * call overruns, the worker does not skip or shift the following calls: they start late, and
+ * their response time is measured from their intended start. This way a stall of the system
+ * under test shows up in the percentiles instead of silently lowering the offered load
+ * (coordinated omission).</p>
+ *
+ * <p>Calls scheduled during the warm-up are executed but not recorded. Every call scheduled
+ * before the end of the run is executed, so an overloaded system makes the run take longer
+ * than configured; throughput is computed over the actual measured time.</p>
+ */
+
+public class LoadGenerator {
+
+  private final LoadProfile profile;
+  private final Workload workload;
+  private final LoadOperation[] operations;
+  private final int[] cumulativeWeights;
+  private final int totalWeight;
+  private final Map<LoadOperation, OperationStats> stats = new EnumMap<>(LoadOperation.class);
+  private final LongAccumulator lastCompletion = new LongAccumulator(Math::max, Long.MIN_VALUE);
+  private long measuredNanos;
+
+  public LoadGenerator(LoadProfile profile, Workload workload) {
+    if (profile.getTargetRate() <= 0 || profile.getWorkers() <= 0) {
+      throw new IllegalArgumentException("Target rate and worker count must be positive");
+    }
+
+    this.profile = profile;
+    this.workload = workload;
+
+    List<LoadOperation> weighted = new ArrayList<>();
+    List<Integer> cumulative = new ArrayList<>();
+    int total = 0;
+    for (Map.Entry<LoadOperation, Integer> entry : profile.getMix().entrySet()) {
+      if (entry.getValue() > 0) {
+        total += entry.getValue();
+        weighted.add(entry.getKey());
+        cumulative.add(total);
+        stats.put(entry.getKey(), new OperationStats(entry.getKey()));
+      }
+    }
+    if (weighted.isEmpty()) {
+      throw new IllegalArgumentException("Operation mix must contain a positive weight");
+    }
+    this.operations = weighted.toArray(new LoadOperation[0]);
+    this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    this.totalWeight = total;
+  }
+
+  /**
+   * Runs the warm-up and the measured phase and waits for every worker to finish.
+   *
+   * @return statistics of the measured phase per operation, in mix order
+   */
+  public List<OperationStats> run() throws InterruptedException {
+    int workers = profile.getWorkers();
+    long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) * workers / profile.getTargetRate());
+    long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+    long measureFrom = start + TimeUnit.SECONDS.toNanos(profile.getWarmupSeconds());
+    long end = measureFrom + TimeUnit.SECONDS.toNanos(profile.getDurationSeconds());
+
+    List<Thread> threads = new ArrayList<>(workers);
+    for (int i = 0; i < workers; i++) {
+      long firstCall = start + intervalNanos * i / workers;
+      threads.add(Thread.ofPlatform().name("load-worker-" + i)
+          .start(() -> work(firstCall, intervalNanos, measureFrom, end)));
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    measuredNanos = Math.max(0, lastCompletion.get() - measureFrom);
+    return new ArrayList<>(stats.values());
+  }
+
+  /**
+   * Wall-clock time from the end of the warm-up until the last measured call completed.
+   */
+  public double getMeasuredSeconds() {
+    return measuredNanos / 1_000_000_000.0;
+  }
+
+  private void work(long firstCall, long intervalNanos, long measureFrom, long end) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+    for (long intended = firstCall; intended < end; intended += intervalNanos) {
+      long now;
+      while ((now = System.nanoTime()) < intended) {
+        LockSupport.parkNanos(intended - now);
+      }
+
+      LoadOperation operation = pick(random.nextInt(totalWeight));
+      boolean failed = false;
+      try {
+        workload.execute(operation);
+      } catch (DaoException | RuntimeException e) {
+        failed = true;
+      }
+
+      if (intended >= measureFrom) {
+        long completed = System.nanoTime();
+        stats.get(operation).record(intended, now, completed, failed);
+        lastCompletion.accumulate(completed);
+      }
+    }
+  }
+
+  private LoadOperation pick(int ticket) {
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (ticket < cumulativeWeights[i]) {
+        return operations[i];
+      }
+    }
+    return operations[operations.length - 1];
+  }
+}
@@ -0,0 +1,23 @@
+package ru.brynkin.flightbooking.load;
+
+/**
+ * Operations of the mixed workload driven by {@link LoadGenerator}.
+ */
+public enum LoadOperation {
+  /**
+   * {@code AirportDao.findByIataCode} for a random known airport.
+   */
+  AIRPORT_LOOKUP,
+  /**
+   * {@code FlightDao.findByCriteria} for a random route and departure day.
+   */
+  SEARCH,
+  /**
+   * {@code FlightDao.updateStatus} of a random existing flight.
+   */
+  UPDATE_STATUS,
+  /**
+   * {@code FlightDao.create} of a new flight; created flights are removed after the run.
+   */
+  CREATE
+}
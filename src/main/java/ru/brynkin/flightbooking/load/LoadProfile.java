@@ -0,0 +1,52 @@
+package ru.brynkin.flightbooking.load;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Shape of a load test: target rate, concurrency, duration and operation mix.
+ */
+@Getter
+@Builder
+public class LoadProfile {
+
+  /**
+   * Target throughput over all workers, in operations per second.
+   */
+  @Builder.Default
+  private final double targetRate = 200;
+
+  /**
+   * Number of concurrent workers, each with its own share of the schedule.
+   */
+  @Builder.Default
+  private final int workers = 8;
+
+  @Builder.Default
+  private final int warmupSeconds = 10;
+
+  @Builder.Default
+  private final int durationSeconds = 60;
+
+  /**
+   * Relative weight of each operation; operations without a weight are not run.
+   */
+  @Builder.Default
+  private final Map<LoadOperation, Integer> mix = defaultMix();
+
+  public Map<LoadOperation, Integer> getMix() {
+    return Collections.unmodifiableMap(mix);
+  }
+
+  private static Map<LoadOperation, Integer> defaultMix() {
+    Map<LoadOperation, Integer> mix = new EnumMap<>(LoadOperation.class);
+    mix.put(LoadOperation.AIRPORT_LOOKUP, 40);
+    mix.put(LoadOperation.SEARCH, 45);
+    mix.put(LoadOperation.UPDATE_STATUS, 10);
+    mix.put(LoadOperation.CREATE, 5);
+    return mix;
+  }
+}
@@ -0,0 +1,58 @@
+package ru.brynkin.flightbooking.load;
+
+import java.util.concurrent.atomic.LongAdder;
+import ru.brynkin.flightbooking.metrics.LatencyHistogram;
+
+/**
+ * Latencies and errors of one {@link LoadOperation} during the measured part of a run.
+ *
+ * <p>Two latencies are kept per call:</p>
+ * <ul>
+ *   <li>{@link #getResponseTime()} - from the moment the call <em>should</em> have started
+ *   according to the schedule until it completed. This is corrected for coordinated omission:
+ *   when the system stalls, the calls that queued up behind the stall are charged for the
+ *   waiting they caused;</li>
+ *   <li>{@link #getServiceTime()} - from the moment the call actually started, which is what a
+ *   naive closed-loop benchmark reports.</li>
+ * </ul>
+ */
+
+public final class OperationStats {
+
+  private final LoadOperation operation;
+  private final LatencyHistogram responseTime = new LatencyHistogram();
+  private final LatencyHistogram serviceTime = new LatencyHistogram();
+  private final LongAdder errors = new LongAdder();
+
+  OperationStats(LoadOperation operation) {
+    this.operation = operation;
+  }
+
+  void record(long intendedStartNanos, long actualStartNanos, long endNanos, boolean failed) {
+    responseTime.recordNanos(endNanos - intendedStartNanos);
+    serviceTime.recordNanos(endNanos - actualStartNanos);
+    if (failed) {
+      errors.increment();
+    }
+  }
+
+  public LoadOperation getOperation() {
+    return operation;
+  }
+
+  public LatencyHistogram getResponseTime() {
+    return responseTime;
+  }
+
+  public LatencyHistogram getServiceTime() {
+    return serviceTime;
+  }
+
+  public long getCalls() {
+    return responseTime.getCount();
+  }
+
+  public long getErrors() {
+    return errors.sum();
+  }
+}
@@ -0,0 +1,129 @@
+package ru.brynkin.flightbooking.load;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import ru.brynkin.flightbooking.dao.AirportDao;
+import ru.brynkin.flightbooking.dao.FlightDao;
+import ru.brynkin.flightbooking.entity.Airline;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Executes {@link LoadOperation}s against the DAOs with arguments drawn from a sample of the
+ * existing data, so lookups and searches hit real rows.
+ */
+
+public class Workload {
+
+  private static final int FLIGHT_SAMPLE_SIZE = 1_000;
+  private static final FlightStatus[] UPDATABLE_STATUSES =
+      {FlightStatus.SCHEDULED, FlightStatus.DELAYED};
+
+  private final AirportDao airportDao;
+  private final FlightDao flightDao;
+  private final List<Airport> airports;
+  private final List<Flight> flights;
+  private final Queue<Integer> createdFlightIds = new ConcurrentLinkedQueue<>();
+  private final Map<Integer, FlightStatus> originalStatuses = new ConcurrentHashMap<>();
+
+  private Workload(AirportDao airportDao, FlightDao flightDao,
+                   List<Airport> airports, List<Flight> flights) {
+    this.airportDao = airportDao;
+    this.flightDao = flightDao;
+    this.airports = airports;
+    this.flights = flights;
+  }
+
+  /**
+   * Samples all airports and the first {@value #FLIGHT_SAMPLE_SIZE} flights by departure time.
+   *
+   * @throws IllegalStateException if there are fewer than two airports or no flights
+   */
+  public static Workload sample(AirportDao airportDao, FlightDao flightDao)
+      throws DaoException {
+    List<Airport> airports = airportDao.findAll();
+    List<Flight> flights = flightDao.findPage(null, null, FLIGHT_SAMPLE_SIZE);
+    if (airports.size() < 2 || flights.isEmpty()) {
+      throw new IllegalStateException("Load test needs at least two airports and one flight");
+    }
+    return new Workload(airportDao, flightDao,
+        Collections.unmodifiableList(airports), Collections.unmodifiableList(flights));
+  }
+
+  public void execute(LoadOperation operation) throws DaoException {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+    switch (operation) {
+      case AIRPORT_LOOKUP -> airportDao.findByIataCode(pick(airports, random).getIataCode());
+      case SEARCH -> {
+        Flight flight = pick(flights, random);
+        LocalDate day = flight.getDepartureTime().toLocalDate();
+        flightDao.findByCriteria(flight.getDepartureAirport().getAirportId(),
+            flight.getArrivalAirport().getAirportId(), day, null);
+      }
+      case UPDATE_STATUS -> {
+        Flight flight = pick(flights, random);
+        originalStatuses.putIfAbsent(flight.getFlightId(), flight.getStatus());
+        flightDao.updateStatus(flight.getFlightId(),
+            UPDATABLE_STATUSES[random.nextInt(UPDATABLE_STATUSES.length)]);
+      }
+      case CREATE -> createdFlightIds.add(flightDao.create(newFlight(random)).getFlightId());
+      default -> throw new IllegalArgumentException("Unsupported operation: " + operation);
+    }
+  }
+
+  /**
+   * Deletes every flight created by {@link LoadOperation#CREATE} and restores the sampled
+   * status of every flight changed by {@link LoadOperation#UPDATE_STATUS}.
+   *
+   * @return number of flights deleted
+   */
+  public int cleanup() throws DaoException {
+    for (Map.Entry<Integer, FlightStatus> original : originalStatuses.entrySet()) {
+      flightDao.updateStatus(original.getKey(), original.getValue());
+    }
+    originalStatuses.clear();
+
+    List<Integer> ids = new ArrayList<>(createdFlightIds);
+    createdFlightIds.clear();
+    return ids.isEmpty() ? 0 : flightDao.deleteAll(ids);
+  }
+
+  private Flight newFlight(ThreadLocalRandom random) {
+    Flight template = pick(flights, random);
+    Airport departure = pick(airports, random);
+    Airport arrival = pick(airports, random);
+    while (arrival.getAirportId().equals(departure.getAirportId())) {
+      arrival = pick(airports, random);
+    }
+
+    LocalDateTime departureTime = template.getDepartureTime()
+        .plusDays(random.nextInt(1, 365))
+        .withMinute(random.nextInt(60));
+    return Flight.builder()
+        .flightNumber("LT " + random.nextInt(10_000))
+        .airline(Airline.builder().airlineId(template.getAirline().getAirlineId()).build())
+        .departureAirport(departure)
+        .arrivalAirport(arrival)
+        .departureTime(departureTime)
+        .arrivalTime(departureTime.plusMinutes(random.nextInt(60, 600)))
+        .basePrice(BigDecimal.valueOf(random.nextInt(3_000, 50_000)))
+        .status(FlightStatus.SCHEDULED)
+        .build();
+  }
+
+  private static <T> T pick(List<T> items, ThreadLocalRandom random) {
+    return items.get(random.nextInt(items.size()));
+  }
+}
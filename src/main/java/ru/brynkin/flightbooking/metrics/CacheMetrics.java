@@ -0,0 +1,123 @@
+package ru.brynkin.flightbooking.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Hit, miss and eviction counters of one application cache.
+ *
+ * <p>Each cache is registered with the platform MBean server as
+ * {@code ru.brynkin.flightbooking:type=Cache,cache=<cache name>}.</p>
+ */
+
+public final class CacheMetrics implements CacheMetricsMXBean {
+
+  private static final Map<String, CacheMetrics> registry = new ConcurrentHashMap<>();
+
+  private final String cacheName;
+  private final IntSupplier size;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder sizeEvictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+
+  private CacheMetrics(String cacheName, IntSupplier size) {
+    this.cacheName = cacheName;
+    this.size = size;
+  }
+
+  /**
+   * Creates the metrics of a cache, replacing earlier metrics registered under the same name.
+   *
+   * @param size current number of entries of the cache
+   */
+  public static CacheMetrics create(String cacheName, IntSupplier size) {
+    CacheMetrics metrics = new CacheMetrics(cacheName, size);
+    registry.put(cacheName, metrics);
+    MBeans.register("type=Cache,cache=" + cacheName, metrics);
+    return metrics;
+  }
+
+  /**
+   * Returns the metrics of every cache created so far, ordered by name.
+   */
+  public static List<CacheMetrics> getAllCaches() {
+    List<CacheMetrics> all = new ArrayList<>(registry.values());
+    all.sort(Comparator.comparing(CacheMetrics::getCacheName));
+    return all;
+  }
+
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  public void recordHit() {
+    hits.increment();
+  }
+
+  public void recordMiss() {
+    misses.increment();
+  }
+
+  public void recordSizeEviction() {
+    sizeEvictions.increment();
+  }
+
+  public void recordExpiration() {
+    expirations.increment();
+  }
+
+  public void recordInvalidations(int count) {
+    invalidations.add(count);
+  }
+
+  @Override
+  public long getHits() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  @Override
+  public double getHitRatio() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0.0 : (double) hitCount / total;
+  }
+
+  @Override
+  public double getMissRatio() {
+    long missCount = misses.sum();
+    long total = hits.sum() + missCount;
+    return total == 0 ? 0.0 : (double) missCount / total;
+  }
+
+  @Override
+  public long getSizeEvictions() {
+    return sizeEvictions.sum();
+  }
+
+  @Override
+  public long getExpirations() {
+    return expirations.sum();
+  }
+
+  @Override
+  public long getInvalidations() {
+    return invalidations.sum();
+  }
+
+  @Override
+  public int getSize() {
+    return size.getAsInt();
+  }
+}
@@ -0,0 +1,23 @@
+package ru.brynkin.flightbooking.metrics;
+
+/**
+ * JMX view of the hit, miss and eviction counts of one cache.
+ */
+public interface CacheMetricsMXBean {
+
+  long getHits();
+
+  long getMisses();
+
+  double getHitRatio();
+
+  double getMissRatio();
+
+  long getSizeEvictions();
+
+  long getExpirations();
+
+  long getInvalidations();
+
+  int getSize();
+}
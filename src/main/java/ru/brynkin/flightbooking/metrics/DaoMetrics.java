@@ -0,0 +1,108 @@
+package ru.brynkin.flightbooking.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Registry of per-method metrics of one DAO, e.g. {@code FlightDao}.
+ *
+ * <p>Metrics of each method are created on its first call and registered with the platform
+ * MBean server as {@code ru.brynkin.flightbooking:type=DaoMetrics,dao=<dao>,method=<method>}.</p>
+ */
+
+public final class DaoMetrics {
+
+  private static final Map<String, DaoMetrics> registry = new ConcurrentHashMap<>();
+
+  private final String dao;
+  private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+  private DaoMetrics(String dao) {
+    this.dao = dao;
+  }
+
+  /**
+   * Returns the metrics of the given DAO, creating them on first use.
+   */
+  public static DaoMetrics forDao(String dao) {
+    return registry.computeIfAbsent(dao, DaoMetrics::new);
+  }
+
+  /**
+   * Returns the metrics of every method called so far, ordered by DAO and method name.
+   */
+  public static List<OperationMetrics> getAllOperations() {
+    List<OperationMetrics> all = new ArrayList<>();
+    for (DaoMetrics metrics : registry.values()) {
+      all.addAll(metrics.operations.values());
+    }
+    all.sort(Comparator.comparing(OperationMetrics::getDao)
+        .thenComparing(OperationMetrics::getMethod));
+    return all;
+  }
+
+  /**
+   * Runs a DAO call and records its latency and row count, or its failure.
+   *
+   * <p>The row count is derived from the result: the size of a collection, 0 or 1 for an
+   * {@code Optional} or a {@code Boolean}, the value of a {@code Number}, otherwise 1 for a
+   * non-null result.</p>
+   */
+  public <R> R record(String method, Call<R> call) throws DaoException {
+    OperationMetrics metrics = operation(method);
+    long start = System.nanoTime();
+    try {
+      R result = call.execute();
+      metrics.recordSuccess(System.nanoTime() - start, rowsOf(result));
+      return result;
+    } catch (DaoException | RuntimeException e) {
+      metrics.recordError(System.nanoTime() - start);
+      throw e;
+    }
+  }
+
+  private OperationMetrics operation(String method) {
+    OperationMetrics metrics = operations.get(method);
+    if (metrics != null) {
+      return metrics;
+    }
+    return operations.computeIfAbsent(method, name -> {
+      OperationMetrics created = new OperationMetrics(dao, name);
+      MBeans.register("type=DaoMetrics,dao=" + dao + ",method=" + name, created);
+      return created;
+    });
+  }
+
+  private static long rowsOf(Object result) {
+    if (result == null) {
+      return 0;
+    }
+    if (result instanceof Collection<?> collection) {
+      return collection.size();
+    }
+    if (result instanceof Optional<?> optional) {
+      return optional.isPresent() ? 1 : 0;
+    }
+    if (result instanceof Boolean found) {
+      return found ? 1 : 0;
+    }
+    if (result instanceof Number count) {
+      return count.longValue();
+    }
+    return 1;
+  }
+
+  /**
+   * Blocking DAO call.
+   */
+  @FunctionalInterface
+  public interface Call<R> {
+    R execute() throws DaoException;
+  }
+}
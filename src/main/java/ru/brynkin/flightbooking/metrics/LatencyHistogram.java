@@ -0,0 +1,108 @@
+package ru.brynkin.flightbooking.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with HDR-style log-linear buckets.
+ *
+ * <p>Values are recorded in microseconds. Values below 64 get a bucket each; above that every
+ * power of two is split into 32 linear sub-buckets, so a reported percentile is within about 3%
+ * of the true value at any magnitude.
+ * Values above about 19 hours are clamped into the last bucket. The whole histogram is a fixed
+ * array of 1 024 counters; recording never allocates.</p>
+ *
+ * <p>Reads are not atomic with respect to concurrent writes: a percentile computed while
+ * values are being recorded may miss the most recent ones, which is fine for monitoring.</p>
+ */
+
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 6;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+
+  // 2^36 us is about 19 hours
+  private static final long MAX_TRACKABLE_MICROS = (1L << 36) - 1;
+  private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_MICROS) + 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder totalCount = new LongAdder();
+  private final LongAdder totalMicros = new LongAdder();
+  private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records one latency given in nanoseconds, e.g. the difference of two
+   * {@link System#nanoTime()} readings.
+   */
+  public void recordNanos(long nanos) {
+    long micros = Math.max(0, nanos / 1_000);
+    counts.incrementAndGet(indexOf(Math.min(micros, MAX_TRACKABLE_MICROS)));
+    totalCount.increment();
+    totalMicros.add(micros);
+    maxMicros.accumulate(micros);
+  }
+
+  public long getCount() {
+    return totalCount.sum();
+  }
+
+  public long getTotalMicros() {
+    return totalMicros.sum();
+  }
+
+  public long getMaxMicros() {
+    return maxMicros.get();
+  }
+
+  public double getMeanMicros() {
+    long count = getCount();
+    return count == 0 ? 0.0 : (double) getTotalMicros() / count;
+  }
+
+  /**
+   * Returns the recorded value at the given percentile, e.g. {@code 99.9}.
+   *
+   * @return upper bound of the bucket holding that percentile, in microseconds; 0 when empty
+   */
+  public long getValueAtPercentile(double percentile) {
+    long[] snapshot = new long[BUCKET_COUNT];
+    long count = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      snapshot[i] = counts.get(i);
+      count += snapshot[i];
+    }
+    if (count == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(highestValueOf(i), getMaxMicros());
+      }
+    }
+    return getMaxMicros();
+  }
+
+  private static int indexOf(long micros) {
+    if (micros < SUB_BUCKET_COUNT) {
+      return (int) micros;
+    }
+    // Shift that brings the value into [SUB_BUCKET_HALF, SUB_BUCKET_COUNT)
+    int shift = 63 - Long.numberOfLeadingZeros(micros) - (SUB_BUCKET_BITS - 1);
+    return shift * SUB_BUCKET_HALF + (int) (micros >>> shift);
+  }
+
+  private static long highestValueOf(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = index / SUB_BUCKET_HALF - 1;
+    long subBucket = index % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,39 @@
+package ru.brynkin.flightbooking.metrics;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import ru.brynkin.flightbooking.util.ExeptionHandler;
+
+/**
+ * Registers metrics with the platform MBean server under the application's JMX domain.
+ */
+
+final class MBeans {
+
+  private static final String DOMAIN = "ru.brynkin.flightbooking";
+
+  private MBeans() {
+  }
+
+  /**
+   * Registers the given MBean, replacing one left under the same name, e.g. by an earlier
+   * deployment of the web application. Metrics are best effort: a registration failure is
+   * reported but never fails the call being measured.
+   *
+   * @param properties key properties of the object name, e.g. {@code type=ConnectionPool}
+   */
+  static void register(String properties, Object mbean) {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(mbean, name);
+    } catch (JMException e) {
+      ExeptionHandler.handleException("Failed to register MBean " + properties, e);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package ru.brynkin.flightbooking.metrics;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes all DAO, connection pool and cache metrics in the Prometheus plain-text exposition format.
+ *
+ * <p>Latencies are exported as summaries in seconds with the 0.5, 0.99 and 0.999 quantiles.</p>
+ */
+
+public final class MetricsTextWriter {
+
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+  private MetricsTextWriter() {
+  }
+
+  public static void write(Appendable out) throws IOException {
+    writeDaoMetrics(out, DaoMetrics.getAllOperations());
+    writePoolMetrics(out, PoolMetrics.getAllPools());
+    writeCacheMetrics(out, CacheMetrics.getAllCaches());
+  }
+
+  private static void writeDaoMetrics(Appendable out, List<OperationMetrics> operations)
+      throws IOException {
+    header(out, "dao_call_duration_seconds", "summary", "DAO method latency");
+    for (OperationMetrics op : operations) {
+      summary(out, "dao_call_duration_seconds", daoLabels(op), op.getLatency());
+    }
+
+    header(out, "dao_call_errors_total", "counter", "DAO method calls that threw");
+    for (OperationMetrics op : operations) {
+      sample(out, "dao_call_errors_total", daoLabels(op), op.getErrors());
+    }
+
+    header(out, "dao_call_rows_total", "counter", "Rows returned or affected by DAO methods");
+    for (OperationMetrics op : operations) {
+      sample(out, "dao_call_rows_total", daoLabels(op), op.getRows());
+    }
+  }
+
+  private static void writePoolMetrics(Appendable out, List<PoolMetrics> pools)
+      throws IOException {
+    header(out, "db_pool_connections", "gauge", "Connections by state");
+    for (PoolMetrics pool : pools) {
+      String labels = poolLabels(pool);
+      sample(out, "db_pool_connections", labels + ",state=\"active\"",
+          pool.getActiveConnections());
+      sample(out, "db_pool_connections", labels + ",state=\"idle\"", pool.getIdleConnections());
+    }
+
+    header(out, "db_pool_connections_max", "gauge", "Maximum pool size");
+    for (PoolMetrics pool : pools) {
+      sample(out, "db_pool_connections_max", poolLabels(pool), pool.getMaxConnections());
+    }
+
+    header(out, "db_pool_pending_threads", "gauge", "Threads waiting for a connection");
+    for (PoolMetrics pool : pools) {
+      sample(out, "db_pool_pending_threads", poolLabels(pool), pool.getPendingThreads());
+    }
+
+    header(out, "db_pool_acquire_duration_seconds", "summary", "Connection acquire time");
+    for (PoolMetrics pool : pools) {
+      summary(out, "db_pool_acquire_duration_seconds", poolLabels(pool),
+          pool.getAcquireLatency());
+    }
+
+    header(out, "db_pool_usage_duration_seconds", "summary", "Time a connection is borrowed");
+    for (PoolMetrics pool : pools) {
+      summary(out, "db_pool_usage_duration_seconds", poolLabels(pool), pool.getUsageLatency());
+    }
+
+    header(out, "db_pool_acquire_timeouts_total", "counter", "Connection acquire timeouts");
+    for (PoolMetrics pool : pools) {
+      sample(out, "db_pool_acquire_timeouts_total", poolLabels(pool), pool.getAcquireTimeouts());
+    }
+  }
+
+  private static void writeCacheMetrics(Appendable out, List<CacheMetrics> caches)
+      throws IOException {
+    header(out, "cache_requests_total", "counter", "Cache lookups by result");
+    for (CacheMetrics cache : caches) {
+      String labels = cacheLabels(cache);
+      sample(out, "cache_requests_total", labels + ",result=\"hit\"", cache.getHits());
+      sample(out, "cache_requests_total", labels + ",result=\"miss\"", cache.getMisses());
+    }
+
+    header(out, "cache_hit_ratio", "gauge", "Share of lookups answered from the cache");
+    for (CacheMetrics cache : caches) {
+      sample(out, "cache_hit_ratio", cacheLabels(cache), cache.getHitRatio());
+    }
+
+    header(out, "cache_evictions_total", "counter", "Entries removed from the cache by cause");
+    for (CacheMetrics cache : caches) {
+      String labels = cacheLabels(cache);
+      sample(out, "cache_evictions_total", labels + ",cause=\"size\"",
+          cache.getSizeEvictions());
+      sample(out, "cache_evictions_total", labels + ",cause=\"expired\"",
+          cache.getExpirations());
+      sample(out, "cache_evictions_total", labels + ",cause=\"invalidated\"",
+          cache.getInvalidations());
+    }
+
+    header(out, "cache_entries", "gauge", "Entries currently in the cache");
+    for (CacheMetrics cache : caches) {
+      sample(out, "cache_entries", cacheLabels(cache), cache.getSize());
+    }
+  }
+
+  private static String daoLabels(OperationMetrics op) {
+    return "dao=\"" + escape(op.getDao()) + "\",method=\"" + escape(op.getMethod()) + "\"";
+  }
+
+  private static String poolLabels(PoolMetrics pool) {
+    return "pool=\"" + escape(pool.getPoolName()) + "\"";
+  }
+
+  private static String cacheLabels(CacheMetrics cache) {
+    return "cache=\"" + escape(cache.getCacheName()) + "\"";
+  }
+
+  private static void header(Appendable out, String name, String type, String help)
+      throws IOException {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void summary(Appendable out, String name, String labels,
+                              LatencyHistogram histogram) throws IOException {
+    for (double quantile : QUANTILES) {
+      sample(out, name, labels + ",quantile=\"" + quantile + "\"",
+          seconds(histogram.getValueAtPercentile(quantile * 100.0)));
+    }
+    sample(out, name + "_sum", labels, seconds(histogram.getTotalMicros()));
+    sample(out, name + "_count", labels, histogram.getCount());
+  }
+
+  private static void sample(Appendable out, String name, String labels, long value)
+      throws IOException {
+    out.append(name).append('{').append(labels).append("} ")
+        .append(Long.toString(value)).append('\n');
+  }
+
+  private static void sample(Appendable out, String name, String labels, double value)
+      throws IOException {
+    out.append(name).append('{').append(labels).append("} ")
+        .append(String.format(Locale.ROOT, "%.6f", value)).append('\n');
+  }
+
+  private static double seconds(long micros) {
+    return micros / 1_000_000.0;
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
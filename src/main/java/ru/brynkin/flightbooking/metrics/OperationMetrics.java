@@ -0,0 +1,85 @@
+package ru.brynkin.flightbooking.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, row and error figures of one DAO method.
+ *
+ * <p>Every call, successful or not, is recorded in the latency histogram.</p>
+ */
+
+public final class OperationMetrics implements OperationMetricsMXBean {
+
+  private final String dao;
+  private final String method;
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder rows = new LongAdder();
+
+  OperationMetrics(String dao, String method) {
+    this.dao = dao;
+    this.method = method;
+  }
+
+  public String getDao() {
+    return dao;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  void recordSuccess(long elapsedNanos, long rowCount) {
+    latency.recordNanos(elapsedNanos);
+    rows.add(rowCount);
+  }
+
+  void recordError(long elapsedNanos) {
+    latency.recordNanos(elapsedNanos);
+    errors.increment();
+  }
+
+  @Override
+  public long getCalls() {
+    return latency.getCount();
+  }
+
+  @Override
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  @Override
+  public long getRows() {
+    return rows.sum();
+  }
+
+  @Override
+  public double getMeanMicros() {
+    return latency.getMeanMicros();
+  }
+
+  @Override
+  public long getP50Micros() {
+    return latency.getValueAtPercentile(50.0);
+  }
+
+  @Override
+  public long getP99Micros() {
+    return latency.getValueAtPercentile(99.0);
+  }
+
+  @Override
+  public long getP999Micros() {
+    return latency.getValueAtPercentile(99.9);
+  }
+
+  @Override
+  public long getMaxMicros() {
+    return latency.getMaxMicros();
+  }
+}
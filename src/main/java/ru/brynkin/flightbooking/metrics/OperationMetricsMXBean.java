@@ -0,0 +1,23 @@
+package ru.brynkin.flightbooking.metrics;
+
+/**
+ * JMX view of the metrics of one DAO method.
+ */
+public interface OperationMetricsMXBean {
+
+  long getCalls();
+
+  long getErrors();
+
+  long getRows();
+
+  double getMeanMicros();
+
+  long getP50Micros();
+
+  long getP99Micros();
+
+  long getP999Micros();
+
+  long getMaxMicros();
+}
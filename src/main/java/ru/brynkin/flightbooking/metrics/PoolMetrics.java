@@ -0,0 +1,134 @@
+package ru.brynkin.flightbooking.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HikariCP metrics tracker recording connection acquire and usage times next to the pool
+ * state (active, idle and pending connections).
+ *
+ * <p>Install with {@code HikariConfig.setMetricsTrackerFactory(PoolMetrics::create)}. Each pool
+ * is registered with the platform MBean server as
+ * {@code ru.brynkin.flightbooking:type=ConnectionPool,pool=<pool name>}.</p>
+ */
+
+public final class PoolMetrics implements IMetricsTracker, PoolMetricsMXBean {
+
+  private static final Map<String, PoolMetrics> registry = new ConcurrentHashMap<>();
+
+  private final String poolName;
+  private final PoolStats poolStats;
+  private final LatencyHistogram acquire = new LatencyHistogram();
+  private final LatencyHistogram usage = new LatencyHistogram();
+  private final LongAdder timeouts = new LongAdder();
+
+  private PoolMetrics(String poolName, PoolStats poolStats) {
+    this.poolName = poolName;
+    this.poolStats = poolStats;
+  }
+
+  /**
+   * {@link com.zaxxer.hikari.metrics.MetricsTrackerFactory} method; called once per pool.
+   */
+  public static PoolMetrics create(String poolName, PoolStats poolStats) {
+    PoolMetrics metrics = new PoolMetrics(poolName, poolStats);
+    registry.put(poolName, metrics);
+    MBeans.register("type=ConnectionPool,pool=" + poolName, metrics);
+    return metrics;
+  }
+
+  /**
+   * Returns the metrics of every pool created so far.
+   */
+  public static List<PoolMetrics> getAllPools() {
+    return new ArrayList<>(registry.values());
+  }
+
+  public String getPoolName() {
+    return poolName;
+  }
+
+  public LatencyHistogram getAcquireLatency() {
+    return acquire;
+  }
+
+  public LatencyHistogram getUsageLatency() {
+    return usage;
+  }
+
+  @Override
+  public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+    acquire.recordNanos(elapsedAcquiredNanos);
+  }
+
+  @Override
+  public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+    usage.recordNanos(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+  }
+
+  @Override
+  public void recordConnectionTimeout() {
+    timeouts.increment();
+  }
+
+  @Override
+  public void close() {
+    registry.remove(poolName, this);
+  }
+
+  @Override
+  public int getActiveConnections() {
+    return poolStats.getActiveConnections();
+  }
+
+  @Override
+  public int getIdleConnections() {
+    return poolStats.getIdleConnections();
+  }
+
+  @Override
+  public int getPendingThreads() {
+    return poolStats.getPendingThreads();
+  }
+
+  @Override
+  public int getTotalConnections() {
+    return poolStats.getTotalConnections();
+  }
+
+  @Override
+  public int getMaxConnections() {
+    return poolStats.getMaxConnections();
+  }
+
+  @Override
+  public long getAcquires() {
+    return acquire.getCount();
+  }
+
+  @Override
+  public long getAcquireTimeouts() {
+    return timeouts.sum();
+  }
+
+  @Override
+  public double getAcquireMeanMicros() {
+    return acquire.getMeanMicros();
+  }
+
+  @Override
+  public long getAcquireP99Micros() {
+    return acquire.getValueAtPercentile(99.0);
+  }
+
+  @Override
+  public long getAcquireMaxMicros() {
+    return acquire.getMaxMicros();
+  }
+}
@@ -0,0 +1,27 @@
+package ru.brynkin.flightbooking.metrics;
+
+/**
+ * JMX view of the state and connection acquire times of one connection pool.
+ */
+public interface PoolMetricsMXBean {
+
+  int getActiveConnections();
+
+  int getIdleConnections();
+
+  int getPendingThreads();
+
+  int getTotalConnections();
+
+  int getMaxConnections();
+
+  long getAcquires();
+
+  long getAcquireTimeouts();
+
+  double getAcquireMeanMicros();
+
+  long getAcquireP99Micros();
+
+  long getAcquireMaxMicros();
+}
@@ -0,0 +1,232 @@
+package ru.brynkin.flightbooking.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import ru.brynkin.flightbooking.dto.FareQuote;
+import ru.brynkin.flightbooking.dto.SeatInventory;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.PassengerType;
+
+/**
+ * Prices flights for a group of passengers under {@link FareRules}.
+ *
+ * <p>For each passenger type the fare is the base price times the share of that type times the
+ * multiplier of the flight's load factor band, rounded half up to the cent once. Tax is the
+ * fare times the tax rate, rounded half up to the cent, and the fee of the type is added
+ * untaxed. The quote is the sum over all passengers.</p>
+ *
+ * <p>Money is computed in {@code long} cents and the rules in {@code long} units of 1/10000,
+ * with the products of share and band multiplier precomputed per band and type, so pricing a
+ * flight allocates nothing and costs a few multiplications. {@link BigDecimal} is only used at
+ * the boundary: {@link #toCents} and the methods taking {@link Flight}s convert on the way in,
+ * and {@link FareQuote} amounts on the way out. The results are exactly those of the same
+ * computation in {@code BigDecimal}.</p>
+ *
+ * <p>Load factors are {@code seats_booked / capacity}, truncated to 1/10000. Flights without a
+ * known capacity are priced in the lowest band. Arithmetic overflows, which need base prices of
+ * well over a million, throw {@link ArithmeticException}.</p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ */
+
+public final class FareQuoteEngine {
+
+  private static final int SCALE = 4;
+  private static final long ONE = 10_000;
+  private static final long ONE_SQUARED = ONE * ONE;
+  private static final PassengerType[] TYPES = PassengerType.values();
+
+  // Lowest load factor of each band, ascending, in 1/10000
+  private final long[] bandThresholds;
+  // Share of the type times multiplier of the band, in 1/10000^2, indexed [band][type]
+  private final long[][] fareFactors;
+  private final long taxRate;
+  private final long[] feeCents;
+
+  public FareQuoteEngine(FareRules rules) {
+    NavigableMap<BigDecimal, BigDecimal> bands = rules.getLoadFactorMultipliers();
+    if (bands.isEmpty() || bands.firstKey().signum() != 0) {
+      throw new IllegalArgumentException("Load factor bands must start at 0");
+    }
+
+    this.bandThresholds = new long[bands.size()];
+    this.fareFactors = new long[bands.size()][TYPES.length];
+    int band = 0;
+    for (Map.Entry<BigDecimal, BigDecimal> entry : bands.entrySet()) {
+      bandThresholds[band] = units(entry.getKey(), SCALE, "Load factor");
+      long multiplier = units(entry.getValue(), SCALE, "Load factor multiplier");
+      for (PassengerType type : TYPES) {
+        long share = units(required(rules.getPassengerShares(), type), SCALE,
+            "Passenger share");
+        fareFactors[band][type.ordinal()] = Math.multiplyExact(share, multiplier);
+      }
+      band++;
+    }
+
+    this.taxRate = units(rules.getTaxRate(), SCALE, "Tax rate");
+    this.feeCents = new long[TYPES.length];
+    for (PassengerType type : TYPES) {
+      feeCents[type.ordinal()] = units(required(rules.getPassengerFees(), type), 2, "Fee");
+    }
+  }
+
+  /**
+   * Prices one flight; see {@link #quoteCents(long, int, int, PassengerMix)}.
+   *
+   * @param inventory seats of the flight, or {@code null} if not known
+   */
+  public FareQuote quote(Flight flight, SeatInventory inventory, PassengerMix passengers) {
+    if (flight.getBasePrice() == null) {
+      throw new IllegalArgumentException("Flight has no base price: " + flight.getFlightId());
+    }
+    long baseFareCents = toCents(flight.getBasePrice());
+    int band = inventory != null
+        ? band(inventory.getCapacity(), inventory.getSeatsBooked())
+        : 0;
+
+    long fare = 0;
+    long taxes = 0;
+    long fees = 0;
+    for (PassengerType type : TYPES) {
+      int count = passengers.count(type);
+      if (count == 0) {
+        continue;
+      }
+      long typeFare = fareCents(baseFareCents, band, type.ordinal());
+      fare = Math.addExact(fare, Math.multiplyExact(typeFare, count));
+      taxes = Math.addExact(taxes, Math.multiplyExact(taxCents(typeFare), count));
+      fees = Math.addExact(fees, Math.multiplyExact(feeCents[type.ordinal()], count));
+    }
+
+    return FareQuote.builder()
+        .flightId(flight.getFlightId())
+        .passengers(passengers.total())
+        .fare(fromCents(fare))
+        .taxes(fromCents(taxes))
+        .fees(fromCents(fees))
+        .total(fromCents(Math.addExact(Math.addExact(fare, taxes), fees)))
+        .build();
+  }
+
+  /**
+   * Prices the given flights, in their order; flights without an entry in
+   * {@code inventories} are priced in the lowest band.
+   */
+  public List<FareQuote> quoteAll(Collection<Flight> flights,
+                                  Map<Integer, SeatInventory> inventories,
+                                  PassengerMix passengers) {
+    List<FareQuote> quotes = new ArrayList<>(flights.size());
+    for (Flight flight : flights) {
+      quotes.add(quote(flight, inventories.get(flight.getFlightId()), passengers));
+    }
+    return quotes;
+  }
+
+  /**
+   * Returns the total price in cents of a flight with the given non-negative base price in
+   * cents and seat counts for the passengers.
+   *
+   * @param capacity seats of the flight, or 0 if not known
+   * @throws IllegalArgumentException if the base price is negative
+   */
+  public long quoteCents(long baseFareCents, int capacity, int seatsBooked,
+                         PassengerMix passengers) {
+    if (baseFareCents < 0) {
+      throw new IllegalArgumentException("Base fare must not be negative: " + baseFareCents);
+    }
+    int band = band(capacity, seatsBooked);
+    long total = 0;
+    for (int type = 0; type < TYPES.length; type++) {
+      int count = passengers.count(TYPES[type]);
+      if (count != 0) {
+        long fare = fareCents(baseFareCents, band, type);
+        long perPassenger = Math.addExact(Math.addExact(fare, taxCents(fare)), feeCents[type]);
+        total = Math.addExact(total, Math.multiplyExact(perPassenger, count));
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Prices many flights given as parallel arrays, writing the total price in cents of flight
+   * {@code i} to {@code totalCents[i]}.
+   */
+  public void quoteAllCents(long[] baseFareCents, int[] capacities, int[] seatsBooked,
+                            PassengerMix passengers, long[] totalCents) {
+    int flights = baseFareCents.length;
+    if (capacities.length != flights || seatsBooked.length != flights
+        || totalCents.length < flights) {
+      throw new IllegalArgumentException("Flight arrays must have the same length");
+    }
+    for (int i = 0; i < flights; i++) {
+      totalCents[i] = quoteCents(baseFareCents[i], capacities[i], seatsBooked[i], passengers);
+    }
+  }
+
+  /**
+   * Converts a non-negative amount of money to cents, rounding half up.
+   */
+  public static long toCents(BigDecimal amount) {
+    if (amount.signum() < 0) {
+      throw new IllegalArgumentException("Amount must not be negative: " + amount);
+    }
+    return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  public static BigDecimal fromCents(long cents) {
+    return BigDecimal.valueOf(cents, 2);
+  }
+
+  private long fareCents(long baseFareCents, int band, int type) {
+    return divideHalfUp(Math.multiplyExact(baseFareCents, fareFactors[band][type]),
+        ONE_SQUARED);
+  }
+
+  private long taxCents(long fareCents) {
+    return divideHalfUp(Math.multiplyExact(fareCents, taxRate), ONE);
+  }
+
+  // Bands are few, so a scan from the top beats a binary search
+  private int band(int capacity, int seatsBooked) {
+    if (capacity <= 0 || seatsBooked <= 0) {
+      return 0;
+    }
+    long loadFactor = Math.min(seatsBooked, capacity) * ONE / capacity;
+    int band = bandThresholds.length - 1;
+    while (bandThresholds[band] > loadFactor) {
+      band--;
+    }
+    return band;
+  }
+
+  // Both operands are non-negative
+  private static long divideHalfUp(long value, long divisor) {
+    return Math.addExact(value, divisor / 2) / divisor;
+  }
+
+  private static long units(BigDecimal value, int scale, String name) {
+    if (value == null || value.signum() < 0) {
+      throw new IllegalArgumentException(name + " must be a non-negative number: " + value);
+    }
+    try {
+      return value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException(
+          name + " must have at most " + scale + " decimal places: " + value, e);
+    }
+  }
+
+  private static BigDecimal required(Map<PassengerType, BigDecimal> values,
+                                     PassengerType type) {
+    BigDecimal value = values.get(type);
+    if (value == null) {
+      throw new IllegalArgumentException("No value for passenger type " + type);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,67 @@
+package ru.brynkin.flightbooking.pricing;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import lombok.Builder;
+import lombok.Getter;
+import ru.brynkin.flightbooking.enums.PassengerType;
+
+/**
+ * Pricing rules of a {@link FareQuoteEngine}: how the base price of a flight becomes the fare
+ * of each passenger and what is added on top of it.
+ *
+ * <p>Multipliers and rates may have up to four decimal places, fees up to two.</p>
+ */
+@Getter
+@Builder
+public class FareRules {
+
+  /**
+   * Share of the base price paid by each passenger type, before the load factor multiplier.
+   */
+  @Builder.Default
+  private final Map<PassengerType, BigDecimal> passengerShares = enumMap(
+      new BigDecimal("1.00"), new BigDecimal("0.75"), new BigDecimal("0.10"));
+
+  /**
+   * Fare multiplier by load factor ({@code seats_booked / capacity}, 0 to 1): a flight gets the
+   * multiplier of the highest key not above its load factor. Must have a key of 0.
+   */
+  @Builder.Default
+  private final NavigableMap<BigDecimal, BigDecimal> loadFactorMultipliers = loadBands();
+
+  /**
+   * Tax charged on the fare of every passenger, e.g. 0.10 for 10%.
+   */
+  @Builder.Default
+  private final BigDecimal taxRate = new BigDecimal("0.10");
+
+  /**
+   * Fixed fee per passenger of each type, not taxed.
+   */
+  @Builder.Default
+  private final Map<PassengerType, BigDecimal> passengerFees = enumMap(
+      new BigDecimal("500.00"), new BigDecimal("500.00"), BigDecimal.ZERO);
+
+  private static Map<PassengerType, BigDecimal> enumMap(BigDecimal adult, BigDecimal child,
+                                                       BigDecimal infant) {
+    Map<PassengerType, BigDecimal> values = new EnumMap<>(PassengerType.class);
+    values.put(PassengerType.ADULT, adult);
+    values.put(PassengerType.CHILD, child);
+    values.put(PassengerType.INFANT, infant);
+    return Collections.unmodifiableMap(values);
+  }
+
+  private static NavigableMap<BigDecimal, BigDecimal> loadBands() {
+    NavigableMap<BigDecimal, BigDecimal> bands = new TreeMap<>();
+    bands.put(new BigDecimal("0.00"), new BigDecimal("0.90"));
+    bands.put(new BigDecimal("0.50"), new BigDecimal("1.00"));
+    bands.put(new BigDecimal("0.80"), new BigDecimal("1.25"));
+    bands.put(new BigDecimal("0.95"), new BigDecimal("1.50"));
+    return Collections.unmodifiableNavigableMap(bands);
+  }
+}
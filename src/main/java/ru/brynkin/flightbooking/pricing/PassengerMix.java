@@ -0,0 +1,62 @@
+package ru.brynkin.flightbooking.pricing;
+
+import java.util.Arrays;
+import ru.brynkin.flightbooking.enums.PassengerType;
+
+/**
+ * Number of passengers of each type travelling together, priced as one quote.
+ */
+
+public final class PassengerMix {
+
+  private final int[] counts;
+
+  private PassengerMix(int[] counts) {
+    this.counts = counts;
+  }
+
+  public static PassengerMix of(int adults, int children, int infants) {
+    if (adults < 0 || children < 0 || infants < 0) {
+      throw new IllegalArgumentException("Passenger counts must not be negative");
+    }
+    if (adults + children + infants == 0) {
+      throw new IllegalArgumentException("At least one passenger is required");
+    }
+    int[] counts = new int[PassengerType.values().length];
+    counts[PassengerType.ADULT.ordinal()] = adults;
+    counts[PassengerType.CHILD.ordinal()] = children;
+    counts[PassengerType.INFANT.ordinal()] = infants;
+    return new PassengerMix(counts);
+  }
+
+  public static PassengerMix adults(int adults) {
+    return of(adults, 0, 0);
+  }
+
+  public int count(PassengerType type) {
+    return counts[type.ordinal()];
+  }
+
+  public int total() {
+    int total = 0;
+    for (int count : counts) {
+      total += count;
+    }
+    return total;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof PassengerMix other && Arrays.equals(counts, other.counts);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(counts);
+  }
+
+  @Override
+  public String toString() {
+    return "PassengerMix" + Arrays.toString(counts);
+  }
+}
@@ -0,0 +1,84 @@
+package ru.brynkin.flightbooking.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import ru.brynkin.flightbooking.config.DatabaseConfig;
+import ru.brynkin.flightbooking.dao.impl.AsyncDaoExecutor;
+import ru.brynkin.flightbooking.dao.impl.AsyncFlightDaoImpl;
+import ru.brynkin.flightbooking.dao.impl.FlightDaoImpl;
+
+/**
+ * Compares the throughput of {@link AsyncFlightDaoImpl} on virtual threads with platform-thread
+ * executors against a local PostgreSQL.
+ *
+ * <p>Every configuration issues the same burst of concurrent {@code findByCriteria} calls over
+ * the seed airports and waits for all of them:</p>
+ * <ul>
+ *   <li>{@code virtual/gated} - one virtual thread per call, admission sized to the pool;</li>
+ *   <li>{@code platform/gated} - fixed platform thread pool, same admission;</li>
+ *   <li>{@code platform/ungated} - fixed platform thread pool, every thread competes for a
+ *   connection directly, so calls can fail with Hikari's {@code connectionTimeout}.</li>
+ * </ul>
+ *
+ * <p>Usage: {@code AsyncThroughputRunner [calls] [platformThreads]}, 10 000 calls and 200
+ * platform threads by default.</p>
+ */
+
+public class AsyncThroughputRunner {
+
+  private static final int DEFAULT_CALLS = 10_000;
+  private static final int DEFAULT_PLATFORM_THREADS = 200;
+
+  // Airport IDs of the seed data
+  private static final int AIRPORT_COUNT = 7;
+
+  public static void main(String[] args) {
+    int calls = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CALLS;
+    int platformThreads = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PLATFORM_THREADS;
+    // findByCriteria reads from the replica pool when one is configured
+    int poolSize = DatabaseConfig.getReplicaMaximumPoolSize();
+
+    System.out.printf("=== %d concurrent calls, pool size %d ===%n", calls, poolSize);
+
+    // Warm-up: fills the pool and the statement caches
+    run("warm-up", AsyncDaoExecutor.virtualThreads(poolSize), calls / 10);
+
+    run("virtual/gated", AsyncDaoExecutor.virtualThreads(poolSize), calls);
+    run("platform/gated",
+        AsyncDaoExecutor.of(Executors.newFixedThreadPool(platformThreads), poolSize), calls);
+    run("platform/ungated",
+        AsyncDaoExecutor.of(Executors.newFixedThreadPool(platformThreads), platformThreads),
+        calls);
+
+    DatabaseConfig.closeDataSource();
+  }
+
+  private static void run(String label, AsyncDaoExecutor executor, int calls) {
+    try (executor) {
+      AsyncFlightDaoImpl flightDao = new AsyncFlightDaoImpl(FlightDaoImpl.getInstance(), executor);
+      List<CompletableFuture<?>> futures = new ArrayList<>(calls);
+
+      long start = System.nanoTime();
+      for (int i = 0; i < calls; i++) {
+        int departure = 1 + i % AIRPORT_COUNT;
+        int arrival = 1 + (i / AIRPORT_COUNT + departure) % AIRPORT_COUNT;
+        futures.add(flightDao.findByCriteria(departure, arrival, null, null));
+      }
+
+      int failures = 0;
+      for (CompletableFuture<?> future : futures) {
+        try {
+          future.join();
+        } catch (RuntimeException e) {
+          failures++;
+        }
+      }
+      double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+      System.out.printf("%-18s %8.2f s %10.0f calls/s %8d failed%n",
+          label, seconds, (calls - failures) / seconds, failures);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package ru.brynkin.flightbooking.runner;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import ru.brynkin.flightbooking.dao.impl.FlightDaoImpl;
+import ru.brynkin.flightbooking.entity.Airline;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Compares single-row {@code create} with batched {@code createAll} throughput for
+ * {@link FlightDaoImpl} against a local PostgreSQL.
+ *
+ * <p>Usage: {@code BatchInsertBenchmarkRunner [flightCount]}, 100 000 flights by default.
+ * Every inserted flight is removed again with {@code deleteAll}.</p>
+ */
+
+public class BatchInsertBenchmarkRunner {
+
+  private static final int DEFAULT_FLIGHT_COUNT = 100_000;
+  private static final LocalDateTime FIRST_DEPARTURE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+  private static final FlightDaoImpl flightDao = FlightDaoImpl.getInstance();
+
+  public static void main(String[] args) {
+    int flightCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FLIGHT_COUNT;
+
+    try {
+      System.out.printf("=== Inserting %d flights ===%n", flightCount);
+
+      List<Flight> singleRowFlights = buildFlights(flightCount);
+      long start = System.nanoTime();
+      for (Flight flight : singleRowFlights) {
+        flightDao.create(flight);
+      }
+      report("create (single row)", flightCount, System.nanoTime() - start);
+      cleanup(singleRowFlights);
+
+      List<Flight> batchedFlights = buildFlights(flightCount);
+      start = System.nanoTime();
+      flightDao.createAll(batchedFlights);
+      report("createAll (batched)", flightCount, System.nanoTime() - start);
+      cleanup(batchedFlights);
+    } catch (DaoException e) {
+      System.err.println("Benchmark failed: " + e.getMessage());
+      e.printStackTrace();
+    }
+  }
+
+  private static List<Flight> buildFlights(int count) {
+    Airline airline = Airline.builder().airlineId(1).build();
+    Airport departure = Airport.builder().airportId(1).build();
+    Airport arrival = Airport.builder().airportId(3).build();
+
+    List<Flight> flights = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      LocalDateTime departureTime = FIRST_DEPARTURE.plusMinutes(i);
+      flights.add(Flight.builder()
+          .flightNumber("BM " + (i % 10_000))
+          .airline(airline)
+          .departureAirport(departure)
+          .arrivalAirport(arrival)
+          .departureTime(departureTime)
+          .arrivalTime(departureTime.plusMinutes(90))
+          .basePrice(BigDecimal.valueOf(5000 + i % 1000))
+          .status(FlightStatus.SCHEDULED)
+          .build());
+    }
+    return flights;
+  }
+
+  private static void report(String label, int count, long elapsedNanos) {
+    double seconds = elapsedNanos / 1_000_000_000.0;
+    System.out.printf("%-22s %10.2f s %12.0f flights/s%n", label, seconds, count / seconds);
+  }
+
+  private static void cleanup(List<Flight> flights) throws DaoException {
+    List<Integer> ids = new ArrayList<>(flights.size());
+    for (Flight flight : flights) {
+      ids.add(flight.getFlightId());
+    }
+    flightDao.deleteAll(ids);
+  }
+}
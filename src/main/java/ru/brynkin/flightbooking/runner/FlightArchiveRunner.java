@@ -0,0 +1,40 @@
+package ru.brynkin.flightbooking.runner;
+
+import java.time.Duration;
+import ru.brynkin.flightbooking.dao.impl.FlightArchiveOptions;
+import ru.brynkin.flightbooking.dao.impl.FlightArchiver;
+import ru.brynkin.flightbooking.dto.ArchiveResult;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Runs one archival pass: moves arrived and cancelled flights older than the given age, with
+ * their bookings, into the history tables.
+ *
+ * <p>Usage: {@code FlightArchiveRunner [minAgeDays] [batchSize]}, 90 days and 100 flights per
+ * batch by default.</p>
+ */
+
+public class FlightArchiveRunner {
+
+  public static void main(String[] args) {
+    FlightArchiveOptions.FlightArchiveOptionsBuilder options = FlightArchiveOptions.builder();
+    if (args.length > 0) {
+      options.minAge(Duration.ofDays(Long.parseLong(args[0])));
+    }
+    if (args.length > 1) {
+      options.batchSize(Integer.parseInt(args[1]));
+    }
+
+    try (FlightArchiver archiver = new FlightArchiver(options.build(), Duration.ofDays(1))) {
+      ArchiveResult result = archiver.archive();
+      System.out.printf("=== Archived %d flights and %d bookings in %d batches, %d ms ===%n",
+          result.getFlightsArchived(), result.getBookingsArchived(), result.getBatches(),
+          result.getElapsedMillis());
+      System.out.printf("Throttled for %d ms, %d batches retried%n",
+          result.getThrottledMillis(), result.getBatchesRetried());
+    } catch (DaoException e) {
+      System.err.println("Archival failed: " + e.getMessage());
+      e.printStackTrace();
+    }
+  }
+}
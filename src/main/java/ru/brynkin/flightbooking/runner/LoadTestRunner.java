@@ -0,0 +1,127 @@
+package ru.brynkin.flightbooking.runner;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import ru.brynkin.flightbooking.config.DatabaseConfig;
+import ru.brynkin.flightbooking.dao.impl.AirportDaoImpl;
+import ru.brynkin.flightbooking.dao.impl.FlightDaoImpl;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.load.LoadGenerator;
+import ru.brynkin.flightbooking.load.LoadOperation;
+import ru.brynkin.flightbooking.load.LoadProfile;
+import ru.brynkin.flightbooking.load.OperationStats;
+import ru.brynkin.flightbooking.load.Workload;
+import ru.brynkin.flightbooking.metrics.LatencyHistogram;
+
+/**
+ * Drives a mixed read/write workload against the DAOs at a target rate and reports throughput
+ * and latency percentiles per operation.
+ *
+ * <p>Usage: {@code LoadTestRunner [key=value ...]} with the keys</p>
+ * <ul>
+ *   <li>{@code rate} - target operations per second over all workers (200);</li>
+ *   <li>{@code workers} - concurrent workers (8);</li>
+ *   <li>{@code warmup} - warm-up seconds, not recorded (10);</li>
+ *   <li>{@code duration} - measured seconds (60);</li>
+ *   <li>{@code mix} - operation weights, e.g.
+ *   {@code AIRPORT_LOOKUP:40,SEARCH:45,UPDATE_STATUS:10,CREATE:5}.</li>
+ * </ul>
+ *
+ * <p>"response" percentiles are measured from each call's scheduled start and are corrected
+ * for coordinated omission; "service" percentiles from its actual start. A large gap between
+ * the two means the target rate is above what the system sustains. Flights created during the
+ * run are deleted and changed statuses restored at the end.</p>
+ */
+
+public class LoadTestRunner {
+
+  public static void main(String[] args) {
+    LoadProfile profile = parseProfile(args);
+
+    try {
+      Workload workload = Workload.sample(AirportDaoImpl.getInstance(),
+          FlightDaoImpl.getInstance());
+      LoadGenerator generator = new LoadGenerator(profile, workload);
+
+      System.out.printf(Locale.ROOT,
+          "=== %.0f ops/s, %d workers, %d s warm-up, %d s measured, mix %s ===%n",
+          profile.getTargetRate(), profile.getWorkers(), profile.getWarmupSeconds(),
+          profile.getDurationSeconds(), profile.getMix());
+
+      List<OperationStats> results = generator.run();
+      report(results, generator.getMeasuredSeconds());
+
+      System.out.println("Cleanup: deleted " + workload.cleanup() + " created flights");
+    } catch (DaoException e) {
+      System.err.println("Load test failed: " + e.getMessage());
+      e.printStackTrace();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      System.err.println("Load test interrupted");
+    } finally {
+      DatabaseConfig.closeDataSource();
+    }
+  }
+
+  private static LoadProfile parseProfile(String[] args) {
+    LoadProfile.LoadProfileBuilder builder = LoadProfile.builder();
+
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Expected key=value but got: " + arg);
+      }
+      String key = arg.substring(0, separator);
+      String value = arg.substring(separator + 1);
+
+      switch (key) {
+        case "rate" -> builder.targetRate(Double.parseDouble(value));
+        case "workers" -> builder.workers(Integer.parseInt(value));
+        case "warmup" -> builder.warmupSeconds(Integer.parseInt(value));
+        case "duration" -> builder.durationSeconds(Integer.parseInt(value));
+        case "mix" -> builder.mix(parseMix(value));
+        default -> throw new IllegalArgumentException("Unknown option: " + key);
+      }
+    }
+    return builder.build();
+  }
+
+  private static Map<LoadOperation, Integer> parseMix(String value) {
+    Map<LoadOperation, Integer> mix = new EnumMap<>(LoadOperation.class);
+    for (String part : value.split(",")) {
+      String[] weight = part.split(":");
+      if (weight.length != 2) {
+        throw new IllegalArgumentException("Expected OPERATION:weight but got: " + part);
+      }
+      mix.put(LoadOperation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)),
+          Integer.parseInt(weight[1].trim()));
+    }
+    return mix;
+  }
+
+  private static void report(List<OperationStats> results, double seconds) {
+    System.out.printf(Locale.ROOT, "Measured %.1f s%n", seconds);
+    System.out.printf("%-15s %9s %9s %7s  %-30s  %-30s%n", "operation", "calls", "ops/s",
+        "errors", "response p50/p99/p999 ms", "service p50/p99/p999 ms");
+
+    long totalCalls = 0;
+    for (OperationStats stats : results) {
+      totalCalls += stats.getCalls();
+      System.out.printf(Locale.ROOT, "%-15s %9d %9.1f %7d  %-30s  %-30s%n",
+          stats.getOperation(), stats.getCalls(), stats.getCalls() / seconds,
+          stats.getErrors(), percentiles(stats.getResponseTime()),
+          percentiles(stats.getServiceTime()));
+    }
+    System.out.printf(Locale.ROOT, "%-15s %9d %9.1f%n", "total", totalCalls,
+        totalCalls / seconds);
+  }
+
+  private static String percentiles(LatencyHistogram histogram) {
+    return String.format(Locale.ROOT, "%.2f / %.2f / %.2f",
+        histogram.getValueAtPercentile(50.0) / 1000.0,
+        histogram.getValueAtPercentile(99.0) / 1000.0,
+        histogram.getValueAtPercentile(99.9) / 1000.0);
+  }
+}
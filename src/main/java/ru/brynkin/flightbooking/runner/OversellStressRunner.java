@@ -0,0 +1,310 @@
+package ru.brynkin.flightbooking.runner;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import ru.brynkin.flightbooking.config.DatabaseConfig;
+import ru.brynkin.flightbooking.dao.BookingDao;
+import ru.brynkin.flightbooking.dao.impl.AirlineDaoImpl;
+import ru.brynkin.flightbooking.dao.impl.AirportDaoImpl;
+import ru.brynkin.flightbooking.dao.impl.BookingDaoImpl;
+import ru.brynkin.flightbooking.dao.impl.FlightDaoImpl;
+import ru.brynkin.flightbooking.dao.impl.GroupCommitBookingWriter;
+import ru.brynkin.flightbooking.dao.impl.SeatHoldBookingDaoImpl;
+import ru.brynkin.flightbooking.dto.SeatInventory;
+import ru.brynkin.flightbooking.entity.Airline;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.entity.Booking;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.BookingStatus;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+
+/**
+ * Stress test for seat reservations: many concurrent buyers race for the seats of one flight,
+ * against a local PostgreSQL.
+ *
+ * <p>Every round creates a fresh flight per DAO with the given capacity and releases all buyers
+ * at once, each reserving one seat: straight through {@link BookingDaoImpl}, through the
+ * {@link SeatHoldBookingDaoImpl} gate, and through the gate batched by the
+ * {@link GroupCommitBookingWriter}. Two more rounds mix in buyers that bypass the gate, as
+ * buyers on another node would, so the gate's estimate goes stale and it has to resync while
+ * reservations are in flight. After each round it checks on the primary
+ * that the flight is not oversold: the seats reported as reserved, the flight's
+ * {@code seats_booked} and the confirmed bookings stored for it all agree and do not exceed
+ * the capacity, and without errors the flight is sold out exactly. It reports throughput and
+ * latency, for the gate how many buyers were turned away without a database round trip, and
+ * for the writer how many reservations shared a commit.</p>
+ *
+ * <p>Usage: {@code OversellStressRunner [buyers] [capacity] [rounds]}, 500 buyers for 100 seats
+ * over 3 rounds by default. Exits with status 1 if a check fails. The flights and bookings
+ * created are deleted at the end.</p>
+ *
+ * <p>The checks need a real database: overselling is prevented by the conditional seat update,
+ * which an in-memory stand-in would not exercise. {@code docker compose up -d postgres} starts
+ * the local one of {@code docker-compose.yml}, migrated from the project's scripts, with the
+ * airlines and airports the runner needs.</p>
+ */
+
+public class OversellStressRunner {
+
+  private static final int DEFAULT_BUYERS = 500;
+  private static final int DEFAULT_CAPACITY = 100;
+  private static final int DEFAULT_ROUNDS = 3;
+  // Share of the buyers of the mixed rounds that bypass the gate
+  private static final int BYPASS_EVERY = 4;
+  private static final BigDecimal SEAT_PRICE = new BigDecimal("99.00");
+
+  private static final String COUNT_CONFIRMED_SQL = """
+      SELECT COUNT(*), COALESCE(SUM(seats), 0)
+      FROM bookings
+      WHERE flight_id = ? AND booking_status_id = ?""";
+  private static final String DELETE_BOOKINGS_SQL =
+      "DELETE FROM bookings WHERE flight_id = ?";
+
+  public static void main(String[] args) {
+    int buyers = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BUYERS;
+    int capacity = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CAPACITY;
+    int rounds = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ROUNDS;
+
+    List<Integer> flightIds = new ArrayList<>();
+    boolean passed = true;
+    try {
+      Flight template = flightTemplate();
+      SeatHoldBookingDaoImpl gate = SeatHoldBookingDaoImpl.getInstance();
+      GroupCommitBookingWriter writer = GroupCommitBookingWriter.getInstance();
+
+      System.out.printf("=== %d buyers, %d seats, %d rounds ===%n", buyers, capacity, rounds);
+      System.out.printf("%-10s %5s %8s %8s %7s %9s %9s  %-20s %s%n", "dao", "round",
+          "reserved", "rejected", "errors", "time ms", "ops/s", "latency p50/p99 ms",
+          "check");
+      for (int round = 1; round <= rounds; round++) {
+        BookingDao direct = BookingDaoImpl.getInstance();
+        passed &= runRound("direct", round, direct, direct::reserve, template, buyers,
+            capacity, flightIds);
+
+        long gateRejections = gate.getRejectedInMemory();
+        passed &= runRound("seat-hold", round, gate, gate::reserve, template, buyers,
+            capacity, flightIds);
+        System.out.printf("%16s rejected in memory: %d, by the database: %d (total)%n", "",
+            gate.getRejectedInMemory() - gateRejections, gate.getRejectedByDatabase());
+
+        long batches = writer.getBatchCount();
+        long written = writer.getReservationCount();
+        passed &= runRound("group", round, gate, booking -> writer.reserve(booking).join(),
+            template, buyers, capacity, flightIds);
+        System.out.printf(Locale.ROOT, "%16s %d batches, %.1f reservations per batch%n", "",
+            writer.getBatchCount() - batches, (writer.getReservationCount() - written)
+                / (double) Math.max(1, writer.getBatchCount() - batches));
+
+        long databaseRejections = gate.getRejectedByDatabase();
+        passed &= runRound("mixed", round, gate, bypassing(gate::reserve, direct), template,
+            buyers, capacity, flightIds);
+        passed &= runRound("mixed-grp", round, gate,
+            bypassing(booking -> writer.reserve(booking).join(), direct), template, buyers,
+            capacity, flightIds);
+        System.out.printf("%16s rejected by the database after passing the gate: %d%n", "",
+            gate.getRejectedByDatabase() - databaseRejections);
+      }
+      System.out.println(passed ? "PASSED: no flight was oversold" : "FAILED");
+    } catch (DaoException | SQLException e) {
+      passed = false;
+      System.err.println("Stress test failed: " + e.getMessage());
+      e.printStackTrace();
+    } catch (InterruptedException e) {
+      passed = false;
+      Thread.currentThread().interrupt();
+      System.err.println("Stress test interrupted");
+    } finally {
+      cleanup(flightIds);
+      DatabaseConfig.closeDataSource();
+    }
+    if (!passed) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Sends every {@value #BYPASS_EVERY}th reservation straight to the given DAO instead.
+   */
+  private static Reserver bypassing(Reserver reserver, BookingDao bypass) {
+    AtomicInteger calls = new AtomicInteger();
+    return booking -> calls.getAndIncrement() % BYPASS_EVERY == 0
+        ? bypass.reserve(booking)
+        : reserver.reserve(booking);
+  }
+
+  private static boolean runRound(String label, int round, BookingDao bookingDao,
+                                  Reserver reserver, Flight template, int buyers, int capacity,
+                                  List<Integer> flightIds)
+      throws DaoException, SQLException, InterruptedException {
+    Flight flight = FlightDaoImpl.getInstance().create(copyOf(template));
+    flightIds.add(flight.getFlightId());
+    if (!bookingDao.updateCapacity(flight.getFlightId(), capacity)) {
+      throw new DaoException("Could not set capacity of flight: " + flight.getFlightId());
+    }
+
+    AtomicInteger reserved = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    AtomicInteger errors = new AtomicInteger();
+    long[] latencies = new long[buyers];
+    CountDownLatch start = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(buyers);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < buyers; i++) {
+        int buyer = i;
+        executor.execute(() -> {
+          try {
+            start.await();
+            long begin = System.nanoTime();
+            boolean ok = reserver.reserve(Booking.builder()
+                .flightId(flight.getFlightId())
+                .seats(1)
+                .totalPrice(SEAT_PRICE)
+                .build()).isPresent();
+            latencies[buyer] = System.nanoTime() - begin;
+            (ok ? reserved : rejected).incrementAndGet();
+          } catch (DaoException | RuntimeException e) {
+            errors.incrementAndGet();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } finally {
+            done.countDown();
+          }
+        });
+      }
+      long begin = System.nanoTime();
+      start.countDown();
+      done.await();
+      long elapsed = System.nanoTime() - begin;
+
+      String failure = verify(bookingDao, flight.getFlightId(), capacity, reserved.get(),
+          errors.get(), buyers);
+      Arrays.sort(latencies);
+      System.out.printf(Locale.ROOT, "%-10s %5d %8d %8d %7d %9.1f %9.0f  %-20s %s%n",
+          label, round, reserved.get(), rejected.get(), errors.get(), elapsed / 1e6,
+          buyers / (elapsed / 1e9),
+          String.format(Locale.ROOT, "%.2f / %.2f", percentile(latencies, 50.0) / 1e6,
+              percentile(latencies, 99.0) / 1e6),
+          failure == null ? "ok" : failure);
+      return failure == null;
+    }
+  }
+
+  /**
+   * Returns a description of what is wrong with the flight's seats, or {@code null} if nothing.
+   */
+  private static String verify(BookingDao bookingDao, int flightId, int capacity, int reserved,
+                               int errors, int buyers) throws DaoException, SQLException {
+    SeatInventory inventory = bookingDao.findSeatInventory(flightId).orElseThrow(
+        () -> new DaoException("No seat inventory for flight: " + flightId));
+
+    long bookings;
+    long bookedSeats;
+    try (Connection conn = ConnectionManager.getConnection();
+         PreparedStatement stmt = conn.prepareStatement(COUNT_CONFIRMED_SQL)) {
+      stmt.setInt(1, flightId);
+      stmt.setInt(2, BookingStatus.CONFIRMED.getId());
+      try (ResultSet rs = stmt.executeQuery()) {
+        rs.next();
+        bookings = rs.getLong(1);
+        bookedSeats = rs.getLong(2);
+      }
+    }
+
+    if (inventory.getSeatsBooked() > capacity || bookedSeats > capacity) {
+      return "OVERSOLD: " + Math.max(inventory.getSeatsBooked(), bookedSeats) + " of "
+             + capacity;
+    }
+    if (inventory.getSeatsBooked() != bookedSeats) {
+      return "MISMATCH: seats_booked " + inventory.getSeatsBooked() + ", bookings hold "
+             + bookedSeats;
+    }
+    if (errors == 0 && (reserved != bookings || bookedSeats != Math.min(buyers, capacity))) {
+      return "MISMATCH: " + reserved + " reserved, " + bookings + " bookings stored, "
+             + bookedSeats + " seats booked";
+    }
+    return null;
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+  }
+
+  private static Flight flightTemplate() throws DaoException {
+    List<Airline> airlines = AirlineDaoImpl.getInstance().findAll();
+    List<Airport> airports = AirportDaoImpl.getInstance().findAll();
+    if (airlines.isEmpty() || airports.size() < 2) {
+      throw new DaoException("Need at least one airline and two airports");
+    }
+    LocalDateTime departure = LocalDateTime.now().plusDays(30).withNano(0);
+    return Flight.builder()
+        .flightNumber("STRESS")
+        .airline(airlines.get(0))
+        .departureAirport(airports.get(0))
+        .arrivalAirport(airports.get(1))
+        .departureTime(departure)
+        .arrivalTime(departure.plusHours(2))
+        .basePrice(SEAT_PRICE)
+        .status(FlightStatus.SCHEDULED)
+        .build();
+  }
+
+  private static Flight copyOf(Flight flight) {
+    return Flight.builder()
+        .flightNumber(flight.getFlightNumber())
+        .airline(flight.getAirline())
+        .departureAirport(flight.getDepartureAirport())
+        .arrivalAirport(flight.getArrivalAirport())
+        .departureTime(flight.getDepartureTime())
+        .arrivalTime(flight.getArrivalTime())
+        .basePrice(flight.getBasePrice())
+        .status(flight.getStatus())
+        .build();
+  }
+
+  private static void cleanup(List<Integer> flightIds) {
+    if (flightIds.isEmpty()) {
+      return;
+    }
+    try (Connection conn = ConnectionManager.getConnection();
+         PreparedStatement stmt = conn.prepareStatement(DELETE_BOOKINGS_SQL)) {
+      for (Integer flightId : flightIds) {
+        stmt.setInt(1, flightId);
+        stmt.addBatch();
+      }
+      stmt.executeBatch();
+      // Seat inventories go with their flights
+      int deleted = FlightDaoImpl.getInstance().deleteAll(flightIds);
+      System.out.println("Cleanup: deleted " + deleted + " flights and their bookings");
+    } catch (SQLException | DaoException e) {
+      System.err.println("Cleanup failed: " + e.getMessage());
+    }
+  }
+
+  /**
+   * One way of reserving a booking.
+   */
+  @FunctionalInterface
+  private interface Reserver {
+    Optional<Booking> reserve(Booking booking) throws DaoException;
+  }
+}
@@ -0,0 +1,352 @@
+package ru.brynkin.flightbooking.runner;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import ru.brynkin.flightbooking.dao.impl.FlightCriteriaQuery;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+
+/**
+ * Compares flight search latency on a plain and on a monthly partitioned flights table with the
+ * same synthetic history, against a local PostgreSQL.
+ *
+ * <p>Usage: {@code PartitionBenchmarkRunner [rows] [iterations]}, 20 000 000 rows and 2 000
+ * searches per query shape by default. Both tables live in the scratch schema
+ * {@code partition_bench}, which is dropped at the end; at the default size they need about
+ * 8 GB of disk while the benchmark runs.</p>
+ *
+ * <p>The history spans the last five years and the next three months across 50 airports.
+ * Searches use the WHERE clauses of {@link FlightCriteriaQuery} for a random date in the next
+ * four weeks, as the booking site issues them; lookups by ID go through {@code flight_keys} on
+ * the partitioned side, as {@code FlightDaoImpl} does. Latencies include reading every row.</p>
+ *
+ * <p>Before measuring, it prints the executed plan of each query shape on both tables for one
+ * fixed search, so the partitions each one touches can be checked. The subquery of a lookup by
+ * ID is only evaluated when the query runs, so its pruning shows up as partitions that were
+ * never executed; runs of those are collapsed into one line.</p>
+ */
+
+public class PartitionBenchmarkRunner {
+
+  private static final int DEFAULT_ROWS = 20_000_000;
+  private static final int DEFAULT_ITERATIONS = 2_000;
+  private static final int AIRPORTS = 50;
+  private static final int HISTORY_YEARS = 5;
+  private static final int MONTHS_AHEAD = 3;
+  private static final int SEARCH_DAYS_AHEAD = 28;
+
+  private static final String SCHEMA = "partition_bench";
+  private static final String PLAIN = SCHEMA + ".flights_plain";
+  private static final String PARTITIONED = SCHEMA + ".flights_part";
+  private static final String KEYS = SCHEMA + ".flight_keys";
+
+  private static final String COLUMNS = """
+      flight_id BIGINT NOT NULL,
+      flight_number VARCHAR(10) NOT NULL,
+      airline_id INTEGER NOT NULL,
+      departure_airport_id INTEGER NOT NULL,
+      arrival_airport_id INTEGER NOT NULL,
+      departure_time TIMESTAMP NOT NULL,
+      arrival_time TIMESTAMP NOT NULL,
+      base_price NUMERIC(10, 2) NOT NULL,
+      status_id INTEGER NOT NULL""";
+
+  // Uniform departures over the whole span; arrival airport never equals departure airport
+  private static final String GENERATE_SQL = "INSERT INTO " + PLAIN + " " + """
+       SELECT g, 'BX' || (g %% 9000), 1 + g %% 9, dep + 1, 1 + (dep + off) %% %d, t,
+              t + INTERVAL '2 hours', 5000 + (g %% 200) * 50,
+              CASE WHEN t < LOCALTIMESTAMP THEN 5 ELSE 1 END
+       FROM (SELECT g,
+                    floor(random() * %d)::INT AS dep,
+                    1 + floor(random() * %d)::INT AS off,
+                    date_trunc('minute', ?::TIMESTAMP + random() * (?::TIMESTAMP - ?::TIMESTAMP))
+                        AS t
+             FROM generate_series(1, ?) g) s""";
+
+  private static final String SELECT_COLUMNS =
+      "SELECT flight_id, flight_number, airline_id, departure_airport_id, arrival_airport_id, "
+      + "departure_time, arrival_time, base_price, status_id FROM ";
+
+  public static void main(String[] args) {
+    int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+
+    try (Connection conn = ConnectionManager.getConnection()) {
+      try {
+        setUp(conn, rows);
+
+        for (QueryShape shape : QueryShape.values()) {
+          explain(conn, shape, false, rows);
+          explain(conn, shape, true, rows);
+        }
+
+        System.out.printf("%n=== %d searches per query, %d flights ===%n", iterations, rows);
+        System.out.printf("%-26s %-12s %10s %10s %10s %10s %8s%n", "query", "table",
+            "mean ms", "p50 ms", "p95 ms", "p99 ms", "rows");
+        for (QueryShape shape : QueryShape.values()) {
+          report(shape, "plain", measure(conn, shape, false, rows, iterations));
+          report(shape, "partitioned", measure(conn, shape, true, rows, iterations));
+        }
+      } finally {
+        System.out.println("\nDropping schema " + SCHEMA);
+        execute(conn, "DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+      }
+    } catch (SQLException e) {
+      System.err.println("Benchmark failed: " + e.getMessage());
+      e.printStackTrace();
+    }
+  }
+
+  private static void setUp(Connection conn, int rows) throws SQLException {
+    LocalDate today = LocalDate.now();
+    YearMonth firstMonth = YearMonth.from(today.minusYears(HISTORY_YEARS));
+    YearMonth lastMonth = YearMonth.from(today.plusMonths(MONTHS_AHEAD));
+    Timestamp from = Timestamp.valueOf(firstMonth.atDay(1).atStartOfDay());
+    Timestamp to = Timestamp.valueOf(lastMonth.atEndOfMonth().atTime(23, 59));
+
+    execute(conn, "DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    execute(conn, "CREATE SCHEMA " + SCHEMA);
+    execute(conn, "CREATE UNLOGGED TABLE " + PLAIN + " (" + COLUMNS + ")");
+    // A partitioned table cannot be unlogged itself, its partitions can
+    execute(conn, "CREATE TABLE " + PARTITIONED + " (" + COLUMNS
+                  + ") PARTITION BY RANGE (departure_time)");
+    int partitions = 0;
+    for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+      execute(conn, String.format(Locale.ROOT,
+          "CREATE UNLOGGED TABLE %s_%d_%02d PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+          PARTITIONED, month.getYear(), month.getMonthValue(), PARTITIONED, month.atDay(1),
+          month.plusMonths(1).atDay(1)));
+      partitions++;
+    }
+
+    System.out.printf("=== Generating %d flights from %s to %s ===%n", rows, firstMonth,
+        lastMonth);
+    long start = System.nanoTime();
+    execute(conn, "SELECT setseed(0.21)");
+    try (PreparedStatement stmt = conn.prepareStatement(
+        String.format(Locale.ROOT, GENERATE_SQL, AIRPORTS, AIRPORTS, AIRPORTS - 1))) {
+      stmt.setTimestamp(1, from);
+      stmt.setTimestamp(2, to);
+      stmt.setTimestamp(3, from);
+      stmt.setInt(4, rows);
+      stmt.executeUpdate();
+    }
+    execute(conn, "INSERT INTO " + PARTITIONED + " SELECT * FROM " + PLAIN);
+    execute(conn, "CREATE UNLOGGED TABLE " + KEYS + " AS SELECT flight_id, departure_time FROM "
+                  + PLAIN);
+    printPhase("loaded (" + partitions + " partitions)", start);
+
+    // Built after the load, the same set on both tables as migration V1_7_0 creates
+    start = System.nanoTime();
+    execute(conn, "ALTER TABLE " + PLAIN + " ADD PRIMARY KEY (flight_id)");
+    execute(conn, "ALTER TABLE " + PARTITIONED + " ADD PRIMARY KEY (flight_id, departure_time)");
+    execute(conn, "ALTER TABLE " + KEYS + " ADD PRIMARY KEY (flight_id)");
+    for (String table : new String[] {PLAIN, PARTITIONED}) {
+      execute(conn, "CREATE INDEX ON " + table
+                    + " (departure_airport_id, arrival_airport_id, departure_time)");
+      execute(conn, "CREATE INDEX ON " + table + " (departure_airport_id, departure_time)");
+      execute(conn, "CREATE INDEX ON " + table + " (arrival_airport_id, departure_time)");
+      execute(conn, "CREATE INDEX ON " + table + " (departure_time, flight_id)");
+    }
+    printPhase("indexed", start);
+
+    start = System.nanoTime();
+    execute(conn, "VACUUM ANALYZE " + PLAIN);
+    execute(conn, "VACUUM ANALYZE " + PARTITIONED);
+    execute(conn, "VACUUM ANALYZE " + KEYS);
+    printPhase("vacuumed", start);
+  }
+
+  /**
+   * Runs one query shape with fresh random parameters per search, after a tenth of the
+   * iterations as warm-up, and returns the sorted latencies with the row total appended.
+   */
+  private static long[] measure(Connection conn, QueryShape shape, boolean partitioned,
+                                int rows, int iterations) throws SQLException {
+    String table = partitioned ? PARTITIONED : PLAIN;
+    int warmUp = Math.max(1, iterations / 10);
+    long[] latencies = new long[iterations];
+    long rowTotal = 0;
+
+    for (int i = -warmUp; i < iterations; i++) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      long start = System.nanoTime();
+      long found;
+      if (shape == QueryShape.BY_ID) {
+        found = findById(conn, table, partitioned, 1 + random.nextLong(rows));
+      } else {
+        int departure = 1 + random.nextInt(AIRPORTS);
+        int arrival = 1 + (departure + random.nextInt(AIRPORTS - 1)) % AIRPORTS;
+        LocalDate date = LocalDate.now().plusDays(1 + random.nextInt(SEARCH_DAYS_AHEAD));
+        found = search(conn, table, shape.criteria(departure, arrival, date));
+      }
+      if (i >= 0) {
+        latencies[i] = System.nanoTime() - start;
+        rowTotal += found;
+      }
+    }
+
+    Arrays.sort(latencies);
+    long[] result = Arrays.copyOf(latencies, iterations + 1);
+    result[iterations] = rowTotal;
+    return result;
+  }
+
+  /**
+   * Prints the executed plan of one search a week ahead from airport 1 to airport 2, or of the
+   * lookup of the middle flight ID.
+   */
+  private static void explain(Connection conn, QueryShape shape, boolean partitioned,
+                              int rows) throws SQLException {
+    String table = partitioned ? PARTITIONED : PLAIN;
+    String sql;
+    FlightCriteriaQuery query = null;
+    if (shape == QueryShape.BY_ID) {
+      sql = findByIdSql(table, partitioned);
+    } else {
+      query = shape.criteria(1, 2, LocalDate.now().plusDays(7));
+      sql = query.toSql(SELECT_COLUMNS + table);
+    }
+
+    System.out.printf("%n--- %s, %s ---%n", shape.label, partitioned ? "partitioned" : "plain");
+    try (PreparedStatement stmt = conn.prepareStatement(
+        "EXPLAIN (ANALYZE, COSTS OFF, SUMMARY OFF) " + sql)) {
+      if (query != null) {
+        query.bind(stmt);
+      } else {
+        stmt.setLong(1, rows / 2);
+        if (partitioned) {
+          stmt.setLong(2, rows / 2);
+        }
+      }
+      try (ResultSet rs = stmt.executeQuery()) {
+        int neverExecuted = 0;
+        int collapsedIndent = -1;
+        while (rs.next()) {
+          String line = rs.getString(1);
+          int indent = line.length() - line.stripLeading().length();
+          if (collapsedIndent >= 0 && indent > collapsedIndent) {
+            // Detail of a collapsed partition scan
+            continue;
+          }
+          if (line.contains("(never executed)")) {
+            neverExecuted++;
+            collapsedIndent = indent;
+            continue;
+          }
+          printNeverExecuted(neverExecuted, collapsedIndent);
+          neverExecuted = 0;
+          collapsedIndent = -1;
+          System.out.println(line);
+        }
+        printNeverExecuted(neverExecuted, collapsedIndent);
+      }
+    }
+  }
+
+  private static void printNeverExecuted(int scans, int indent) {
+    if (scans > 0) {
+      System.out.printf("%s->  %d partition scan%s (never executed)%n",
+          " ".repeat(indent), scans, scans == 1 ? "" : "s");
+    }
+  }
+
+  private static long search(Connection conn, String table, FlightCriteriaQuery query)
+      throws SQLException {
+    try (PreparedStatement stmt = conn.prepareStatement(query.toSql(SELECT_COLUMNS + table))) {
+      query.bind(stmt);
+      return count(stmt);
+    }
+  }
+
+  private static long findById(Connection conn, String table, boolean partitioned, long id)
+      throws SQLException {
+    try (PreparedStatement stmt = conn.prepareStatement(findByIdSql(table, partitioned))) {
+      stmt.setLong(1, id);
+      if (partitioned) {
+        stmt.setLong(2, id);
+      }
+      return count(stmt);
+    }
+  }
+
+  private static String findByIdSql(String table, boolean partitioned) {
+    String sql = SELECT_COLUMNS + table + " WHERE flight_id = ?";
+    if (partitioned) {
+      sql += " AND departure_time = (SELECT departure_time FROM " + KEYS
+             + " WHERE flight_id = ?)";
+    }
+    return sql;
+  }
+
+  private static long count(PreparedStatement stmt) throws SQLException {
+    long found = 0;
+    try (ResultSet rs = stmt.executeQuery()) {
+      while (rs.next()) {
+        rs.getLong(1);
+        rs.getTimestamp(6);
+        rs.getBigDecimal(8);
+        found++;
+      }
+    }
+    return found;
+  }
+
+  private static void report(QueryShape shape, String table, long[] result) {
+    int iterations = result.length - 1;
+    long[] latencies = Arrays.copyOf(result, iterations);
+    double mean = Arrays.stream(latencies).average().orElse(0);
+    System.out.printf(Locale.ROOT, "%-26s %-12s %10.3f %10.3f %10.3f %10.3f %8.1f%n",
+        shape.label, table, mean / 1e6, percentile(latencies, 50.0) / 1e6,
+        percentile(latencies, 95.0) / 1e6, percentile(latencies, 99.0) / 1e6,
+        (double) result[iterations] / iterations);
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+  }
+
+  private static void printPhase(String phase, long startNanos) {
+    System.out.printf("  %-28s %8.1f s%n", phase, (System.nanoTime() - startNanos) / 1e9);
+  }
+
+  private static void execute(Connection conn, String sql) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute(sql);
+    }
+  }
+
+  private enum QueryShape {
+    ROUTE_AND_DATE("route + date"),
+    DEPARTURE_AND_DATE("departure airport + date"),
+    DATE("date"),
+    BY_ID("by ID");
+
+    private final String label;
+
+    QueryShape(String label) {
+      this.label = label;
+    }
+
+    FlightCriteriaQuery criteria(int departure, int arrival, LocalDate date) {
+      return switch (this) {
+        case ROUTE_AND_DATE -> FlightCriteriaQuery.of(departure, arrival, date, null);
+        case DEPARTURE_AND_DATE -> FlightCriteriaQuery.of(departure, null, date, null);
+        case DATE -> FlightCriteriaQuery.of(null, null, date, null);
+        case BY_ID -> throw new IllegalStateException("Not a criteria search");
+      };
+    }
+  }
+}
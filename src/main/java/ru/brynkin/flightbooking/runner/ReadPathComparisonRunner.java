@@ -0,0 +1,93 @@
+package ru.brynkin.flightbooking.runner;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import ru.brynkin.flightbooking.dao.impl.FlightDaoImpl;
+import ru.brynkin.flightbooking.dao.impl.FlightDaoImpl.ReadPath;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+
+/**
+ * Compares the {@code view} and {@code table} read paths of {@link FlightDaoImpl} against a local
+ * PostgreSQL.
+ *
+ * <p>For each path it reports the text size of all result rows, which approximates the bytes
+ * sent over the wire, and the latency of {@code findAll} and of streaming every flight with
+ * {@code forEach}. Load a large schedule first (see {@link ScheduleImportRunner} or
+ * {@link BatchInsertBenchmarkRunner}) to make the difference visible.</p>
+ *
+ * <p>Usage: {@code ReadPathComparisonRunner [iterations]}, 5 measured iterations by default
+ * after one warm-up iteration per path.</p>
+ */
+
+public class ReadPathComparisonRunner {
+
+  private static final int DEFAULT_ITERATIONS = 5;
+
+  private static final String VIEW_ROW_BYTES_SQL = """
+      SELECT COUNT(*), COALESCE(SUM(OCTET_LENGTH(v::text)), 0)
+      FROM (SELECT * FROM flight_complete_view) v""";
+  private static final String TABLE_ROW_BYTES_SQL = """
+      SELECT COUNT(*), COALESCE(SUM(OCTET_LENGTH(f::text)), 0)
+      FROM (SELECT flight_id, flight_number, airline_id, departure_airport_id,
+                   arrival_airport_id, departure_time, arrival_time, base_price, status_id
+            FROM flights) f""";
+
+  public static void main(String[] args) {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+
+    try {
+      System.out.println("=== Row payload ===");
+      reportRowBytes("view", VIEW_ROW_BYTES_SQL);
+      reportRowBytes("table", TABLE_ROW_BYTES_SQL);
+
+      System.out.printf("=== Latency, %d iterations ===%n", iterations);
+      for (ReadPath readPath : ReadPath.values()) {
+        measure(FlightDaoImpl.getInstance(readPath), iterations);
+      }
+    } catch (SQLException | DaoException e) {
+      System.err.println("Comparison failed: " + e.getMessage());
+      e.printStackTrace();
+    }
+  }
+
+  private static void reportRowBytes(String label, String sql) throws SQLException {
+    try (Connection conn = ConnectionManager.getConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(sql)) {
+      rs.next();
+      long rows = rs.getLong(1);
+      long bytes = rs.getLong(2);
+      System.out.printf("%-6s %10d rows %14d bytes %8.1f bytes/row%n",
+          label, rows, bytes, rows == 0 ? 0.0 : (double) bytes / rows);
+    }
+  }
+
+  private static void measure(FlightDaoImpl flightDao, int iterations) throws DaoException {
+    String label = flightDao.getReadPath().name().toLowerCase();
+
+    // Warm-up: loads the reference caches and the prepared statements
+    flightDao.findAll();
+    flightDao.forEach(flight -> { });
+
+    long findAllNanos = 0;
+    long forEachNanos = 0;
+    int rows = 0;
+    for (int i = 0; i < iterations; i++) {
+      long start = System.nanoTime();
+      rows = flightDao.findAll().size();
+      findAllNanos += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      flightDao.forEach(flight -> { });
+      forEachNanos += System.nanoTime() - start;
+    }
+
+    System.out.printf("%-6s %10d rows  findAll %8.1f ms  forEach %8.1f ms%n",
+        label, rows,
+        findAllNanos / 1_000_000.0 / iterations,
+        forEachNanos / 1_000_000.0 / iterations);
+  }
+}
@@ -0,0 +1,48 @@
+package ru.brynkin.flightbooking.runner;
+
+import java.nio.file.Path;
+import ru.brynkin.flightbooking.dao.ScheduleImportListener;
+import ru.brynkin.flightbooking.dao.impl.ScheduleImportDaoImpl;
+import ru.brynkin.flightbooking.dto.ScheduleImportResult;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Imports an airline timetable CSV file into {@code flights}.
+ *
+ * <p>Usage: {@code ScheduleImportRunner <schedule.csv>}</p>
+ */
+
+public class ScheduleImportRunner {
+
+  public static void main(String[] args) {
+    if (args.length != 1) {
+      System.err.println("Usage: ScheduleImportRunner <schedule.csv>");
+      System.exit(2);
+    }
+
+    ScheduleImportListener listener = new ScheduleImportListener() {
+      @Override
+      public void onProgress(long bytesCopied, long totalBytes) {
+        System.out.printf("Copied %d of %d bytes (%.1f%%)%n", bytesCopied, totalBytes,
+            totalBytes == 0 ? 100.0 : bytesCopied * 100.0 / totalBytes);
+      }
+
+      @Override
+      public void onRejected(long lineNumber, String flightNumber, String reason) {
+        System.out.printf("Rejected line %d (%s): %s%n", lineNumber, flightNumber, reason);
+      }
+    };
+
+    try {
+      ScheduleImportResult result = ScheduleImportDaoImpl.getInstance()
+          .importSchedule(Path.of(args[0]), listener);
+      System.out.printf("=== Staged %d rows, merged %d, rejected %d in %d ms ===%n",
+          result.getRowsStaged(), result.getRowsMerged(), result.getRowsRejected(),
+          result.getElapsedMillis());
+    } catch (DaoException e) {
+      System.err.println("Schedule import failed: " + e.getMessage());
+      e.printStackTrace();
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package ru.brynkin.flightbooking.runner;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import ru.brynkin.flightbooking.dao.impl.FlightCriteriaQuery;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+import ru.brynkin.flightbooking.util.ConnectionManager;
+
+/**
+ * Checks against a local PostgreSQL that every combination of flight search criteria is served
+ * by an index on {@code flights} rather than a sequential scan.
+ *
+ * <p>Runs {@code EXPLAIN} for all 16 combinations of the four optional
+ * {@code findByCriteria} filters. Sequential scans are disabled for the session, because with
+ * the tiny seed data set the planner would otherwise prefer them even when a usable index
+ * exists. Exits with status 1 if any plan still scans the {@code flights} heap.</p>
+ *
+ * <p>Combinations with a date must also be pruned to the one monthly partition of that date
+ * (migration V1_7_0); a plan that visits more partitions fails the check as well.</p>
+ */
+
+public class SearchPlanRunner {
+
+  private static final String BASE_QUERY = "SELECT flight_id FROM flight_complete_view";
+  private static final String SEQ_SCAN_ON_FLIGHTS = "Seq Scan on flights";
+  // Scan targets only: partition indexes are named flights_YYYY_MM_..._idx
+  private static final Pattern FLIGHTS_PARTITION =
+      Pattern.compile(" on (flights_\\d{4}_\\d{2}|flights_default)\\b");
+
+  private static final Integer DEPARTURE_AIRPORT_ID = 1;
+  private static final Integer ARRIVAL_AIRPORT_ID = 3;
+  private static final LocalDate DATE = LocalDate.of(2023, 12, 15);
+  private static final FlightStatus STATUS = FlightStatus.SCHEDULED;
+
+  public static void main(String[] args) {
+    int failures = 0;
+
+    try (Connection conn = ConnectionManager.getConnection()) {
+      try (Statement stmt = conn.createStatement()) {
+        stmt.execute("SET enable_seqscan = off");
+      }
+
+      for (int mask = 0; mask < 16; mask++) {
+        FlightCriteriaQuery query = FlightCriteriaQuery.of(
+            (mask & 1) != 0 ? DEPARTURE_AIRPORT_ID : null,
+            (mask & 2) != 0 ? ARRIVAL_AIRPORT_ID : null,
+            (mask & 4) != 0 ? DATE : null,
+            (mask & 8) != 0 ? STATUS : null);
+
+        String plan = explain(conn, query);
+        boolean indexed = !plan.contains(SEQ_SCAN_ON_FLIGHTS);
+        int partitions = countPartitions(plan);
+        boolean pruned = (mask & 4) == 0 || partitions == 1;
+        if (!indexed || !pruned) {
+          failures++;
+        }
+
+        System.out.printf("[%s] [%d partition(s)%s] %s%n", indexed ? "INDEX" : "SEQ  ",
+            partitions, pruned ? "" : ", NOT PRUNED", query.getWhereClause());
+        System.out.println(plan);
+      }
+
+      try (Statement stmt = conn.createStatement()) {
+        stmt.execute("RESET enable_seqscan");
+      }
+    } catch (SQLException e) {
+      System.err.println("Plan check failed: " + e.getMessage());
+      e.printStackTrace();
+      System.exit(1);
+    }
+
+    System.out.printf("=== %d of 16 criteria combinations use an index and are pruned ===%n",
+        16 - failures);
+    if (failures > 0) {
+      System.exit(1);
+    }
+  }
+
+  private static int countPartitions(String plan) {
+    Set<String> partitions = new HashSet<>();
+    Matcher matcher = FLIGHTS_PARTITION.matcher(plan);
+    while (matcher.find()) {
+      partitions.add(matcher.group(1));
+    }
+    return partitions.size();
+  }
+
+  private static String explain(Connection conn, FlightCriteriaQuery query) throws SQLException {
+    try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + query.toSql(BASE_QUERY))) {
+      query.bind(stmt);
+
+      StringBuilder plan = new StringBuilder();
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          plan.append("    ").append(rs.getString(1)).append(System.lineSeparator());
+        }
+      }
+      return plan.toString();
+    }
+  }
+}
@@ -0,0 +1,682 @@
+package ru.brynkin.flightbooking.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import ru.brynkin.flightbooking.entity.Airport;
+
+/**
+ * In-memory typeahead index over the name, city, IATA code and ICAO code of airports.
+ *
+ * <p>Text is compared folded: lower case, accents and other diacritics stripped, a few letters
+ * without a decomposition spelled out ({@code ß}, {@code ø}, {@code ł}, ...), and everything
+ * but letters and digits treated as a word break. "Zürich", "zurich" and "ZURICH" are the same
+ * query.</p>
+ *
+ * <p>Every word of a query has to match the airport, the last one typically being typed still,
+ * as the prefix of a word of the name or city, or of a code. Only when that finds fewer
+ * airports than asked for, words of three or more characters may also match inside a word
+ * ("metyevo" finds Sheremetyevo), found through a map from trigrams.</p>
+ *
+ * <p>Results are ranked by how each word matched: a whole code first, then, roughly, the city
+ * before the name, a first word before a later one and a whole word before a prefix, and an
+ * infix last. Ties go to the shorter name, then to the lower ID.</p>
+ *
+ * <p>Every posting list is kept in that tie order, and a single-word query, the common case
+ * while typing, reads one list per kind of match from the best kind down and stops as soon as
+ * it has {@code limit} airports: its cost does not grow with the number of airports that
+ * match. Queries of several words intersect the prefix lists of their words and rank what is
+ * left.</p>
+ *
+ * <p>{@link #put(Airport)} and {@link #remove(Integer)} update only the lists of that airport.
+ * Writers are serialised; readers take no lock and may see an airport being replaced as
+ * briefly missing, but never a half-indexed one.</p>
+ */
+
+public final class AirportSuggestIndex {
+
+  // Prefixes are indexed up to this length; longer query words are checked against candidates
+  private static final int MAX_PREFIX = 8;
+  private static final int GRAM = 3;
+  private static final long[] NO_KEYS = new long[0];
+
+  // Score of one query word by how it matched; the best matching kind counts
+  private static final int EXACT_CODE = 100;
+  private static final int CODE_PREFIX = 60;
+  private static final int CITY_PREFIX = 50;
+  private static final int NAME_PREFIX = 40;
+  private static final int INFIX = 10;
+  private static final int FIRST_WORD_BONUS = 8;
+  private static final int WHOLE_WORD_BONUS = 4;
+
+  // Best first
+  private static final Comparator<Match> RANKING = Comparator
+      .comparingInt((Match match) -> -match.score)
+      .thenComparingLong(match -> match.entry.rankKey);
+
+  // Every kind of match, best first
+  private static final List<Tier> TIERS = Tier.all();
+
+  // Posting lists of each tier, in the order of TIERS
+  private final List<Map<String, long[]>> tiers = new ArrayList<>();
+  // Prefixes of any word or code, for queries of several words
+  private final Map<String, long[]> prefixes = new ConcurrentHashMap<>();
+  private final Map<String, long[]> grams = new ConcurrentHashMap<>();
+  private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+  private AirportSuggestIndex() {
+    for (int i = 0; i < TIERS.size(); i++) {
+      tiers.add(new ConcurrentHashMap<>());
+    }
+  }
+
+  /**
+   * Builds an index of the given airports.
+   */
+  public static AirportSuggestIndex of(Collection<Airport> airports) {
+    List<Entry> sorted = new ArrayList<>(airports.size());
+    for (Airport airport : airports) {
+      sorted.add(new Entry(airport));
+    }
+    // Appended in rank order, every list comes out sorted
+    sorted.sort(Comparator.comparingLong(entry -> entry.rankKey));
+
+    AirportSuggestIndex index = new AirportSuggestIndex();
+    List<Map<String, KeyList>> tierLists = new ArrayList<>();
+    for (int i = 0; i < TIERS.size(); i++) {
+      tierLists.add(new HashMap<>());
+    }
+    Map<String, KeyList> prefixLists = new HashMap<>();
+    Map<String, KeyList> gramLists = new HashMap<>();
+
+    for (Entry entry : sorted) {
+      if (index.entries.put(entry.id, entry) != null) {
+        throw new IllegalArgumentException("Duplicate airport ID " + entry.id);
+      }
+      for (int i = 0; i < TIERS.size(); i++) {
+        for (String key : entry.tierKeys[i]) {
+          tierLists.get(i).computeIfAbsent(key, k -> new KeyList()).add(entry.rankKey);
+        }
+      }
+      for (String key : entry.prefixKeys) {
+        prefixLists.computeIfAbsent(key, k -> new KeyList()).add(entry.rankKey);
+      }
+      for (String key : entry.gramKeys) {
+        gramLists.computeIfAbsent(key, k -> new KeyList()).add(entry.rankKey);
+      }
+    }
+
+    for (int i = 0; i < TIERS.size(); i++) {
+      KeyList.publish(tierLists.get(i), index.tiers.get(i));
+    }
+    KeyList.publish(prefixLists, index.prefixes);
+    KeyList.publish(gramLists, index.grams);
+    return index;
+  }
+
+  /**
+   * Adds the airport, or replaces the one with the same ID. The index keeps the given
+   * instance, which must not be modified afterwards.
+   */
+  public synchronized void put(Airport airport) {
+    if (airport.getAirportId() == null) {
+      throw new IllegalArgumentException("Airport ID is required");
+    }
+    remove(airport.getAirportId());
+
+    Entry entry = new Entry(airport);
+    entries.put(entry.id, entry);
+    for (int i = 0; i < tiers.size(); i++) {
+      for (String key : entry.tierKeys[i]) {
+        tiers.get(i).compute(key, (k, keys) -> add(keys, entry.rankKey));
+      }
+    }
+    for (String key : entry.prefixKeys) {
+      prefixes.compute(key, (k, keys) -> add(keys, entry.rankKey));
+    }
+    for (String key : entry.gramKeys) {
+      grams.compute(key, (k, keys) -> add(keys, entry.rankKey));
+    }
+  }
+
+  /**
+   * Removes the airport with the given ID, if indexed.
+   */
+  public synchronized void remove(Integer airportId) {
+    Entry entry = entries.remove(airportId);
+    if (entry == null) {
+      return;
+    }
+    for (int i = 0; i < tiers.size(); i++) {
+      for (String key : entry.tierKeys[i]) {
+        tiers.get(i).computeIfPresent(key, (k, keys) -> without(keys, entry.rankKey));
+      }
+    }
+    for (String key : entry.prefixKeys) {
+      prefixes.computeIfPresent(key, (k, keys) -> without(keys, entry.rankKey));
+    }
+    for (String key : entry.gramKeys) {
+      grams.computeIfPresent(key, (k, keys) -> without(keys, entry.rankKey));
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns up to {@code limit} airports matching the query, best first. A query without
+   * letters or digits matches nothing. The returned instances are the indexed ones.
+   */
+  public List<Airport> suggest(String query, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Suggestion limit must be positive");
+    }
+    String[] terms = words(normalize(query));
+    if (terms.length == 0) {
+      return List.of();
+    }
+    List<Entry> found = terms.length == 1 && terms[0].length() <= MAX_PREFIX
+        ? suggestWord(terms[0], limit)
+        : suggestWords(terms, limit);
+
+    List<Airport> airports = new ArrayList<>(found.size());
+    for (Entry entry : found) {
+      airports.add(entry.airport);
+    }
+    return airports;
+  }
+
+  /**
+   * Folds text for matching: NFKD-decomposed, combining marks dropped, lower case, letters
+   * without a decomposition spelled out, and runs of other characters replaced by one space.
+   */
+  static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+    StringBuilder folded = new StringBuilder(decomposed.length());
+    boolean pendingSpace = false;
+
+    for (int i = 0; i < decomposed.length(); ) {
+      int codePoint = decomposed.codePointAt(i);
+      i += Character.charCount(codePoint);
+
+      int type = Character.getType(codePoint);
+      if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+          || type == Character.ENCLOSING_MARK || codePoint == '\'' || codePoint == '’') {
+        // Diacritics and apostrophes: "Xi'an" is one word
+        continue;
+      }
+      if (!Character.isLetterOrDigit(codePoint)) {
+        pendingSpace = folded.length() > 0;
+        continue;
+      }
+      if (pendingSpace) {
+        folded.append(' ');
+        pendingSpace = false;
+      }
+      int lower = Character.toLowerCase(codePoint);
+      String spelled = spellOut(lower);
+      if (spelled != null) {
+        folded.append(spelled);
+      } else {
+        folded.appendCodePoint(lower);
+      }
+    }
+    return folded.toString();
+  }
+
+  // Letters that NFKD leaves alone
+  private static String spellOut(int codePoint) {
+    return switch (codePoint) {
+      case 'ß' -> "ss";
+      case 'æ' -> "ae";
+      case 'œ' -> "oe";
+      case 'ø' -> "o";
+      case 'ł' -> "l";
+      case 'đ', 'ð' -> "d";
+      case 'þ' -> "th";
+      case 'ı' -> "i";
+      case 'ħ' -> "h";
+      default -> null;
+    };
+  }
+
+  private static String[] words(String normalized) {
+    return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+  }
+
+  /**
+   * One word of at most {@link #MAX_PREFIX} characters: walks the kinds of match best first,
+   * each list in tie order, until {@code limit} airports are found.
+   */
+  private List<Entry> suggestWord(String term, int limit) {
+    List<Entry> found = new ArrayList<>(limit);
+    Set<Integer> seen = new HashSet<>();
+    for (Map<String, long[]> postings : tiers) {
+      if (!takeInOrder(postings.get(term), term, found, seen, limit, false)) {
+        return found;
+      }
+    }
+    if (term.length() >= GRAM) {
+      takeInOrder(gramCandidates(term), term, found, seen, limit, true);
+    }
+    return found;
+  }
+
+  /**
+   * Appends the not yet seen airports of a list, in its order, checking infix candidates
+   * against the word.
+   *
+   * @return whether more airports are wanted
+   */
+  private boolean takeInOrder(long[] keys, String term, List<Entry> found, Set<Integer> seen,
+                              int limit, boolean verify) {
+    if (keys == null) {
+      return true;
+    }
+    for (long key : keys) {
+      Entry entry = entries.get(idOf(key));
+      if (entry == null || entry.rankKey != key || !seen.add(entry.id)) {
+        continue;
+      }
+      if (verify && entry.score(term) == 0) {
+        continue;
+      }
+      found.add(entry);
+      if (found.size() == limit) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Several words, or one long word: the airports matching every word by prefix are ranked by
+   * their total score; infix matches are added if that leaves room.
+   */
+  private List<Entry> suggestWords(String[] terms, int limit) {
+    // Worst of the kept matches on top
+    PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+    List<long[]> postings = new ArrayList<>(terms.length);
+    for (String term : terms) {
+      String key = term.length() > MAX_PREFIX ? term.substring(0, MAX_PREFIX) : term;
+      postings.add(prefixes.getOrDefault(key, NO_KEYS));
+    }
+    int bound = 0;
+    for (String term : terms) {
+      bound += scoreBound(term);
+    }
+    long[] prefixCandidates = intersectAll(postings);
+    collect(prefixCandidates, terms, best, limit, bound, NO_KEYS);
+
+    if (best.size() < limit) {
+      postings.clear();
+      boolean infix = false;
+      for (String term : terms) {
+        if (term.length() >= GRAM) {
+          postings.add(gramCandidates(term));
+          infix = true;
+        } else {
+          postings.add(prefixes.getOrDefault(term, NO_KEYS));
+        }
+      }
+      if (infix) {
+        collect(intersectAll(postings), terms, best, limit, bound, prefixCandidates);
+      }
+    }
+
+    List<Match> ranked = new ArrayList<>(best);
+    ranked.sort(RANKING);
+    List<Entry> found = new ArrayList<>(ranked.size());
+    for (Match match : ranked) {
+      found.add(match.entry);
+    }
+    return found;
+  }
+
+  private long[] gramCandidates(String term) {
+    List<long[]> postings = new ArrayList<>(term.length() - GRAM + 1);
+    for (int i = 0; i + GRAM <= term.length(); i++) {
+      postings.add(grams.getOrDefault(term.substring(i, i + GRAM), NO_KEYS));
+    }
+    return intersectAll(postings);
+  }
+
+  /**
+   * The best score a query word can get from any airport: that of the best tier listing it, or
+   * its first {@link #MAX_PREFIX} characters, or else that of an infix.
+   */
+  private int scoreBound(String term) {
+    String prefix = term.length() > MAX_PREFIX ? term.substring(0, MAX_PREFIX) : term;
+    for (int i = 0; i < TIERS.size(); i++) {
+      Tier tier = TIERS.get(i);
+      if (tiers.get(i).containsKey(tier.wholeWord ? term : prefix)) {
+        return tier.score;
+      }
+    }
+    return INFIX;
+  }
+
+  // Candidates come in tie order, so once every kept match has the bound nothing can beat them
+  private void collect(long[] candidates, String[] terms, PriorityQueue<Match> best, int limit,
+                       int bound, long[] skip) {
+    if (best.size() == limit && best.peek().score >= bound) {
+      return;
+    }
+    for (long key : candidates) {
+      if (Arrays.binarySearch(skip, key) >= 0) {
+        continue;
+      }
+      Entry entry = entries.get(idOf(key));
+      if (entry == null || entry.rankKey != key) {
+        continue;
+      }
+      int score = 0;
+      for (String term : terms) {
+        int termScore = entry.score(term);
+        if (termScore == 0) {
+          score = 0;
+          break;
+        }
+        score += termScore;
+      }
+      if (score == 0) {
+        continue;
+      }
+
+      if (best.size() == limit) {
+        if (score <= best.peek().score) {
+          continue;
+        }
+        best.poll();
+      }
+      best.add(new Match(entry, score));
+      if (best.size() == limit && best.peek().score >= bound) {
+        return;
+      }
+    }
+  }
+
+  // Shortest first, so the running result only shrinks from the smallest list
+  private static long[] intersectAll(List<long[]> postings) {
+    postings.sort(Comparator.comparingInt(keys -> keys.length));
+    long[] result = postings.get(0);
+    for (int i = 1; i < postings.size() && result.length > 0; i++) {
+      result = intersect(result, postings.get(i));
+    }
+    return result;
+  }
+
+  private static long[] intersect(long[] a, long[] b) {
+    long[] result = new long[Math.min(a.length, b.length)];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) {
+        i++;
+      } else if (a[i] > b[j]) {
+        j++;
+      } else {
+        result[size++] = a[i];
+        i++;
+        j++;
+      }
+    }
+    return size == result.length ? result : Arrays.copyOf(result, size);
+  }
+
+  // Posting lists are sorted and replaced, never changed in place, so readers need no lock
+  private static long[] add(long[] keys, long key) {
+    if (keys == null) {
+      return new long[] {key};
+    }
+    int position = Arrays.binarySearch(keys, key);
+    if (position >= 0) {
+      return keys;
+    }
+    position = -position - 1;
+    long[] copy = new long[keys.length + 1];
+    System.arraycopy(keys, 0, copy, 0, position);
+    copy[position] = key;
+    System.arraycopy(keys, position, copy, position + 1, keys.length - position);
+    return copy;
+  }
+
+  // Null removes the map entry
+  private static long[] without(long[] keys, long key) {
+    int position = Arrays.binarySearch(keys, key);
+    if (position < 0) {
+      return keys;
+    }
+    if (keys.length == 1) {
+      return null;
+    }
+    long[] copy = new long[keys.length - 1];
+    System.arraycopy(keys, 0, copy, 0, position);
+    System.arraycopy(keys, position + 1, copy, position, keys.length - position - 1);
+    return copy;
+  }
+
+  // Sorting by this key sorts by name length, then ID: the tie order
+  private static long rankKey(int nameLength, int id) {
+    return ((long) nameLength << 32) | (id & 0xFFFF_FFFFL);
+  }
+
+  private static int idOf(long rankKey) {
+    return (int) rankKey;
+  }
+
+  private enum Field { CODE, CITY, NAME }
+
+  /**
+   * One kind of match, e.g. a prefix of the first word of the city, with its score. Its
+   * posting lists are keyed by whole word or by prefix.
+   */
+  private static final class Tier {
+    private final Field field;
+    private final boolean firstWord;
+    private final boolean wholeWord;
+    private final int score;
+
+    private Tier(Field field, boolean firstWord, boolean wholeWord) {
+      this.field = field;
+      this.firstWord = firstWord;
+      this.wholeWord = wholeWord;
+      this.score = field == Field.CODE
+          ? (wholeWord ? EXACT_CODE : CODE_PREFIX)
+          : (field == Field.CITY ? CITY_PREFIX : NAME_PREFIX)
+            + (firstWord ? FIRST_WORD_BONUS : 0) + (wholeWord ? WHOLE_WORD_BONUS : 0);
+    }
+
+    static List<Tier> all() {
+      List<Tier> tiers = new ArrayList<>();
+      tiers.add(new Tier(Field.CODE, false, true));
+      tiers.add(new Tier(Field.CODE, false, false));
+      for (Field field : new Field[] {Field.CITY, Field.NAME}) {
+        for (boolean firstWord : new boolean[] {true, false}) {
+          tiers.add(new Tier(field, firstWord, true));
+          tiers.add(new Tier(field, firstWord, false));
+        }
+      }
+      tiers.sort(Comparator.comparingInt((Tier tier) -> -tier.score));
+      return List.copyOf(tiers);
+    }
+
+    /**
+     * The keys under which an airport with these folded words is listed in this tier.
+     */
+    String[] keys(String iata, String icao, String[] cityWords, String[] nameWords) {
+      Set<String> keys = new LinkedHashSet<>();
+      if (field == Field.CODE) {
+        for (String code : new String[] {iata, icao}) {
+          if (code != null) {
+            addKeys(keys, code);
+          }
+        }
+      } else {
+        String[] words = field == Field.CITY ? cityWords : nameWords;
+        for (int i = firstWord ? 0 : 1; i < (firstWord ? Math.min(1, words.length)
+                                                       : words.length); i++) {
+          addKeys(keys, words[i]);
+        }
+      }
+      return keys.toArray(new String[0]);
+    }
+
+    private void addKeys(Set<String> keys, String word) {
+      if (wholeWord) {
+        keys.add(word);
+      } else {
+        for (int length = 1; length <= Math.min(MAX_PREFIX, word.length()); length++) {
+          keys.add(word.substring(0, length));
+        }
+      }
+    }
+  }
+
+  /**
+   * One indexed airport with its folded words and the index keys derived from them.
+   */
+  private static final class Entry {
+    private final int id;
+    private final long rankKey;
+    private final Airport airport;
+    private final String iata;
+    private final String icao;
+    private final String[] cityWords;
+    private final String[] nameWords;
+    private final String[][] tierKeys;
+    private final String[] prefixKeys;
+    private final String[] gramKeys;
+
+    Entry(Airport airport) {
+      this.id = airport.getAirportId();
+      this.rankKey = rankKey(airport.getName() != null ? airport.getName().length() : 0, id);
+      this.airport = airport;
+      this.iata = code(airport.getIataCode());
+      this.icao = code(airport.getIcaoCode());
+      this.cityWords = words(normalize(airport.getCity()));
+      this.nameWords = words(normalize(airport.getName()));
+
+      this.tierKeys = new String[TIERS.size()][];
+      for (int i = 0; i < TIERS.size(); i++) {
+        tierKeys[i] = TIERS.get(i).keys(iata, icao, cityWords, nameWords);
+      }
+
+      Set<String> prefixSet = new LinkedHashSet<>();
+      Set<String> gramSet = new LinkedHashSet<>();
+      for (String word : allWords()) {
+        for (int length = 1; length <= Math.min(MAX_PREFIX, word.length()); length++) {
+          prefixSet.add(word.substring(0, length));
+        }
+        for (int i = 0; i + GRAM <= word.length(); i++) {
+          gramSet.add(word.substring(i, i + GRAM));
+        }
+      }
+      this.prefixKeys = prefixSet.toArray(new String[0]);
+      this.gramKeys = gramSet.toArray(new String[0]);
+    }
+
+    private List<String> allWords() {
+      List<String> words = new ArrayList<>(cityWords.length + nameWords.length + 2);
+      if (iata != null) {
+        words.add(iata);
+      }
+      if (icao != null) {
+        words.add(icao);
+      }
+      words.addAll(Arrays.asList(cityWords));
+      words.addAll(Arrays.asList(nameWords));
+      return words;
+    }
+
+    /**
+     * Score of one folded query word against this airport, or 0 if it does not match; the
+     * score of the best {@link Tier} listing it, or {@link #INFIX}.
+     */
+    int score(String term) {
+      if (term.equals(iata) || term.equals(icao)) {
+        return EXACT_CODE;
+      }
+      int score = Math.max(wordScore(cityWords, term, CITY_PREFIX),
+          wordScore(nameWords, term, NAME_PREFIX));
+      if ((iata != null && iata.startsWith(term)) || (icao != null && icao.startsWith(term))) {
+        score = Math.max(score, CODE_PREFIX);
+      }
+      if (score > 0 || term.length() < GRAM) {
+        return score;
+      }
+      for (String word : allWords()) {
+        if (word.contains(term)) {
+          return INFIX;
+        }
+      }
+      return 0;
+    }
+
+    private static int wordScore(String[] words, String term, int base) {
+      int best = 0;
+      for (int i = 0; i < words.length; i++) {
+        if (words[i].startsWith(term)) {
+          int score = base + (i == 0 ? FIRST_WORD_BONUS : 0)
+                      + (words[i].length() == term.length() ? WHOLE_WORD_BONUS : 0);
+          best = Math.max(best, score);
+        }
+      }
+      return best;
+    }
+
+    private static String code(String code) {
+      String folded = normalize(code).replace(" ", "");
+      return folded.isEmpty() ? null : folded;
+    }
+  }
+
+  /**
+   * A candidate airport with its score for the current query.
+   */
+  private static final class Match {
+    private final Entry entry;
+    private final int score;
+
+    Match(Entry entry, int score) {
+      this.entry = entry;
+      this.score = score;
+    }
+  }
+
+  /**
+   * Growable list of rank keys, for building the posting lists in bulk.
+   */
+  private static final class KeyList {
+    private long[] keys = new long[4];
+    private int size;
+
+    void add(long key) {
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2);
+      }
+      keys[size++] = key;
+    }
+
+    static void publish(Map<String, KeyList> lists, Map<String, long[]> target) {
+      for (Map.Entry<String, KeyList> list : lists.entrySet()) {
+        target.put(list.getKey(), Arrays.copyOf(list.getValue().keys, list.getValue().size));
+      }
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package ru.brynkin.flightbooking.search;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Constraints of a connection search: how long a change of flights may and must take and how
+ * many flights an itinerary may have.
+ */
+@Getter
+@Builder
+public class ConnectionSearchOptions {
+
+  /**
+   * Shortest time between arriving at an airport and departing from it on the next flight.
+   */
+  @Builder.Default
+  private final Duration minConnectionTime = Duration.ofMinutes(45);
+
+  /**
+   * Longest time between arriving at an airport and departing from it on the next flight.
+   */
+  @Builder.Default
+  private final Duration maxLayover = Duration.ofHours(12);
+
+  /**
+   * Maximum number of flights in an itinerary; 1 finds direct flights only.
+   */
+  @Builder.Default
+  private final int maxLegs = 3;
+}
@@ -0,0 +1,330 @@
+package ru.brynkin.flightbooking.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+
+/**
+ * Immutable time-dependent graph of flights for connection search: airports are the nodes and
+ * every flight is an edge usable at its departure time.
+ *
+ * <p>Flights are stored in parallel arrays sorted by departure airport and departure time, so
+ * the departures from one airport within a time window are a contiguous range found by binary
+ * search. Cancelled flights and flights without a route, times or price are left out.</p>
+ *
+ * <p>Times are compared only at the same airport (an arrival with the next departure), so they
+ * may be local airport times as stored in {@code flights}.</p>
+ *
+ * <p>{@link #findConnections} returns the Pareto front on arrival time and total price:
+ * no returned itinerary arrives later and costs more than another one. It runs rounds of
+ * increasing leg count (as in trip-based routing) and keeps, per flight, only the cheapest way
+ * to board it with at most that many legs, so every flight is expanded at most once per
+ * round. Partial itineraries that already arrive later and cost more than a known result are
+ * pruned.</p>
+ */
+
+public final class FlightNetwork {
+
+  private static final Comparator<Flight> BY_DEPARTURE = Comparator
+      .comparing((Flight flight) -> flight.getDepartureAirport().getAirportId())
+      .thenComparing(Flight::getDepartureTime)
+      .thenComparing(Flight::getFlightId);
+
+  // Per-thread search state, reused across searches on networks of any size
+  private static final ThreadLocal<SearchState> searchState =
+      ThreadLocal.withInitial(SearchState::new);
+
+  private final Flight[] flights;
+  private final int[] departureAirports;
+  private final int[] arrivalAirports;
+  private final long[] departureSeconds;
+  private final long[] arrivalSeconds;
+  private final long[] pricesInCents;
+  // Departures of airport a are flights[airportStart[a] .. airportStart[a + 1])
+  private final int[] airportStart;
+  private final Map<Integer, Integer> airportIndexes;
+
+  private FlightNetwork(List<Flight> sorted, Map<Integer, Integer> airportIndexes) {
+    int count = sorted.size();
+    this.flights = sorted.toArray(new Flight[0]);
+    this.departureAirports = new int[count];
+    this.arrivalAirports = new int[count];
+    this.departureSeconds = new long[count];
+    this.arrivalSeconds = new long[count];
+    this.pricesInCents = new long[count];
+    this.airportStart = new int[airportIndexes.size() + 1];
+    this.airportIndexes = airportIndexes;
+
+    for (int i = 0; i < count; i++) {
+      Flight flight = flights[i];
+      departureAirports[i] = airportIndexes.get(flight.getDepartureAirport().getAirportId());
+      arrivalAirports[i] = airportIndexes.get(flight.getArrivalAirport().getAirportId());
+      departureSeconds[i] = seconds(flight.getDepartureTime());
+      arrivalSeconds[i] = seconds(flight.getArrivalTime());
+      pricesInCents[i] = cents(flight.getBasePrice());
+      airportStart[departureAirports[i] + 1]++;
+    }
+    for (int a = 0; a < airportIndexes.size(); a++) {
+      airportStart[a + 1] += airportStart[a];
+    }
+  }
+
+  /**
+   * Builds the network from the given flights, skipping cancelled and incomplete ones.
+   */
+  public static FlightNetwork of(Collection<Flight> flights) {
+    List<Flight> usable = new ArrayList<>(flights.size());
+    for (Flight flight : flights) {
+      if (isUsable(flight)) {
+        usable.add(flight);
+      }
+    }
+    usable.sort(BY_DEPARTURE);
+
+    // Dense airport indexes in order of airport ID, so the sorted flights group by airport
+    Map<Integer, Integer> airportIndexes = new HashMap<>();
+    List<Integer> airportIds = new ArrayList<>();
+    for (Flight flight : usable) {
+      airportIds.add(flight.getDepartureAirport().getAirportId());
+      airportIds.add(flight.getArrivalAirport().getAirportId());
+    }
+    airportIds.stream().distinct().sorted()
+        .forEach(id -> airportIndexes.put(id, airportIndexes.size()));
+
+    return new FlightNetwork(usable, airportIndexes);
+  }
+
+  public int getFlightCount() {
+    return flights.length;
+  }
+
+  public int getAirportCount() {
+    return airportIndexes.size();
+  }
+
+  /**
+   * Finds itineraries from one airport to another that leave the origin within
+   * {@code [departFrom, departTo)}.
+   *
+   * @return the Pareto front on arrival time and total price, ordered by arrival time; among
+   *     itineraries equal on both, the one with the fewest legs
+   */
+  public List<Itinerary> findConnections(int departureAirportId, int arrivalAirportId,
+                                         LocalDateTime departFrom, LocalDateTime departTo,
+                                         ConnectionSearchOptions options) {
+    if (departureAirportId == arrivalAirportId) {
+      throw new IllegalArgumentException("Departure and arrival airports must differ");
+    }
+    if (options.getMaxLegs() < 1) {
+      throw new IllegalArgumentException("Maximum number of legs must be positive");
+    }
+    if (options.getMinConnectionTime().compareTo(options.getMaxLayover()) > 0) {
+      throw new IllegalArgumentException("Minimum connection time exceeds maximum layover");
+    }
+
+    Integer origin = airportIndexes.get(departureAirportId);
+    Integer destination = airportIndexes.get(arrivalAirportId);
+    if (origin == null || destination == null) {
+      return List.of();
+    }
+
+    long minConnection = options.getMinConnectionTime().toSeconds();
+    long maxLayover = options.getMaxLayover().toSeconds();
+    SearchState state = searchState.get().reset(flights.length);
+    List<Label> arrivals = new ArrayList<>();
+
+    // Round 1: direct departures from the origin
+    List<Label> round = new ArrayList<>();
+    int end = lowerBound(origin, seconds(departTo));
+    for (int f = lowerBound(origin, seconds(departFrom)); f < end; f++) {
+      board(state, new Label(f, pricesInCents[f], null, 1), destination, arrivals, round);
+    }
+
+    // Round k + 1: one more connection from every flight improved in round k
+    for (int legs = 1; legs < options.getMaxLegs() && !round.isEmpty(); legs++) {
+      List<Label> next = new ArrayList<>();
+      for (Label label : round) {
+        int f = label.flight;
+        // Superseded by a cheaper label with no more legs; one with more legs may be cheaper
+        // but cannot be extended as far
+        if (label.priceInCents > state.bestPrice(f) && state.bestLegs(f) <= label.legs
+            || isDominated(arrivals, arrivalSeconds[f], label.priceInCents)) {
+          continue;
+        }
+        int airport = arrivalAirports[f];
+        int last = lowerBound(airport, arrivalSeconds[f] + maxLayover + 1);
+        for (int g = lowerBound(airport, arrivalSeconds[f] + minConnection); g < last; g++) {
+          if (!visits(label, arrivalAirports[g])) {
+            board(state, new Label(g, label.priceInCents + pricesInCents[g], label, legs + 1),
+                destination, arrivals, next);
+          }
+        }
+      }
+      round = next;
+    }
+
+    arrivals.sort(Comparator.comparingLong((Label label) -> arrivalSeconds[label.flight])
+        .thenComparingLong(label -> label.priceInCents));
+    List<Itinerary> itineraries = new ArrayList<>(arrivals.size());
+    for (Label label : arrivals) {
+      itineraries.add(toItinerary(label));
+    }
+    return itineraries;
+  }
+
+  /**
+   * Records a label that reaches the destination, or queues it for the next round if it is the
+   * cheapest way so far to board its flight.
+   */
+  private void board(SearchState state, Label label, int destination, List<Label> arrivals,
+                     List<Label> next) {
+    int f = label.flight;
+    if (isDominated(arrivals, arrivalSeconds[f], label.priceInCents)) {
+      return;
+    }
+    if (arrivalAirports[f] == destination) {
+      arrivals.removeIf(other -> arrivalSeconds[f] <= arrivalSeconds[other.flight]
+          && label.priceInCents <= other.priceInCents);
+      arrivals.add(label);
+      return;
+    }
+    if (label.priceInCents < state.bestPrice(f)) {
+      state.setBest(f, label.priceInCents, label.legs);
+      next.add(label);
+    }
+  }
+
+  /**
+   * Whether a known result arrives no later and costs no more; extending a partial itinerary
+   * only makes it later and more expensive, so such a one can be dropped.
+   */
+  private boolean isDominated(List<Label> arrivals, long arrivalSecond, long priceInCents) {
+    for (Label other : arrivals) {
+      if (arrivalSeconds[other.flight] <= arrivalSecond && other.priceInCents <= priceInCents) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean visits(Label label, int airport) {
+    for (Label leg = label; leg != null; leg = leg.previous) {
+      if (departureAirports[leg.flight] == airport) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Index of the first departure from the airport at or after the given second.
+   */
+  private int lowerBound(int airport, long second) {
+    int low = airportStart[airport];
+    int high = airportStart[airport + 1];
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (departureSeconds[mid] < second) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private Itinerary toItinerary(Label label) {
+    Flight[] legs = new Flight[label.legs];
+    for (Label leg = label; leg != null; leg = leg.previous) {
+      legs[leg.legs - 1] = flights[leg.flight];
+    }
+    return new Itinerary(Arrays.asList(legs), BigDecimal.valueOf(label.priceInCents, 2));
+  }
+
+  private static boolean isUsable(Flight flight) {
+    return flight.getStatus() != FlightStatus.CANCELLED
+           && flight.getFlightId() != null
+           && flight.getDepartureAirport() != null
+           && flight.getDepartureAirport().getAirportId() != null
+           && flight.getArrivalAirport() != null
+           && flight.getArrivalAirport().getAirportId() != null
+           && flight.getDepartureTime() != null
+           && flight.getArrivalTime() != null
+           && flight.getBasePrice() != null;
+  }
+
+  private static long seconds(LocalDateTime time) {
+    return time.toEpochSecond(ZoneOffset.UTC);
+  }
+
+  private static long cents(BigDecimal price) {
+    return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  /**
+   * A way to board a flight: the flight, the price so far and the label of the previous leg.
+   */
+  private static final class Label {
+    private final int flight;
+    private final long priceInCents;
+    private final Label previous;
+    private final int legs;
+
+    private Label(int flight, long priceInCents, Label previous, int legs) {
+      this.flight = flight;
+      this.priceInCents = priceInCents;
+      this.previous = previous;
+      this.legs = legs;
+    }
+  }
+
+  /**
+   * Cheapest known price to board each flight in the current search, and the number of legs it
+   * takes. Entries are valid only when their stamp matches the search, so nothing has to be
+   * cleared between searches.
+   */
+  private static final class SearchState {
+    private long[] bestPrices = new long[0];
+    private int[] bestLegs = new int[0];
+    private int[] stamps = new int[0];
+    private int stamp;
+
+    SearchState reset(int flightCount) {
+      if (stamps.length < flightCount) {
+        bestPrices = new long[flightCount];
+        bestLegs = new int[flightCount];
+        stamps = new int[flightCount];
+        stamp = 0;
+      }
+      if (++stamp == 0) {
+        Arrays.fill(stamps, 0);
+        stamp = 1;
+      }
+      return this;
+    }
+
+    long bestPrice(int flight) {
+      return stamps[flight] == stamp ? bestPrices[flight] : Long.MAX_VALUE;
+    }
+
+    int bestLegs(int flight) {
+      return bestLegs[flight];
+    }
+
+    void setBest(int flight, long priceInCents, int legs) {
+      stamps[flight] = stamp;
+      bestPrices[flight] = priceInCents;
+      bestLegs[flight] = legs;
+    }
+  }
+}
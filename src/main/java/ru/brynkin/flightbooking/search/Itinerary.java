@@ -0,0 +1,52 @@
+package ru.brynkin.flightbooking.search;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.ToString;
+import ru.brynkin.flightbooking.entity.Flight;
+
+/**
+ * One way from the origin to the destination: a direct flight or a chain of connecting flights.
+ *
+ * <p>The legs are the {@link FlightNetwork}'s own flight instances and must not be modified.</p>
+ */
+@Getter
+@ToString
+public class Itinerary {
+
+  private final List<Flight> legs;
+  private final BigDecimal totalPrice;
+
+  Itinerary(List<Flight> legs, BigDecimal totalPrice) {
+    this.legs = List.copyOf(legs);
+    this.totalPrice = totalPrice;
+  }
+
+  public int getLegCount() {
+    return legs.size();
+  }
+
+  public LocalDateTime getDepartureTime() {
+    return legs.get(0).getDepartureTime();
+  }
+
+  public LocalDateTime getArrivalTime() {
+    return legs.get(legs.size() - 1).getArrivalTime();
+  }
+
+  /**
+   * Returns the time spent at each connecting airport, one entry per change of flights.
+   */
+  public List<Duration> getLayovers() {
+    List<Duration> layovers = new ArrayList<>(legs.size() - 1);
+    for (int i = 1; i < legs.size(); i++) {
+      layovers.add(Duration.between(legs.get(i - 1).getArrivalTime(),
+          legs.get(i).getDepartureTime()));
+    }
+    return layovers;
+  }
+}
@@ -0,0 +1,27 @@
+package ru.brynkin.flightbooking.services;
+
+import java.time.LocalDate;
+import java.util.List;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.search.ConnectionSearchOptions;
+import ru.brynkin.flightbooking.search.Itinerary;
+
+/**
+ * Service interface for direct and connecting flight search
+ */
+public interface ConnectionSearchService {
+
+  /**
+   * Finds itineraries from one airport to another leaving the origin on the given day.
+   *
+   * @return the Pareto front on arrival time and total price, ordered by arrival time
+   */
+  List<Itinerary> findConnections(Integer departureAirportId, Integer arrivalAirportId,
+                                  LocalDate date, ConnectionSearchOptions options)
+      throws DaoException;
+
+  /**
+   * Rebuilds the flight network from the database.
+   */
+  void refresh() throws DaoException;
+}
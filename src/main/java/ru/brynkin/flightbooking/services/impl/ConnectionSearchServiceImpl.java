@@ -0,0 +1,96 @@
+package ru.brynkin.flightbooking.services.impl;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import ru.brynkin.flightbooking.dao.FlightDao;
+import ru.brynkin.flightbooking.entity.Flight;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.search.ConnectionSearchOptions;
+import ru.brynkin.flightbooking.search.FlightNetwork;
+import ru.brynkin.flightbooking.search.Itinerary;
+import ru.brynkin.flightbooking.services.ConnectionSearchService;
+
+/**
+ * Implementation of {@link ConnectionSearchService} that searches an in-memory
+ * {@link FlightNetwork} instead of querying flights leg by leg.
+ *
+ * <p>The network is a snapshot of the {@code flights} table, streamed through the DAO on the
+ * first search and rebuilt once it is older than the given maximum age, or on
+ * {@link #refresh()}. The search that finds the snapshot stale rebuilds it; concurrent searches
+ * do not wait and use the previous snapshot meanwhile.</p>
+ *
+ * @see FlightNetwork
+ * @see ConnectionSearchService
+ */
+
+public class ConnectionSearchServiceImpl implements ConnectionSearchService {
+
+  private final FlightDao flightDao;
+  private final long maxAgeNanos;
+  private final Object refreshLock = new Object();
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  private volatile Snapshot snapshot;
+
+  public ConnectionSearchServiceImpl(FlightDao flightDao, Duration maxAge) {
+    this.flightDao = flightDao;
+    this.maxAgeNanos = maxAge.toNanos();
+  }
+
+  @Override
+  public List<Itinerary> findConnections(Integer departureAirportId, Integer arrivalAirportId,
+                                         LocalDate date, ConnectionSearchOptions options)
+      throws DaoException {
+    if (departureAirportId == null || arrivalAirportId == null || date == null) {
+      throw new IllegalArgumentException(
+          "Departure airport, arrival airport and date are required");
+    }
+    return network().findConnections(departureAirportId, arrivalAirportId,
+        date.atStartOfDay(), date.plusDays(1).atStartOfDay(), options);
+  }
+
+  @Override
+  public void refresh() throws DaoException {
+    synchronized (refreshLock) {
+      List<Flight> flights = new ArrayList<>();
+      flightDao.forEach(flights::add);
+      snapshot = new Snapshot(FlightNetwork.of(flights), System.nanoTime());
+    }
+  }
+
+  private FlightNetwork network() throws DaoException {
+    Snapshot current = snapshot;
+    if (current == null) {
+      synchronized (refreshLock) {
+        if (snapshot == null) {
+          refresh();
+        }
+        return snapshot.network;
+      }
+    }
+
+    // Stale: the first caller to notice rebuilds, the others keep using the old snapshot
+    if (System.nanoTime() - current.builtAt > maxAgeNanos
+        && rebuilding.compareAndSet(false, true)) {
+      try {
+        refresh();
+      } finally {
+        rebuilding.set(false);
+      }
+      return snapshot.network;
+    }
+    return current.network;
+  }
+
+  private static final class Snapshot {
+    private final FlightNetwork network;
+    private final long builtAt;
+
+    private Snapshot(FlightNetwork network, long builtAt) {
+      this.network = network;
+      this.builtAt = builtAt;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package ru.brynkin.flightbooking.servlet;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import ru.brynkin.flightbooking.dao.impl.CachedAirportDaoImpl;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.exception.DaoException;
+import ru.brynkin.flightbooking.search.AirportSuggestIndex;
+
+/**
+ * Airport autocompletion for the booking UI, called on every keystroke.
+ *
+ * <p>Parameters: {@code q}, the text typed so far, and optionally {@code limit}, 10 by default
+ * and at most 50. Answers a JSON array of airports, best match first, from the in-memory
+ * {@link AirportSuggestIndex} of {@link CachedAirportDaoImpl}; no request reaches the
+ * database once the index is built.</p>
+ */
+
+@WebServlet(urlPatterns = "/airports/suggest")
+public class AirportSuggestServlet extends HttpServlet {
+
+  private static final JsonFactory JSON = new JsonFactory();
+
+  private static final int DEFAULT_LIMIT = 10;
+  private static final int MAX_LIMIT = 50;
+
+  private final CachedAirportDaoImpl airportDao = CachedAirportDaoImpl.getInstance();
+
+  @Override
+  protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+    int limit;
+    try {
+      limit = parseLimit(req.getParameter("limit"));
+    } catch (IllegalArgumentException e) {
+      resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    List<Airport> airports;
+    try {
+      airports = airportDao.suggest(req.getParameter("q"), limit);
+    } catch (DaoException e) {
+      System.err.println("Failed to suggest airports: " + e.getMessage());
+      resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      return;
+    }
+
+    resp.setContentType("application/json");
+    resp.setCharacterEncoding("UTF-8");
+    // Repeated keystrokes within a minute are answered by the browser
+    resp.setHeader("Cache-Control", "public, max-age=60");
+    try (JsonGenerator json = JSON.createGenerator(resp.getOutputStream())) {
+      json.writeStartArray();
+      for (Airport airport : airports) {
+        FlightJson.writeAirport(json, airport);
+      }
+      json.writeEndArray();
+    }
+  }
+
+  private static int parseLimit(String value) {
+    if (value == null || value.isBlank()) {
+      return DEFAULT_LIMIT;
+    }
+    try {
+      int limit = Integer.parseInt(value.trim());
+      if (limit <= 0 || limit > MAX_LIMIT) {
+        throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+      }
+      return limit;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("limit must be a number");
+    }
+  }
+}
@@ -0,0 +1,268 @@
+package ru.brynkin.flightbooking.servlet;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bridges a blocking producer, e.g. a thread reading a JDBC cursor, to the non-blocking output
+ * of an async servlet response.
+ *
+ * <p>The producer writes into fixed-size chunks that are queued for the container; at most
+ * {@code maxChunks} are queued, so a slow client makes the producer wait instead of growing
+ * memory. Chunks are written to the response only while {@link ServletOutputStream#isReady()},
+ * from {@link #onWritePossible()} or, when the writer is idle, from the producer right after it
+ * queues one. {@link #close()} flushes the last chunk and completes the async context once
+ * everything has been written.</p>
+ *
+ * <p>If the client goes away or the request times out, further writes by the producer fail
+ * with an {@link IOException}.</p>
+ */
+
+final class AsyncResponseStream extends OutputStream implements WriteListener, AsyncListener {
+
+  private static final byte[] END = new byte[0];
+  private static final long OFFER_TIMEOUT_MS = 100;
+
+  private final AsyncContext context;
+  private final ServletOutputStream out;
+  private final BlockingQueue<byte[]> chunks;
+  private final int chunkSize;
+  // Whether a thread is writing to the response, or the container owes an onWritePossible()
+  private final AtomicBoolean writing = new AtomicBoolean(true);
+  private final AtomicBoolean completed = new AtomicBoolean();
+
+  // Producer side, touched by the producing thread only
+  private byte[] buffer;
+  private int count;
+  private boolean started;
+  private boolean closed;
+
+  private volatile Throwable failure;
+
+  private AsyncResponseStream(AsyncContext context, ServletOutputStream out, int chunkSize,
+                              int maxChunks) {
+    this.context = context;
+    this.out = out;
+    this.chunks = new ArrayBlockingQueue<>(maxChunks);
+    this.chunkSize = chunkSize;
+    this.buffer = new byte[chunkSize];
+  }
+
+  /**
+   * Switches the response of the given async context to non-blocking output through a new
+   * stream. The container calls {@link #onWritePossible()} once the response is writable.
+   */
+  static AsyncResponseStream start(AsyncContext context, int chunkSize, int maxChunks)
+      throws IOException {
+    ServletOutputStream out = context.getResponse().getOutputStream();
+    AsyncResponseStream stream = new AsyncResponseStream(context, out, chunkSize, maxChunks);
+    context.addListener(stream);
+    out.setWriteListener(stream);
+    return stream;
+  }
+
+  /**
+   * Whether any bytes have been handed to the response, after which its status and headers can
+   * no longer be changed.
+   */
+  boolean isStarted() {
+    return started;
+  }
+
+  /**
+   * Drops the bytes written since the last flush, if none has been handed over yet.
+   */
+  void discard() {
+    if (!started) {
+      count = 0;
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (count == chunkSize) {
+      queue();
+    }
+    buffer[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    while (length > 0) {
+      if (count == chunkSize) {
+        queue();
+      }
+      int copied = Math.min(length, chunkSize - count);
+      System.arraycopy(bytes, offset, buffer, count, copied);
+      count += copied;
+      offset += copied;
+      length -= copied;
+    }
+  }
+
+  /**
+   * Hands the bytes written so far to the response, so the client sees them without waiting
+   * for a full chunk.
+   */
+  @Override
+  public void flush() throws IOException {
+    if (count > 0) {
+      queue();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      flush();
+      closed = true;
+      offer(END);
+    }
+  }
+
+  /**
+   * Ends the response early without writing the rest, e.g. after the producer failed. A
+   * started body is left cut short.
+   */
+  void abort() {
+    closed = true;
+    complete();
+  }
+
+  @Override
+  public void onWritePossible() {
+    drain();
+  }
+
+  @Override
+  public void onError(Throwable t) {
+    fail(t);
+  }
+
+  @Override
+  public void onTimeout(AsyncEvent event) {
+    fail(new IOException("Response timed out"));
+  }
+
+  @Override
+  public void onError(AsyncEvent event) {
+    fail(event.getThrowable() != null ? event.getThrowable() : new IOException("Async error"));
+  }
+
+  @Override
+  public void onComplete(AsyncEvent event) {
+    completed.set(true);
+    if (failure == null) {
+      failure = new IOException("Response already completed");
+    }
+    chunks.clear();
+  }
+
+  @Override
+  public void onStartAsync(AsyncEvent event) {
+  }
+
+  private void queue() throws IOException {
+    byte[] chunk;
+    if (count == chunkSize) {
+      chunk = buffer;
+      buffer = new byte[chunkSize];
+    } else {
+      chunk = Arrays.copyOf(buffer, count);
+    }
+    count = 0;
+    started = true;
+    offer(chunk);
+  }
+
+  private void offer(byte[] chunk) throws IOException {
+    try {
+      while (!chunks.offer(chunk, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        checkOpen();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the client");
+    }
+    checkOpen();
+    if (writing.compareAndSet(false, true)) {
+      drain();
+    }
+  }
+
+  private void checkOpen() throws IOException {
+    Throwable cause = failure;
+    if (cause != null) {
+      throw new IOException("Response is no longer writable", cause);
+    }
+  }
+
+  /**
+   * Writes queued chunks while the response accepts them. Runs on one thread at a time: the one
+   * that set {@link #writing}, or the container after the response was not ready.
+   */
+  private void drain() {
+    boolean dirty = false;
+    try {
+      while (failure == null) {
+        if (!out.isReady()) {
+          // The container calls onWritePossible() when it is; writing stays set until then
+          return;
+        }
+        byte[] chunk = chunks.poll();
+        if (chunk == END) {
+          complete();
+          return;
+        }
+        if (chunk != null) {
+          out.write(chunk);
+          dirty = true;
+          continue;
+        }
+        if (dirty) {
+          // Caught up with the producer: push what the container buffered to the client
+          out.flush();
+          dirty = false;
+          continue;
+        }
+
+        writing.set(false);
+        // A chunk queued after the poll above found the writer still busy; take it over
+        if (chunks.isEmpty() || !writing.compareAndSet(false, true)) {
+          return;
+        }
+      }
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  private void fail(Throwable cause) {
+    if (failure == null) {
+      failure = cause;
+    }
+    chunks.clear();
+    complete();
+  }
+
+  private void complete() {
+    if (completed.compareAndSet(false, true)) {
+      try {
+        context.complete();
+      } catch (IllegalStateException e) {
+        // Already completed or dispatched by the container
+      }
+    }
+  }
+}
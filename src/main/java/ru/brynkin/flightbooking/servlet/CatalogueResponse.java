@@ -0,0 +1,127 @@
+package ru.brynkin.flightbooking.servlet;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.LongSupplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * A catalogue document kept as ready-to-send bytes: the JSON, its gzip encoding and a strong
+ * ETag for each, derived from a hash of the JSON.
+ *
+ * <p>{@link #get()} returns the current document and rebuilds it only when the source version
+ * has moved since the last build, so between writes a request costs a version check. The ETag
+ * depends on the content only: a rebuild that produces the same JSON keeps the same ETag and
+ * clients keep getting 304.</p>
+ */
+
+final class CatalogueResponse {
+
+  private static final JsonFactory JSON = new JsonFactory();
+  private static final HexFormat HEX = HexFormat.of();
+
+  private final LongSupplier version;
+  private final Body body;
+  private final Object lock = new Object();
+  private volatile Document document;
+
+  CatalogueResponse(LongSupplier version, Body body) {
+    this.version = version;
+    this.body = body;
+  }
+
+  /**
+   * Returns the document for the current source version, building it first if needed.
+   */
+  Document get() throws DaoException, IOException {
+    Document current = document;
+    if (current != null && current.version == version.getAsLong()) {
+      return current;
+    }
+    synchronized (lock) {
+      // Read the version before the data, so a write during the build forces another one
+      long buildVersion = version.getAsLong();
+      current = document;
+      if (current == null || current.version != buildVersion) {
+        current = build(buildVersion);
+        document = current;
+      }
+      return current;
+    }
+  }
+
+  private Document build(long buildVersion) throws DaoException, IOException {
+    ByteArrayOutputStream json = new ByteArrayOutputStream(64 * 1024);
+    try (JsonGenerator generator = JSON.createGenerator(json)) {
+      body.write(generator);
+    }
+    byte[] identity = json.toByteArray();
+
+    ByteArrayOutputStream gzip = new ByteArrayOutputStream(identity.length / 4 + 64);
+    try (OutputStream out = new GZIPOutputStream(gzip) {
+      {
+        // Built once per change and sent many times: worth the slowest setting
+        def.setLevel(Deflater.BEST_COMPRESSION);
+      }
+    }) {
+      out.write(identity);
+    }
+
+    String hash = sha256(identity);
+    return new Document(buildVersion, identity, gzip.toByteArray(),
+        '"' + hash + '"', '"' + hash + "-gzip\"");
+  }
+
+  private static String sha256(byte[] bytes) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+      return HEX.formatHex(digest, 0, 16);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Writes the whole document.
+   */
+  @FunctionalInterface
+  interface Body {
+    void write(JsonGenerator json) throws DaoException, IOException;
+  }
+
+  /**
+   * One built version of the document. The byte arrays are shared and must not be modified.
+   */
+  static final class Document {
+    private final long version;
+    private final byte[] identity;
+    private final byte[] gzip;
+    private final String identityEtag;
+    private final String gzipEtag;
+
+    private Document(long version, byte[] identity, byte[] gzip, String identityEtag,
+                     String gzipEtag) {
+      this.version = version;
+      this.identity = identity;
+      this.gzip = gzip;
+      this.identityEtag = identityEtag;
+      this.gzipEtag = gzipEtag;
+    }
+
+    byte[] body(boolean gzipped) {
+      return gzipped ? gzip : identity;
+    }
+
+    String etag(boolean gzipped) {
+      return gzipped ? gzipEtag : identityEtag;
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package ru.brynkin.flightbooking.servlet;
+
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Enumeration;
+import ru.brynkin.flightbooking.dao.impl.CachedAirlineDaoImpl;
+import ru.brynkin.flightbooking.dao.impl.CachedAirportDaoImpl;
+import ru.brynkin.flightbooking.entity.Airline;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Airport and airline catalogues as JSON arrays ordered by ID, served from pre-built bytes.
+ *
+ * <p>Each catalogue is serialised and gzipped once per change of the matching reference cache
+ * ({@link CachedAirportDaoImpl#getVersion()}, {@link CachedAirlineDaoImpl#getVersion()}),
+ * which moves on writes through the cache and on invalidations from the change feed. A
+ * request then costs a version check and a copy of the bytes, or nothing but headers when
+ * {@code If-None-Match} matches the ETag.</p>
+ *
+ * @see CatalogueResponse
+ */
+
+@WebServlet(urlPatterns = {"/catalogue/airports", "/catalogue/airlines"})
+public class CatalogueServlet extends HttpServlet {
+
+  private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+
+  private final CatalogueResponse airports;
+  private final CatalogueResponse airlines;
+
+  public CatalogueServlet() {
+    CachedAirportDaoImpl airportDao = CachedAirportDaoImpl.getInstance();
+    CachedAirlineDaoImpl airlineDao = CachedAirlineDaoImpl.getInstance();
+
+    this.airports = new CatalogueResponse(airportDao::getVersion, json -> {
+      json.writeStartArray();
+      for (Airport airport : airportDao.findAll()) {
+        FlightJson.writeAirport(json, airport);
+      }
+      json.writeEndArray();
+    });
+    this.airlines = new CatalogueResponse(airlineDao::getVersion, json -> {
+      json.writeStartArray();
+      for (Airline airline : airlineDao.findAll()) {
+        FlightJson.writeAirline(json, airline);
+      }
+      json.writeEndArray();
+    });
+  }
+
+  @Override
+  protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+    CatalogueResponse catalogue =
+        "/catalogue/airlines".equals(req.getServletPath()) ? airlines : airports;
+
+    CatalogueResponse.Document document;
+    try {
+      document = catalogue.get();
+    } catch (DaoException e) {
+      System.err.println("Failed to build catalogue " + req.getServletPath() + ": "
+                         + e.getMessage());
+      resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      return;
+    }
+
+    boolean gzipped = acceptsGzip(req);
+    String etag = document.etag(gzipped);
+    resp.setHeader("ETag", etag);
+    resp.setHeader("Vary", "Accept-Encoding");
+    // Cacheable, but revalidated every time so a change shows up on the next request
+    resp.setHeader("Cache-Control", "public, no-cache");
+
+    if (matches(req, document)) {
+      resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+
+    byte[] body = document.body(gzipped);
+    resp.setContentType(CONTENT_TYPE);
+    if (gzipped) {
+      resp.setHeader("Content-Encoding", "gzip");
+    }
+    resp.setContentLength(body.length);
+    resp.getOutputStream().write(body);
+  }
+
+  /**
+   * Whether {@code If-None-Match} lists either ETag of the document, compared weakly as
+   * RFC 9110 requires for this header.
+   */
+  private static boolean matches(HttpServletRequest req, CatalogueResponse.Document document) {
+    Enumeration<String> headers = req.getHeaders("If-None-Match");
+    while (headers.hasMoreElements()) {
+      for (String tag : headers.nextElement().split(",")) {
+        tag = tag.trim();
+        if (tag.startsWith("W/")) {
+          tag = tag.substring(2);
+        }
+        if (tag.equals("*") || tag.equals(document.etag(false))
+            || tag.equals(document.etag(true))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean acceptsGzip(HttpServletRequest req) {
+    Enumeration<String> headers = req.getHeaders("Accept-Encoding");
+    while (headers.hasMoreElements()) {
+      for (String coding : headers.nextElement().split(",")) {
+        String[] parts = coding.split(";");
+        String name = parts[0].trim();
+        if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+          continue;
+        }
+        if (!isZeroQuality(parts)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean isZeroQuality(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2)) == 0;
+        } catch (NumberFormatException e) {
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+}
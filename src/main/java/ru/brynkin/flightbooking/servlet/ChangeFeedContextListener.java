@@ -0,0 +1,37 @@
+package ru.brynkin.flightbooking.servlet;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+import ru.brynkin.flightbooking.changefeed.CacheInvalidator;
+import ru.brynkin.flightbooking.changefeed.ChangeFeed;
+import ru.brynkin.flightbooking.util.PropertiesUtil;
+
+/**
+ * Starts the {@link ChangeFeed} with the {@link CacheInvalidator} subscribed when the web
+ * application starts, and stops it on shutdown. Set {@code changefeed.enabled=false} to run
+ * without it, e.g. on a single node.
+ */
+
+@WebListener
+public class ChangeFeedContextListener implements ServletContextListener {
+
+  private static final String ENABLED_KEY = "changefeed.enabled";
+
+  @Override
+  public void contextInitialized(ServletContextEvent event) {
+    if ("false".equalsIgnoreCase(PropertiesUtil.get(ENABLED_KEY))) {
+      return;
+    }
+    ChangeFeed feed = ChangeFeed.getInstance();
+    CacheInvalidator.subscribe(feed);
+    feed.start();
+  }
+
+  @Override
+  public void contextDestroyed(ServletContextEvent event) {
+    if (!"false".equalsIgnoreCase(PropertiesUtil.get(ENABLED_KEY))) {
+      ChangeFeed.getInstance().close();
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package ru.brynkin.flightbooking.servlet;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import ru.brynkin.flightbooking.dao.FareCalendarDao;
+import ru.brynkin.flightbooking.dao.impl.FareCalendarDaoImpl;
+import ru.brynkin.flightbooking.dto.FareCalendarDay;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Month view of the lowest fare per day of a route.
+ *
+ * <p>Parameters, all required: {@code departureAirportId}, {@code arrivalAirportId} and
+ * {@code month} ({@code yyyy-MM}). Answers a JSON object with the route, the month and a
+ * {@code days} array of the days with flights, each with its date, lowest base price and
+ * number of flights. Days without flights that are not cancelled are left out.</p>
+ *
+ * <p>One query per page, through {@link FareCalendarDao}.</p>
+ */
+
+@WebServlet(urlPatterns = "/fares/calendar")
+public class FareCalendarServlet extends HttpServlet {
+
+  private static final JsonFactory JSON = new JsonFactory();
+
+  private final FareCalendarDao fareCalendarDao = FareCalendarDaoImpl.getInstance();
+
+  @Override
+  protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+    int departureAirportId;
+    int arrivalAirportId;
+    YearMonth month;
+    try {
+      departureAirportId = parseId(req, "departureAirportId");
+      arrivalAirportId = parseId(req, "arrivalAirportId");
+      month = parseMonth(req, "month");
+    } catch (IllegalArgumentException e) {
+      resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    List<FareCalendarDay> days;
+    try {
+      days = fareCalendarDao.findMonth(departureAirportId, arrivalAirportId, month);
+    } catch (DaoException e) {
+      System.err.println("Failed to load fare calendar: " + e.getMessage());
+      resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      return;
+    }
+
+    resp.setContentType("application/json");
+    resp.setCharacterEncoding("UTF-8");
+    // Browsing back and forth between months within a minute is answered by the browser
+    resp.setHeader("Cache-Control", "public, max-age=60");
+    try (JsonGenerator json = JSON.createGenerator(resp.getOutputStream())) {
+      json.writeStartObject();
+      json.writeNumberField("departureAirportId", departureAirportId);
+      json.writeNumberField("arrivalAirportId", arrivalAirportId);
+      json.writeStringField("month", month.toString());
+      json.writeArrayFieldStart("days");
+      for (FareCalendarDay day : days) {
+        json.writeStartObject();
+        json.writeStringField("date", day.getDate().toString());
+        json.writeNumberField("minBasePrice", day.getMinBasePrice());
+        json.writeNumberField("flights", day.getFlights());
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+      json.writeEndObject();
+    }
+  }
+
+  private static int parseId(HttpServletRequest req, String name) {
+    String value = req.getParameter(name);
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException(name + " is required");
+    }
+    try {
+      int id = Integer.parseInt(value.trim());
+      if (id <= 0) {
+        throw new IllegalArgumentException(name + " must be positive");
+      }
+      return id;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(name + " must be a number");
+    }
+  }
+
+  private static YearMonth parseMonth(HttpServletRequest req, String name) {
+    String value = req.getParameter(name);
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException(name + " is required");
+    }
+    try {
+      return YearMonth.parse(value.trim());
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException(name + " must be a month as yyyy-MM");
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package ru.brynkin.flightbooking.servlet;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+import ru.brynkin.flightbooking.dao.impl.FlightArchiver;
+import ru.brynkin.flightbooking.util.PropertiesUtil;
+
+/**
+ * Starts the {@link FlightArchiver} when the web application starts, and stops it on
+ * shutdown. Set {@code flight.archive.enabled=false} to archive from another node or from
+ * {@code FlightArchiveRunner} instead.
+ */
+
+@WebListener
+public class FlightArchiveContextListener implements ServletContextListener {
+
+  private static final String ENABLED_KEY = "flight.archive.enabled";
+
+  @Override
+  public void contextInitialized(ServletContextEvent event) {
+    if (!"false".equalsIgnoreCase(PropertiesUtil.get(ENABLED_KEY))) {
+      FlightArchiver.getInstance().start();
+    }
+  }
+
+  @Override
+  public void contextDestroyed(ServletContextEvent event) {
+    if (!"false".equalsIgnoreCase(PropertiesUtil.get(ENABLED_KEY))) {
+      FlightArchiver.getInstance().close();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package ru.brynkin.flightbooking.servlet;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import ru.brynkin.flightbooking.entity.Airline;
+import ru.brynkin.flightbooking.entity.Airport;
+import ru.brynkin.flightbooking.entity.Flight;
+
+/**
+ * Writes flights and their reference data field by field with a {@link JsonGenerator}, so no
+ * tree or DTO is built per row. Times are ISO-8601 local date-times as stored, prices are
+ * written as exact decimals, and {@code null} fields are left out.
+ */
+
+final class FlightJson {
+
+  private FlightJson() {
+  }
+
+  static void writeFlight(JsonGenerator json, Flight flight) throws IOException {
+    json.writeStartObject();
+    writeNumber(json, "flightId", flight.getFlightId());
+    writeString(json, "flightNumber", flight.getFlightNumber());
+    if (flight.getAirline() != null) {
+      json.writeFieldName("airline");
+      writeAirline(json, flight.getAirline());
+    }
+    if (flight.getDepartureAirport() != null) {
+      json.writeFieldName("departureAirport");
+      writeAirport(json, flight.getDepartureAirport());
+    }
+    if (flight.getArrivalAirport() != null) {
+      json.writeFieldName("arrivalAirport");
+      writeAirport(json, flight.getArrivalAirport());
+    }
+    if (flight.getDepartureTime() != null) {
+      json.writeStringField("departureTime", flight.getDepartureTime().toString());
+    }
+    if (flight.getArrivalTime() != null) {
+      json.writeStringField("arrivalTime", flight.getArrivalTime().toString());
+    }
+    if (flight.getBasePrice() != null) {
+      json.writeNumberField("basePrice", flight.getBasePrice());
+    }
+    if (flight.getStatus() != null) {
+      json.writeStringField("status", flight.getStatus().name());
+    }
+    json.writeEndObject();
+  }
+
+  static void writeAirline(JsonGenerator json, Airline airline) throws IOException {
+    json.writeStartObject();
+    writeNumber(json, "airlineId", airline.getAirlineId());
+    writeString(json, "name", airline.getName());
+    writeString(json, "iataCode", airline.getIataCode());
+    writeString(json, "icaoCode", airline.getIcaoCode());
+    writeString(json, "country", airline.getCountry());
+    if (airline.getActive() != null) {
+      json.writeBooleanField("active", airline.getActive());
+    }
+    json.writeEndObject();
+  }
+
+  static void writeAirport(JsonGenerator json, Airport airport) throws IOException {
+    json.writeStartObject();
+    writeNumber(json, "airportId", airport.getAirportId());
+    writeString(json, "name", airport.getName());
+    writeString(json, "city", airport.getCity());
+    writeString(json, "country", airport.getCountry());
+    writeString(json, "iataCode", airport.getIataCode());
+    writeString(json, "icaoCode", airport.getIcaoCode());
+    writeString(json, "timezone", airport.getTimezone());
+    json.writeEndObject();
+  }
+
+  private static void writeNumber(JsonGenerator json, String name, Integer value)
+      throws IOException {
+    if (value != null) {
+      json.writeNumberField(name, value);
+    }
+  }
+
+  private static void writeString(JsonGenerator json, String name, String value)
+      throws IOException {
+    if (value != null) {
+      json.writeStringField(name, value);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package ru.brynkin.flightbooking.servlet;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+import ru.brynkin.flightbooking.dao.impl.FlightPartitionMaintenance;
+import ru.brynkin.flightbooking.util.PropertiesUtil;
+
+/**
+ * Starts the {@link FlightPartitionMaintenance} when the web application starts, and stops it
+ * on shutdown. Set {@code flight.partitions.enabled=false} to leave partition creation to
+ * another node or to a scheduled job.
+ */
+
+@WebListener
+public class FlightPartitionContextListener implements ServletContextListener {
+
+  private static final String ENABLED_KEY = "flight.partitions.enabled";
+
+  @Override
+  public void contextInitialized(ServletContextEvent event) {
+    if (!"false".equalsIgnoreCase(PropertiesUtil.get(ENABLED_KEY))) {
+      FlightPartitionMaintenance.getInstance().start();
+    }
+  }
+
+  @Override
+  public void contextDestroyed(ServletContextEvent event) {
+    if (!"false".equalsIgnoreCase(PropertiesUtil.get(ENABLED_KEY))) {
+      FlightPartitionMaintenance.getInstance().close();
+    }
+  }
+}
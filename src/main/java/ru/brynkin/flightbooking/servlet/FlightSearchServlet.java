@@ -0,0 +1,176 @@
+package ru.brynkin.flightbooking.servlet;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import ru.brynkin.flightbooking.dao.FlightDao;
+import ru.brynkin.flightbooking.dao.impl.AsyncDaoExecutor;
+import ru.brynkin.flightbooking.dao.impl.TimetableFlightDaoImpl;
+import ru.brynkin.flightbooking.enums.FlightStatus;
+import ru.brynkin.flightbooking.exception.DaoException;
+
+/**
+ * Flight search by criteria, answered as a JSON array written while the rows are read.
+ *
+ * <p>Parameters, all optional: {@code departureAirportId}, {@code arrivalAirportId},
+ * {@code date} ({@code yyyy-MM-dd}) and {@code status} (a {@link FlightStatus} name). Invalid
+ * ones are rejected with 400.</p>
+ *
+ * <p>The search runs on the {@link AsyncDaoExecutor} through
+ * {@link FlightDao#forEachByCriteria} of {@link TimetableFlightDaoImpl}, the application's
+ * flight DAO chain, so searches by route and day are answered from memory. Other searches go to
+ * SQL, and each flight goes straight from the cursor to a {@link JsonGenerator} and out through
+ * an {@link AsyncResponseStream}, so the first flights reach the client before the query has
+ * finished and memory per request stays at a few chunks whatever the size of the result. A
+ * slow client slows the cursor down rather than being buffered for, and keeps its connection
+ * for as long.</p>
+ *
+ * <p>A search that fails before anything was sent is answered with 500. One that fails after
+ * that ends the response with the array left open, so the client cannot take it for a complete
+ * result.</p>
+ */
+
+@WebServlet(urlPatterns = "/flights/search", asyncSupported = true)
+public class FlightSearchServlet extends HttpServlet {
+
+  private static final JsonFactory JSON = new JsonFactory();
+
+  private static final int CHUNK_SIZE = 8 * 1024;
+  private static final int MAX_CHUNKS = 8;
+  private static final long ASYNC_TIMEOUT_MS = 5 * 60 * 1000;
+
+  private final FlightDao flightDao = TimetableFlightDaoImpl.getInstance();
+
+  @Override
+  protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+    Integer departureAirportId;
+    Integer arrivalAirportId;
+    LocalDate date;
+    FlightStatus status;
+    try {
+      departureAirportId = parseId(req, "departureAirportId");
+      arrivalAirportId = parseId(req, "arrivalAirportId");
+      date = parseDate(req, "date");
+      status = parseStatus(req, "status");
+    } catch (IllegalArgumentException e) {
+      resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    resp.setContentType("application/json");
+    resp.setCharacterEncoding("UTF-8");
+    resp.setHeader("Cache-Control", "no-store");
+
+    AsyncContext context = req.startAsync();
+    context.setTimeout(ASYNC_TIMEOUT_MS);
+    AsyncResponseStream stream = AsyncResponseStream.start(context, CHUNK_SIZE, MAX_CHUNKS);
+
+    AsyncDaoExecutor.getInstance().submitRead(() -> {
+      search(departureAirportId, arrivalAirportId, date, status, resp, stream);
+      return null;
+    }).exceptionally(e -> {
+      // Not run at all, e.g. the executor is shut down
+      fail(e, resp, stream);
+      return null;
+    });
+  }
+
+  private void search(Integer departureAirportId, Integer arrivalAirportId, LocalDate date,
+                      FlightStatus status, HttpServletResponse resp,
+                      AsyncResponseStream stream) {
+    try {
+      JsonGenerator json = JSON.createGenerator(stream);
+      json.writeStartArray();
+      boolean[] first = {true};
+      flightDao.forEachByCriteria(departureAirportId, arrivalAirportId, date, status,
+          flight -> {
+            try {
+              FlightJson.writeFlight(json, flight);
+              if (first[0]) {
+                // Let the client see the first flight as soon as it is read
+                json.flush();
+                first[0] = false;
+              }
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+      json.writeEndArray();
+      json.close();
+    } catch (DaoException | IOException | RuntimeException e) {
+      fail(e, resp, stream);
+    }
+  }
+
+  private void fail(Throwable e, HttpServletResponse resp, AsyncResponseStream stream) {
+    if (e instanceof IOException || e instanceof UncheckedIOException) {
+      // The client went away; nothing more to tell it
+      stream.abort();
+      return;
+    }
+    System.err.println("Flight search failed: " + e.getMessage());
+    if (stream.isStarted()) {
+      stream.abort();
+      return;
+    }
+
+    stream.discard();
+    resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+    try (JsonGenerator json = JSON.createGenerator(stream)) {
+      json.writeStartObject();
+      json.writeStringField("error", "Flight search failed");
+      json.writeEndObject();
+    } catch (IOException ignored) {
+      stream.abort();
+    }
+  }
+
+  private static Integer parseId(HttpServletRequest req, String name) {
+    String value = req.getParameter(name);
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    try {
+      int id = Integer.parseInt(value.trim());
+      if (id <= 0) {
+        throw new IllegalArgumentException(name + " must be positive");
+      }
+      return id;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(name + " must be a number");
+    }
+  }
+
+  private static LocalDate parseDate(HttpServletRequest req, String name) {
+    String value = req.getParameter(name);
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    try {
+      return LocalDate.parse(value.trim());
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException(name + " must be a date as yyyy-MM-dd");
+    }
+  }
+
+  private static FlightStatus parseStatus(HttpServletRequest req, String name) {
+    String value = req.getParameter(name);
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    try {
+      return FlightStatus.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(name + " must be one of the flight statuses");
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package ru.brynkin.flightbooking.servlet;
+
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.StringWriter;
+import ru.brynkin.flightbooking.metrics.MetricsTextWriter;
+
+/**
+ * Plain-text scrape endpoint for DAO and connection pool metrics.
+ *
+ * @see MetricsTextWriter
+ */
+
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+
+  @Override
+  protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+    // Rendered in full first so a failure still produces a proper error response
+    StringWriter body = new StringWriter();
+    MetricsTextWriter.write(body);
+
+    resp.setContentType(MetricsTextWriter.CONTENT_TYPE);
+    resp.setHeader("Cache-Control", "no-store");
+    resp.getWriter().write(body.toString());
+  }
+}
@@ -2,19 +2,86 @@ package ru.brynkin.flightbooking.util;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
 import ru.brynkin.flightbooking.config.DatabaseConfig;
 
 /**
  * Connection manager class for out flight booking system project
+ *
+ * <p>{@link #getConnection()} always returns a primary connection and is meant for writes;
+ * {@link #getReadConnection()} returns a replica connection for read-only queries.</p>
+ *
+ * <p>Replicas lag behind the primary. With {@code db.replica.read-your-writes-ms} set, a thread
+ * that took a primary connection keeps reading from the primary for that many milliseconds, so
+ * it sees its own writes. The window is tracked per thread; work handed to another thread
+ * (e.g. the async DAO facade) does not inherit it.</p>
+ *
+ * <p>Code that must not see a lagging replica at all, such as re-reading rows named by a change
+ * notification, runs its reads inside {@link #readFromPrimary}.</p>
  */
 public class ConnectionManager {
+
+  private static final String READ_YOUR_WRITES_MS = "db.replica.read-your-writes-ms";
+
+  private static final long readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(
+      Long.parseLong(PropertiesUtil.get(READ_YOUR_WRITES_MS) != null
+          ? PropertiesUtil.get(READ_YOUR_WRITES_MS) : "0"));
+
+  // nanoTime of the last primary checkout per thread; only set when the window is enabled
+  private static final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+
+  // Depth of readFromPrimary calls on this thread
+  private static final ThreadLocal<int[]> primaryReads = ThreadLocal.withInitial(() -> new int[1]);
+
   private ConnectionManager() {
   }
 
+  /**
+   * Returns a primary connection. Every checkout counts as a write for the read-your-writes
+   * window.
+   */
   public static Connection getConnection() throws SQLException {
+    if (readYourWritesNanos > 0) {
+      lastWrite.set(System.nanoTime());
+    }
     return DatabaseConfig.getDataSource().getConnection();
   }
 
+  /**
+   * Returns a connection for read-only queries: a replica connection, or a primary connection
+   * if no replica is configured, the current thread is inside its read-your-writes window or
+   * inside {@link #readFromPrimary}.
+   */
+  public static Connection getReadConnection() throws SQLException {
+    if (primaryReads.get()[0] > 0) {
+      return DatabaseConfig.getDataSource().getConnection();
+    }
+    if (readYourWritesNanos > 0) {
+      Long writtenAt = lastWrite.get();
+      if (writtenAt != null) {
+        if (System.nanoTime() - writtenAt < readYourWritesNanos) {
+          return DatabaseConfig.getDataSource().getConnection();
+        }
+        lastWrite.remove();
+      }
+    }
+    return DatabaseConfig.getReplicaDataSource().getConnection();
+  }
+
+  /**
+   * Runs the given reads with {@link #getReadConnection()} returning primary connections on the
+   * current thread, so they see everything committed before the call. Calls may be nested.
+   */
+  public static <R, E extends Exception> R readFromPrimary(PrimaryRead<R, E> read) throws E {
+    int[] depth = primaryReads.get();
+    depth[0]++;
+    try {
+      return read.execute();
+    } finally {
+      depth[0]--;
+    }
+  }
+
   public static void testConnection() {
     try (Connection connection = getConnection()) {
       if (connection != null && connection.isValid(1000)) {
@@ -26,4 +93,12 @@ public class ConnectionManager {
     }
 
   }
+
+  /**
+   * Reads run by {@link #readFromPrimary}.
+   */
+  @FunctionalInterface
+  public interface PrimaryRead<R, E extends Exception> {
+    R execute() throws E;
+  }
 }
@@ -0,0 +1,6 @@
+-- try_cast_timestamp was declared IMMUTABLE in V1_4_0, but text to timestamp casts depend on
+-- the DateStyle setting (e.g. '01/02/2025' is January 2 under MDY and February 1 under DMY),
+-- so the same input can give different results. STABLE keeps the planner from folding or
+-- caching its result across settings. try_cast_numeric does not depend on settings and stays
+-- IMMUTABLE.
+ALTER FUNCTION try_cast_timestamp(TEXT) STABLE;
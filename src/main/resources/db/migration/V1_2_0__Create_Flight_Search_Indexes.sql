@@ -0,0 +1,27 @@
+-- Search indexes for flights.
+-- FlightDaoImpl.findByCriteria combines up to four optional filters (departure airport,
+-- arrival airport, departure day as a half-open [day, day + 1) range and status) and always
+-- sorts by departure_time. Every index below ends with departure_time, so the range predicate
+-- and the ORDER BY are both served from the index.
+
+-- departure + arrival (+ day): the dominant "route X to Y on day D" search
+CREATE INDEX IF NOT EXISTS idx_flights_route_departure_time
+    ON flights (departure_airport_id, arrival_airport_id, departure_time);
+
+-- departure (+ day) without arrival airport
+CREATE INDEX IF NOT EXISTS idx_flights_departure_airport_time
+    ON flights (departure_airport_id, departure_time);
+
+-- arrival (+ day) without departure airport
+CREATE INDEX IF NOT EXISTS idx_flights_arrival_airport_time
+    ON flights (arrival_airport_id, departure_time);
+
+-- status (+ day) without any airport
+CREATE INDEX IF NOT EXISTS idx_flights_status_departure_time
+    ON flights (status_id, departure_time);
+
+-- day only, and the unfiltered listing ordered by departure_time
+CREATE INDEX IF NOT EXISTS idx_flights_departure_time
+    ON flights (departure_time);
+
+ANALYZE flights;
@@ -0,0 +1,9 @@
+-- Keyset pagination over flights.
+-- FlightDaoImpl.findPage and forEach walk flights in (departure_time, flight_id) order and
+-- resume with a row comparison (departure_time, flight_id) > (?, ?). This index serves both the
+-- ordering and the comparison, and supersedes the single-column departure_time index.
+
+CREATE INDEX IF NOT EXISTS idx_flights_departure_time_flight_id
+    ON flights (departure_time, flight_id);
+
+DROP INDEX IF EXISTS idx_flights_departure_time;
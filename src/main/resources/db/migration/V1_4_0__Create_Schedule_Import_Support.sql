@@ -0,0 +1,31 @@
+-- Support objects for the COPY-based schedule import (ScheduleImportDaoImpl).
+
+-- Lenient casts used to validate staged CSV text in set-based SQL. A malformed value yields
+-- NULL instead of aborting the whole import statement, so the row can be reported as rejected.
+CREATE OR REPLACE FUNCTION try_cast_timestamp(value TEXT) RETURNS TIMESTAMP
+    LANGUAGE plpgsql
+    IMMUTABLE AS
+$$
+BEGIN
+    RETURN NULLIF(TRIM(value), '')::TIMESTAMP;
+EXCEPTION
+    WHEN OTHERS THEN
+        RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION try_cast_numeric(value TEXT) RETURNS NUMERIC
+    LANGUAGE plpgsql
+    IMMUTABLE AS
+$$
+BEGIN
+    RETURN NULLIF(TRIM(value), '')::NUMERIC;
+EXCEPTION
+    WHEN OTHERS THEN
+        RETURN NULL;
+END;
+$$;
+
+-- Natural key of a scheduled flight, used by the import MERGE to decide between insert and update
+CREATE INDEX IF NOT EXISTS idx_flights_airline_number_departure
+    ON flights (airline_id, flight_number, departure_time);
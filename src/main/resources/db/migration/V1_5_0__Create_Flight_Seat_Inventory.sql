@@ -0,0 +1,46 @@
+-- Seat inventory for bookings (BookingDaoImpl).
+-- Every reservation increments the counter of its flight. The counter lives in its own narrow
+-- table rather than in flights, so those hot updates neither lock the flight row that searches
+-- and status changes use nor rewrite its wide tuple; fillfactor leaves room on each page for
+-- HOT updates. The CHECK constraint is the last line of defence against overselling.
+CREATE TABLE flight_seats
+(
+    flight_id    INTEGER PRIMARY KEY REFERENCES flights (flight_id) ON DELETE CASCADE,
+    capacity     INTEGER NOT NULL DEFAULT 180 CHECK (capacity >= 0),
+    seats_booked INTEGER NOT NULL DEFAULT 0,
+    CHECK (seats_booked >= 0 AND seats_booked <= capacity)
+) WITH (fillfactor = 70);
+
+-- Number of seats a booking holds; existing bookings hold one
+ALTER TABLE bookings
+    ADD COLUMN seats INTEGER NOT NULL DEFAULT 1 CHECK (seats > 0);
+
+-- Bookings of a flight, for BookingDaoImpl.findByFlight
+CREATE INDEX IF NOT EXISTS idx_bookings_flight_id
+    ON bookings (flight_id);
+
+-- Existing flights get the default capacity, raised where confirmed bookings already exceed it
+-- (booking_status_id 1 = CONFIRMED)
+INSERT INTO flight_seats (flight_id, capacity, seats_booked)
+SELECT f.flight_id, GREATEST(180, COALESCE(b.seats, 0)), COALESCE(b.seats, 0)
+FROM flights f
+         LEFT JOIN (SELECT flight_id, SUM(seats) AS seats
+                    FROM bookings
+                    WHERE booking_status_id = 1
+                    GROUP BY flight_id) b ON b.flight_id = f.flight_id;
+
+-- New flights get an inventory row with the default capacity
+CREATE OR REPLACE FUNCTION create_flight_seats() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO flight_seats (flight_id) VALUES (NEW.flight_id);
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER flights_create_seats
+    AFTER INSERT
+    ON flights
+    FOR EACH ROW
+EXECUTE FUNCTION create_flight_seats();
@@ -0,0 +1,75 @@
+-- Change feed for the in-memory caches of every application node (ChangeFeed).
+-- After each statement that changes flights, airports or airlines, one notification is sent on
+-- the flight_booking_changes channel with the table, the operation and the IDs of the changed
+-- rows, e.g. {"table":"flights","op":"UPDATE","ids":[17,42]}. A statement that changes more
+-- than 100 rows (a schedule import, a TRUNCATE) sends "ids": null instead, telling listeners to
+-- reload the table; this keeps payloads far below the 8000 byte limit of NOTIFY. Notifications
+-- are delivered when the transaction commits, and not at all if it rolls back.
+CREATE OR REPLACE FUNCTION notify_table_change() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    ids INTEGER[];
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        PERFORM pg_notify('flight_booking_changes', json_build_object(
+                'table', TG_TABLE_NAME, 'op', TG_OP, 'ids', NULL)::TEXT);
+        RETURN NULL;
+    END IF;
+
+    -- TG_ARGV[0] names the key column; changed_rows is the statement's transition table
+    SELECT array_agg((to_jsonb(r) ->> TG_ARGV[0])::INTEGER)
+    INTO ids
+    FROM (SELECT * FROM changed_rows LIMIT 101) r;
+
+    IF ids IS NOT NULL THEN
+        PERFORM pg_notify('flight_booking_changes', json_build_object(
+                'table', TG_TABLE_NAME,
+                'op', TG_OP,
+                'ids', CASE WHEN cardinality(ids) > 100 THEN NULL ELSE to_json(ids) END)::TEXT);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- flights
+CREATE TRIGGER flights_notify_insert
+    AFTER INSERT ON flights REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('flight_id');
+CREATE TRIGGER flights_notify_update
+    AFTER UPDATE ON flights REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('flight_id');
+CREATE TRIGGER flights_notify_delete
+    AFTER DELETE ON flights REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('flight_id');
+CREATE TRIGGER flights_notify_truncate
+    AFTER TRUNCATE ON flights
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('flight_id');
+
+-- airports
+CREATE TRIGGER airports_notify_insert
+    AFTER INSERT ON airports REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('airport_id');
+CREATE TRIGGER airports_notify_update
+    AFTER UPDATE ON airports REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('airport_id');
+CREATE TRIGGER airports_notify_delete
+    AFTER DELETE ON airports REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('airport_id');
+CREATE TRIGGER airports_notify_truncate
+    AFTER TRUNCATE ON airports
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('airport_id');
+
+-- airlines
+CREATE TRIGGER airlines_notify_insert
+    AFTER INSERT ON airlines REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('airline_id');
+CREATE TRIGGER airlines_notify_update
+    AFTER UPDATE ON airlines REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('airline_id');
+CREATE TRIGGER airlines_notify_delete
+    AFTER DELETE ON airlines REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('airline_id');
+CREATE TRIGGER airlines_notify_truncate
+    AFTER TRUNCATE ON airlines
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('airline_id');
@@ -0,0 +1,301 @@
+-- Range-partition flights by month of departure_time.
+-- Searches only look at the coming weeks, yet every scan, index and vacuum of the single
+-- flights heap covered years of history. With monthly partitions a search for a day touches one
+-- partition (FlightCriteriaQuery's half-open day range lets the planner prune the others), and
+-- past months can later be detached or dropped whole.
+--
+-- PostgreSQL enforces a primary key on a partitioned table only if it includes the partition
+-- key, so flights gets PRIMARY KEY (flight_id, departure_time). Table-wide uniqueness of
+-- flight_id moves to flight_keys: one row per flight with its departure_time, kept in step by a
+-- trigger. The foreign keys that referenced flights now reference flight_keys, and
+-- FlightDaoImpl looks a flight's departure_time up there when it addresses a row by ID, so
+-- those statements can be pruned to one partition as well.
+--
+-- Months are created ahead by ensure_flight_partitions(), which FlightPartitionMaintenance
+-- calls on start-up and daily. A row outside every monthly partition lands in flights_default
+-- instead of failing, and the next maintenance run moves it into a partition of its own.
+
+-- 1. Table-wide flight keys, filled from the current flights
+CREATE TABLE flight_keys
+(
+    flight_id      INTEGER PRIMARY KEY,
+    departure_time TIMESTAMP NOT NULL
+);
+
+INSERT INTO flight_keys (flight_id, departure_time)
+SELECT flight_id, departure_time
+FROM flights;
+
+ALTER TABLE bookings
+    DROP CONSTRAINT bookings_flight_id_fkey,
+    ADD CONSTRAINT bookings_flight_id_fkey
+        FOREIGN KEY (flight_id) REFERENCES flight_keys (flight_id);
+
+ALTER TABLE flight_seats
+    DROP CONSTRAINT flight_seats_flight_id_fkey,
+    ADD CONSTRAINT flight_seats_flight_id_fkey
+        FOREIGN KEY (flight_id) REFERENCES flight_keys (flight_id) ON DELETE CASCADE;
+
+-- 2. Set the old table aside, keeping its ID sequence
+DROP VIEW flight_complete_view;
+ALTER SEQUENCE flights_flight_id_seq OWNED BY NONE;
+ALTER TABLE flights RENAME TO flights_unpartitioned;
+ALTER TABLE flights_unpartitioned RENAME CONSTRAINT flights_pkey TO flights_unpartitioned_pkey;
+
+-- 3. The partitioned table, with the same columns in the same order
+CREATE TABLE flights
+(
+    flight_id            INTEGER        NOT NULL DEFAULT nextval('flights_flight_id_seq'),
+    flight_number        VARCHAR(10)    NOT NULL,
+    airline_id           INTEGER REFERENCES airlines (airline_id),
+    departure_airport_id INTEGER REFERENCES airports (airport_id),
+    arrival_airport_id   INTEGER REFERENCES airports (airport_id),
+    departure_time       TIMESTAMP      NOT NULL,
+    arrival_time         TIMESTAMP      NOT NULL,
+    base_price           DECIMAL(10, 2) NOT NULL,
+    status_id            INTEGER        NOT NULL REFERENCES flight_statuses (status_id),
+    PRIMARY KEY (flight_id, departure_time),
+    CHECK (arrival_time > departure_time)
+) PARTITION BY RANGE (departure_time);
+
+ALTER SEQUENCE flights_flight_id_seq OWNED BY flights.flight_id;
+
+CREATE TABLE flights_default PARTITION OF flights DEFAULT;
+
+-- Creates the partition flights_YYYY_MM for the month of the given day, unless it exists.
+-- Rows of that month already in flights_default would fail the new partition's bounds check,
+-- so they are taken out first and put back afterwards; flights.moving_partitions tells the
+-- row triggers to leave flight_keys and flight_seats alone meanwhile.
+CREATE OR REPLACE FUNCTION create_flight_partition(for_month DATE) RETURNS BOOLEAN
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    first_day      DATE := date_trunc('month', for_month)::DATE;
+    next_first_day DATE := (date_trunc('month', for_month) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := format('flights_%s', to_char(for_month, 'YYYY_MM'));
+    stranded       BOOLEAN;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    SELECT EXISTS (SELECT 1
+                   FROM flights_default
+                   WHERE departure_time >= first_day
+                     AND departure_time < next_first_day)
+    INTO stranded;
+
+    IF stranded THEN
+        PERFORM set_config('flights.moving_partitions', 'on', TRUE);
+        EXECUTE 'CREATE TEMP TABLE flights_moving (LIKE flights) ON COMMIT DROP';
+        EXECUTE 'WITH moved AS (DELETE FROM flights_default
+                                WHERE departure_time >= $1 AND departure_time < $2
+                                RETURNING *)
+                 INSERT INTO flights_moving SELECT * FROM moved'
+            USING first_day, next_first_day;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF flights FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, first_day, next_first_day);
+
+    IF stranded THEN
+        EXECUTE 'INSERT INTO flights SELECT * FROM flights_moving';
+        EXECUTE 'DROP TABLE flights_moving';
+        PERFORM set_config('flights.moving_partitions', 'off', TRUE);
+    END IF;
+    RETURN TRUE;
+END;
+$$;
+
+-- Creates the partitions of the current month and the given number of months after it, and of
+-- every month that has rows in flights_default. Returns the number of partitions created.
+CREATE OR REPLACE FUNCTION ensure_flight_partitions(months_ahead INTEGER) RETURNS INTEGER
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    for_month DATE;
+    created   INTEGER := 0;
+BEGIN
+    -- One run at a time across application nodes; released at commit
+    PERFORM pg_advisory_xact_lock(hashtext('ensure_flight_partitions'));
+
+    FOR for_month IN
+        SELECT m::DATE
+        FROM generate_series(date_trunc('month', LOCALTIMESTAMP),
+                             date_trunc('month', LOCALTIMESTAMP)
+                                 + make_interval(months => months_ahead),
+                             INTERVAL '1 month') m
+        UNION
+        SELECT date_trunc('month', departure_time)::DATE
+        FROM flights_default
+        ORDER BY 1
+        LOOP
+            IF create_flight_partition(for_month) THEN
+                created := created + 1;
+            END IF;
+        END LOOP;
+    RETURN created;
+END;
+$$;
+
+-- 4. Partitions from the first month with flights to a year ahead, then the data. Flights after
+-- that go to flights_default for now and are moved out by the call at the end.
+SELECT create_flight_partition(m::DATE)
+FROM generate_series(
+             date_trunc('month', COALESCE((SELECT MIN(departure_time) FROM flights_unpartitioned),
+                                          LOCALTIMESTAMP)),
+             date_trunc('month', LOCALTIMESTAMP) + INTERVAL '12 months',
+             INTERVAL '1 month') m;
+
+INSERT INTO flights (flight_id, flight_number, airline_id, departure_airport_id,
+                     arrival_airport_id, departure_time, arrival_time, base_price, status_id)
+SELECT flight_id, flight_number, airline_id, departure_airport_id,
+       arrival_airport_id, departure_time, arrival_time, base_price, status_id
+FROM flights_unpartitioned;
+
+DROP TABLE flights_unpartitioned;
+
+-- 5. The indexes of V1_2_0, V1_3_0 and V1_4_0, now created on every partition
+CREATE INDEX idx_flights_route_departure_time
+    ON flights (departure_airport_id, arrival_airport_id, departure_time);
+CREATE INDEX idx_flights_departure_airport_time
+    ON flights (departure_airport_id, departure_time);
+CREATE INDEX idx_flights_arrival_airport_time
+    ON flights (arrival_airport_id, departure_time);
+CREATE INDEX idx_flights_status_departure_time
+    ON flights (status_id, departure_time);
+CREATE INDEX idx_flights_departure_time_flight_id
+    ON flights (departure_time, flight_id);
+CREATE INDEX idx_flights_airline_number_departure
+    ON flights (airline_id, flight_number, departure_time);
+
+-- 6. Row triggers, fired in name order: the key must exist before the seat row referencing it.
+-- An UPDATE that moves a row to another partition fires them as a DELETE followed by an
+-- INSERT of the same flight, with the key still there from before.
+CREATE OR REPLACE FUNCTION sync_flight_key() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF current_setting('flights.moving_partitions', TRUE) = 'on' THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'INSERT' THEN
+        -- A key whose row is gone belongs to a moved row; one whose row exists is a duplicate
+        INSERT INTO flight_keys AS k (flight_id, departure_time)
+        VALUES (NEW.flight_id, NEW.departure_time)
+        ON CONFLICT (flight_id) DO UPDATE
+            SET departure_time = EXCLUDED.departure_time
+            WHERE NOT EXISTS (SELECT 1
+                              FROM flights f
+                              WHERE f.flight_id = k.flight_id
+                                AND f.departure_time = k.departure_time);
+        IF NOT FOUND THEN
+            RAISE unique_violation USING MESSAGE = format('Flight ID %s already exists',
+                                                          NEW.flight_id);
+        END IF;
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF NEW.flight_id <> OLD.flight_id THEN
+            RAISE EXCEPTION 'Flight ID % cannot be changed', OLD.flight_id;
+        END IF;
+        IF NEW.departure_time <> OLD.departure_time THEN
+            UPDATE flight_keys
+            SET departure_time = NEW.departure_time
+            WHERE flight_id = NEW.flight_id;
+        END IF;
+    ELSE
+        -- Kept if the row only moved to another partition
+        DELETE
+        FROM flight_keys k
+        WHERE k.flight_id = OLD.flight_id
+          AND NOT EXISTS (SELECT 1 FROM flights f WHERE f.flight_id = OLD.flight_id);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER flights_1_sync_key
+    AFTER INSERT OR UPDATE OF flight_id, departure_time OR DELETE
+    ON flights
+    FOR EACH ROW
+EXECUTE FUNCTION sync_flight_key();
+
+-- A moved row is inserted again, so its inventory may already exist
+CREATE OR REPLACE FUNCTION create_flight_seats() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO flight_seats (flight_id) VALUES (NEW.flight_id) ON CONFLICT DO NOTHING;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER flights_2_create_seats
+    AFTER INSERT
+    ON flights
+    FOR EACH ROW
+EXECUTE FUNCTION create_flight_seats();
+
+-- 7. The change notifications of V1_6_0
+CREATE TRIGGER flights_notify_insert
+    AFTER INSERT ON flights REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('flight_id');
+CREATE TRIGGER flights_notify_update
+    AFTER UPDATE ON flights REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('flight_id');
+CREATE TRIGGER flights_notify_delete
+    AFTER DELETE ON flights REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('flight_id');
+CREATE TRIGGER flights_notify_truncate
+    AFTER TRUNCATE ON flights
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change('flight_id');
+
+-- 8. The view of V1_1_0, unchanged; its departure_time is the partition key, so predicates on
+-- it prune partitions just like predicates on flights
+CREATE OR REPLACE VIEW flight_complete_view AS
+SELECT f.flight_id,
+       f.flight_number,
+       f.departure_time,
+       f.arrival_time,
+       f.base_price,
+       f.status_id,
+
+       -- Airline details
+       a.airline_id,
+       a.name         AS airline_name,
+       a.iata_code    AS airline_iata,
+       a.icao_code    AS airline_icao,
+       a.country      AS airline_country,
+       a.is_active    AS airline_active,
+
+       -- Departure airport
+       dep.airport_id AS departure_airport_id,
+       dep.name       AS departure_airport_name,
+       dep.city       AS departure_city,
+       dep.country    AS departure_country,
+       dep.iata_code  AS departure_iata,
+       dep.icao_code  AS departure_icao,
+       dep.timezone   AS departure_timezone,
+
+       -- Arrival airport
+       arr.airport_id AS arrival_airport_id,
+       arr.name       AS arrival_airport_name,
+       arr.city       AS arrival_city,
+       arr.country    AS arrival_country,
+       arr.iata_code  AS arrival_iata,
+       arr.icao_code  AS arrival_icao,
+       arr.timezone   AS arrival_timezone,
+
+       -- Flight status
+       fs.status_name
+
+FROM flights f
+         JOIN airlines a ON f.airline_id = a.airline_id
+         JOIN airports dep ON f.departure_airport_id = dep.airport_id
+         JOIN airports arr ON f.arrival_airport_id = arr.airport_id
+         JOIN flight_statuses fs ON f.status_id = fs.status_id;
+-- 9. Partitions for flights beyond the first year, and fresh statistics
+SELECT ensure_flight_partitions(12);
+
+ANALYZE flights;
+ANALYZE flight_keys;
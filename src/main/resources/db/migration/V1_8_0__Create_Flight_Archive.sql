@@ -0,0 +1,96 @@
+-- History tables for archived flights and their bookings (FlightArchiver).
+-- Flights that arrived or were cancelled long enough ago are moved here in small batches, so
+-- flights, bookings, their indexes and the view join only carry what is still live. Archived
+-- rows keep their IDs and stay readable through FlightArchiveDaoImpl.
+--
+-- The history is written once and read rarely: no seat inventory, no change notifications,
+-- and only the indexes its read API needs. The seat counts of a flight at the time it was
+-- archived are kept with the flight.
+CREATE TABLE flights_history
+(
+    flight_id            INTEGER PRIMARY KEY,
+    flight_number        VARCHAR(10)    NOT NULL,
+    airline_id           INTEGER REFERENCES airlines (airline_id),
+    departure_airport_id INTEGER REFERENCES airports (airport_id),
+    arrival_airport_id   INTEGER REFERENCES airports (airport_id),
+    departure_time       TIMESTAMP      NOT NULL,
+    arrival_time         TIMESTAMP      NOT NULL,
+    base_price           DECIMAL(10, 2) NOT NULL,
+    status_id            INTEGER        NOT NULL REFERENCES flight_statuses (status_id),
+    capacity             INTEGER,
+    seats_booked         INTEGER,
+    archived_at          TIMESTAMP      NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_flights_history_route_departure_time
+    ON flights_history (departure_airport_id, arrival_airport_id, departure_time);
+CREATE INDEX idx_flights_history_departure_time
+    ON flights_history (departure_time);
+
+CREATE TABLE bookings_history
+(
+    booking_id        INTEGER PRIMARY KEY,
+    user_id           INTEGER REFERENCES users (user_id),
+    flight_id         INTEGER REFERENCES flights_history (flight_id),
+    booking_status_id INTEGER            NOT NULL REFERENCES booking_statuses (status_id),
+    payment_status_id INTEGER            NOT NULL REFERENCES payment_statuses (status_id),
+    booking_reference VARCHAR(10) UNIQUE NOT NULL,
+    total_price       DECIMAL(10, 2)     NOT NULL,
+    created_at        TIMESTAMP,
+    seats             INTEGER            NOT NULL,
+    archived_at       TIMESTAMP          NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_bookings_history_flight_id
+    ON bookings_history (flight_id);
+CREATE INDEX idx_bookings_history_user_id
+    ON bookings_history (user_id);
+
+-- Same columns as flight_complete_view, so archived flights map like live ones
+CREATE OR REPLACE VIEW flight_history_view AS
+SELECT f.flight_id,
+       f.flight_number,
+       f.departure_time,
+       f.arrival_time,
+       f.base_price,
+       f.status_id,
+
+       -- Airline details
+       a.airline_id,
+       a.name         AS airline_name,
+       a.iata_code    AS airline_iata,
+       a.icao_code    AS airline_icao,
+       a.country      AS airline_country,
+       a.is_active    AS airline_active,
+
+       -- Departure airport
+       dep.airport_id AS departure_airport_id,
+       dep.name       AS departure_airport_name,
+       dep.city       AS departure_city,
+       dep.country    AS departure_country,
+       dep.iata_code  AS departure_iata,
+       dep.icao_code  AS departure_icao,
+       dep.timezone   AS departure_timezone,
+
+       -- Arrival airport
+       arr.airport_id AS arrival_airport_id,
+       arr.name       AS arrival_airport_name,
+       arr.city       AS arrival_city,
+       arr.country    AS arrival_country,
+       arr.iata_code  AS arrival_iata,
+       arr.icao_code  AS arrival_icao,
+       arr.timezone   AS arrival_timezone,
+
+       -- Flight status
+       fs.status_name,
+
+       -- Archive details
+       f.capacity,
+       f.seats_booked,
+       f.archived_at
+
+FROM flights_history f
+         JOIN airlines a ON f.airline_id = a.airline_id
+         JOIN airports dep ON f.departure_airport_id = dep.airport_id
+         JOIN airports arr ON f.arrival_airport_id = arr.airport_id
+         JOIN flight_statuses fs ON f.status_id = fs.status_id;
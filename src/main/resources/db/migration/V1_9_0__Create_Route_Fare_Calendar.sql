@@ -0,0 +1,138 @@
+-- Lowest fare per route and day of departure, for the month view of FareCalendarDaoImpl.
+-- A month of a route is one range scan of the primary key here instead of a search per day.
+--
+-- Rows are kept in step by statement triggers on flights: the route-days touched by a
+-- statement (before and after the change, so a flight moved to another day or route updates
+-- both) are recomputed from flights. A route-day without flights that are not cancelled has no
+-- row. Recomputing instead of adjusting keeps deletes, cancellations and price rises exact, and
+-- costs one index range scan per touched route-day; a schedule import pays it once per
+-- statement, not per row.
+--
+-- Concurrent writers to the same route are serialised by a transaction-level advisory lock on
+-- the route, taken before recomputing. In READ COMMITTED the recomputing statement then sees
+-- the flights committed by the writer it waited for, so neither overwrites the other's result.
+CREATE TABLE route_fare_calendar
+(
+    departure_airport_id INTEGER        NOT NULL REFERENCES airports (airport_id),
+    arrival_airport_id   INTEGER        NOT NULL REFERENCES airports (airport_id),
+    departure_date       DATE           NOT NULL,
+    min_base_price       DECIMAL(10, 2) NOT NULL,
+    flights              INTEGER        NOT NULL,
+    PRIMARY KEY (departure_airport_id, arrival_airport_id, departure_date)
+);
+
+-- Recomputes the given route-days from flights; changed_days is a JSON array of distinct
+-- [departure_airport_id, arrival_airport_id, departure_date] arrays. Days of flights without
+-- a route never match a calendar row or a flight and are ignored.
+CREATE OR REPLACE FUNCTION refresh_route_fare_calendar(changed_days JSONB) RETURNS VOID
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    cancelled INTEGER;
+BEGIN
+    SELECT status_id INTO cancelled FROM flight_statuses WHERE status_name = 'CANCELLED';
+
+    -- Routes locked in a fixed order, so two writers cannot deadlock on them
+    PERFORM pg_advisory_xact_lock(hashtext('route_fare_calendar'),
+                                  hashtext(d.departure_airport_id || '-' || d.arrival_airport_id))
+    FROM (SELECT DISTINCT (e ->> 0)::INTEGER AS departure_airport_id,
+                          (e ->> 1)::INTEGER AS arrival_airport_id
+          FROM jsonb_array_elements(changed_days) e
+          ORDER BY 1, 2) d;
+
+    DELETE
+    FROM route_fare_calendar c
+        USING jsonb_array_elements(changed_days) e
+    WHERE c.departure_airport_id = (e ->> 0)::INTEGER
+      AND c.arrival_airport_id = (e ->> 1)::INTEGER
+      AND c.departure_date = (e ->> 2)::DATE;
+
+    -- Half-open day range, so the search index is used and partitions are pruned
+    INSERT INTO route_fare_calendar (departure_airport_id, arrival_airport_id, departure_date,
+                                     min_base_price, flights)
+    SELECT d.departure_airport_id, d.arrival_airport_id, d.departure_date,
+           min(f.base_price), count(*)
+    FROM (SELECT DISTINCT (e ->> 0)::INTEGER AS departure_airport_id,
+                          (e ->> 1)::INTEGER AS arrival_airport_id,
+                          (e ->> 2)::DATE    AS departure_date
+          FROM jsonb_array_elements(changed_days) e) d
+             JOIN flights f
+                  ON f.departure_airport_id = d.departure_airport_id
+                      AND f.arrival_airport_id = d.arrival_airport_id
+                      AND f.departure_time >= d.departure_date
+                      AND f.departure_time < d.departure_date + 1
+    WHERE f.status_id <> cancelled
+    GROUP BY d.departure_airport_id, d.arrival_airport_id, d.departure_date;
+END;
+$$;
+
+-- Collects the route-days of the statement's transition tables; an UPDATE passes both
+CREATE OR REPLACE FUNCTION sync_route_fare_calendar() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    changed_days JSONB;
+BEGIN
+    IF current_setting('flights.moving_partitions', TRUE) = 'on' THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'INSERT' THEN
+        SELECT jsonb_agg(DISTINCT jsonb_build_array(departure_airport_id, arrival_airport_id,
+                                                    departure_time::DATE))
+        INTO changed_days
+        FROM new_rows;
+    ELSIF TG_OP = 'DELETE' THEN
+        SELECT jsonb_agg(DISTINCT jsonb_build_array(departure_airport_id, arrival_airport_id,
+                                                    departure_time::DATE))
+        INTO changed_days
+        FROM old_rows;
+    ELSE
+        SELECT jsonb_agg(DISTINCT jsonb_build_array(departure_airport_id, arrival_airport_id,
+                                                    departure_time::DATE))
+        INTO changed_days
+        FROM (SELECT departure_airport_id, arrival_airport_id, departure_time FROM old_rows
+              UNION
+              SELECT departure_airport_id, arrival_airport_id, departure_time FROM new_rows) r;
+    END IF;
+
+    IF changed_days IS NOT NULL THEN
+        PERFORM refresh_route_fare_calendar(changed_days);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER flights_fare_calendar_insert
+    AFTER INSERT ON flights REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION sync_route_fare_calendar();
+CREATE TRIGGER flights_fare_calendar_update
+    AFTER UPDATE ON flights REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION sync_route_fare_calendar();
+CREATE TRIGGER flights_fare_calendar_delete
+    AFTER DELETE ON flights REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION sync_route_fare_calendar();
+
+CREATE OR REPLACE FUNCTION clear_route_fare_calendar() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    TRUNCATE route_fare_calendar;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER flights_fare_calendar_truncate
+    AFTER TRUNCATE ON flights
+    FOR EACH STATEMENT EXECUTE FUNCTION clear_route_fare_calendar();
+
+-- Filled from the current flights
+INSERT INTO route_fare_calendar (departure_airport_id, arrival_airport_id, departure_date,
+                                 min_base_price, flights)
+SELECT f.departure_airport_id, f.arrival_airport_id, f.departure_time::DATE,
+       min(f.base_price), count(*)
+FROM flights f
+WHERE f.status_id <> (SELECT status_id FROM flight_statuses WHERE status_name = 'CANCELLED')
+  AND f.departure_airport_id IS NOT NULL
+  AND f.arrival_airport_id IS NOT NULL
+GROUP BY f.departure_airport_id, f.arrival_airport_id, f.departure_time::DATE;